@@ -0,0 +1,92 @@
+package com.faforever.client.chat;
+
+import com.faforever.client.theme.UiService;
+import com.google.common.base.Joiner;
+import com.google.common.io.CharStreams;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Arrays;
+
+import static com.google.common.html.HtmlEscapers.htmlEscaper;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the HTML templating of {@link AbstractChatTabController}, which renders a chat section for every new author
+ * and a chat text for every message. Since the controller needs a web view, this benchmark performs the same steps
+ * without it.
+ * <p>
+ * The {@code *WithStringReplace} benchmarks read the template file for every message and fill it with {@link
+ * String#replace(CharSequence, CharSequence)}, the way chat messages have been rendered before {@link ChatTemplates}
+ * was introduced. Run with {@code -prof gc} to compare allocations per message.
+ */
+@State(Scope.Thread)
+public class ChatTemplatingBenchmark {
+
+  private static final String MESSAGE = "Hello <b>everyone</b>, does anyone know how to play \\o/ https://www.faforever.com";
+
+  private int sectionId;
+  private ChatTemplates chatTemplates;
+  private StringBuilder htmlBuilder;
+
+  private static String readTemplate(String path) throws IOException {
+    try (Reader reader = new InputStreamReader(new ClassPathResource(path).getInputStream())) {
+      return CharStreams.toString(reader);
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    UiService uiService = mock(UiService.class);
+    when(uiService.getThemeFileUrl(anyString()))
+        .thenAnswer(invocation -> new ClassPathResource((String) invocation.getArguments()[0]).getURL());
+
+    chatTemplates = new ChatTemplates();
+    chatTemplates.uiService = uiService;
+    htmlBuilder = new StringBuilder();
+  }
+
+  @Benchmark
+  public String renderChatSectionWithStringReplace() throws IOException {
+    String html = readTemplate(UiService.CHAT_ENTRY);
+    html = html.replace("{time}", "13:37")
+        .replace("{avatar}", "http://content.faforever.com/faf/avatars/foo.png")
+        .replace("{username}", "Downlord")
+        .replace("{clan-tag}", "[FAF]")
+        .replace("{section-id}", String.valueOf(++sectionId));
+
+    html = html.replace("{css-classes}", Joiner.on(' ').join(Arrays.asList("user-Downlord", "friend")));
+    return html.replace("{inline-style}", "color: #ff0000;");
+  }
+
+  @Benchmark
+  public String renderChatTextWithStringReplace() throws IOException {
+    String text = htmlEscaper().escape(MESSAGE).replace("\\", "\\\\");
+    String html = readTemplate(UiService.CHAT_TEXT).replace("{text}", text);
+    return html.replace("{css-classes}", "message");
+  }
+
+  @Benchmark
+  public String renderChatSectionWithCompiledTemplate() {
+    htmlBuilder.setLength(0);
+    chatTemplates.renderChatSection(htmlBuilder, ++sectionId, "13:37", "http://content.faforever.com/faf/avatars/foo.png",
+        "[FAF]", "Downlord", "user-Downlord friend", "color: #ff0000;");
+    return htmlBuilder.toString();
+  }
+
+  @Benchmark
+  public String renderChatTextWithCompiledTemplate() {
+    String text = htmlEscaper().escape(MESSAGE).replace("\\", "\\\\");
+    htmlBuilder.setLength(0);
+    chatTemplates.renderChatText(htmlBuilder, "message", text);
+    return htmlBuilder.toString();
+  }
+}
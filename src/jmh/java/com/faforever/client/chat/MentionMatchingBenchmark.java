@@ -0,0 +1,87 @@
+package com.faforever.client.chat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.regex.Pattern.CASE_INSENSITIVE;
+
+/**
+ * Compares finding mentions of 50 highlighted words in a chat message with a {@link KeywordMatcher} to finding them
+ * with regular expressions, either one per word (the way the user's own name used to be found) or a single
+ * alternation of all words.
+ */
+@State(Scope.Thread)
+public class MentionMatchingBenchmark {
+
+  private static final int KEYWORD_COUNT = 50;
+  private static final String MESSAGE = "gg wp, anyone up for a 2v2 on Seton's? Player17 and me vs. whoever wants, "
+      + "check out the tournament at https://www.faforever.com first though [clan7] rules";
+
+  private List<Matcher> keywordMatchers;
+  private Matcher alternationMatcher;
+  private KeywordMatcher keywordMatcher;
+  private KeywordMatcher.Match match;
+
+  @Setup
+  public void setUp() {
+    List<String> keywords = new ArrayList<>();
+    for (int i = 0; i < KEYWORD_COUNT / 2; i++) {
+      keywords.add("Player" + i);
+      keywords.add("[clan" + i + "]");
+    }
+
+    keywordMatchers = new ArrayList<>();
+    StringBuilder alternation = new StringBuilder();
+    for (String keyword : keywords) {
+      keywordMatchers.add(Pattern.compile("\\b" + Pattern.quote(keyword) + "\\b", CASE_INSENSITIVE).matcher(""));
+      if (alternation.length() > 0) {
+        alternation.append('|');
+      }
+      alternation.append(Pattern.quote(keyword));
+    }
+    alternationMatcher = Pattern.compile("\\b(?:" + alternation + ")\\b", CASE_INSENSITIVE).matcher("");
+
+    keywordMatcher = KeywordMatcher.compile(keywords);
+    match = new KeywordMatcher.Match();
+  }
+
+  @Benchmark
+  public int findWithPatternPerKeyword() {
+    int count = 0;
+    for (Matcher matcher : keywordMatchers) {
+      matcher.reset(MESSAGE);
+      while (matcher.find()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int findWithAlternationPattern() {
+    int count = 0;
+    alternationMatcher.reset(MESSAGE);
+    while (alternationMatcher.find()) {
+      count++;
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int findWithKeywordMatcher() {
+    int count = 0;
+    int position = 0;
+    while (keywordMatcher.find(MESSAGE, position, MESSAGE.length(), match)) {
+      count++;
+      position = match.getEnd();
+    }
+    return count;
+  }
+}
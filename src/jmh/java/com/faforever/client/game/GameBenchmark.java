@@ -0,0 +1,50 @@
+package com.faforever.client.game;
+
+import com.faforever.client.remote.domain.GameInfoMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+public class GameBenchmark {
+
+  private Game game;
+  private GameInfoMessage gameInfoMessage;
+  private GameInfoMessage modifiedGameInfoMessage;
+  private boolean modified;
+
+  @Setup
+  public void setUp() {
+    gameInfoMessage = createGameInfoMessage("Game 1");
+    modifiedGameInfoMessage = createGameInfoMessage("Game 1 modified");
+    modifiedGameInfoMessage.getTeams().get("2").add("Player 8");
+    modifiedGameInfoMessage.setNumPlayers(8);
+
+    game = new Game(gameInfoMessage);
+  }
+
+  private static GameInfoMessage createGameInfoMessage(String title) {
+    GameInfoMessageBuilder builder = GameInfoMessageBuilder.create(1).defaultValues().title(title);
+    for (int i = 1; i < 8; i++) {
+      builder.addTeamMember(String.valueOf(i % 2 + 1), "Player " + i);
+    }
+    return builder.get();
+  }
+
+  /**
+   * The server resends game infos whenever anything changes, often without changes that are relevant to the client.
+   */
+  @Benchmark
+  public Game updateUnchanged() {
+    game.updateFromGameInfo(gameInfoMessage);
+    return game;
+  }
+
+  @Benchmark
+  public Game updateChanged() {
+    modified = !modified;
+    game.updateFromGameInfo(modified ? modifiedGameInfoMessage : gameInfoMessage);
+    return game;
+  }
+}
@@ -0,0 +1,98 @@
+package com.faforever.client.player;
+
+import com.faforever.client.chat.NicknameIndex;
+import com.faforever.client.game.GameService;
+import com.faforever.client.remote.FafService;
+import com.faforever.client.remote.domain.PlayersMessage;
+import com.faforever.client.user.UserService;
+import com.faforever.client.user.event.LoginSuccessEvent;
+import com.google.common.eventbus.EventBus;
+import com.sun.javafx.application.PlatformImpl;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import org.mockito.ArgumentCaptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures how long it takes to apply the player infos sent by the server, like after login. Since player infos are
+ * applied in the FX application thread, the JavaFX toolkit is started and each invocation waits until they have been
+ * applied.
+ */
+@State(Scope.Thread)
+public class PlayerServiceImplBenchmark {
+
+  @Param({"1", "2000"})
+  int numberOfPlayers;
+
+  private Consumer<PlayersMessage> playersMessageListener;
+  private PlayersMessage playersMessage;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setUp() throws InterruptedException {
+    CountDownLatch toolkitStarted = new CountDownLatch(1);
+    try {
+      PlatformImpl.startup(toolkitStarted::countDown);
+    } catch (IllegalStateException e) {
+      // Toolkit has already been started by a previous trial
+      toolkitStarted.countDown();
+    }
+    toolkitStarted.await();
+
+    PlayerServiceImpl instance = new PlayerServiceImpl();
+    instance.fafService = mock(FafService.class);
+    instance.userService = mock(UserService.class);
+    instance.gameService = mock(GameService.class);
+    instance.eventBus = mock(EventBus.class);
+    instance.nicknameIndex = new NicknameIndex();
+
+    when(instance.userService.getUsername()).thenReturn("junit");
+    when(instance.gameService.getGames()).thenReturn(FXCollections.observableArrayList());
+
+    instance.postConstruct();
+    instance.onLoginSuccess(new LoginSuccessEvent("junit", "", 0));
+
+    ArgumentCaptor<Consumer> captor = ArgumentCaptor.forClass(Consumer.class);
+    verify(instance.fafService).addOnMessageListener(eq(PlayersMessage.class), captor.capture());
+    playersMessageListener = captor.getValue();
+
+    List<com.faforever.client.remote.domain.Player> players = new ArrayList<>();
+    for (int i = 1; i <= numberOfPlayers; i++) {
+      com.faforever.client.remote.domain.Player player = new com.faforever.client.remote.domain.Player();
+      player.setId(i);
+      player.setLogin("Player " + i);
+      player.setClan("FAF");
+      player.setCountry("CH");
+      player.setNumberOfGames(i);
+      player.setGlobalRating(new float[]{1500, 100});
+      player.setLadderRating(new float[]{1200, 150});
+      players.add(player);
+    }
+    playersMessage = new PlayersMessage();
+    playersMessage.setPlayers(players);
+  }
+
+  @Benchmark
+  public PlayersMessage onPlayerInfo() throws InterruptedException {
+    playersMessageListener.accept(playersMessage);
+
+    CountDownLatch applied = new CountDownLatch(1);
+    Platform.runLater(applied::countDown);
+    applied.await();
+    return playersMessage;
+  }
+}
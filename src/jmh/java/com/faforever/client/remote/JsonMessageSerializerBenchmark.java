@@ -0,0 +1,48 @@
+package com.faforever.client.remote;
+
+import com.faforever.client.fa.relay.GpgClientCommand;
+import com.faforever.client.fa.relay.GpgClientMessageSerializer;
+import com.faforever.client.fa.relay.GpgGameMessage;
+import com.faforever.client.remote.domain.GameAccess;
+import com.faforever.client.remote.domain.HostGameMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+@State(Scope.Thread)
+public class JsonMessageSerializerBenchmark {
+
+  private ClientMessageSerializer clientMessageSerializer;
+  private GpgClientMessageSerializer gpgClientMessageSerializer;
+  private HostGameMessage hostGameMessage;
+  private GpgGameMessage gpgGameMessage;
+  private ByteArrayOutputStream outputStream;
+
+  @Setup
+  public void setUp() {
+    clientMessageSerializer = new ClientMessageSerializer();
+    gpgClientMessageSerializer = new GpgClientMessageSerializer();
+    hostGameMessage = new HostGameMessage(GameAccess.PASSWORD, "scmp_009", "1v1 1500+", new boolean[0], "faf", "secret", null);
+    gpgGameMessage = new GpgGameMessage(GpgClientCommand.GAME_STATE, Arrays.asList("Lobby", 1, 2.5));
+    outputStream = new ByteArrayOutputStream();
+  }
+
+  @Benchmark
+  public int serializeClientMessage() throws IOException {
+    outputStream.reset();
+    clientMessageSerializer.serialize(hostGameMessage, outputStream);
+    return outputStream.size();
+  }
+
+  @Benchmark
+  public int serializeGpgMessage() throws IOException {
+    outputStream.reset();
+    gpgClientMessageSerializer.serialize(gpgGameMessage, outputStream);
+    return outputStream.size();
+  }
+}
@@ -0,0 +1,81 @@
+package com.faforever.client.remote.gson;
+
+import com.faforever.client.fa.relay.GpgServerMessageType;
+import com.faforever.client.remote.domain.FafServerMessageType;
+import com.faforever.client.remote.domain.GameState;
+import com.faforever.client.remote.domain.MessageTarget;
+import com.faforever.client.remote.domain.RatingRange;
+import com.faforever.client.remote.domain.ServerMessage;
+import com.faforever.client.remote.domain.VictoryCondition;
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares decoding server messages using the tree based {@link ServerMessageTypeAdapter} with the single pass
+ * {@link ServerMessageDecoder}.
+ */
+@State(Scope.Benchmark)
+public class ServerMessageDecodingBenchmark {
+
+  private static final String GAME_INFO = "{\"command\": \"game_info\", \"visibility\": \"public\", \"password_protected\": false, " +
+      "\"uid\": 4711, \"title\": \"1v1 1500+\", \"state\": \"open\", \"featured_mod\": \"faf\", " +
+      "\"featured_mod_versions\": {}, \"sim_mods\": {}, \"mapname\": \"scmp_009\", \"map_file_path\": \"maps/scmp_009.zip\", " +
+      "\"host\": \"Downlord\", \"num_players\": 1, \"game_type\": 0, \"max_players\": 2, " +
+      "\"teams\": {\"1\": [\"Downlord\"]}}";
+  private static final String PLAYER_INFO = "{\"command\": \"player_info\", \"players\": [{\"id\": 1, \"login\": \"Downlord\", " +
+      "\"global_rating\": [1500.0, 100.0], \"ladder_rating\": [1200.0, 150.0], \"number_of_games\": 123, " +
+      "\"avatar\": {\"url\": \"http://content.faforever.com/faf/avatars/foo.png\", \"tooltip\": \"Foo\"}, \"country\": \"CH\", \"clan\": \"FAF\"}]}";
+  private static final String GPG_MESSAGE = "{\"command\": \"ConnectToPeer\", \"target\": \"game\", \"args\": [\"127.0.0.1:6112\", \"Downlord\", 1]}";
+
+  @Param({"game_info", "player_info", "gpg"})
+  String messageType;
+
+  private Gson gson;
+  private ServerMessageDecoder serverMessageDecoder;
+  private String json;
+
+  @Setup
+  public void setUp() {
+    gson = new GsonBuilder()
+        .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+        .registerTypeAdapter(VictoryCondition.class, VictoryConditionTypeAdapter.INSTANCE)
+        .registerTypeAdapter(GameState.class, GameStateTypeAdapter.INSTANCE)
+        .registerTypeAdapter(FafServerMessageType.class, ServerMessageTypeTypeAdapter.INSTANCE)
+        .registerTypeAdapter(GpgServerMessageType.class, GpgServerMessageTypeTypeAdapter.INSTANCE)
+        .registerTypeAdapter(MessageTarget.class, MessageTargetTypeAdapter.INSTANCE)
+        .registerTypeAdapter(ServerMessage.class, ServerMessageTypeAdapter.INSTANCE)
+        .registerTypeAdapter(RatingRange.class, RatingRangeTypeAdapter.INSTANCE)
+        .create();
+    serverMessageDecoder = new ServerMessageDecoder(gson);
+
+    switch (messageType) {
+      case "game_info":
+        json = GAME_INFO;
+        break;
+      case "player_info":
+        json = PLAYER_INFO;
+        break;
+      case "gpg":
+        json = GPG_MESSAGE;
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown message type: " + messageType);
+    }
+  }
+
+  @Benchmark
+  public ServerMessage typeAdapter() {
+    return gson.fromJson(json, ServerMessage.class);
+  }
+
+  @Benchmark
+  public ServerMessage decoder() {
+    return serverMessageDecoder.decode(json);
+  }
+}
@@ -0,0 +1,62 @@
+package com.faforever.client.remote.io;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Compares reading a lobby frame using {@link QDataInputStream} with decoding it using a {@link QDataFrameDecoder}.
+ */
+@State(Scope.Thread)
+public class QDataInputStreamBenchmark {
+
+  @Param({"64", "4096"})
+  int messageLength;
+
+  private byte[] frame;
+  private ByteBuffer frameBuffer;
+  private QDataFrameDecoder frameDecoder;
+
+  @Setup
+  public void setUp() throws IOException {
+    char[] chars = new char[messageLength];
+    Arrays.fill(chars, 'x');
+    byte[] bytes = new String(chars).getBytes(StandardCharsets.UTF_16BE);
+
+    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+    dataOutputStream.writeInt(Integer.BYTES + bytes.length);
+    dataOutputStream.writeInt(bytes.length);
+    dataOutputStream.write(bytes);
+
+    frame = byteArrayOutputStream.toByteArray();
+    frameBuffer = ByteBuffer.wrap(frame);
+    frameDecoder = new QDataFrameDecoder();
+  }
+
+  @Benchmark
+  public String readQString() throws IOException {
+    QDataInputStream inputStream = new QDataInputStream(new DataInputStream(new ByteArrayInputStream(frame)));
+    inputStream.skipBlockSize();
+    return inputStream.readQString();
+  }
+
+  @Benchmark
+  public int decodeFrame() throws IOException {
+    int[] length = new int[1];
+    frameBuffer.rewind();
+    frameDecoder.decode(frameBuffer, (frame, message) -> length[0] = message.length());
+    return length[0];
+  }
+}
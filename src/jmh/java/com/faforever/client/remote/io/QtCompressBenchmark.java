@@ -0,0 +1,41 @@
+package com.faforever.client.remote.io;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Random;
+
+@State(Scope.Thread)
+public class QtCompressBenchmark {
+
+  @Param({"1024", "65536"})
+  int size;
+
+  private byte[] uncompressed;
+  private byte[] compressed;
+
+  @Setup
+  public void setUp() throws IOException {
+    // Only use a few distinct values so that the data compresses about as well as typical game data
+    Random random = new Random(0);
+    uncompressed = new byte[size];
+    for (int i = 0; i < uncompressed.length; i++) {
+      uncompressed[i] = (byte) random.nextInt(16);
+    }
+    compressed = QtCompress.qCompress(uncompressed);
+  }
+
+  @Benchmark
+  public byte[] qCompress() throws IOException {
+    return QtCompress.qCompress(uncompressed);
+  }
+
+  @Benchmark
+  public byte[] qUncompress() throws IOException {
+    return QtCompress.qUncompress(compressed);
+  }
+}
@@ -26,13 +26,16 @@ import com.faforever.client.user.UserService;
 import com.faforever.client.util.IdenticonUtil;
 import com.faforever.client.util.TimeService;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Joiner;
 import com.google.common.eventbus.EventBus;
 import com.google.common.io.CharStreams;
+import com.google.gson.Gson;
 import com.sun.javafx.scene.control.skin.TabPaneSkin;
 import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.beans.WeakInvalidationListener;
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ListProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.WeakChangeListener;
@@ -68,26 +71,20 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
-import java.util.Optional;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static com.faforever.client.chat.SocialStatus.FOE;
 import static com.faforever.client.chat.SocialStatus.FRIEND;
 import static com.faforever.client.chat.SocialStatus.SELF;
 import static com.faforever.client.theme.UiService.CHAT_CONTAINER;
-import static com.faforever.client.theme.UiService.CHAT_ENTRY;
-import static com.faforever.client.theme.UiService.CHAT_TEXT;
 import static com.faforever.client.util.RatingUtil.getGlobalRating;
 import static com.faforever.client.util.RatingUtil.getLeaderboardRating;
-import static com.github.nocatch.NoCatch.noCatch;
-import static com.google.common.html.HtmlEscapers.htmlEscaper;
 import static java.time.temporal.ChronoUnit.MINUTES;
-import static java.util.regex.Pattern.CASE_INSENSITIVE;
 import static javafx.scene.AccessibleAttribute.ITEM_AT_INDEX;
 
 /**
@@ -99,11 +96,10 @@ public abstract class AbstractChatTabController implements Controller<Tab> {
 
   static final String CSS_CLASS_CHAT_ONLY = "chat_only";
   private static final String MESSAGE_CONTAINER_ID = "chat-container";
-  private static final String MESSAGE_ITEM_CLASS = "chat-section";
+  private static final String MESSAGE_ITEM_ID_PREFIX = "chat-section-";
   private static final PseudoClass UNREAD_PSEUDO_STATE = PseudoClass.getPseudoClass("unread");
   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   private static final org.springframework.core.io.Resource CHAT_JS_RESOURCE = new ClassPathResource("/js/chat_container.js");
-  private static final org.springframework.core.io.Resource AUTOLINKER_JS_RESOURCE = new ClassPathResource("/js/Autolinker.min.js");
   private static final org.springframework.core.io.Resource JQUERY_JS_RESOURCE = new ClassPathResource("js/jquery-2.1.4.min.js");
   private static final org.springframework.core.io.Resource JQUERY_HIGHLIGHT_JS_RESOURCE = new ClassPathResource("js/jquery.highlight-5.closure.js");
   /**
@@ -119,9 +115,15 @@ public abstract class AbstractChatTabController implements Controller<Tab> {
   private static final String ACTION_CSS_CLASS = "action";
   private static final String MESSAGE_CSS_CLASS = "message";
   /**
-   * Messages that arrived before the web view was ready. Those are appended as soon as it is ready.
+   * Number of messages loaded from the chat history when the user scrolls to the top.
    */
-  private final List<ChatMessage> waitingMessages;
+  private static final int SCROLL_BACK_PAGE_SIZE = 100;
+  private static final Gson gson = new Gson();
+  /**
+   * Messages that have not yet been rendered. They are rendered once per pulse, or as soon as the web view is ready.
+   * Guarded by itself.
+   */
+  private final List<ChatMessage> pendingMessages;
   private final IntegerProperty unreadMessagesCount;
   private final ChangeListener<Boolean> resetUnreadMessagesListener;
   @Inject
@@ -158,9 +160,58 @@ public abstract class AbstractChatTabController implements Controller<Tab> {
   EventBus eventBus;
   @Inject
   WebViewConfigurer webViewConfigurer;
+  @Inject
+  ChatTemplates chatTemplates;
+  @Inject
+  ChatHistoryService chatHistoryService;
 
+  /**
+   * ID of the chat section most recently added at the bottom. Sections added at the bottom get increasing IDs.
+   */
   private int lastEntryId;
+  /**
+   * ID of the chat section most recently inserted at the top. Sections loaded from the history get decreasing IDs, so
+   * they never take the ID a message added at the bottom refers to. Only accessed in the FX application thread.
+   */
+  private int firstEntryId;
+  /**
+   * The history index of the first message of each chat section in the web view, from top to bottom. Used to remove
+   * sections without querying the DOM and to know where to continue when the user scrolls up or down. Only accessed in
+   * the FX application thread.
+   */
+  private final Deque<Long> sectionStartIndices = new ArrayDeque<>();
+  /**
+   * The history index following the bottommost message in the web view. Only accessed in the FX application thread.
+   */
+  private long renderedEndIndex;
+  /**
+   * Whether chat sections have been removed from the bottom to make room for older messages. As long as this is the
+   * case, new messages are not rendered but loaded from the history when the user scrolls down. Only accessed in the FX
+   * application thread.
+   */
+  private boolean newerMessagesRemoved;
+  /**
+   * Whether older messages are currently being loaded from the history. Only accessed in the FX application thread.
+   */
+  private boolean loadingOlderMessages;
+  /**
+   * Whether newer messages are currently being loaded from the history. Only accessed in the FX application thread.
+   */
+  private boolean loadingNewerMessages;
+  /**
+   * The history index of the first pending message. Guarded by {@link #pendingMessages}.
+   */
+  private long pendingMessagesStartIndex;
+  /**
+   * Whether the web view is ready and a render of the pending messages may be scheduled. Guarded by {@link
+   * #pendingMessages}.
+   */
   private boolean isChatReady;
+  /**
+   * Whether a render of the pending messages has been scheduled but not yet performed. Guarded by {@link
+   * #pendingMessages}.
+   */
+  private boolean renderScheduled;
   private WebEngine engine;
   private double lastMouseX;
   private double lastMouseY;
@@ -172,15 +223,43 @@ public abstract class AbstractChatTabController implements Controller<Tab> {
    * Either a channel like "#aeolus" or a user like "Visionik".
    */
   private String receiver;
+  private ChatHistory chatHistory;
 
-  private Pattern mentionPattern;
+  /**
+   * Finds the user's own name and highlighted words in messages. Rebuilt whenever the highlighted words change. Only
+   * accessed in the FX application thread.
+   */
+  private KeywordMatcher mentionMatcher;
+  private final KeywordMatcher.Match mention = new KeywordMatcher.Match();
+  private final InvalidationListener highlightedWordsListener = observable -> updateMentionMatcher();
   private Tooltip linkPreviewTooltip;
+  /**
+   * The URL the user currently hovers over, or {@code null}. Used to discard previews that are resolved after the user
+   * moved on. Only accessed in the FX application thread.
+   */
+  private String hoveredUrl;
   private ChangeListener<Boolean> stageFocusedListener;
   private Popup playerInfoPopup;
   private ChatMessage lastMessage;
+  /**
+   * Reused to render chat HTML. Only accessed in the FX application thread.
+   */
+  private final StringBuilder htmlBuilder = new StringBuilder();
+  /**
+   * Reused to render the text of a chat message. Only accessed in the FX application thread.
+   */
+  private final StringBuilder textBuilder = new StringBuilder();
+  /**
+   * Reused to find links in chat messages. Only accessed in the FX application thread.
+   */
+  private final ChatLinkifier.Link link = new ChatLinkifier.Link();
+  /**
+   * Reused to collect the HTML fragments of one render pass. Only accessed in the FX application thread.
+   */
+  private final List<HtmlFragment> renderBatch = new ArrayList<>();
 
   public AbstractChatTabController() {
-    waitingMessages = new ArrayList<>();
+    pendingMessages = new ArrayList<>();
     unreadMessagesCount = new SimpleIntegerProperty();
     resetUnreadMessagesListener = (observable, oldValue, newValue) -> {
       if (hasFocus()) {
@@ -244,10 +323,13 @@ public abstract class AbstractChatTabController implements Controller<Tab> {
 
   public void setReceiver(String receiver) {
     this.receiver = receiver;
+    chatHistory = chatHistoryService.getHistory(receiver);
   }
 
   public void initialize() {
-    mentionPattern = Pattern.compile("\\b(" + Pattern.quote(userService.getUsername()) + ")\\b", CASE_INSENSITIVE);
+    ListProperty<String> highlightedWords = preferencesService.getPreferences().getChat().highlightedWordsProperty();
+    highlightedWords.addListener(new WeakInvalidationListener(highlightedWordsListener));
+    updateMentionMatcher();
 
     Platform.runLater(this::initChatView);
 
@@ -263,6 +345,12 @@ public abstract class AbstractChatTabController implements Controller<Tab> {
     autoCompletionHelper.bindTo(getMessageTextField());
   }
 
+  private void updateMentionMatcher() {
+    List<String> keywords = new ArrayList<>(preferencesService.getPreferences().getChat().getHighlightedWords());
+    keywords.add(userService.getUsername());
+    mentionMatcher = KeywordMatcher.compile(keywords);
+  }
+
   /**
    * Registers listeners necessary to focus the message input field when changing to another message tab, changing from
    * another tab to the "chat" tab or re-focusing the window.
@@ -351,19 +439,13 @@ public abstract class AbstractChatTabController implements Controller<Tab> {
     getJsObject().setMember(CHAT_TAB_REFERENCE_IN_JAVASCRIPT, this);
     engine.getLoadWorker().stateProperty().addListener((observable, oldValue, newValue) -> {
       if (Worker.State.SUCCEEDED == newValue) {
-        synchronized (waitingMessages) {
-          waitingMessages.forEach(AbstractChatTabController.this::addMessage);
-          waitingMessages.clear();
-          isChatReady = true;
-          onWebViewLoaded();
-        }
+        onChatContainerLoaded();
       }
     });
 
     try (Reader reader = new InputStreamReader(uiService.getThemeFileUrl(CHAT_CONTAINER).openStream())) {
       String chatContainerHtml = CharStreams.toString(reader)
           .replace("{chat-container-js}", CHAT_JS_RESOURCE.getURL().toExternalForm())
-          .replace("{auto-linker-js}", AUTOLINKER_JS_RESOURCE.getURL().toExternalForm())
           .replace("{jquery-js}", JQUERY_JS_RESOURCE.getURL().toExternalForm())
           .replace("{jquery-highlight-js}", JQUERY_HIGHLIGHT_JS_RESOURCE.getURL().toExternalForm());
 
@@ -373,6 +455,15 @@ public abstract class AbstractChatTabController implements Controller<Tab> {
     }
   }
 
+  @VisibleForTesting
+  void onChatContainerLoaded() {
+    synchronized (pendingMessages) {
+      isChatReady = true;
+      scheduleRender();
+      onWebViewLoaded();
+    }
+  }
+
   protected abstract WebView getMessagesWebView();
 
   protected JSObject getJsObject() {
@@ -425,6 +516,13 @@ public abstract class AbstractChatTabController implements Controller<Tab> {
     eventBus.post(new InitiatePrivateChatEvent(username));
   }
 
+  /**
+   * Called from JavaScript when user clicked a channel name.
+   */
+  public void joinChannel(String channelName) {
+    chatService.joinChannel(channelName);
+  }
+
   /**
    * Called from JavaScript when user clicked a URL.
    */
@@ -432,19 +530,77 @@ public abstract class AbstractChatTabController implements Controller<Tab> {
     platformService.showDocument(url);
   }
 
+  /**
+   * Called from JavaScript when the user scrolled to the top of the chat. Loads the messages preceding the topmost chat
+   * section from the history and inserts them above it.
+   */
+  public void loadOlderMessages() {
+    Long firstIndex = sectionStartIndices.peekFirst();
+    if (loadingOlderMessages || firstIndex == null || firstIndex == 0) {
+      return;
+    }
+    loadingOlderMessages = true;
+
+    long to = firstIndex;
+    chatHistory.getMessagesInBackground(Math.max(0, to - SCROLL_BACK_PAGE_SIZE), to)
+        .thenAccept(messages -> Platform.runLater(() -> prependMessages(to, messages)))
+        .exceptionally(throwable -> {
+          logger.warn("Chat history of '{}' could not be read", receiver, throwable);
+          Platform.runLater(() -> loadingOlderMessages = false);
+          return null;
+        });
+  }
+
+  /**
+   * Called from JavaScript when the user scrolled to the bottom of the chat. If chat sections have been removed from
+   * the bottom, loads the messages following the bottommost chat section from the history and appends them.
+   */
+  public void loadNewerMessages() {
+    if (loadingNewerMessages || !newerMessagesRemoved) {
+      return;
+    }
+    loadingNewerMessages = true;
+
+    long from = renderedEndIndex;
+    long to = Math.min(chatHistory.size(), from + SCROLL_BACK_PAGE_SIZE);
+    chatHistory.getMessagesInBackground(from, to)
+        .thenAccept(messages -> Platform.runLater(() -> appendNewerMessages(from, to, messages)))
+        .exceptionally(throwable -> {
+          logger.warn("Chat history of '{}' could not be read", receiver, throwable);
+          Platform.runLater(() -> loadingNewerMessages = false);
+          return null;
+        });
+  }
+
   /**
    * Called from JavaScript when user hovers over an URL.
    */
   public void previewUrl(String urlString) {
-    Preview preview = urlPreviewResolver.resolvePreview(urlString);
-    if (preview == null) {
+    hoveredUrl = urlString;
+    urlPreviewResolver.resolvePreview(urlString)
+        .thenAccept(preview -> {
+          if (preview != null) {
+            Platform.runLater(() -> showUrlPreview(urlString, preview));
+          }
+        })
+        .exceptionally(throwable -> {
+          logger.warn("Preview of URL '{}' could not be resolved", urlString, throwable);
+          return null;
+        });
+  }
+
+  private void showUrlPreview(String urlString, Preview preview) {
+    if (!urlString.equals(hoveredUrl)) {
       return;
     }
+    if (linkPreviewTooltip != null) {
+      linkPreviewTooltip.hide();
+    }
 
-    linkPreviewTooltip = new Tooltip(preview.getDescription());
+    linkPreviewTooltip = new Tooltip(urlPreviewResolver.getDescription(preview));
     linkPreviewTooltip.setAutoHide(true);
     linkPreviewTooltip.setAnchorLocation(PopupWindow.AnchorLocation.CONTENT_BOTTOM_LEFT);
-    linkPreviewTooltip.setGraphic(preview.getNode());
+    linkPreviewTooltip.setGraphic(urlPreviewResolver.createNode(preview));
     linkPreviewTooltip.setContentDisplay(ContentDisplay.TOP);
     linkPreviewTooltip.show(getRoot().getTabPane(), lastMouseX + 20, lastMouseY);
   }
@@ -453,6 +609,7 @@ public abstract class AbstractChatTabController implements Controller<Tab> {
    * Called from JavaScript when user no longer hovers over an URL.
    */
   public void hideUrlPreview() {
+    hoveredUrl = null;
     if (linkPreviewTooltip != null) {
       linkPreviewTooltip.hide();
       linkPreviewTooltip = null;
@@ -520,106 +677,273 @@ public abstract class AbstractChatTabController implements Controller<Tab> {
         });
   }
 
+  /**
+   * Queues the specified message to be rendered. All messages queued within the same pulse are inserted into the web
+   * view at once.
+   */
   protected void onChatMessage(ChatMessage chatMessage) {
-    synchronized (waitingMessages) {
-      if (!isChatReady) {
-        waitingMessages.add(chatMessage);
-      } else {
-        Platform.runLater(() -> {
-          addMessage(chatMessage);
-          removeTopmostMessages();
-          scrollToBottomIfDesired();
-        });
+    synchronized (pendingMessages) {
+      long index = chatHistory.append(chatMessage);
+      if (pendingMessages.isEmpty()) {
+        pendingMessagesStartIndex = index;
       }
+      pendingMessages.add(chatMessage);
+      scheduleRender();
     }
   }
 
-  private void scrollToBottomIfDesired() {
-    engine.executeScript("scrollToBottomIfDesired()");
+  /**
+   * Must be called while holding the lock of {@link #pendingMessages}.
+   */
+  private void scheduleRender() {
+    if (!isChatReady || renderScheduled || pendingMessages.isEmpty()) {
+      return;
+    }
+    renderScheduled = true;
+    Platform.runLater(this::renderPendingMessages);
   }
 
-  private void removeTopmostMessages() {
-    int maxMessageItems = preferencesService.getPreferences().getChat().getMaxMessages();
+  /**
+   * Renders all pending messages and inserts them into the web view using a single script call, which also removes the
+   * topmost chat sections exceeding the configured maximum and scrolls to the bottom if desired.
+   */
+  private void renderPendingMessages() {
+    List<ChatMessage> messages;
+    long index;
+    synchronized (pendingMessages) {
+      messages = new ArrayList<>(pendingMessages);
+      index = pendingMessagesStartIndex;
+      pendingMessages.clear();
+      renderScheduled = false;
+    }
 
-    int numberOfMessages = (int) engine.executeScript("document.getElementsByClassName('" + MESSAGE_ITEM_CLASS + "').length");
-    while (numberOfMessages > maxMessageItems) {
-      engine.executeScript("document.getElementsByClassName('" + MESSAGE_ITEM_CLASS + "')[0].remove()");
-      numberOfMessages--;
+    renderBatch.clear();
+    for (ChatMessage message : messages) {
+      try {
+        if (newerMessagesRemoved || index < renderedEndIndex) {
+          // The message will be, or has already been, loaded from the history
+          if (isMentioned(message)) {
+            onMention(message);
+          }
+        } else if (addMessage(message, index)) {
+          onMention(message);
+        }
+      } catch (RuntimeException e) {
+        logger.warn("Chat message could not be rendered: {}", message, e);
+      }
+      index++;
     }
+
+    appendRenderBatch("appendChatBatch");
   }
 
   /**
-   * Either inserts a new chat entry or, if the same user as before sent another message, appends it do the previous
-   * entry.
+   * Inserts the rendered HTML fragments below the bottommost chat section using the specified script function, which
+   * also removes the topmost chat sections exceeding the configured maximum.
    */
-  private void addMessage(ChatMessage chatMessage) {
-    noCatch(() -> {
-      if (lastMessage == null || !lastMessage.getUsername().equals(chatMessage.getUsername())
-          || lastMessage.getTime().isBefore(chatMessage.getTime().minus(1, MINUTES))) {
-        addChatSection(chatMessage);
-      }
-      appendMessage(chatMessage);
-      lastMessage = chatMessage;
-    });
+  private void appendRenderBatch(String function) {
+    int sectionsToRemove = Math.max(0, sectionStartIndices.size() - getMaxSections());
+    for (int i = 0; i < sectionsToRemove; i++) {
+      sectionStartIndices.removeFirst();
+    }
+
+    getJsObject().call(function, gson.toJson(renderBatch), sectionsToRemove);
+    renderBatch.clear();
+    getMessagesWebView().requestLayout();
+  }
+
+  private int getMaxSections() {
+    return preferencesService.getPreferences().getChat().getMaxMessages();
   }
 
-  private void appendMessage(ChatMessage chatMessage) throws IOException {
-    try (Reader reader = new InputStreamReader(uiService.getThemeFileUrl(CHAT_TEXT).openStream())) {
-      String text = htmlEscaper().escape(chatMessage.getMessage()).replace("\\", "\\\\");
-      text = convertUrlsToHyperlinks(text);
+  /**
+   * Renders the specified messages, which follow the bottommost chat section, and appends them below it while keeping
+   * the visible messages in place. Messages that have been loaded while the bottommost section has changed are
+   * discarded, since they would leave a gap.
+   *
+   * @param from the history index following the bottommost message when the messages were requested
+   * @param to the history index following the last of the requested messages
+   */
+  private void appendNewerMessages(long from, long to, List<ChatMessage> messages) {
+    loadingNewerMessages = false;
+    if (!newerMessagesRemoved || renderedEndIndex != from) {
+      return;
+    }
 
-      Matcher matcher = mentionPattern.matcher(text);
-      if (matcher.find()) {
-        text = matcher.replaceAll("<span class='self'>" + matcher.group(1) + "</span>");
-        onMention(chatMessage);
+    renderBatch.clear();
+    // If the history could not be written, the first messages may be missing
+    long index = to - messages.size();
+    for (ChatMessage message : messages) {
+      try {
+        addMessage(message, index);
+      } catch (RuntimeException e) {
+        logger.warn("Chat message could not be rendered: {}", message, e);
       }
-      String html = CharStreams.toString(reader).replace("{text}", text);
+      index++;
+    }
+    renderedEndIndex = to;
 
-      Collection<String> cssClasses = new ArrayList<>();
-      if (chatMessage.isAction()) {
-        cssClasses.add(ACTION_CSS_CLASS);
-      } else {
-        cssClasses.add(MESSAGE_CSS_CLASS);
-      }
+    synchronized (pendingMessages) {
+      // All messages from here on are still pending, so they will be rendered as usual
+      long firstUnrenderedIndex = pendingMessages.isEmpty() ? chatHistory.size() : pendingMessagesStartIndex;
+      newerMessagesRemoved = renderedEndIndex < firstUnrenderedIndex;
+    }
 
-      html = html.replace("{css-classes}", Joiner.on(' ').join(cssClasses));
-      addToMessageContainer(html, "chat-section-" + lastEntryId);
+    appendRenderBatch("appendHistoryBatch");
+
+    if (newerMessagesRemoved && to - from < SCROLL_BACK_PAGE_SIZE) {
+      // Messages have been received while reading the history
+      loadNewerMessages();
     }
   }
 
-  private void addChatSection(ChatMessage chatMessage) throws IOException {
-    Player player = playerService.getPlayerForUsername(chatMessage.getUsername());
-    try (Reader reader = new InputStreamReader(uiService.getThemeFileUrl(CHAT_ENTRY).openStream())) {
-      String login = chatMessage.getUsername();
-      String html = CharStreams.toString(reader);
-
-      String avatarUrl = "";
-      String clanTag = "";
-      if (player != null) {
-        avatarUrl = player.getAvatarUrl();
+  /**
+   * Renders the specified messages, which precede the topmost chat section, and inserts them above it. Chat sections
+   * exceeding the configured maximum are removed from the bottom, where the user isn't looking. Messages that have been
+   * loaded while the topmost section has been removed are discarded, since they would leave a gap.
+   *
+   * @param to the history index of the first message of the topmost chat section when the messages were requested
+   */
+  private void prependMessages(long to, List<ChatMessage> messages) {
+    loadingOlderMessages = false;
+    Long firstIndex = sectionStartIndices.peekFirst();
+    if (messages.isEmpty() || firstIndex == null || firstIndex != to) {
+      return;
+    }
 
-        if (StringUtils.isNotEmpty(player.getClan())) {
-          clanTag = i18n.get("chat.clanTagFormat", player.getClan());
+    renderBatch.clear();
+    List<Long> startIndices = new ArrayList<>();
+    ChatMessage previousMessage = null;
+    int entryId = 0;
+    long index = to - messages.size();
+    for (ChatMessage message : messages) {
+      try {
+        if (startsNewSection(previousMessage, message)) {
+          entryId = --firstEntryId;
+          addChatSection(message, entryId);
+          startIndices.add(index);
         }
+        appendMessage(message, entryId);
+        previousMessage = message;
+      } catch (RuntimeException e) {
+        logger.warn("Chat message could not be rendered: {}", message, e);
       }
+      index++;
+    }
+
+    for (int i = startIndices.size() - 1; i >= 0; i--) {
+      sectionStartIndices.addFirst(startIndices.get(i));
+    }
+
+    int sectionsToRemove = Math.max(0, sectionStartIndices.size() - getMaxSections());
+    for (int i = 0; i < sectionsToRemove; i++) {
+      renderedEndIndex = sectionStartIndices.removeLast();
+    }
+    if (sectionsToRemove > 0) {
+      newerMessagesRemoved = true;
+      lastMessage = null;
+    }
+
+    getJsObject().call("prependChatBatch", gson.toJson(renderBatch), sectionsToRemove);
+    renderBatch.clear();
+  }
+
+  private static boolean startsNewSection(ChatMessage previousMessage, ChatMessage chatMessage) {
+    return previousMessage == null || !previousMessage.getUsername().equals(chatMessage.getUsername())
+        || previousMessage.getTime().isBefore(chatMessage.getTime().minus(1, MINUTES));
+  }
+
+  /**
+   * Either inserts a new chat entry at the bottom or, if the same user as before sent another message, appends it do
+   * the previous entry.
+   *
+   * @return {@code true} if the current user has been mentioned
+   */
+  private boolean addMessage(ChatMessage chatMessage, long index) {
+    if (startsNewSection(lastMessage, chatMessage)) {
+      addChatSection(chatMessage, ++lastEntryId);
+      sectionStartIndices.addLast(index);
+    }
+    boolean mentioned = appendMessage(chatMessage, lastEntryId);
+    lastMessage = chatMessage;
+    renderedEndIndex = index + 1;
+    return mentioned;
+  }
+
+  private boolean isMentioned(ChatMessage chatMessage) {
+    String message = chatMessage.getMessage();
+    return mentionMatcher.find(message, 0, message.length(), mention);
+  }
+
+  /**
+   * Renders the text of the specified message and adds it to the specified chat section.
+   *
+   * @return {@code true} if the current user has been mentioned
+   */
+  private boolean appendMessage(ChatMessage chatMessage, int entryId) {
+    String message = chatMessage.getMessage();
+    textBuilder.setLength(0);
+
+    boolean mentioned = false;
+    int position = 0;
+    while (ChatLinkifier.find(message, position, link)) {
+      mentioned |= appendHighlightingMentions(message, position, link.getStart());
+      ChatLinkifier.appendAnchor(textBuilder, message, link);
+      position = link.getEnd();
+    }
+    mentioned |= appendHighlightingMentions(message, position, message.length());
+
+    htmlBuilder.setLength(0);
+    chatTemplates.renderChatText(htmlBuilder, chatMessage.isAction() ? ACTION_CSS_CLASS : MESSAGE_CSS_CLASS, textBuilder.toString());
+    renderBatch.add(new HtmlFragment(MESSAGE_ITEM_ID_PREFIX + entryId, htmlBuilder.toString()));
+    return mentioned;
+  }
 
-      String timeString = timeService.asShortTime(chatMessage.getTime());
-      html = html.replace("{time}", timeString)
-          .replace("{avatar}", StringUtils.defaultString(avatarUrl))
-          .replace("{username}", login)
-          .replace("{clan-tag}", clanTag)
-          .replace("{section-id}", String.valueOf(++lastEntryId));
+  /**
+   * Appends the specified range of the message to {@link #textBuilder}, HTML escaped and with mentions of the current
+   * user and highlighted words highlighted.
+   *
+   * @return {@code true} if the current user or a highlighted word has been mentioned
+   */
+  private boolean appendHighlightingMentions(String message, int start, int end) {
+    boolean mentioned = false;
+    int position = start;
+    while (mentionMatcher.find(message, position, end, mention)) {
+      ChatTemplate.appendEscaped(textBuilder, message, position, mention.getStart());
+      textBuilder.append("<span class='self'>");
+      ChatTemplate.appendEscaped(textBuilder, message, mention.getStart(), mention.getEnd());
+      textBuilder.append("</span>");
+      position = mention.getEnd();
+      mentioned = true;
+    }
+    ChatTemplate.appendEscaped(textBuilder, message, position, end);
+    return mentioned;
+  }
 
-      Collection<String> cssClasses = new ArrayList<>();
-      cssClasses.add(String.format("user-%s", chatMessage.getUsername()));
+  private void addChatSection(ChatMessage chatMessage, int entryId) {
+    Player player = playerService.getPlayerForUsername(chatMessage.getUsername());
+    String login = chatMessage.getUsername();
 
-      Optional.ofNullable(getMessageCssClass(login)).ifPresent(cssClasses::add);
+    String avatarUrl = "";
+    String clanTag = "";
+    if (player != null) {
+      avatarUrl = player.getAvatarUrl();
 
-      html = html.replace("{css-classes}", Joiner.on(' ').join(cssClasses));
-      html = html.replace("{inline-style}", getInlineStyle(login));
+      if (StringUtils.isNotEmpty(player.getClan())) {
+        clanTag = i18n.get("chat.clanTagFormat", player.getClan());
+      }
+    }
 
-      addToMessageContainer(html, MESSAGE_CONTAINER_ID);
+    String cssClasses = "user-" + login;
+    String messageCssClass = getMessageCssClass(login);
+    if (messageCssClass != null) {
+      cssClasses += " " + messageCssClass;
     }
+
+    htmlBuilder.setLength(0);
+    chatTemplates.renderChatSection(htmlBuilder, entryId, timeService.asShortTime(chatMessage.getTime()),
+        avatarUrl, clanTag, login, cssClasses, getInlineStyle(login));
+    renderBatch.add(new HtmlFragment(MESSAGE_CONTAINER_ID, htmlBuilder.toString()));
   }
 
   protected void onMention(ChatMessage chatMessage) {
@@ -689,15 +1013,6 @@ public abstract class AbstractChatTabController implements Controller<Tab> {
     return String.format("color: %s;", JavaFxUtil.toRgbCode(messageColor));
   }
 
-  protected String convertUrlsToHyperlinks(String text) {
-    return (String) engine.executeScript("link('" + text.replace("'", "\\'") + "')");
-  }
-
-  private void addToMessageContainer(String html, String containerId) {
-    ((JSObject) engine.executeScript("document.getElementById('" + containerId + "')"))
-        .call("insertAdjacentHTML", "beforeend", html);
-    getMessagesWebView().requestLayout();
-  }
 
   /**
    * Subclasses may override in order to perform actions when the view is being displayed.
@@ -712,4 +1027,19 @@ public abstract class AbstractChatTabController implements Controller<Tab> {
   protected void onHide() {
 
   }
+
+  /**
+   * A piece of HTML to be appended to the element with the specified ID. Serialized to JSON and passed to {@code
+   * appendChatBatch} or {@code prependChatBatch} in {@code chat_container.js}.
+   */
+  private static final class HtmlFragment {
+
+    private final String target;
+    private final String html;
+
+    private HtmlFragment(String target, String html) {
+      this.target = target;
+      this.html = html;
+    }
+  }
 }
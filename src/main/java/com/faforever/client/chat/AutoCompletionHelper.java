@@ -1,6 +1,5 @@
 package com.faforever.client.chat;
 
-import com.faforever.client.player.PlayerService;
 import com.faforever.client.util.Assert;
 import javafx.event.EventHandler;
 import javafx.scene.control.TextInputControl;
@@ -13,16 +12,14 @@ import org.springframework.stereotype.Component;
 import javax.inject.Inject;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
-
-import static java.util.Locale.US;
+import java.util.function.Predicate;
 
 @Component
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 public class AutoCompletionHelper {
 
   @Inject
-  PlayerService playerService;
+  NicknameIndex nicknameIndex;
 
   private List<String> possibleAutoCompletions;
   private int nextAutoCompleteIndex;
@@ -30,8 +27,13 @@ public class AutoCompletionHelper {
 
   private TextInputControl boundTextField;
   private EventHandler<KeyEvent> keyEventHandler;
+  /**
+   * Tells whether a user is present in the channel the bound text field belongs to. Such users are suggested first.
+   */
+  private Predicate<String> presentInChannel;
 
   public AutoCompletionHelper() {
+    presentInChannel = username -> false;
     keyEventHandler = keyEvent -> {
       if (!keyEvent.isControlDown() && keyEvent.getCode() == KeyCode.TAB) {
         keyEvent.consume();
@@ -97,12 +99,23 @@ public class AutoCompletionHelper {
 
     nextAutoCompleteIndex = 0;
 
-    possibleAutoCompletions.addAll(
-        playerService.getPlayerNames().stream()
-            .filter(playerName -> playerName.toLowerCase(US).startsWith(autoCompletePartialName.toLowerCase()))
-            .sorted()
-            .collect(Collectors.toList())
-    );
+    List<String> otherNames = new ArrayList<>();
+    for (String name : nicknameIndex.complete(autoCompletePartialName)) {
+      if (presentInChannel.test(name)) {
+        possibleAutoCompletions.add(name);
+      } else {
+        otherNames.add(name);
+      }
+    }
+    possibleAutoCompletions.addAll(otherNames);
+  }
+
+  /**
+   * Sets the predicate that tells whether a user is present in the channel of the bound text field. Users in the
+   * channel are suggested before all other users.
+   */
+  public void setPresentInChannel(Predicate<String> presentInChannel) {
+    this.presentInChannel = presentInChannel;
   }
 
   public void bindTo(TextInputControl messageTextField) {
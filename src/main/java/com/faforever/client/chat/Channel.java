@@ -2,23 +2,33 @@ package com.faforever.client.chat;
 
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.MapChangeListener;
-import javafx.collections.ObservableMap;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+/**
+ * A chat channel and the users in it. Users are added and removed in batches, each of which is reported to the {@link
+ * ChannelUsersListener}s with a single notification.
+ */
 public class Channel {
 
-  private final ObservableMap<String, ChatUser> users;
+  /**
+   * Maps users by username. Guarded by itself.
+   */
+  private final Map<String, ChatUser> users;
+  private final List<ChannelUsersListener> usersListeners;
   private final StringProperty topic;
   private String name;
 
   public Channel(String name) {
     this.name = name;
-    users = FXCollections.synchronizedObservableMap(FXCollections.observableHashMap());
+    users = new HashMap<>();
+    usersListeners = new CopyOnWriteArrayList<>();
     topic = new SimpleStringProperty();
   }
 
@@ -35,31 +45,73 @@ public class Channel {
   }
 
   public void removeUser(String username) {
-    users.remove(username);
+    updateUsers(Collections.singletonMap(username, null));
   }
 
   public void addUsers(List<ChatUser> users) {
-    users.forEach(user -> this.users.put(user.getUsername(), user));
+    Map<String, ChatUser> changes = new LinkedHashMap<>();
+    users.forEach(user -> changes.put(user.getUsername(), user));
+    updateUsers(changes);
   }
 
   public void addUser(ChatUser chatUser) {
-    users.put(chatUser.getUsername(), chatUser);
+    updateUsers(Collections.singletonMap(chatUser.getUsername(), chatUser));
   }
 
   public void clearUsers() {
-    users.clear();
+    List<ChatUser> removed;
+    synchronized (users) {
+      removed = new ArrayList<>(users.values());
+      users.clear();
+    }
+    fireUsersChanged(Collections.emptyList(), removed);
+  }
+
+  /**
+   * Adds and removes the specified users as one update, of which listeners are notified once. Users mapped to {@code
+   * null} are removed, all others are added.
+   *
+   * @param changes the users to add or remove, by username
+   */
+  public void updateUsers(Map<String, ChatUser> changes) {
+    List<ChatUser> added = new ArrayList<>();
+    List<ChatUser> removed = new ArrayList<>();
+    synchronized (users) {
+      changes.forEach((username, chatUser) -> {
+        ChatUser previous = chatUser == null ? users.remove(username) : users.put(username, chatUser);
+        if (previous == chatUser) {
+          return;
+        }
+        if (previous != null) {
+          removed.add(previous);
+        }
+        if (chatUser != null) {
+          added.add(chatUser);
+        }
+      });
+    }
+    fireUsersChanged(added, removed);
   }
 
-  public void addUsersListeners(MapChangeListener<String, ChatUser> listener) {
-    users.addListener(listener);
+  private void fireUsersChanged(List<ChatUser> added, List<ChatUser> removed) {
+    if (added.isEmpty() && removed.isEmpty()) {
+      return;
+    }
+    List<ChatUser> unmodifiableAdded = Collections.unmodifiableList(added);
+    List<ChatUser> unmodifiableRemoved = Collections.unmodifiableList(removed);
+    usersListeners.forEach(listener -> listener.onUsersChanged(unmodifiableAdded, unmodifiableRemoved));
+  }
+
+  public void addUsersListeners(ChannelUsersListener listener) {
+    usersListeners.add(listener);
   }
 
-  public void removeUserListener(MapChangeListener<String, ChatUser> listener) {
-    users.removeListener(listener);
+  public void removeUserListener(ChannelUsersListener listener) {
+    usersListeners.remove(listener);
   }
 
   public void setModerator(String username) {
-    ChatUser chatUser = users.get(username);
+    ChatUser chatUser = getUser(username);
     if (chatUser != null) {
       chatUser.getModeratorInChannels().add(name);
     }
@@ -69,11 +121,21 @@ public class Channel {
    * Returns an unmodifiable copy of the current users.
    */
   public List<ChatUser> getUsers() {
-    return Collections.unmodifiableList(new ArrayList<>(users.values()));
+    synchronized (users) {
+      return Collections.unmodifiableList(new ArrayList<>(users.values()));
+    }
+  }
+
+  public int getUserCount() {
+    synchronized (users) {
+      return users.size();
+    }
   }
 
   public ChatUser getUser(String username) {
-    return users.get(username);
+    synchronized (users) {
+      return users.get(username);
+    }
   }
 
   public String getName() {
@@ -1,30 +1,27 @@
 package com.faforever.client.chat;
 
 import com.faforever.client.fx.JavaFxUtil;
+import com.faforever.client.fx.Subscriptions;
 import com.faforever.client.i18n.I18n;
 import com.faforever.client.player.Player;
 import com.faforever.client.preferences.ChatPrefs;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.gson.Gson;
 import javafx.application.Platform;
+import javafx.beans.binding.Bindings;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.WeakChangeListener;
-import javafx.collections.FXCollections;
-import javafx.collections.MapChangeListener;
-import javafx.collections.ObservableList;
 import javafx.collections.SetChangeListener;
 import javafx.event.ActionEvent;
 import javafx.geometry.Bounds;
-import javafx.scene.Node;
 import javafx.scene.control.Button;
+import javafx.scene.control.ListView;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TextField;
 import javafx.scene.control.TextInputControl;
-import javafx.scene.control.TitledPane;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.HBox;
-import javafx.scene.layout.Pane;
 import javafx.scene.layout.VBox;
 import javafx.scene.web.WebView;
 import javafx.stage.Popup;
@@ -36,18 +33,21 @@ import org.springframework.stereotype.Component;
 import javax.inject.Inject;
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import static com.faforever.client.chat.ChatColorMode.DEFAULT;
 import static com.faforever.client.chat.SocialStatus.FOE;
 import static com.faforever.client.chat.SocialStatus.OTHER;
-import static com.faforever.client.chat.SocialStatus.SELF;
+import static java.util.Locale.US;
 
 @Component
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
@@ -57,10 +57,18 @@ public class ChannelTabController extends AbstractChatTabController {
   static final String CSS_CLASS_MODERATOR = "moderator";
   private static final String USER_CSS_CLASS_FORMAT = "user-%s";
   private static final long IDLE_TIME_UPDATE_DELAY = Duration.ofMinutes(1).getSeconds();
+  @VisibleForTesting
+  final ChatUserListModel chatUserListModel;
+  /**
+   * The controllers of all cells of the user list, which are reused for whichever user a cell currently displays.
+   */
+  private final List<ChatUserItemController> chatUserItemControllers;
   /**
-   * Keeps track of which ChatUserControl in which pane belongs to which user.
+   * The listeners this tab has added to the player and chat user of each user in the channel, by lower case username.
+   * They are disposed when the user leaves the channel or the tab is closed.
    */
-  private final Map<String, Map<Pane, ChatUserItemController>> userToChatUserControls;
+  @VisibleForTesting
+  final Map<String, Subscriptions> userSubscriptions;
   private final I18n i18n;
   private final ThreadPoolExecutor threadPoolExecutor;
   private final ScheduledExecutorService scheduledExecutorService;
@@ -69,39 +77,29 @@ public class ChannelTabController extends AbstractChatTabController {
   public Button closeSearchFieldButton;
   public TextField searchField;
   public VBox channelTabScrollPaneVBox;
-  public TitledPane moderatorsTitlePane;
-  public TitledPane friendsTitlePane;
-  public TitledPane othersTitlePane;
-  public TitledPane chatOnlyTitlePane;
-  public TitledPane foesTitlePane;
+  public ListView<ChatUserListItem> chatUserListView;
   public Tab channelTabRoot;
   public WebView messagesWebView;
-  public Pane moderatorsPane;
-  public Pane friendsPane;
-  public Pane foesPane;
-  public Pane othersPane;
-  public Pane chatOnlyPane;
   public TextField userSearchTextField;
   public TextField messageTextField;
   private Channel channel;
   private Popup filterUserPopup;
-  private MapChangeListener<String, ChatUser> usersChangeListener;
+  private ChannelUsersListener usersListener;
   private ChangeListener<ChatColorMode> chatColorModeChangeListener;
   private UserFilterController userFilterController;
+  private ScheduledFuture<?> presenceStatusUpdateFuture;
+  private volatile boolean closed;
 
   @Inject
   public ChannelTabController(I18n i18n, ThreadPoolExecutor threadPoolExecutor, ScheduledExecutorService scheduledExecutorService) {
-    userToChatUserControls = FXCollections.observableMap(new ConcurrentHashMap<>());
+    chatUserListModel = new ChatUserListModel();
+    chatUserItemControllers = new ArrayList<>();
+    userSubscriptions = new ConcurrentHashMap<>();
     this.i18n = i18n;
     this.threadPoolExecutor = threadPoolExecutor;
     this.scheduledExecutorService = scheduledExecutorService;
   }
 
-  // TODO clean this up
-  public Map<String, Map<Pane, ChatUserItemController>> getUserToChatUserControls() {
-    return userToChatUserControls;
-  }
-
   public void setChannel(Channel channel) {
     if (this.channel != null) {
       throw new IllegalStateException("channel has already been set");
@@ -112,25 +110,26 @@ public class ChannelTabController extends AbstractChatTabController {
     setReceiver(channelName);
     channelTabRoot.setId(channelName);
     channelTabRoot.setText(channelName);
+    autoCompletionHelper.setPresentInChannel(username -> channel.getUser(username) != null);
 
-    usersChangeListener = change -> {
-      if (change.wasAdded()) {
-        onUserJoinedChannel(change.getValueAdded());
-      } else if (change.wasRemoved()) {
-        onUserLeft(change.getValueRemoved().getUsername());
-      }
-      updateUserCount(change.getMap().size());
+    usersListener = (added, removed) -> {
+      onUsersJoinedChannel(added);
+      onUsersLeft(removed);
+      updateUserCount(channel.getUserCount());
     };
-    updateUserCount(channel.getUsers().size());
+    updateUserCount(channel.getUserCount());
 
-    chatService.addUsersListener(channelName, usersChangeListener);
+    chatService.addUsersListener(channelName, usersListener);
 
     // Maybe there already were some users; fetch them
-    threadPoolExecutor.execute(() -> channel.getUsers().forEach(ChannelTabController.this::onUserJoinedChannel));
+    threadPoolExecutor.execute(() -> onUsersJoinedChannel(channel.getUsers()));
 
-    channelTabRoot.setOnCloseRequest(event -> {
-      chatService.leaveChannel(channel.getName());
-      chatService.removeUsersListener(channelName, usersChangeListener);
+    channelTabRoot.setOnCloseRequest(event -> chatService.leaveChannel(channel.getName()));
+    // The tab is removed from its tab pane when it's closed by the user, but also when the channel has been left
+    channelTabRoot.tabPaneProperty().addListener((observable, oldValue, newValue) -> {
+      if (oldValue != null && newValue == null) {
+        onClosed();
+      }
     });
 
     searchFieldContainer.visibleProperty().bind(searchField.visibleProperty());
@@ -145,8 +144,8 @@ public class ChannelTabController extends AbstractChatTabController {
   @Override
   public void initialize() {
     super.initialize();
-    scheduledExecutorService.scheduleWithFixedDelay(this::updatePresenceStatusIndicators, 0, IDLE_TIME_UPDATE_DELAY, TimeUnit.SECONDS);
-    userSearchTextField.textProperty().addListener((observable, oldValue, newValue) -> filterChatUserControlsBySearchString());
+    presenceStatusUpdateFuture = scheduledExecutorService.scheduleWithFixedDelay(this::updatePresenceStatusIndicators, 0, IDLE_TIME_UPDATE_DELAY, TimeUnit.SECONDS);
+    userSearchTextField.textProperty().addListener((observable, oldValue, newValue) -> chatUserListModel.setSearchText(newValue));
 
     chatColorModeChangeListener = (observable, oldValue, newValue) -> {
       if (newValue != DEFAULT) {
@@ -160,29 +159,44 @@ public class ChannelTabController extends AbstractChatTabController {
     channelTabScrollPaneVBox.setPrefWidth(preferencesService.getPreferences().getChat().getChannelTabScrollPaneWidth());
     addChatColorListener();
     addUserFilterPopup();
+
+    chatUserListView.setItems(chatUserListModel.getItems());
+    chatUserListView.setCellFactory(param -> new ChatUserListCell(chatUserListModel, i18n, this::createChatUserItemController));
+    chatUserListModel.setFilter(userFilterController::filterUser);
   }
 
-  private void updatePresenceStatusIndicators() {
-    Platform.runLater(() -> userToChatUserControls.values().stream()
-        .flatMap(paneChatUserItemControllerMap -> paneChatUserItemControllerMap.values().stream())
-        .forEach(ChatUserItemController::updatePresenceStatusIndicator));
+  private ChatUserItemController createChatUserItemController() {
+    ChatUserItemController chatUserItemController = uiService.loadFxml("theme/chat/chat_user_item.fxml");
+    chatUserItemControllers.add(chatUserItemController);
+    return chatUserItemController;
   }
 
   /**
-   * Hides all chat user controls whose username does not contain the string entered in the {@link
-   * #userSearchTextField}.
+   * Releases everything that would otherwise keep this tab alive or let it grow: the listeners on the channel, the
+   * players and the chat users, and the presence status timer.
    */
-  private void filterChatUserControlsBySearchString() {
-    synchronized (userToChatUserControls) {
-      for (Map<Pane, ChatUserItemController> chatUserControlMap : userToChatUserControls.values()) {
-        synchronized (chatUserControlMap) {
-          for (Map.Entry<Pane, ChatUserItemController> chatUserControlEntry : chatUserControlMap.entrySet()) {
-            ChatUserItemController chatUserItemController = chatUserControlEntry.getValue();
-            chatUserItemController.setVisible(isUsernameMatch(chatUserItemController));
-          }
-        }
-      }
+  @VisibleForTesting
+  void onClosed() {
+    JavaFxUtil.assertApplicationThread();
+    closed = true;
+    channel.removeUserListener(usersListener);
+    if (presenceStatusUpdateFuture != null) {
+      presenceStatusUpdateFuture.cancel(false);
     }
+    userSubscriptions.values().forEach(Subscriptions::dispose);
+    userSubscriptions.clear();
+    chatUserItemControllers.forEach(chatUserItemController -> chatUserItemController.setPlayer(null));
+  }
+
+  private void updatePresenceStatusIndicators() {
+    Platform.runLater(() -> chatUserItemControllers.forEach(ChatUserItemController::updatePresenceStatusIndicator));
+  }
+
+  /**
+   * Applies the advanced user filter to all users of this channel.
+   */
+  public void refilterUsers() {
+    chatUserListModel.refilter();
   }
 
   private void setAllMessageColors() {
@@ -196,41 +210,6 @@ public class ChannelTabController extends AbstractChatTabController {
     getJsObject().call("removeAllMessageColors");
   }
 
-  @VisibleForTesting
-  boolean isUsernameMatch(ChatUserItemController chatUserItemController) {
-    String lowerCaseSearchString = chatUserItemController.getPlayer().getUsername().toLowerCase();
-    return lowerCaseSearchString.contains(userSearchTextField.getText().toLowerCase());
-  }
-
-  /**
-   * Inserts the given ChatUserControl into the given Pane such that it is correctly sorted alphabetically.
-   */
-  private void addChatUserItemSorted(Pane pane, ChatUserItemController chatUserItemController) {
-    ObservableList<Node> children = pane.getChildren();
-
-    Pane chatUserItemRoot = chatUserItemController.getRoot();
-    if (chatUserItemController.getPlayer().getSocialStatus() == SELF) {
-      children.add(0, chatUserItemRoot);
-      return;
-    }
-
-    String thisUsername = chatUserItemController.getPlayer().getUsername();
-    for (Node child : children) {
-      String otherUsername = ((ChatUserItemController) child.getUserData()).getPlayer().getUsername();
-
-      if (otherUsername.equalsIgnoreCase(userService.getUsername())) {
-        continue;
-      }
-
-      if (thisUsername.compareToIgnoreCase(otherUsername) < 0) {
-        children.add(children.indexOf(child), chatUserItemRoot);
-        return;
-      }
-    }
-
-    children.add(chatUserItemRoot);
-  }
-
   @Override
   public Tab getRoot() {
     return channelTabRoot;
@@ -308,36 +287,54 @@ public class ChannelTabController extends AbstractChatTabController {
     Platform.runLater(() -> getJsObject().call("updateUserMessageDisplay", String.format(USER_CSS_CLASS_FORMAT, player.getUsername()), display));
   }
 
-  private void onUserJoinedChannel(ChatUser chatUser) {
+  /**
+   * Binds the players of the specified users and adds them to the user list in one go.
+   */
+  private void onUsersJoinedChannel(List<ChatUser> chatUsers) {
     JavaFxUtil.assertBackgroundThread();
+    if (chatUsers.isEmpty()) {
+      return;
+    }
+
+    List<Player> players = new ArrayList<>(chatUsers.size());
+    for (ChatUser chatUser : chatUsers) {
+      players.add(onUserJoinedChannel(chatUser));
+    }
+    Platform.runLater(() -> players.forEach(player -> chatUserListModel.setCategories(player, getTargetCategories(player))));
+  }
 
+  private Player onUserJoinedChannel(ChatUser chatUser) {
     ChatPrefs chatPrefs = preferencesService.getPreferences().getChat();
 
     String username = chatUser.getUsername();
     Player player = playerService.createAndGetPlayerForUsername(username);
 
-    player.moderatorForChannelsProperty().bind(chatUser.moderatorInChannelsProperty());
-    player.usernameProperty().addListener((observable, oldValue, newValue) -> {
-      Map<Pane, ChatUserItemController> userItemControllers = userToChatUserControls.get(oldValue);
-      if (userItemControllers == null) {
-        return;
-      }
-      for (Map.Entry<Pane, ChatUserItemController> entry : userItemControllers.entrySet()) {
-        Pane pane = entry.getKey();
-        ChatUserItemController chatUserItemController = entry.getValue();
+    // A user who is listed again (e.g. after a reconnect) must not end up with two sets of listeners
+    Subscriptions subscriptions = new Subscriptions();
+    Subscriptions previousSubscriptions = userSubscriptions.put(username.toLowerCase(US), subscriptions);
+    if (previousSubscriptions != null) {
+      previousSubscriptions.dispose();
+    }
+    if (closed) {
+      userSubscriptions.remove(username.toLowerCase(US), subscriptions);
+      subscriptions.dispose();
+      return player;
+    }
 
-        pane.getChildren().remove(chatUserItemController.getRoot());
-        addChatUserItemSorted(pane, chatUserItemController);
-      }
-    });
-    player.usernameProperty().bind(chatUser.usernameProperty());
+    // Copied rather than bound, since a binding would keep the chat user alive as long as the player
+    Bindings.bindContent(player.getModeratorForChannels(), chatUser.getModeratorInChannels());
+    subscriptions.onDispose(() -> Bindings.unbindContent(player.getModeratorForChannels(), chatUser.getModeratorInChannels()));
+    subscriptions.addListener(player.usernameProperty(), (observable, oldValue, newValue) ->
+        Platform.runLater(() -> chatUserListModel.updateSortOrder(player)));
+    player.setUsername(chatUser.getUsername());
+    subscriptions.addListener(chatUser.usernameProperty(), (observable, oldValue, newValue) -> player.setUsername(newValue));
+
+    subscriptions.addListener(player.socialStatusProperty(), (observable, oldValue, newValue) -> {
+      updateCategories(player);
 
-    player.socialStatusProperty().addListener((observable, oldValue, newValue) -> {
       if (newValue == OTHER && player.isChatOnly()) {
-        addToPane(player, chatOnlyPane);
         setUserMessageClass(player, CSS_CLASS_CHAT_ONLY);
       } else {
-        addToPane(player, getPaneForSocialStatus(newValue));
         setUserMessageClass(player, newValue.getCssClass());
       }
 
@@ -346,10 +343,8 @@ public class ChannelTabController extends AbstractChatTabController {
       }
 
       if (oldValue == OTHER && player.isChatOnly()) {
-        removeFromPane(player, chatOnlyPane);
         removeUserMessageClass(player, CSS_CLASS_CHAT_ONLY);
       } else {
-        removeFromPane(player, getPaneForSocialStatus(oldValue));
         removeUserMessageClass(player, oldValue.getCssClass());
       }
 
@@ -358,38 +353,27 @@ public class ChannelTabController extends AbstractChatTabController {
       }
     });
 
-    player.chatOnlyProperty().addListener((observable, oldValue, newValue) -> {
+    subscriptions.addListener(player.chatOnlyProperty(), (observable, oldValue, newValue) -> {
       if (player.getSocialStatus() == OTHER && !chatUser.getModeratorInChannels().contains(username)) {
+        updateCategories(player);
         if (newValue) {
-          removeFromPane(player, othersPane);
-          addToPane(player, chatOnlyPane);
           setUserMessageClass(player, CSS_CLASS_CHAT_ONLY);
         } else {
-          removeFromPane(player, chatOnlyPane);
-          addToPane(player, getPaneForSocialStatus(player.getSocialStatus()));
           removeUserMessageClass(player, CSS_CLASS_CHAT_ONLY);
         }
       }
     });
 
-    player.getModeratorForChannels().addListener((SetChangeListener<String>) change -> {
+    subscriptions.addListener(player.getModeratorForChannels(), (SetChangeListener<String>) change -> {
+      updateCategories(player);
       if (change.wasAdded()) {
-        addToPane(player, moderatorsPane);
-        removeFromPane(player, othersPane);
-        removeFromPane(player, chatOnlyPane);
         setUserMessageClass(player, CSS_CLASS_MODERATOR);
-
       } else {
-        removeFromPane(player, moderatorsPane);
-        SocialStatus socialStatus = player.getSocialStatus();
-        if (socialStatus == OTHER || socialStatus == SELF) {
-          addToPane(player, othersPane);
-        }
         removeUserMessageClass(player, CSS_CLASS_MODERATOR);
       }
     });
 
-    chatPrefs.hideFoeMessagesProperty().addListener((observable, oldValue, newValue) -> {
+    subscriptions.addListener(chatPrefs.hideFoeMessagesProperty(), (observable, oldValue, newValue) -> {
       if (newValue && player.getSocialStatus() == FOE) {
         updateUserMessageDisplay(player, "none");
       } else {
@@ -397,125 +381,63 @@ public class ChannelTabController extends AbstractChatTabController {
       }
     });
 
-    chatUser.colorProperty().addListener((observable, oldValue, newValue) ->
+    subscriptions.addListener(chatUser.colorProperty(), (observable, oldValue, newValue) ->
         Platform.runLater(() -> updateUserMessageColor(chatUser))
     );
 
-    Collection<Pane> targetPanesForUser = getTargetPanesForUser(player);
-
-    for (Pane pane : targetPanesForUser) {
-      ChatUserItemController chatUserItemController = createChatUserControlForPlayerIfNecessary(pane, player);
-
-      // Apply filter if exists
-      if (!userSearchTextField.textProperty().get().isEmpty()) {
-        chatUserItemController.setVisible(isUsernameMatch(chatUserItemController));
-      }
-      if (filterUserPopup.isShowing()) {
-        userFilterController.filterUser(chatUserItemController);
-      }
-    }
-  }
-
-  private Pane getPaneForSocialStatus(SocialStatus socialStatus) {
-    switch (socialStatus) {
-      case FRIEND:
-        return friendsPane;
-      case FOE:
-        return foesPane;
-      default:
-        return othersPane;
-    }
+    return player;
   }
 
-  private void onUserLeft(String username) {
-    JavaFxUtil.assertBackgroundThread();
-
-    Map<Pane, ChatUserItemController> paneToChatUserControlMap = userToChatUserControls.get(username);
-    if (paneToChatUserControlMap == null) {
-      return;
-    }
-
+  /**
+   * Moves the specified user to the categories matching its current state, unless it has left the channel.
+   */
+  private void updateCategories(Player player) {
     Platform.runLater(() -> {
-      synchronized (paneToChatUserControlMap) {
-        for (Map.Entry<Pane, ChatUserItemController> entry : paneToChatUserControlMap.entrySet()) {
-          entry.getKey().getChildren().remove(entry.getValue().getRoot());
-        }
-        paneToChatUserControlMap.clear();
+      if (!chatUserListModel.getCategories(player).isEmpty()) {
+        chatUserListModel.setCategories(player, getTargetCategories(player));
       }
     });
-    userToChatUserControls.remove(username);
   }
 
-  private ChatUserItemController addToPane(Player player, Pane pane) {
-    return createChatUserControlForPlayerIfNecessary(pane, player);
-  }
+  private void onUsersLeft(List<ChatUser> chatUsers) {
+    JavaFxUtil.assertBackgroundThread();
 
-  private void removeFromPane(Player player, Pane pane) {
-    Map<Pane, ChatUserItemController> paneChatUserControlMap = userToChatUserControls.get(player.getUsername());
-    if (paneChatUserControlMap == null) {
-      // User has not yet been added to this pane; no need to remove him
-      return;
-    }
-    synchronized (paneChatUserControlMap) {
-      ChatUserItemController controller = paneChatUserControlMap.remove(pane);
-      if (controller == null) {
-        return;
+    List<Player> players = new ArrayList<>(chatUsers.size());
+    for (ChatUser chatUser : chatUsers) {
+      Subscriptions subscriptions = userSubscriptions.remove(chatUser.getUsername().toLowerCase(US));
+      if (subscriptions != null) {
+        subscriptions.dispose();
       }
-      Pane root = controller.getRoot();
-      if (root != null) {
-        Platform.runLater(() -> pane.getChildren().remove(root));
-      }
-    }
-  }
 
-  /**
-   * Creates a {@link ChatUserItemController} for the given playerInfoBean and adds it to the given pane if there isn't
-   * already such a control in this pane. After the control has been added, the user search filter is applied.
-   */
-  private ChatUserItemController createChatUserControlForPlayerIfNecessary(Pane pane, Player player) {
-    String username = player.getUsername();
-    synchronized (userToChatUserControls) {
-      if (!userToChatUserControls.containsKey(username)) {
-        userToChatUserControls.put(username, new HashMap<>(1, 1));
+      Player player = playerService.getPlayerForUsername(chatUser.getUsername());
+      if (player != null) {
+        players.add(player);
       }
     }
-
-    Map<Pane, ChatUserItemController> paneToChatUserControlMap = userToChatUserControls.get(username);
-
-    ChatUserItemController existingChatUserItemController = paneToChatUserControlMap.get(pane);
-    if (existingChatUserItemController != null) {
-      return existingChatUserItemController;
+    if (!players.isEmpty()) {
+      Platform.runLater(() -> players.forEach(chatUserListModel::removeAll));
     }
-
-    ChatUserItemController chatUserItemController = uiService.loadFxml("theme/chat/chat_user_item.fxml");
-    chatUserItemController.setPlayer(player);
-    paneToChatUserControlMap.put(pane, chatUserItemController);
-
-    chatUserItemController.setColorsAllowedInPane((pane == othersPane || pane == chatOnlyPane) && player.getSocialStatus() != SELF);
-
-    Platform.runLater(() -> {
-      addChatUserItemSorted(pane, chatUserItemController);
-      isUsernameMatch(chatUserItemController);
-    });
-
-    return chatUserItemController;
   }
 
-  private Collection<Pane> getTargetPanesForUser(Player player) {
-    ArrayList<Pane> panes = new ArrayList<>(3);
+  private Set<ChatUserCategory> getTargetCategories(Player player) {
+    Set<ChatUserCategory> categories = EnumSet.noneOf(ChatUserCategory.class);
 
     if (player.getModeratorForChannels().contains(channel.getName())) {
-      panes.add(moderatorsPane);
+      categories.add(ChatUserCategory.MODERATOR);
     }
 
-    Pane pane = getPaneForSocialStatus(player.getSocialStatus());
-    if (pane == othersPane && player.isChatOnly()) {
-      panes.add(chatOnlyPane);
-    } else {
-      panes.add(pane);
+    switch (player.getSocialStatus()) {
+      case FRIEND:
+        categories.add(ChatUserCategory.FRIEND);
+        break;
+      case FOE:
+        categories.add(ChatUserCategory.FOE);
+        break;
+      default:
+        categories.add(player.isChatOnly() ? ChatUserCategory.CHAT_ONLY : ChatUserCategory.OTHER);
     }
 
-    return panes;
+    return categories;
   }
 
   public void onKeyReleased(KeyEvent event) {
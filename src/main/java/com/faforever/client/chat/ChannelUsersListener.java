@@ -0,0 +1,20 @@
+package com.faforever.client.chat;
+
+import java.util.List;
+
+/**
+ * Listens for users joining or leaving a {@link Channel}. All users that joined or left within one update, like the
+ * user list received when joining a channel or a burst of joins and quits caused by a netsplit, are reported in a
+ * single call.
+ */
+@FunctionalInterface
+public interface ChannelUsersListener {
+
+  /**
+   * Called on the thread that updated the channel, after the update has been applied.
+   *
+   * @param added the users that joined the channel, never {@code null}
+   * @param removed the users that left the channel, never {@code null}
+   */
+  void onUsersChanged(List<ChatUser> added, List<ChatUser> removed);
+}
@@ -202,13 +202,9 @@ public class ChatController extends AbstractViewController<Node> {
   }
 
   private void joinChannel(String channelName) {
-    chatService.addUsersListener(channelName, change -> {
-      if (change.wasRemoved()) {
-        onChatUserLeftChannel(channelName, change.getValueRemoved().getUsername());
-      }
-      if (change.wasAdded()) {
-        onUserJoinedChannel(channelName, change.getValueAdded());
-      }
+    chatService.addUsersListener(channelName, (added, removed) -> {
+      removed.forEach(chatUser -> onChatUserLeftChannel(channelName, chatUser.getUsername()));
+      added.forEach(chatUser -> onUserJoinedChannel(channelName, chatUser));
     });
     chatService.joinChannel(channelName);
   }
@@ -224,11 +220,9 @@ public class ChatController extends AbstractViewController<Node> {
   }
 
   private void onUserJoinedChannel(String channelName, ChatUser chatUser) {
-    Platform.runLater(() -> {
-      if (isCurrentUser(chatUser)) {
-        onConnected();
-      }
-    });
+    if (isCurrentUser(chatUser)) {
+      Platform.runLater(this::onConnected);
+    }
   }
 
   private boolean isCurrentUser(ChatUser chatUser) {
@@ -0,0 +1,395 @@
+package com.faforever.client.chat;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.github.nocatch.NoCatch.noCatch;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * The message history of a channel or private chat. Messages are appended to a log file on disk, and the offset of
+ * each record is appended to an index file. This way, any range of messages can be read with two positioned reads
+ * instead of scanning the log. The most recent messages are also kept in a ring buffer of fixed size, from which most
+ * reads are served without touching the disk.
+ * <p>
+ * Messages are identified by their index, which is {@code 0} for the oldest message on disk when the history has been
+ * loaded. They are written to disk in batches on a background thread. If the history can't be written, it only keeps
+ * the recent messages.
+ * <p>
+ * To keep the files from growing forever, only a limited number of messages is kept on disk. Older messages are
+ * dropped when the history is loaded, so that the indexes of the messages never change while the history is in use.
+ */
+class ChatHistory {
+
+  private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final int OFFSET_SIZE = Long.BYTES;
+  /**
+   * Longer messages are truncated so that they fit into a single {@link DataOutputStream#writeUTF(String)}. Since IRC
+   * messages are limited to 512 bytes, this never happens in practice.
+   */
+  private static final int MAX_MESSAGE_LENGTH = 16_000;
+
+  private final String receiver;
+  private final Path logFile;
+  private final Path indexFile;
+  private final Executor executor;
+  private final int maxStoredMessages;
+  /**
+   * The most recent messages, where the message with index {@code i} is stored at {@code i % recentMessages.length}.
+   * Guarded by {@code this}.
+   */
+  private final ChatMessage[] recentMessages;
+  /**
+   * Messages that have been appended but not yet been written to disk. Guarded by {@code this}.
+   */
+  private final List<ChatMessage> unwrittenMessages;
+  /**
+   * Serializes all disk access. Never acquired while holding the lock of {@code this}.
+   */
+  private final Object fileLock;
+  /**
+   * Number of messages in this history. Guarded by {@code this}.
+   */
+  private long size;
+  /**
+   * Guarded by {@code this}.
+   */
+  private boolean flushScheduled;
+  /**
+   * Whether writing the history failed, after which only the recent messages are kept. Guarded by {@code this}.
+   */
+  private boolean writeFailed;
+  /**
+   * Number of messages written to disk. Guarded by {@link #fileLock}.
+   */
+  private long writtenSize;
+
+  /**
+   * @param receiver the channel or user name, as it is to be set as the source of the messages read from disk
+   * @param recentMessagesCount the number of messages to keep in memory
+   * @param maxStoredMessages the number of messages to keep on disk when the history is loaded
+   * @param executor the executor used to write messages in background
+   */
+  ChatHistory(String receiver, Path logFile, Path indexFile, int recentMessagesCount, int maxStoredMessages, Executor executor) {
+    this.receiver = receiver;
+    this.logFile = logFile;
+    this.indexFile = indexFile;
+    this.executor = executor;
+    this.maxStoredMessages = maxStoredMessages;
+    recentMessages = new ChatMessage[recentMessagesCount];
+    unwrittenMessages = new ArrayList<>();
+    fileLock = new Object();
+
+    synchronized (fileLock) {
+      try {
+        writtenSize = dropOldMessages(recover());
+      } catch (IOException e) {
+        logger.warn("Chat history of '{}' could not be loaded", receiver, e);
+        writeFailed = true;
+      }
+      size = writtenSize;
+    }
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new EOFException("Unexpected end of file at position " + (position + buffer.position()));
+      }
+    }
+    buffer.flip();
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer, position + buffer.position());
+    }
+  }
+
+  /**
+   * Returns the position after the record at the specified offset, or {@code -1} if the record has not been written
+   * completely.
+   */
+  private static long getRecordEnd(FileChannel log, long offset) throws IOException {
+    if (offset + Integer.BYTES > log.size()) {
+      return -1;
+    }
+    ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+    readFully(log, length, offset);
+    int recordLength = length.getInt();
+    if (recordLength < 0) {
+      return -1;
+    }
+    long end = offset + Integer.BYTES + recordLength;
+    return end <= log.size() ? end : -1;
+  }
+
+  /**
+   * Drops index entries and log records that have not been written completely, like when the client was killed while
+   * writing.
+   *
+   * @return the number of messages on disk
+   */
+  private long recover() throws IOException {
+    if (Files.notExists(logFile) || Files.notExists(indexFile)) {
+      Files.deleteIfExists(logFile);
+      Files.deleteIfExists(indexFile);
+      return 0;
+    }
+
+    try (FileChannel index = FileChannel.open(indexFile, READ, WRITE);
+         FileChannel log = FileChannel.open(logFile, READ, WRITE)) {
+      long count = index.size() / OFFSET_SIZE;
+      long logEnd = 0;
+      while (count > 0) {
+        ByteBuffer offset = ByteBuffer.allocate(OFFSET_SIZE);
+        readFully(index, offset, (count - 1) * OFFSET_SIZE);
+        logEnd = getRecordEnd(log, offset.getLong());
+        if (logEnd != -1) {
+          break;
+        }
+        count--;
+      }
+      index.truncate(count * OFFSET_SIZE);
+      log.truncate(count > 0 ? logEnd : 0);
+      return count;
+    }
+  }
+
+  /**
+   * Rewrites the files without all but the most recent {@link #maxStoredMessages} messages.
+   *
+   * @param count the number of messages on disk
+   * @return the number of messages on disk
+   */
+  private long dropOldMessages(long count) throws IOException {
+    if (count <= maxStoredMessages) {
+      return count;
+    }
+    Path newLogFile = logFile.resolveSibling(logFile.getFileName() + ".tmp");
+    Path newIndexFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+
+    try (FileChannel index = FileChannel.open(indexFile, READ);
+         FileChannel log = FileChannel.open(logFile, READ);
+         FileChannel newIndex = FileChannel.open(newIndexFile, CREATE, TRUNCATE_EXISTING, WRITE);
+         FileChannel newLog = FileChannel.open(newLogFile, CREATE, TRUNCATE_EXISTING, WRITE)) {
+      ByteBuffer offsets = ByteBuffer.allocate(maxStoredMessages * OFFSET_SIZE);
+      readFully(index, offsets, (count - maxStoredMessages) * OFFSET_SIZE);
+      long start = offsets.getLong(0);
+      for (int i = 0; i < maxStoredMessages; i++) {
+        offsets.putLong(i * OFFSET_SIZE, offsets.getLong(i * OFFSET_SIZE) - start);
+      }
+      writeFully(newIndex, offsets, 0);
+
+      long position = start;
+      while (position < log.size()) {
+        position += log.transferTo(position, log.size() - position, newLog);
+      }
+    }
+
+    // If this is interrupted, recover() finds the index missing and starts over rather than mixing old and new files
+    Files.delete(indexFile);
+    Files.move(newLogFile, logFile, REPLACE_EXISTING);
+    Files.move(newIndexFile, indexFile);
+    logger.debug("Dropped {} old messages from the chat history of '{}'", count - maxStoredMessages, receiver);
+    return maxStoredMessages;
+  }
+
+  /**
+   * Appends the specified message to this history and schedules it to be written to disk.
+   *
+   * @return the index of the message
+   */
+  long append(ChatMessage message) {
+    long index;
+    synchronized (this) {
+      index = size++;
+      recentMessages[(int) (index % recentMessages.length)] = message;
+      if (writeFailed) {
+        return index;
+      }
+      unwrittenMessages.add(message);
+      if (flushScheduled) {
+        return index;
+      }
+      flushScheduled = true;
+    }
+
+    try {
+      executor.execute(this::flush);
+    } catch (RejectedExecutionException e) {
+      // The message will be written by the next flush
+      synchronized (this) {
+        flushScheduled = false;
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Returns the number of messages in this history, including the ones not yet written to disk.
+   */
+  synchronized long size() {
+    return size;
+  }
+
+  /**
+   * Writes all appended messages to disk.
+   */
+  void flush() {
+    synchronized (fileLock) {
+      List<ChatMessage> messages;
+      synchronized (this) {
+        flushScheduled = false;
+        if (unwrittenMessages.isEmpty()) {
+          return;
+        }
+        messages = new ArrayList<>(unwrittenMessages);
+        unwrittenMessages.clear();
+      }
+
+      try {
+        write(messages);
+      } catch (IOException e) {
+        logger.warn("Chat history of '{}' could not be written, only recent messages will be kept", receiver, e);
+        synchronized (this) {
+          writeFailed = true;
+          unwrittenMessages.clear();
+        }
+      }
+    }
+  }
+
+  /**
+   * Must be called while holding {@link #fileLock}.
+   */
+  private void write(List<ChatMessage> messages) throws IOException {
+    Files.createDirectories(logFile.getParent());
+
+    try (FileChannel log = FileChannel.open(logFile, CREATE, WRITE);
+         FileChannel index = FileChannel.open(indexFile, CREATE, WRITE)) {
+      long logSize = log.size();
+
+      ByteArrayOutputStream records = new ByteArrayOutputStream();
+      ByteArrayOutputStream payload = new ByteArrayOutputStream();
+      DataOutputStream recordsOut = new DataOutputStream(records);
+      DataOutputStream payloadOut = new DataOutputStream(payload);
+      ByteBuffer offsets = ByteBuffer.allocate(messages.size() * OFFSET_SIZE);
+
+      for (ChatMessage message : messages) {
+        payload.reset();
+        payloadOut.writeLong(message.getTime().toEpochMilli());
+        payloadOut.writeBoolean(message.isAction());
+        payloadOut.writeUTF(message.getUsername());
+        payloadOut.writeUTF(StringUtils.left(message.getMessage(), MAX_MESSAGE_LENGTH));
+
+        offsets.putLong(logSize + records.size());
+        recordsOut.writeInt(payload.size());
+        payload.writeTo(recordsOut);
+      }
+      offsets.flip();
+
+      // The log is written first so that an index entry never points behind the end of the log
+      writeFully(log, ByteBuffer.wrap(records.toByteArray()), logSize);
+      writeFully(index, offsets, writtenSize * OFFSET_SIZE);
+      writtenSize += messages.size();
+    }
+  }
+
+  /**
+   * Returns the messages from index {@code from} (inclusive) to index {@code to} (exclusive). Messages that are no
+   * longer in memory are read from disk. If the history could not be written, only the messages still in memory are
+   * returned.
+   */
+  List<ChatMessage> getMessages(long from, long to) throws IOException {
+    synchronized (this) {
+      if (from < 0 || from > to || to > size) {
+        throw new IndexOutOfBoundsException("Invalid range [" + from + ", " + to + ") for size " + size);
+      }
+      long firstRecentIndex = Math.max(0, size - recentMessages.length);
+      if (from >= firstRecentIndex || writeFailed) {
+        List<ChatMessage> messages = new ArrayList<>();
+        for (long index = Math.max(from, firstRecentIndex); index < to; index++) {
+          messages.add(recentMessages[(int) (index % recentMessages.length)]);
+        }
+        return messages;
+      }
+    }
+
+    flush();
+    synchronized (fileLock) {
+      return readMessages(from, Math.min(to, writtenSize));
+    }
+  }
+
+  /**
+   * Like {@link #getMessages(long, long)}, but performed in background.
+   */
+  CompletableFuture<List<ChatMessage>> getMessagesInBackground(long from, long to) {
+    return CompletableFuture.supplyAsync(() -> noCatch(() -> getMessages(from, to)), executor);
+  }
+
+  /**
+   * Must be called while holding {@link #fileLock}.
+   */
+  private List<ChatMessage> readMessages(long from, long to) throws IOException {
+    if (from >= to) {
+      return Collections.emptyList();
+    }
+
+    try (FileChannel index = FileChannel.open(indexFile, READ);
+         FileChannel log = FileChannel.open(logFile, READ)) {
+      ByteBuffer offsets = ByteBuffer.allocate(OFFSET_SIZE);
+      readFully(index, offsets, from * OFFSET_SIZE);
+      long start = offsets.getLong();
+
+      long end;
+      if (to < writtenSize) {
+        offsets.clear();
+        readFully(index, offsets, to * OFFSET_SIZE);
+        end = offsets.getLong();
+      } else {
+        end = log.size();
+      }
+
+      ByteBuffer records = ByteBuffer.allocate((int) (end - start));
+      readFully(log, records, start);
+
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(records.array()));
+      List<ChatMessage> messages = new ArrayList<>((int) (to - from));
+      for (long i = from; i < to; i++) {
+        in.readInt();
+        Instant time = Instant.ofEpochMilli(in.readLong());
+        boolean action = in.readBoolean();
+        String username = in.readUTF();
+        String message = in.readUTF();
+        messages.add(new ChatMessage(receiver, time, username, message, action));
+      }
+      return messages;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package com.faforever.client.chat;
+
+import com.faforever.client.preferences.PreferencesService;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Provides the {@link ChatHistory} of each channel and private chat. Histories are stored in the chat history
+ * directory and kept open until the client is closed.
+ */
+@Lazy
+@Service
+public class ChatHistoryService {
+
+  /**
+   * Number of messages each history keeps in memory.
+   */
+  private static final int RECENT_MESSAGES_COUNT = 200;
+  /**
+   * Number of messages each history keeps on disk. At about 100 bytes per message, a history file stays around one
+   * megabyte, plus the messages of the current session.
+   */
+  private static final int MAX_STORED_MESSAGES = 10_000;
+
+  private final Map<String, ChatHistory> histories;
+
+  @Inject
+  PreferencesService preferencesService;
+  @Inject
+  ThreadPoolExecutor threadPoolExecutor;
+
+  public ChatHistoryService() {
+    histories = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Since IRC names are case insensitive and may contain characters that aren't allowed in file names, the file name
+   * consists of the sanitized lower case name and the hash of the lower case name.
+   */
+  private static String getFileBaseName(String key) {
+    return String.format("%s-%08x", key.replaceAll("[^\\w#-]", "_"), key.hashCode());
+  }
+
+  /**
+   * Returns the history of the specified channel or user, which is loaded from disk on first access.
+   */
+  ChatHistory getHistory(String receiver) {
+    return histories.computeIfAbsent(receiver.toLowerCase(Locale.US), key -> {
+      Path directory = preferencesService.getChatHistoryDirectory();
+      String baseName = getFileBaseName(key);
+      return new ChatHistory(receiver, directory.resolve(baseName + ".log"), directory.resolve(baseName + ".idx"),
+          RECENT_MESSAGES_COUNT, MAX_STORED_MESSAGES, threadPoolExecutor);
+    });
+  }
+
+  @PreDestroy
+  void preDestroy() {
+    histories.values().forEach(ChatHistory::flush);
+  }
+}
@@ -0,0 +1,427 @@
+package com.faforever.client.chat;
+
+/**
+ * Finds URLs, e-mail addresses and channel names in chat messages and renders them as anchors which call back into the
+ * chat tab. This replaces Autolinker.js, which used to be called through the JavaScript bridge for every message, and
+ * mostly behaves like it:
+ * <ul>
+ * <li>URLs are detected by their scheme (like {@code https://}), a {@code www.} prefix or a known top level domain</li>
+ * <li>Trailing punctuation and unbalanced closing parentheses are not considered part of a URL</li>
+ * <li>The anchor text omits {@code http://}, {@code https://}, {@code www.} and a trailing slash</li>
+ * </ul>
+ * Unlike Autolinker, messages are scanned before they are HTML escaped, so that URLs containing {@code &} or {@code '}
+ * are neither cut off nor broken.
+ * <p>
+ * Scanning doesn't allocate; callers pass a {@link Link} which is reused for every match.
+ */
+public final class ChatLinkifier {
+
+  /**
+   * The top level domains that make a host name without scheme or {@code www.} prefix a link, in alphabetical order.
+   * Same as in Autolinker.js.
+   */
+  private static final String[] TOP_LEVEL_DOMAINS = {
+      "ac", "academy", "actor", "ad", "ae", "aero", "af", "ag", "agency", "ai", "al", "am", "an", "ao", "aq", "ar",
+      "arpa", "as", "asia", "at", "au", "aw", "ax", "az", "ba", "bar", "bargains", "bb", "bd", "be", "berlin", "best",
+      "bf", "bg", "bh", "bi", "bid", "bike", "biz", "bj", "blue", "bm", "bn", "bo", "boutique", "br", "bs", "bt",
+      "build", "builders", "buzz", "bv", "bw", "by", "bz", "ca", "cab", "camera", "camp", "cards", "careers", "cat",
+      "catering", "cc", "cd", "center", "ceo", "cf", "cg", "ch", "cheap", "christmas", "ci", "ck", "cl", "cleaning",
+      "clothing", "club", "cm", "cn", "co", "codes", "coffee", "com", "community", "company", "computer", "condos",
+      "construction", "contractors", "cool", "coop", "cr", "cruises", "cu", "cv", "cw", "cx", "cy", "cz", "dance",
+      "dating", "de", "democrat", "diamonds", "directory", "dj", "dk", "dm", "do", "domains", "dz", "ec", "edu",
+      "education", "ee", "eg", "email", "enterprises", "equipment", "er", "es", "estate", "et", "eu", "events",
+      "expert", "exposed", "farm", "fi", "fish", "fj", "fk", "flights", "florist", "fm", "fo", "foundation", "fr",
+      "futbol", "ga", "gallery", "gb", "gd", "ge", "gf", "gg", "gh", "gi", "gift", "gl", "glass", "gm", "gn", "gov",
+      "gp", "gq", "gr", "graphics", "gs", "gt", "gu", "guitars", "guru", "gw", "gy", "hk", "hm", "hn", "holdings",
+      "holiday", "house", "hr", "ht", "hu", "id", "ie", "il", "im", "immobilien", "in", "industries", "info",
+      "institute", "int", "international", "io", "iq", "ir", "is", "it", "je", "jm", "jo", "jobs", "jp", "kaufen",
+      "ke", "kg", "kh", "ki", "kim", "kitchen", "kiwi", "km", "kn", "kp", "kr", "kred", "kw", "ky", "kz", "la",
+      "land", "lb", "lc", "li", "lighting", "limo", "link", "lk", "lr", "ls", "lt", "lu", "luxury", "lv", "ly", "ma",
+      "maison", "management", "mango", "marketing", "mc", "md", "me", "menu", "mg", "mh", "mil", "mk", "ml", "mm",
+      "mn", "mo", "mobi", "moda", "monash", "mp", "mq", "mr", "ms", "mt", "mu", "museum", "mv", "mw", "mx", "my",
+      "mz", "na", "nagoya", "name", "nc", "ne", "net", "neustar", "nf", "ng", "ni", "ninja", "nl", "no", "np", "nr",
+      "nu", "nz", "okinawa", "om", "onl", "org", "pa", "partners", "parts", "pe", "pf", "pg", "ph", "photo",
+      "photography", "photos", "pics", "pink", "pk", "pl", "plumbing", "pm", "pn", "post", "pr", "pro", "productions",
+      "properties", "ps", "pt", "pub", "pw", "py", "qa", "qpon", "re", "recipes", "red", "rentals", "repair",
+      "report", "reviews", "rich", "ro", "rs", "ru", "ruhr", "rw", "sa", "sb", "sc", "sd", "se", "sexy", "sg", "sh",
+      "shiksha", "shoes", "si", "singles", "sj", "sk", "sl", "sm", "sn", "so", "social", "solar", "solutions", "sr",
+      "st", "su", "supplies", "supply", "support", "sv", "sx", "sy", "systems", "sz", "tattoo", "tc", "td",
+      "technology", "tel", "tf", "tg", "th", "tienda", "tips", "tj", "tk", "tl", "tm", "tn", "to", "today", "tokyo",
+      "tools", "tp", "tr", "training", "travel", "tt", "tv", "tw", "tz", "ua", "ug", "uk", "uno", "us", "uy", "uz",
+      "va", "vacations", "vc", "ve", "ventures", "vg", "vi", "viajes", "villas", "vision", "vn", "vote", "voting",
+      "voto", "voyage", "vu", "wang", "watch", "wed", "wf", "wien", "wiki", "works", "ws", "xxx", "xyz", "ye", "yt",
+      "za", "zm", "zone", "zw"
+  };
+  private static final String HTTP_PREFIX = "http://";
+  private static final String MAILTO_PREFIX = "mailto:";
+
+  private ChatLinkifier() {
+    throw new AssertionError("Not instantiatable");
+  }
+
+  /**
+   * Finds the next link in the specified text.
+   *
+   * @param from the index to start searching at
+   * @param link receives the found link
+   * @return {@code true} if a link has been found
+   */
+  public static boolean find(CharSequence text, int from, Link link) {
+    for (int i = from; i < text.length(); i++) {
+      if (i > 0 && isTokenChar(text.charAt(i - 1))) {
+        continue;
+      }
+      if (matchAt(text, i, link)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Appends the specified text to the specified target, HTML escaped and with all links converted to anchors.
+   */
+  public static void linkify(StringBuilder target, CharSequence text) {
+    Link link = new Link();
+    int position = 0;
+    while (find(text, position, link)) {
+      ChatTemplate.appendEscaped(target, text, position, link.start);
+      appendAnchor(target, text, link);
+      position = link.end;
+    }
+    ChatTemplate.appendEscaped(target, text, position, text.length());
+  }
+
+  /**
+   * Appends the anchor for a link that has been found in the specified text.
+   */
+  public static void appendAnchor(StringBuilder target, CharSequence text, Link link) {
+    switch (link.type) {
+      case URL:
+        target.append("<a href=\"javascript:void(0);\" onClick=\"chatTab.openUrl('");
+        appendJsString(target, link.hrefPrefix, text, link.start, link.end);
+        target.append("')\" onMouseOver=\"chatTab.previewUrl('");
+        appendJsString(target, link.hrefPrefix, text, link.start, link.end);
+        target.append("')\" onMouseOut=\"chatTab.hideUrlPreview()\">");
+        break;
+      case EMAIL:
+        target.append("<a href=\"javascript:void(0);\" onClick=\"chatTab.openUrl('");
+        appendJsString(target, link.hrefPrefix, text, link.start, link.end);
+        target.append("')\">");
+        break;
+      case CHANNEL:
+        target.append("<a href=\"javascript:void(0);\" onClick=\"chatTab.joinChannel('");
+        appendJsString(target, link.hrefPrefix, text, link.start, link.end);
+        target.append("')\">");
+        break;
+      default:
+        throw new AssertionError("Uncovered link type: " + link.type);
+    }
+    ChatTemplate.appendEscaped(target, text, link.textStart, link.textEnd);
+    target.append("</a>");
+  }
+
+  private static boolean matchAt(CharSequence text, int start, Link link) {
+    char c = text.charAt(start);
+    if (c == '#') {
+      return matchChannel(text, start, link);
+    }
+    if (!isAsciiLetterOrDigit(c)) {
+      return false;
+    }
+    return matchSchemeUrl(text, start, link)
+        || matchWwwUrl(text, start, link)
+        || matchEmail(text, start, link)
+        || matchDomainUrl(text, start, link);
+  }
+
+  private static boolean matchChannel(CharSequence text, int start, Link link) {
+    int end = start + 1;
+    boolean hasLetter = false;
+    while (end < text.length() && isChannelChar(text.charAt(end))) {
+      hasLetter |= Character.isLetter(text.charAt(end));
+      end++;
+    }
+    while (end > start + 1 && text.charAt(end - 1) == '-') {
+      end--;
+    }
+    if (!hasLetter) {
+      return false;
+    }
+    link.set(LinkType.CHANNEL, start, end, "", start, end);
+    return true;
+  }
+
+  private static boolean matchSchemeUrl(CharSequence text, int start, Link link) {
+    if (!isAsciiLetter(text.charAt(start))) {
+      return false;
+    }
+    int schemeEnd = start + 1;
+    while (schemeEnd < text.length() && isSchemeChar(text.charAt(schemeEnd))) {
+      schemeEnd++;
+    }
+    if (!regionMatches(text, schemeEnd, "://")
+        || regionMatches(text, start, "javascript:")
+        || regionMatches(text, start, "vbscript:")) {
+      return false;
+    }
+
+    int hostStart = schemeEnd + 3;
+    int end = scanUrlSuffix(text, start, hostStart);
+    if (!containsAsciiLetter(text, hostStart, end)) {
+      return false;
+    }
+
+    int textStart = start;
+    if (regionMatches(text, start, "http://") || regionMatches(text, start, "https://")) {
+      textStart = hostStart;
+      if (regionMatches(text, textStart, "www.")) {
+        textStart += 4;
+      }
+    }
+    setUrl(link, text, start, end, "", textStart);
+    return true;
+  }
+
+  private static boolean matchWwwUrl(CharSequence text, int start, Link link) {
+    if (!regionMatches(text, start, "www.") || start + 4 >= text.length() || !isHostChar(text.charAt(start + 4))) {
+      return false;
+    }
+    setUrl(link, text, start, scanUrlSuffix(text, start, start + 4), HTTP_PREFIX, start + 4);
+    return true;
+  }
+
+  private static boolean matchEmail(CharSequence text, int start, Link link) {
+    int at = start;
+    while (at < text.length() && isLocalPartChar(text.charAt(at))) {
+      at++;
+    }
+    if (at >= text.length() || text.charAt(at) != '@') {
+      return false;
+    }
+    int end = matchDomain(text, at + 1);
+    if (end == -1) {
+      return false;
+    }
+    link.set(LinkType.EMAIL, start, end, MAILTO_PREFIX, start, end);
+    return true;
+  }
+
+  private static boolean matchDomainUrl(CharSequence text, int start, Link link) {
+    int domainEnd = matchDomain(text, start);
+    if (domainEnd == -1) {
+      return false;
+    }
+    setUrl(link, text, start, scanUrlSuffix(text, start, domainEnd), HTTP_PREFIX, start);
+    return true;
+  }
+
+  private static void setUrl(Link link, CharSequence text, int start, int end, String hrefPrefix, int textStart) {
+    int textEnd = end;
+    if (textEnd > textStart + 1 && text.charAt(textEnd - 1) == '/') {
+      textEnd--;
+    }
+    link.set(LinkType.URL, start, end, hrefPrefix, textStart, textEnd);
+  }
+
+  /**
+   * Returns the end of the host name starting at the specified index, if it ends with a known top level domain.
+   *
+   * @return the index after the top level domain, or {@code -1} if there is none
+   */
+  private static int matchDomain(CharSequence text, int start) {
+    int hostEnd = start;
+    while (hostEnd < text.length() && isHostChar(text.charAt(hostEnd))) {
+      hostEnd++;
+    }
+
+    for (int dot = hostEnd - 1; dot > start; dot--) {
+      if (text.charAt(dot) != '.' || text.charAt(dot - 1) == '.') {
+        continue;
+      }
+      int labelEnd = dot + 1;
+      while (labelEnd < hostEnd && isAsciiLetter(text.charAt(labelEnd))) {
+        labelEnd++;
+      }
+      boolean endsAtWordBoundary = labelEnd == text.length() || !isWordChar(text.charAt(labelEnd));
+      if (labelEnd > dot + 1 && endsAtWordBoundary && isTopLevelDomain(text, dot + 1, labelEnd)) {
+        return labelEnd;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the end of a URL, which may continue with a path, query or fragment after the host name.
+   *
+   * @param start the index of the first character of the URL
+   * @param from the index to continue scanning at
+   */
+  private static int scanUrlSuffix(CharSequence text, int start, int from) {
+    int end = from;
+    for (int i = from; i < text.length() && isUrlChar(text.charAt(i)); i++) {
+      if (!isTrailingPunctuation(text.charAt(i))) {
+        end = i + 1;
+      }
+    }
+
+    if (end > start && text.charAt(end - 1) == ')') {
+      int balance = 0;
+      for (int i = start; i < end; i++) {
+        char c = text.charAt(i);
+        if (c == '(') {
+          balance++;
+        } else if (c == ')') {
+          balance--;
+        }
+      }
+      if (balance < 0) {
+        end--;
+      }
+    }
+    return end;
+  }
+
+  private static boolean isTopLevelDomain(CharSequence text, int start, int end) {
+    int low = 0;
+    int high = TOP_LEVEL_DOMAINS.length - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int comparison = compareIgnoreCase(text, start, end, TOP_LEVEL_DOMAINS[middle]);
+      if (comparison < 0) {
+        high = middle - 1;
+      } else if (comparison > 0) {
+        low = middle + 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Compares a range of the specified text with a lower case ASCII string, ignoring the case of the text.
+   */
+  private static int compareIgnoreCase(CharSequence text, int start, int end, String lowerCase) {
+    int length = Math.min(end - start, lowerCase.length());
+    for (int i = 0; i < length; i++) {
+      int difference = Character.toLowerCase(text.charAt(start + i)) - lowerCase.charAt(i);
+      if (difference != 0) {
+        return difference;
+      }
+    }
+    return (end - start) - lowerCase.length();
+  }
+
+  private static boolean regionMatches(CharSequence text, int start, String lowerCase) {
+    return start + lowerCase.length() <= text.length()
+        && compareIgnoreCase(text, start, start + lowerCase.length(), lowerCase) == 0;
+  }
+
+  private static void appendJsString(StringBuilder target, String prefix, CharSequence text, int start, int end) {
+    target.append(prefix);
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+      if (c == '\\' || c == '\'') {
+        target.append('\\');
+      }
+      ChatTemplate.appendEscaped(target, text, i, i + 1);
+    }
+  }
+
+  private static boolean containsAsciiLetter(CharSequence text, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (isAsciiLetter(text.charAt(i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Characters that, if preceding a candidate, indicate that the candidate is in the middle of a word or link.
+   */
+  private static boolean isTokenChar(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.' || c == '@' || c == '+' || c == '#';
+  }
+
+  private static boolean isAsciiLetter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  private static boolean isAsciiLetterOrDigit(char c) {
+    return isAsciiLetter(c) || (c >= '0' && c <= '9');
+  }
+
+  private static boolean isWordChar(char c) {
+    return isAsciiLetterOrDigit(c) || c == '_';
+  }
+
+  private static boolean isSchemeChar(char c) {
+    return isAsciiLetterOrDigit(c) || c == '+' || c == '-' || c == '.';
+  }
+
+  private static boolean isHostChar(char c) {
+    return isAsciiLetterOrDigit(c) || c == '-' || c == '.';
+  }
+
+  private static boolean isLocalPartChar(char c) {
+    return isAsciiLetterOrDigit(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+  }
+
+  private static boolean isChannelChar(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '-';
+  }
+
+  private static boolean isUrlChar(char c) {
+    return isAsciiLetterOrDigit(c) || "-+&@#/%=~_()|'$*[]?!:,.;".indexOf(c) != -1;
+  }
+
+  private static boolean isTrailingPunctuation(char c) {
+    return "?!:,.;'".indexOf(c) != -1;
+  }
+
+  enum LinkType {
+    URL, EMAIL, CHANNEL
+  }
+
+  /**
+   * A link found by {@link #find(CharSequence, int, Link)}.
+   */
+  public static final class Link {
+
+    private LinkType type;
+    private int start;
+    private int end;
+    private String hrefPrefix;
+    private int textStart;
+    private int textEnd;
+
+    private void set(LinkType type, int start, int end, String hrefPrefix, int textStart, int textEnd) {
+      this.type = type;
+      this.start = start;
+      this.end = end;
+      this.hrefPrefix = hrefPrefix;
+      this.textStart = textStart;
+      this.textEnd = textEnd;
+    }
+
+    LinkType getType() {
+      return type;
+    }
+
+    /**
+     * @return the index of the first character of the link
+     */
+    public int getStart() {
+      return start;
+    }
+
+    /**
+     * @return the index after the last character of the link
+     */
+    public int getEnd() {
+      return end;
+    }
+  }
+}
@@ -24,13 +24,21 @@ public interface ChatService {
 
   ChatUser getOrCreateChatUser(String username);
 
-  void addUsersListener(String channelName, MapChangeListener<String, ChatUser> listener);
+  void addUsersListener(String channelName, ChannelUsersListener listener);
 
   void addChatUsersByNameListener(MapChangeListener<String, ChatUser> listener);
 
+  /**
+   * Keeps the specified user in the chat users while a private chat with them is open, even if they are in none of the
+   * joined channels. This way, they are only removed if they actually quit.
+   */
+  void openPrivateChat(String username);
+
+  void closePrivateChat(String username);
+
   void addChannelsListener(MapChangeListener<String, Channel> listener);
 
-  void removeUsersListener(String channelName, MapChangeListener<String, ChatUser> listener);
+  void removeUsersListener(String channelName, ChannelUsersListener listener);
 
   void leaveChannel(String channelName);
 
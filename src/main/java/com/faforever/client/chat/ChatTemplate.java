@@ -0,0 +1,134 @@
+package com.faforever.client.chat;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An HTML template of the chat, like a chat section or a chat text, which has been split into literal text and
+ * variables once so that rendering it doesn't require searching and copying the template for every variable.
+ * <p>
+ * Variables are written as {@code {name}} and must be declared when compiling the template. Undeclared placeholders are
+ * kept as they are. Values are HTML escaped unless their variable has been declared to contain HTML.
+ * <p>
+ * Instances are immutable and thread safe.
+ */
+public final class ChatTemplate {
+
+  private final String[] literals;
+  /**
+   * For each variable occurrence, the index of the value to be inserted after the literal with the same index.
+   */
+  private final int[] valueIndices;
+  private final boolean[] htmlValues;
+  private final int estimatedLength;
+
+  private ChatTemplate(String[] literals, int[] valueIndices, boolean[] htmlValues, int estimatedLength) {
+    this.literals = literals;
+    this.valueIndices = valueIndices;
+    this.htmlValues = htmlValues;
+    this.estimatedLength = estimatedLength;
+  }
+
+  /**
+   * @param variables the names of the variables, in the order their values are passed to {@link #render(StringBuilder,
+   * String...)}
+   * @param htmlVariables the names of the variables whose values are HTML and must therefore not be escaped
+   */
+  public static ChatTemplate compile(String source, List<String> variables, Collection<String> htmlVariables) {
+    List<String> literals = new ArrayList<>();
+    List<Integer> valueIndices = new ArrayList<>();
+
+    int literalStart = 0;
+    int openingBrace = source.indexOf('{');
+    while (openingBrace != -1) {
+      int closingBrace = source.indexOf('}', openingBrace);
+      if (closingBrace == -1) {
+        break;
+      }
+      int valueIndex = variables.indexOf(source.substring(openingBrace + 1, closingBrace));
+      if (valueIndex == -1) {
+        openingBrace = source.indexOf('{', openingBrace + 1);
+        continue;
+      }
+
+      literals.add(source.substring(literalStart, openingBrace));
+      valueIndices.add(valueIndex);
+      literalStart = closingBrace + 1;
+      openingBrace = source.indexOf('{', literalStart);
+    }
+    literals.add(source.substring(literalStart));
+
+    boolean[] htmlValues = new boolean[variables.size()];
+    for (int i = 0; i < variables.size(); i++) {
+      htmlValues[i] = htmlVariables.contains(variables.get(i));
+    }
+
+    return new ChatTemplate(
+        literals.toArray(new String[literals.size()]),
+        valueIndices.stream().mapToInt(Integer::intValue).toArray(),
+        htmlValues,
+        source.length()
+    );
+  }
+
+  /**
+   * Appends the specified HTML escaped text to the specified target.
+   */
+  static void appendEscaped(StringBuilder target, CharSequence text) {
+    appendEscaped(target, text, 0, text.length());
+  }
+
+  /**
+   * Appends the specified range of the specified text, HTML escaped, to the specified target.
+   *
+   * @param start the index of the first character to append
+   * @param end the index after the last character to append
+   */
+  static void appendEscaped(StringBuilder target, CharSequence text, int start, int end) {
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+      switch (c) {
+        case '&':
+          target.append("&amp;");
+          break;
+        case '<':
+          target.append("&lt;");
+          break;
+        case '>':
+          target.append("&gt;");
+          break;
+        case '"':
+          target.append("&quot;");
+          break;
+        case '\'':
+          target.append("&#39;");
+          break;
+        default:
+          target.append(c);
+      }
+    }
+  }
+
+  /**
+   * Renders this template into the specified target. {@code null} values are rendered as empty strings.
+   *
+   * @param values the values of the variables, in the order they have been declared when compiling this template
+   */
+  public void render(StringBuilder target, String... values) {
+    target.ensureCapacity(target.length() + estimatedLength);
+    target.append(literals[0]);
+    for (int i = 0; i < valueIndices.length; i++) {
+      int valueIndex = valueIndices[i];
+      String value = values[valueIndex];
+      if (value != null) {
+        if (htmlValues[valueIndex]) {
+          target.append(value);
+        } else {
+          appendEscaped(target, value);
+        }
+      }
+      target.append(literals[i + 1]);
+    }
+  }
+}
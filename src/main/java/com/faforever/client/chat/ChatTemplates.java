@@ -0,0 +1,95 @@
+package com.faforever.client.chat;
+
+import com.faforever.client.theme.UiService;
+import com.google.common.io.CharStreams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static com.faforever.client.theme.UiService.CHAT_ENTRY;
+import static com.faforever.client.theme.UiService.CHAT_TEXT;
+import static com.github.nocatch.NoCatch.noCatch;
+
+/**
+ * Provides the compiled HTML templates of the current theme that are used to render chat messages. Templates are
+ * loaded once and reloaded after the theme has changed.
+ */
+@Component
+public class ChatTemplates {
+
+  private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private static final List<String> CHAT_SECTION_VARIABLES = Arrays.asList(
+      "section-id", "time", "avatar", "clan-tag", "username", "css-classes", "inline-style"
+  );
+  private static final List<String> CHAT_TEXT_VARIABLES = Arrays.asList("css-classes", "text");
+  private static final Collection<String> CHAT_TEXT_HTML_VARIABLES = Collections.singleton("text");
+
+  @Inject
+  UiService uiService;
+
+  private ChatTemplate chatSectionTemplate;
+  private ChatTemplate chatTextTemplate;
+
+  @PostConstruct
+  void postConstruct() {
+    uiService.addThemeChangeListener(this::invalidate);
+  }
+
+  /**
+   * Renders the header of a new chat section, which holds subsequent messages of the same author.
+   */
+  public void renderChatSection(StringBuilder target, int sectionId, String time, String avatarUrl, String clanTag,
+                                String username, String cssClasses, String inlineStyle) {
+    getChatSectionTemplate().render(target,
+        String.valueOf(sectionId), time, avatarUrl, clanTag, username, cssClasses, inlineStyle);
+  }
+
+  /**
+   * Renders a chat message.
+   *
+   * @param html the message text, as HTML
+   */
+  public void renderChatText(StringBuilder target, String cssClasses, String html) {
+    getChatTextTemplate().render(target, cssClasses, html);
+  }
+
+  private synchronized ChatTemplate getChatSectionTemplate() {
+    if (chatSectionTemplate == null) {
+      chatSectionTemplate = ChatTemplate.compile(readThemeFile(CHAT_ENTRY), CHAT_SECTION_VARIABLES, Collections.emptySet());
+    }
+    return chatSectionTemplate;
+  }
+
+  private synchronized ChatTemplate getChatTextTemplate() {
+    if (chatTextTemplate == null) {
+      chatTextTemplate = ChatTemplate.compile(readThemeFile(CHAT_TEXT), CHAT_TEXT_VARIABLES, CHAT_TEXT_HTML_VARIABLES);
+    }
+    return chatTextTemplate;
+  }
+
+  private synchronized void invalidate() {
+    logger.debug("Theme has changed, chat templates will be reloaded");
+    chatSectionTemplate = null;
+    chatTextTemplate = null;
+  }
+
+  private String readThemeFile(String relativeFile) {
+    return noCatch(() -> {
+      try (Reader reader = new InputStreamReader(uiService.getThemeFileUrl(relativeFile).openStream(), StandardCharsets.UTF_8)) {
+        return CharStreams.toString(reader);
+      }
+    });
+  }
+}
@@ -0,0 +1,28 @@
+package com.faforever.client.chat;
+
+/**
+ * The groups users of a channel are displayed in, in display order.
+ */
+enum ChatUserCategory {
+  MODERATOR("chat.category.moderators", "channel-tab-moderators-title"),
+  FRIEND("chat.category.friends", "channel-tab-friends-title"),
+  OTHER("chat.category.others", "channel-tab-others-title"),
+  CHAT_ONLY("chat.category.chatOnly", "channel-tab-chat-only-title"),
+  FOE("chat.category.foes", "channel-tab-foes-title");
+
+  private final String i18nKey;
+  private final String cssClass;
+
+  ChatUserCategory(String i18nKey, String cssClass) {
+    this.i18nKey = i18nKey;
+    this.cssClass = cssClass;
+  }
+
+  public String getI18nKey() {
+    return i18nKey;
+  }
+
+  public String getCssClass() {
+    return cssClass;
+  }
+}
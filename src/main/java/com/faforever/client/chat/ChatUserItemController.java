@@ -52,9 +52,12 @@ import static com.faforever.client.util.RatingUtil.getLeaderboardRating;
 import static java.time.Instant.now;
 import static java.util.Locale.US;
 
+/**
+ * Displays a chat user. Instances are reused by the cells of the channel user list, so the displayed player can be
+ * replaced at any time using {@link #setPlayer(Player)}.
+ */
 @Component
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
-// TODO null safety for "player"
 public class ChatUserItemController implements Controller<Node> {
 
   private static final String CLAN_TAG_FORMAT = "[%s]";
@@ -83,6 +86,12 @@ public class ChatUserItemController implements Controller<Node> {
   private ChangeListener<String> clanChangeListener;
   private ChangeListener<PlayerStatus> gameStatusChangeListener;
   private InvalidationListener userActivityListener;
+  private WeakChangeListener<String> weakAvatarChangeListener;
+  private WeakChangeListener<String> weakClanChangeListener;
+  private WeakChangeListener<PlayerStatus> weakGameStatusChangeListener;
+  private WeakInvalidationListener weakUserActivityListener;
+  private Tooltip countryTooltip;
+  private Tooltip avatarTooltip;
 
   @Inject
   // TODO reduce dependencies, rely on eventBus instead
@@ -119,6 +128,9 @@ public class ChatUserItemController implements Controller<Node> {
 
     colorModeChangeListener = (observable, oldValue, newValue) -> configureColor();
     colorPerUserMapChangeListener = change -> {
+      if (player == null) {
+        return;
+      }
       String lowerUsername = player.getUsername().toLowerCase(US);
       if (lowerUsername.equalsIgnoreCase(change.getKey())) {
         Color newColor = chatPrefs.getUserToColor().get(lowerUsername);
@@ -128,6 +140,24 @@ public class ChatUserItemController implements Controller<Node> {
     avatarChangeListener = (observable, oldValue, newValue) -> Platform.runLater(() -> setAvatarUrl(newValue));
     clanChangeListener = (observable, oldValue, newValue) -> Platform.runLater(() -> setClanTag(newValue));
     gameStatusChangeListener = (observable, oldValue, newValue) -> Platform.runLater(this::updateGameStatus);
+    weakAvatarChangeListener = new WeakChangeListener<>(avatarChangeListener);
+    weakClanChangeListener = new WeakChangeListener<>(clanChangeListener);
+    weakGameStatusChangeListener = new WeakChangeListener<>(gameStatusChangeListener);
+    weakUserActivityListener = new WeakInvalidationListener(userActivityListener);
+
+    synchronized (chatPrefs.chatColorModeProperty()) {
+      chatPrefs.chatColorModeProperty().addListener(new WeakChangeListener<>(colorModeChangeListener));
+    }
+    synchronized (chatPrefs.getUserToColor()) {
+      chatPrefs.getUserToColor().addListener(new WeakMapChangeListener<>(colorPerUserMapChangeListener));
+    }
+
+    countryTooltip = new Tooltip();
+    Tooltip.install(countryImageView, countryTooltip);
+    avatarTooltip = new Tooltip();
+    avatarTooltip.setAnchorLocation(PopupWindow.AnchorLocation.CONTENT_TOP_LEFT);
+    Tooltip.install(avatarImageView, avatarTooltip);
+
     joinGameHelper.setParentNode(getRoot());
   }
 
@@ -144,8 +174,13 @@ public class ChatUserItemController implements Controller<Node> {
   }
 
   private void configureColor() {
+    if (player == null) {
+      return;
+    }
     ChatPrefs chatPrefs = preferencesService.getPreferences().getChat();
 
+    usernameLabel.getStyleClass().remove(SELF.getCssClass());
+    clanLabel.getStyleClass().remove(SELF.getCssClass());
     if (player.getSocialStatus() == SELF) {
       usernameLabel.getStyleClass().add(SELF.getCssClass());
       clanLabel.getStyleClass().add(SELF.getCssClass());
@@ -161,8 +196,6 @@ public class ChatUserItemController implements Controller<Node> {
         if (chatPrefs.getUserToColor().containsKey(lowerUsername)) {
           color = chatPrefs.getUserToColor().get(lowerUsername);
         }
-
-        chatPrefs.getUserToColor().addListener(new WeakMapChangeListener<>(colorPerUserMapChangeListener));
       }
     } else if (chatPrefs.getChatColorMode() == ChatColorMode.RANDOM && colorsAllowedInPane) {
       color = ColorGeneratorUtil.generateRandomColor(chatUser.getUsername().hashCode());
@@ -186,7 +219,13 @@ public class ChatUserItemController implements Controller<Node> {
     if (StringUtils.isEmpty(avatarUrl)) {
       avatarImageView.setVisible(false);
     } else {
-      CompletableFuture.supplyAsync(() -> avatarService.loadAvatar(avatarUrl)).thenAccept(image -> avatarImageView.setImage(image));
+      avatarImageView.setImage(null);
+      CompletableFuture.supplyAsync(() -> avatarService.loadAvatar(avatarUrl)).thenAccept(image -> Platform.runLater(() -> {
+        // This item may display another player by now
+        if (player != null && avatarUrl.equals(player.getAvatarUrl())) {
+          avatarImageView.setImage(image);
+        }
+      }));
       avatarImageView.setVisible(true);
     }
   }
@@ -201,6 +240,9 @@ public class ChatUserItemController implements Controller<Node> {
   }
 
   private void updateGameStatus() {
+    if (player == null) {
+      return;
+    }
     switch (player.getStatus()) {
       case IDLE:
         statusLabel.setText("");
@@ -225,57 +267,66 @@ public class ChatUserItemController implements Controller<Node> {
     return player;
   }
 
-  public void setPlayer(Player player) {
+  /**
+   * Displays the specified player, or nothing if {@code null}. Listeners registered on the previously displayed player
+   * are removed.
+   */
+  public void setPlayer(@Nullable Player player) {
+    if (this.player != null) {
+      unbindPlayer(this.player);
+    }
     this.player = player;
+    if (player == null) {
+      return;
+    }
 
     configureColor();
-    addChatColorModeListener();
     configureCountryImageView();
     configureAvatarImageView();
     configureClanLabel();
     configureGameStatusView();
 
     usernameLabel.setText(player.getUsername());
-    player.idleSinceProperty().addListener(new WeakInvalidationListener(userActivityListener));
-    player.statusProperty().addListener(new WeakInvalidationListener(userActivityListener));
+    player.idleSinceProperty().addListener(weakUserActivityListener);
+    player.statusProperty().addListener(weakUserActivityListener);
+    updatePresenceStatus();
   }
 
-  private void addChatColorModeListener() {
-    ChatPrefs chatPrefs = preferencesService.getPreferences().getChat();
-    synchronized (chatPrefs.chatColorModeProperty()) {
-      chatPrefs.chatColorModeProperty().addListener(new WeakChangeListener<>(colorModeChangeListener));
+  private void unbindPlayer(Player player) {
+    player.avatarUrlProperty().removeListener(weakAvatarChangeListener);
+    player.clanProperty().removeListener(weakClanChangeListener);
+    player.statusProperty().removeListener(weakGameStatusChangeListener);
+    player.idleSinceProperty().removeListener(weakUserActivityListener);
+    player.statusProperty().removeListener(weakUserActivityListener);
+    countryTooltip.textProperty().unbind();
+    avatarTooltip.textProperty().unbind();
+
+    Tooltip usernameTooltip = usernameLabel.getTooltip();
+    if (usernameTooltip != null) {
+      usernameTooltip.textProperty().unbind();
+      usernameLabel.setTooltip(null);
+      clanLabel.setTooltip(null);
     }
   }
 
   private void configureCountryImageView() {
     setCountry(player.getCountry());
-
-    countryImageView.setVisible(true);
-
-    Tooltip countryTooltip = new Tooltip(player.getCountry());
     countryTooltip.textProperty().bind(player.countryProperty());
-
-    Tooltip.install(countryImageView, countryTooltip);
   }
 
   private void configureAvatarImageView() {
-    player.avatarUrlProperty().addListener(new WeakChangeListener<>(avatarChangeListener));
+    player.avatarUrlProperty().addListener(weakAvatarChangeListener);
     setAvatarUrl(player.getAvatarUrl());
-
-    Tooltip avatarTooltip = new Tooltip(player.getAvatarTooltip());
     avatarTooltip.textProperty().bind(player.avatarTooltipProperty());
-    avatarTooltip.setAnchorLocation(PopupWindow.AnchorLocation.CONTENT_TOP_LEFT);
-
-    Tooltip.install(avatarImageView, avatarTooltip);
   }
 
   private void configureClanLabel() {
     setClanTag(player.getClan());
-    player.clanProperty().addListener(new WeakChangeListener<>(clanChangeListener));
+    player.clanProperty().addListener(weakClanChangeListener);
   }
 
   private void configureGameStatusView() {
-    player.statusProperty().addListener(new WeakChangeListener<>(gameStatusChangeListener));
+    player.statusProperty().addListener(weakGameStatusChangeListener);
     updateGameStatus();
   }
 
@@ -320,7 +371,10 @@ public class ChatUserItemController implements Controller<Node> {
    */
   void updatePresenceStatusIndicator() {
     JavaFxUtil.assertApplicationThread();
+    updatePresenceStatus();
+  }
 
+  private void updatePresenceStatus() {
     if (player == null || player.getStatus() != IDLE) {
       setIdle(false);
       return;
@@ -0,0 +1,87 @@
+package com.faforever.client.chat;
+
+import com.faforever.client.i18n.I18n;
+import com.faforever.client.player.Player;
+import javafx.css.PseudoClass;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.input.MouseButton;
+
+import java.util.function.Supplier;
+
+import static com.faforever.client.chat.SocialStatus.SELF;
+
+/**
+ * Displays a {@link ChatUserListItem}. Since cells are recycled while scrolling, each cell loads a single {@link
+ * ChatUserItemController} the first time it displays a user and then only swaps the displayed player. Clicking a
+ * header collapses or expands its category.
+ */
+class ChatUserListCell extends ListCell<ChatUserListItem> {
+
+  private static final String HEADER_CSS_CLASS = "chat-user-list-header";
+  private static final PseudoClass COLLAPSED_PSEUDO_CLASS = PseudoClass.getPseudoClass("collapsed");
+
+  private final ChatUserListModel model;
+  private final I18n i18n;
+  private final Supplier<ChatUserItemController> chatUserItemControllerFactory;
+  private final Label headerLabel;
+  private ChatUserItemController chatUserItemController;
+  private String categoryCssClass;
+
+  ChatUserListCell(ChatUserListModel model, I18n i18n, Supplier<ChatUserItemController> chatUserItemControllerFactory) {
+    this.model = model;
+    this.i18n = i18n;
+    this.chatUserItemControllerFactory = chatUserItemControllerFactory;
+    headerLabel = new Label();
+    headerLabel.getStyleClass().add(HEADER_CSS_CLASS);
+
+    setOnMouseClicked(event -> {
+      ChatUserListItem item = getItem();
+      if (event.getButton() == MouseButton.PRIMARY && item != null && item.isHeader()) {
+        model.setCollapsed(item.getCategory(), !model.isCollapsed(item.getCategory()));
+        headerLabel.pseudoClassStateChanged(COLLAPSED_PSEUDO_CLASS, model.isCollapsed(item.getCategory()));
+      }
+    });
+  }
+
+  @Override
+  protected void updateItem(ChatUserListItem item, boolean empty) {
+    super.updateItem(item, empty);
+
+    if (categoryCssClass != null) {
+      getStyleClass().remove(categoryCssClass);
+      categoryCssClass = null;
+    }
+
+    if (empty || item == null) {
+      if (chatUserItemController != null) {
+        chatUserItemController.setPlayer(null);
+      }
+      setGraphic(null);
+      return;
+    }
+
+    categoryCssClass = item.getCategory().getCssClass();
+    getStyleClass().add(categoryCssClass);
+
+    if (item.isHeader()) {
+      if (chatUserItemController != null) {
+        chatUserItemController.setPlayer(null);
+      }
+      headerLabel.setText(i18n.get(item.getCategory().getI18nKey()));
+      headerLabel.pseudoClassStateChanged(COLLAPSED_PSEUDO_CLASS, model.isCollapsed(item.getCategory()));
+      setGraphic(headerLabel);
+      return;
+    }
+
+    if (chatUserItemController == null) {
+      chatUserItemController = chatUserItemControllerFactory.get();
+    }
+    Player player = item.getPlayer();
+    ChatUserCategory category = item.getCategory();
+    chatUserItemController.setColorsAllowedInPane((category == ChatUserCategory.OTHER || category == ChatUserCategory.CHAT_ONLY)
+        && player.getSocialStatus() != SELF);
+    chatUserItemController.setPlayer(player);
+    setGraphic(chatUserItemController.getRoot());
+  }
+}
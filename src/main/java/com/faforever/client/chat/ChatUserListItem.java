@@ -0,0 +1,87 @@
+package com.faforever.client.chat;
+
+import com.faforever.client.player.Player;
+import org.jetbrains.annotations.Nullable;
+
+import static com.faforever.client.chat.SocialStatus.SELF;
+import static java.util.Locale.US;
+
+/**
+ * An entry of the user list of a channel, which is either the header of a {@link ChatUserCategory} or a user within
+ * it. A user who belongs to multiple categories has one item per category.
+ */
+final class ChatUserListItem {
+
+  private final ChatUserCategory category;
+  private final Player player;
+  private final boolean self;
+  /**
+   * The username this item is currently sorted by. Only changed by {@link ChatUserListModel}, since changing it
+   * requires the item to be re-sorted.
+   */
+  private String sortName;
+  /**
+   * The lower-cased {@link #sortName}, which is matched against the user search text.
+   */
+  private String lowerCaseName;
+  /**
+   * Whether this item passes the current filter. Only changed by {@link ChatUserListModel}.
+   */
+  private boolean shown;
+
+  private ChatUserListItem(ChatUserCategory category, @Nullable Player player) {
+    this.category = category;
+    this.player = player;
+    this.self = player != null && player.getSocialStatus() == SELF;
+    setSortName(player != null ? player.getUsername() : "");
+  }
+
+  static ChatUserListItem header(ChatUserCategory category) {
+    return new ChatUserListItem(category, null);
+  }
+
+  static ChatUserListItem user(Player player, ChatUserCategory category) {
+    return new ChatUserListItem(category, player);
+  }
+
+  public ChatUserCategory getCategory() {
+    return category;
+  }
+
+  /**
+   * @return the user, or {@code null} if this item is a header
+   */
+  @Nullable
+  public Player getPlayer() {
+    return player;
+  }
+
+  public boolean isHeader() {
+    return player == null;
+  }
+
+  boolean isSelf() {
+    return self;
+  }
+
+  String getSortName() {
+    return sortName;
+  }
+
+  void setSortName(String sortName) {
+    this.sortName = sortName;
+    this.lowerCaseName = sortName.toLowerCase(US);
+  }
+
+  String getLowerCaseName() {
+    return lowerCaseName;
+  }
+
+  boolean isShown() {
+    return shown;
+  }
+
+  void setShown(boolean shown) {
+    this.shown = shown;
+  }
+}
@@ -0,0 +1,343 @@
+package com.faforever.client.chat;
+
+import com.faforever.client.player.Player;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static java.util.Locale.US;
+
+/**
+ * The model of the user list of a channel. Users are grouped by {@link ChatUserCategory} and each category keeps its
+ * users sorted (the current user first, then alphabetically), so that a user is inserted using binary search instead
+ * of comparing it to every other user.
+ * <p>
+ * The users to display are exposed as one flat list of category headers and the users within each category that pass
+ * the current filter, which is meant to be displayed by a virtualized {@link javafx.scene.control.ListView}. Changes
+ * are applied to the flat list at the computed index, so that only the affected rows are updated.
+ * <p>
+ * Users are displayed if their name contains the search text and they pass the filter. When the search text is
+ * extended, only the users matching the previous search text need to be checked again.
+ * <p>
+ * This class is not thread safe and must only be accessed from the FX application thread.
+ */
+class ChatUserListModel {
+
+  private static final Comparator<ChatUserListItem> USER_ORDER = Comparator
+      .comparing((ChatUserListItem item) -> !item.isSelf())
+      .thenComparing(ChatUserListItem::getSortName, String.CASE_INSENSITIVE_ORDER)
+      .thenComparing(ChatUserListItem::getSortName);
+
+  private final Map<ChatUserCategory, Category> categories;
+  private final Map<Player, Map<ChatUserCategory, ChatUserListItem>> itemsByPlayer;
+  private final ObservableList<ChatUserListItem> items;
+  private Predicate<Player> filter;
+  private String searchText;
+
+  ChatUserListModel() {
+    categories = new EnumMap<>(ChatUserCategory.class);
+    itemsByPlayer = new IdentityHashMap<>();
+    items = FXCollections.observableArrayList();
+    filter = player -> true;
+    searchText = "";
+
+    for (ChatUserCategory category : ChatUserCategory.values()) {
+      Category categoryModel = new Category(ChatUserListItem.header(category));
+      categories.put(category, categoryModel);
+      items.add(categoryModel.header);
+    }
+  }
+
+  /**
+   * Returns the headers of all categories and, within each expanded category, its users that pass the filter.
+   */
+  ObservableList<ChatUserListItem> getItems() {
+    return items;
+  }
+
+  /**
+   * Adds the specified user to the specified category, if it isn't already in there.
+   *
+   * @return {@code true} if the user has been added
+   */
+  boolean add(Player player, ChatUserCategory category) {
+    Map<ChatUserCategory, ChatUserListItem> playerItems = itemsByPlayer.computeIfAbsent(player, key -> new EnumMap<>(ChatUserCategory.class));
+    if (playerItems.containsKey(category)) {
+      return false;
+    }
+
+    ChatUserListItem item = ChatUserListItem.user(player, category);
+    playerItems.put(category, item);
+
+    Category categoryModel = categories.get(category);
+    insertSorted(categoryModel.members, item);
+    if (matches(item)) {
+      show(categoryModel, item);
+    }
+    return true;
+  }
+
+  /**
+   * Removes the specified user from the specified category.
+   *
+   * @return {@code true} if the user has been in the category
+   */
+  boolean remove(Player player, ChatUserCategory category) {
+    Map<ChatUserCategory, ChatUserListItem> playerItems = itemsByPlayer.get(player);
+    if (playerItems == null) {
+      return false;
+    }
+    ChatUserListItem item = playerItems.remove(category);
+    if (item == null) {
+      return false;
+    }
+    if (playerItems.isEmpty()) {
+      itemsByPlayer.remove(player);
+    }
+
+    Category categoryModel = categories.get(category);
+    categoryModel.members.remove(indexOf(categoryModel.members, item));
+    if (item.isShown()) {
+      hide(categoryModel, item);
+    }
+    return true;
+  }
+
+  /**
+   * Removes the specified user from all categories.
+   */
+  void removeAll(Player player) {
+    for (ChatUserCategory category : getCategories(player)) {
+      remove(player, category);
+    }
+  }
+
+  /**
+   * Adds the specified user to exactly the specified categories and removes it from all others.
+   */
+  void setCategories(Player player, Set<ChatUserCategory> targetCategories) {
+    for (ChatUserCategory category : ChatUserCategory.values()) {
+      if (targetCategories.contains(category)) {
+        add(player, category);
+      } else {
+        remove(player, category);
+      }
+    }
+  }
+
+  Set<ChatUserCategory> getCategories(Player player) {
+    Map<ChatUserCategory, ChatUserListItem> playerItems = itemsByPlayer.get(player);
+    if (playerItems == null) {
+      return EnumSet.noneOf(ChatUserCategory.class);
+    }
+    return EnumSet.copyOf(playerItems.keySet());
+  }
+
+  /**
+   * Moves the specified user to its new position after its username has changed and checks whether its new name
+   * matches the search text.
+   */
+  void updateSortOrder(Player player) {
+    Map<ChatUserCategory, ChatUserListItem> playerItems = itemsByPlayer.get(player);
+    if (playerItems == null) {
+      return;
+    }
+    for (ChatUserListItem item : playerItems.values()) {
+      Category categoryModel = categories.get(item.getCategory());
+      boolean shown = item.isShown();
+
+      categoryModel.members.remove(indexOf(categoryModel.members, item));
+      if (shown) {
+        hide(categoryModel, item);
+      }
+
+      item.setSortName(player.getUsername());
+
+      insertSorted(categoryModel.members, item);
+      if (matches(item)) {
+        show(categoryModel, item);
+      }
+    }
+  }
+
+  /**
+   * Sets the filter a user has to pass in order to be displayed and applies it to all users.
+   */
+  void setFilter(Predicate<Player> filter) {
+    this.filter = filter;
+    refilter();
+  }
+
+  /**
+   * Sets the text the name of a user has to contain in order to be displayed, ignoring case.
+   */
+  void setSearchText(String searchText) {
+    String lowerCaseSearchText = searchText.toLowerCase(US);
+    if (lowerCaseSearchText.equals(this.searchText)) {
+      return;
+    }
+
+    boolean narrowed = lowerCaseSearchText.contains(this.searchText);
+    this.searchText = lowerCaseSearchText;
+    if (narrowed) {
+      narrow();
+    } else {
+      refilter();
+    }
+  }
+
+  /**
+   * Applies the search text and the filter to all users, e.g. after the criteria of the filter have changed.
+   */
+  void refilter() {
+    for (Category categoryModel : categories.values()) {
+      categoryModel.shown.clear();
+      for (ChatUserListItem item : categoryModel.members) {
+        boolean shown = matches(item);
+        item.setShown(shown);
+        if (shown) {
+          categoryModel.shown.add(item);
+        }
+      }
+    }
+    publishShownItems();
+  }
+
+  /**
+   * Hides the shown users that don't match the search text anymore. Since the search text has been extended, users
+   * that have already been hidden can't match either.
+   */
+  private void narrow() {
+    boolean changed = false;
+    for (Category categoryModel : categories.values()) {
+      changed |= categoryModel.shown.removeIf(item -> {
+        if (item.getLowerCaseName().contains(searchText)) {
+          return false;
+        }
+        item.setShown(false);
+        return true;
+      });
+    }
+    if (changed) {
+      publishShownItems();
+    }
+  }
+
+  /**
+   * Replaces the displayed items with the shown users of all categories in a single change.
+   */
+  private void publishShownItems() {
+    List<ChatUserListItem> newItems = new ArrayList<>(items.size());
+    for (Category categoryModel : categories.values()) {
+      newItems.add(categoryModel.header);
+      if (!categoryModel.collapsed) {
+        newItems.addAll(categoryModel.shown);
+      }
+    }
+    items.setAll(newItems);
+  }
+
+  private boolean matches(ChatUserListItem item) {
+    return item.getLowerCaseName().contains(searchText) && filter.test(item.getPlayer());
+  }
+
+  void setCollapsed(ChatUserCategory category, boolean collapsed) {
+    Category categoryModel = categories.get(category);
+    if (categoryModel.collapsed == collapsed) {
+      return;
+    }
+
+    int firstUserIndex = indexOfHeader(categoryModel) + 1;
+    categoryModel.collapsed = collapsed;
+    if (collapsed) {
+      items.remove(firstUserIndex, firstUserIndex + categoryModel.shown.size());
+    } else {
+      items.addAll(firstUserIndex, categoryModel.shown);
+    }
+  }
+
+  boolean isCollapsed(ChatUserCategory category) {
+    return categories.get(category).collapsed;
+  }
+
+  private void show(Category categoryModel, ChatUserListItem item) {
+    item.setShown(true);
+    int index = insertSorted(categoryModel.shown, item);
+    if (!categoryModel.collapsed) {
+      items.add(indexOfHeader(categoryModel) + 1 + index, item);
+    }
+  }
+
+  private void hide(Category categoryModel, ChatUserListItem item) {
+    item.setShown(false);
+    int index = indexOf(categoryModel.shown, item);
+    categoryModel.shown.remove(index);
+    if (!categoryModel.collapsed) {
+      items.remove(indexOfHeader(categoryModel) + 1 + index);
+    }
+  }
+
+  private int indexOfHeader(Category categoryModel) {
+    int index = 0;
+    for (Category current : categories.values()) {
+      if (current == categoryModel) {
+        return index;
+      }
+      index += 1 + (current.collapsed ? 0 : current.shown.size());
+    }
+    throw new IllegalStateException("Unknown category: " + categoryModel.header.getCategory());
+  }
+
+  private static int insertSorted(List<ChatUserListItem> list, ChatUserListItem item) {
+    int index = Collections.binarySearch(list, item, USER_ORDER);
+    if (index < 0) {
+      index = -index - 1;
+    }
+    list.add(index, item);
+    return index;
+  }
+
+  private static int indexOf(List<ChatUserListItem> list, ChatUserListItem item) {
+    int index = Collections.binarySearch(list, item, USER_ORDER);
+    if (index >= 0 && list.get(index) == item) {
+      return index;
+    }
+    // Another item with the same sort name has been found, which only happens while users are being renamed
+    for (int i = 0; i < list.size(); i++) {
+      if (list.get(i) == item) {
+        return i;
+      }
+    }
+    throw new IllegalStateException("Item is not in list: " + item.getSortName());
+  }
+
+  private static final class Category {
+
+    private final ChatUserListItem header;
+    /**
+     * All users of this category, sorted.
+     */
+    private final List<ChatUserListItem> members;
+    /**
+     * The users of this category that pass the filter, sorted.
+     */
+    private final List<ChatUserListItem> shown;
+    private boolean collapsed;
+
+    private Category(ChatUserListItem header) {
+      this.header = header;
+      members = new ArrayList<>();
+      shown = new ArrayList<>();
+    }
+  }
+}
@@ -0,0 +1,229 @@
+package com.faforever.client.chat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Finds occurrences of any of a set of keywords in a text, ignoring case. The keywords are compiled into an
+ * Aho-Corasick automaton, so the text is scanned once no matter how many keywords there are, whereas matching each
+ * keyword with its own regular expression scans the text once per keyword.
+ * <p>
+ * Keywords only match whole words: the characters before and after an occurrence must not be letters, digits or
+ * underscores. Unlike {@code \b} in a regular expression, this doesn't depend on the first and last character of the
+ * keyword itself, so keywords like {@code [FAF]} match as well. Of overlapping occurrences, the one starting first
+ * and, among those, the longest is found.
+ * <p>
+ * Instances are immutable and thread safe. Scanning doesn't allocate; callers pass a {@link Match} which is reused for
+ * every occurrence.
+ */
+public final class KeywordMatcher {
+
+  private static final int ROOT = 0;
+  private static final int NONE = -1;
+
+  /**
+   * For each state, the index of its first outgoing transition in {@link #transitionChars}. The transitions of state
+   * {@code s} range from {@code transitionStart[s]} to {@code transitionStart[s + 1]} and are sorted by character.
+   */
+  private final int[] transitionStart;
+  private final char[] transitionChars;
+  private final int[] transitionTargets;
+  /**
+   * For each state, the state of the longest proper suffix of its path that is a path in the trie.
+   */
+  private final int[] failure;
+  /**
+   * For each state, the length of the keyword ending in it or {@code 0} if no keyword ends in it.
+   */
+  private final int[] keywordLength;
+  /**
+   * For each state, the nearest state along the failure links in which a keyword ends, or {@link #NONE}.
+   */
+  private final int[] output;
+  private final int maxKeywordLength;
+
+  private KeywordMatcher(int[] transitionStart, char[] transitionChars, int[] transitionTargets, int[] failure,
+                         int[] keywordLength, int[] output, int maxKeywordLength) {
+    this.transitionStart = transitionStart;
+    this.transitionChars = transitionChars;
+    this.transitionTargets = transitionTargets;
+    this.failure = failure;
+    this.keywordLength = keywordLength;
+    this.output = output;
+    this.maxKeywordLength = maxKeywordLength;
+  }
+
+  /**
+   * Compiles the specified keywords into a matcher. Empty keywords are ignored.
+   */
+  public static KeywordMatcher compile(Collection<String> keywords) {
+    List<TreeMap<Character, Integer>> children = new ArrayList<>();
+    List<Integer> lengths = new ArrayList<>();
+    children.add(new TreeMap<>());
+    lengths.add(0);
+
+    int maxKeywordLength = 0;
+    for (String keyword : keywords) {
+      int state = ROOT;
+      for (int i = 0; i < keyword.length(); i++) {
+        char c = fold(keyword.charAt(i));
+        Integer next = children.get(state).get(c);
+        if (next == null) {
+          next = children.size();
+          children.add(new TreeMap<>());
+          lengths.add(0);
+          children.get(state).put(c, next);
+        }
+        state = next;
+      }
+      if (state != ROOT) {
+        lengths.set(state, keyword.length());
+        maxKeywordLength = Math.max(maxKeywordLength, keyword.length());
+      }
+    }
+
+    int stateCount = children.size();
+    int[] transitionStart = new int[stateCount + 1];
+    int transitionCount = 0;
+    for (int state = 0; state < stateCount; state++) {
+      transitionStart[state] = transitionCount;
+      transitionCount += children.get(state).size();
+    }
+    transitionStart[stateCount] = transitionCount;
+
+    char[] transitionChars = new char[transitionCount];
+    int[] transitionTargets = new int[transitionCount];
+    int[] keywordLength = new int[stateCount];
+    for (int state = 0; state < stateCount; state++) {
+      int i = transitionStart[state];
+      for (Map.Entry<Character, Integer> entry : children.get(state).entrySet()) {
+        transitionChars[i] = entry.getKey();
+        transitionTargets[i] = entry.getValue();
+        i++;
+      }
+      keywordLength[state] = lengths.get(state);
+    }
+
+    int[] failure = new int[stateCount];
+    int[] output = new int[stateCount];
+    output[ROOT] = NONE;
+    KeywordMatcher matcher = new KeywordMatcher(transitionStart, transitionChars, transitionTargets, failure,
+        keywordLength, output, maxKeywordLength);
+
+    // Breadth first, so that the failure links of shorter paths are known when they're followed
+    Deque<Integer> queue = new ArrayDeque<>();
+    for (int i = transitionStart[ROOT]; i < transitionStart[ROOT + 1]; i++) {
+      int child = transitionTargets[i];
+      failure[child] = ROOT;
+      output[child] = NONE;
+      queue.add(child);
+    }
+    while (!queue.isEmpty()) {
+      int state = queue.poll();
+      for (int i = transitionStart[state]; i < transitionStart[state + 1]; i++) {
+        int child = transitionTargets[i];
+        int fallback = matcher.next(failure[state], transitionChars[i]);
+        failure[child] = fallback;
+        output[child] = keywordLength[fallback] > 0 ? fallback : output[fallback];
+        queue.add(child);
+      }
+    }
+    return matcher;
+  }
+
+  private static char fold(char c) {
+    return Character.toLowerCase(Character.toUpperCase(c));
+  }
+
+  private static boolean isWordBoundary(CharSequence text, int index) {
+    if (index < 0 || index >= text.length()) {
+      return true;
+    }
+    char c = text.charAt(index);
+    return !Character.isLetterOrDigit(c) && c != '_';
+  }
+
+  /**
+   * Returns the state reached from the specified state by reading the specified (folded) character, following
+   * failure links as needed.
+   */
+  private int next(int state, char c) {
+    while (true) {
+      int i = Arrays.binarySearch(transitionChars, transitionStart[state], transitionStart[state + 1], c);
+      if (i >= 0) {
+        return transitionTargets[i];
+      }
+      if (state == ROOT) {
+        return ROOT;
+      }
+      state = failure[state];
+    }
+  }
+
+  /**
+   * Finds the first keyword occurring as a whole word between {@code start} (inclusive) and {@code end} (exclusive).
+   * Characters outside of this range are considered for word boundaries, so that a region of a message can be scanned
+   * without matching parts of words.
+   *
+   * @param match receives the position of the occurrence, if any
+   * @return {@code true} if a keyword has been found
+   */
+  public boolean find(CharSequence text, int start, int end, Match match) {
+    int matchStart = NONE;
+    int matchEnd = NONE;
+    int state = ROOT;
+
+    for (int i = start; i < end; i++) {
+      // Occurrences ending here or later can't start before or at the one already found
+      if (matchStart != NONE && i + 1 - maxKeywordLength > matchStart) {
+        break;
+      }
+
+      state = next(state, fold(text.charAt(i)));
+      for (int s = keywordLength[state] > 0 ? state : output[state]; s != NONE; s = output[s]) {
+        int occurrenceStart = i + 1 - keywordLength[s];
+        if ((matchStart == NONE || occurrenceStart <= matchStart)
+            && isWordBoundary(text, occurrenceStart - 1) && isWordBoundary(text, i + 1)) {
+          matchStart = occurrenceStart;
+          matchEnd = i + 1;
+        }
+      }
+    }
+
+    if (matchStart == NONE) {
+      return false;
+    }
+    match.start = matchStart;
+    match.end = matchEnd;
+    return true;
+  }
+
+  /**
+   * The position of a keyword found by {@link #find(CharSequence, int, int, Match)}.
+   */
+  public static final class Match {
+
+    private int start;
+    private int end;
+
+    /**
+     * @return the index of the first character of the keyword
+     */
+    public int getStart() {
+      return start;
+    }
+
+    /**
+     * @return the index after the last character of the keyword
+     */
+    public int getEnd() {
+      return end;
+    }
+  }
+}
@@ -26,6 +26,7 @@ import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -127,7 +128,7 @@ public class MockChatService implements ChatService {
   }
 
   @Override
-  public void addUsersListener(String channelName, MapChangeListener<String, ChatUser> listener) {
+  public void addUsersListener(String channelName, ChannelUsersListener listener) {
     getOrCreateChannel(channelName).addUsersListeners(listener);
   }
 
@@ -136,13 +137,23 @@ public class MockChatService implements ChatService {
 
   }
 
+  @Override
+  public void openPrivateChat(String username) {
+
+  }
+
+  @Override
+  public void closePrivateChat(String username) {
+
+  }
+
   @Override
   public void addChannelsListener(MapChangeListener<String, Channel> listener) {
 
   }
 
   @Override
-  public void removeUsersListener(String channelName, MapChangeListener<String, ChatUser> listener) {
+  public void removeUsersListener(String channelName, ChannelUsersListener listener) {
 
   }
 
@@ -166,9 +177,7 @@ public class MockChatService implements ChatService {
         ChatUser moderatorUser = new ChatUser("MockModerator", Collections.singleton(channelName), null);
 
         Channel channel = getOrCreateChannel(channelName);
-        channel.addUser(chatUser);
-        channel.addUser(mockUser);
-        channel.addUser(moderatorUser);
+        channel.addUsers(Arrays.asList(chatUser, mockUser, moderatorUser));
         channel.setTopic("le wild channel topic appears");
 
         return null;
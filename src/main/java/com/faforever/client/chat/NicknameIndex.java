@@ -0,0 +1,147 @@
+package com.faforever.client.chat;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Case-insensitive prefix index of the nicknames of all known users, used for auto completion. The index is a trie
+ * whose children are kept sorted, so that completing a prefix costs O(prefix length + number of matches) regardless of
+ * how many users are known, and matches are found in alphabetical order.
+ * <p>
+ * Names can be added by several sources (e.g. the player service and the chat service), so each name is reference
+ * counted and only removed once every source that added it has removed it.
+ * <p>
+ * This class is thread safe.
+ */
+@Component
+public class NicknameIndex {
+
+  private final Node root;
+
+  public NicknameIndex() {
+    root = new Node();
+  }
+
+  private static char fold(char c) {
+    return Character.toLowerCase(Character.toUpperCase(c));
+  }
+
+  public synchronized void add(String name) {
+    Node node = root;
+    for (int i = 0; i < name.length(); i++) {
+      node = node.getOrCreateChild(fold(name.charAt(i)));
+    }
+    if (node.references++ == 0) {
+      node.name = name;
+    }
+  }
+
+  public synchronized void remove(String name) {
+    Node[] path = new Node[name.length() + 1];
+    path[0] = root;
+    for (int i = 0; i < name.length(); i++) {
+      path[i + 1] = path[i].getChild(fold(name.charAt(i)));
+      if (path[i + 1] == null) {
+        return;
+      }
+    }
+
+    Node node = path[name.length()];
+    if (node.references == 0 || --node.references > 0) {
+      return;
+    }
+    node.name = null;
+
+    // Prune nodes that no longer lead to any name
+    for (int i = name.length(); i > 0 && path[i].isEmpty(); i--) {
+      path[i - 1].removeChild(fold(name.charAt(i - 1)));
+    }
+  }
+
+  /**
+   * Returns all names that start with the specified prefix, ignoring case, in alphabetical order.
+   */
+  public synchronized List<String> complete(String prefix) {
+    Node node = root;
+    for (int i = 0; i < prefix.length() && node != null; i++) {
+      node = node.getChild(fold(prefix.charAt(i)));
+    }
+
+    List<String> names = new ArrayList<>();
+    if (node != null) {
+      node.collectNames(names);
+    }
+    return names;
+  }
+
+  private static final class Node {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    /**
+     * Sorted characters of the children, the first {@link #childCount} of which are valid.
+     */
+    private char[] keys = NO_KEYS;
+    private Node[] children = NO_CHILDREN;
+    private int childCount;
+    /**
+     * The name ending at this node as it has been added first, or {@code null} if no name ends here.
+     */
+    private String name;
+    private int references;
+
+    private Node getChild(char key) {
+      int index = Arrays.binarySearch(keys, 0, childCount, key);
+      return index >= 0 ? children[index] : null;
+    }
+
+    private Node getOrCreateChild(char key) {
+      int index = Arrays.binarySearch(keys, 0, childCount, key);
+      if (index >= 0) {
+        return children[index];
+      }
+
+      int insertionPoint = -index - 1;
+      if (childCount == keys.length) {
+        int capacity = Math.max(2, childCount * 2);
+        keys = Arrays.copyOf(keys, capacity);
+        children = Arrays.copyOf(children, capacity);
+      }
+      System.arraycopy(keys, insertionPoint, keys, insertionPoint + 1, childCount - insertionPoint);
+      System.arraycopy(children, insertionPoint, children, insertionPoint + 1, childCount - insertionPoint);
+
+      Node child = new Node();
+      keys[insertionPoint] = key;
+      children[insertionPoint] = child;
+      childCount++;
+      return child;
+    }
+
+    private void removeChild(char key) {
+      int index = Arrays.binarySearch(keys, 0, childCount, key);
+      if (index < 0) {
+        return;
+      }
+      System.arraycopy(keys, index + 1, keys, index, childCount - index - 1);
+      System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+      children[--childCount] = null;
+    }
+
+    private boolean isEmpty() {
+      return name == null && childCount == 0;
+    }
+
+    private void collectNames(List<String> names) {
+      if (name != null) {
+        names.add(name);
+      }
+      for (int i = 0; i < childCount; i++) {
+        children[i].collectNames(names);
+      }
+    }
+  }
+}
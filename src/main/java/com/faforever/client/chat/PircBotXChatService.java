@@ -65,13 +65,18 @@ import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadPoolExecutor;
-import java.util.stream.Collectors;
 
 import static com.faforever.client.chat.ChatColorMode.CUSTOM;
 import static com.faforever.client.chat.ChatColorMode.RANDOM;
@@ -98,7 +103,21 @@ public class PircBotXChatService implements ChatService {
    */
   private final ObservableMap<String, Channel> channels;
   private final ObservableMap<String, ChatUser> chatUsersByName;
+  /**
+   * Lower case names of the users with an open private chat, who are kept in {@link #chatUsersByName} until they quit.
+   * Guarded by {@link #chatUsersByName}.
+   */
+  private final Set<String> privateChatUsernames;
   private final SimpleIntegerProperty unreadMessagesCount;
+  /**
+   * Joins, parts and quits that have been received but not yet applied, in the order they have been received. Guarded
+   * by itself.
+   */
+  private final List<UserChange> pendingUserChanges;
+  /**
+   * Whether a thread is currently applying the pending user changes. Guarded by {@link #pendingUserChanges}.
+   */
+  private boolean applyingUserChanges;
 
   @Inject
   PreferencesService preferencesService;
@@ -118,6 +137,8 @@ public class PircBotXChatService implements ChatService {
   ThreadPoolExecutor threadPoolExecutor;
   @Inject
   EventBus eventBus;
+  @Inject
+  NicknameIndex nicknameIndex;
   @Value("${irc.host}")
   String ircHost;
   @Value("${irc.port}")
@@ -144,8 +165,10 @@ public class PircBotXChatService implements ChatService {
     eventListeners = new ConcurrentHashMap<>();
     channels = observableHashMap();
     chatUsersByName = observableHashMap();
+    privateChatUsernames = new HashSet<>();
     unreadMessagesCount = new SimpleIntegerProperty();
     identifiedLatch = new CountDownLatch(1);
+    pendingUserChanges = new ArrayList<>();
   }
 
   @PostConstruct
@@ -164,10 +187,10 @@ public class PircBotXChatService implements ChatService {
     addEventListener(NoticeEvent.class, this::onNotice);
     addEventListener(ConnectEvent.class, event -> connectionState.set(ConnectionState.CONNECTED));
     addEventListener(DisconnectEvent.class, event -> connectionState.set(ConnectionState.DISCONNECTED));
-    addEventListener(UserListEvent.class, event -> onChatUserList(event.getChannel().getName(), chatUsers(event.getUsers())));
-    addEventListener(JoinEvent.class, event -> onUserJoinedChannel(event.getChannel().getName(), getOrCreateChatUser(event.getUser())));
-    addEventListener(PartEvent.class, event -> onChatUserLeftChannel(event.getChannel().getName(), event.getUser().getNick()));
-    addEventListener(QuitEvent.class, event -> onChatUserQuit(event.getUser().getNick()));
+    addEventListener(UserListEvent.class, event -> onChatUserList(event.getChannel().getName(), event.getUsers()));
+    addEventListener(JoinEvent.class, event -> queueUserChanges(Collections.singletonList(UserChange.joined(event.getChannel().getName(), event.getUser()))));
+    addEventListener(PartEvent.class, event -> queueUserChanges(Collections.singletonList(UserChange.left(event.getChannel().getName(), event.getUser().getNick()))));
+    addEventListener(QuitEvent.class, event -> queueUserChanges(Collections.singletonList(UserChange.quit(event.getUser().getNick()))));
     addEventListener(TopicEvent.class, event -> getOrCreateChannel(event.getChannel().getName()).setTopic(event.getTopic()));
     addEventListener(MessageEvent.class, this::onMessage);
     addEventListener(ActionEvent.class, this::onAction);
@@ -265,34 +288,138 @@ public class PircBotXChatService implements ChatService {
     eventListeners.get(eventClass).add(listener);
   }
 
-  private void onChatUserList(String channelName, List<ChatUser> users) {
-    getOrCreateChannel(channelName).addUsers(users);
+  private void onChatUserList(String channelName, ImmutableSortedSet<User> users) {
+    List<UserChange> changes = new ArrayList<>(users.size());
+    for (User user : users) {
+      changes.add(UserChange.listed(channelName, user));
+    }
+    queueUserChanges(changes);
   }
 
-  private List<ChatUser> chatUsers(ImmutableSortedSet<User> users) {
-    return users.stream().map(this::getOrCreateChatUser).collect(Collectors.toList());
+  /**
+   * Queues the specified changes to be applied to the channels. Since events are dispatched by multiple threads, the
+   * first thread to queue a change applies all changes queued in the meantime, so that a burst of joins and quits (like
+   * after a netsplit) results in few updates of each channel rather than one per user.
+   */
+  private void queueUserChanges(List<UserChange> changes) {
+    synchronized (pendingUserChanges) {
+      pendingUserChanges.addAll(changes);
+      if (applyingUserChanges) {
+        return;
+      }
+      applyingUserChanges = true;
+    }
+
+    List<UserChange> batch = new ArrayList<>();
+    while (true) {
+      synchronized (pendingUserChanges) {
+        if (pendingUserChanges.isEmpty()) {
+          applyingUserChanges = false;
+          return;
+        }
+        batch.addAll(pendingUserChanges);
+        pendingUserChanges.clear();
+      }
+      try {
+        applyUserChanges(batch);
+      } catch (RuntimeException e) {
+        logger.warn("Could not apply user changes", e);
+      }
+      batch.clear();
+    }
   }
 
-  private void onUserJoinedChannel(String channelName, ChatUser chatUser) {
-    getOrCreateChannel(channelName).addUser(chatUser);
+  /**
+   * Applies the specified changes in order, but updates each channel only once.
+   */
+  private void applyUserChanges(List<UserChange> batch) {
+    Map<String, Map<String, ChatUser>> changesByChannel = new HashMap<>();
+    List<String> joinedUsernames = new ArrayList<>();
+    List<String> leftChannelNames = new ArrayList<>();
+    Set<String> leftUsernames = new HashSet<>();
+    String ownUsername = userService.getUsername();
+
+    synchronized (chatUsersByName) {
+      for (UserChange change : batch) {
+        switch (change.type) {
+          case LISTED:
+          case JOINED:
+            ChatUser chatUser = getOrCreateChatUser(change.user);
+            changesByChannel.computeIfAbsent(change.channelName, name -> new LinkedHashMap<>()).put(chatUser.getUsername(), chatUser);
+            if (change.type == UserChange.Type.JOINED) {
+              joinedUsernames.add(chatUser.getUsername());
+            }
+            break;
+
+          case LEFT:
+            changesByChannel.computeIfAbsent(change.channelName, name -> new LinkedHashMap<>()).put(change.username, null);
+            if (ownUsername.equalsIgnoreCase(change.username)) {
+              leftChannelNames.add(change.channelName);
+            } else {
+              leftUsernames.add(change.username);
+            }
+            break;
+
+          case QUIT:
+            synchronized (channels) {
+              for (String channelName : channels.keySet()) {
+                changesByChannel.computeIfAbsent(channelName, name -> new LinkedHashMap<>()).put(change.username, null);
+              }
+            }
+            removeChatUser(change.username);
+            break;
+        }
+      }
+    }
+
+    changesByChannel.forEach((channelName, changes) -> getOrCreateChannel(channelName).updateUsers(changes));
+    for (String channelName : leftChannelNames) {
+      Channel channel = channels.remove(channelName);
+      if (channel != null) {
+        channel.getUsers().forEach(chatUser -> leftUsernames.add(chatUser.getUsername()));
+      }
+    }
+    removeChatUsersWithoutChannel(leftUsernames);
+
     // This should actually be posted by the player service, but since the server doesn't tell us about users leaving,
     // we have to rely on IRC for that. To keep things consistent,
-    eventBus.post(new UserOnlineEvent(chatUser.getUsername()));
+    joinedUsernames.forEach(username -> eventBus.post(new UserOnlineEvent(username)));
   }
 
-  private void onChatUserLeftChannel(String channelName, String username) {
-    getOrCreateChannel(channelName).removeUser(username);
-    if (userService.getUsername().equalsIgnoreCase(username)) {
-      channels.remove(channelName);
+  /**
+   * Removes the specified users unless they are still in one of the joined channels or have an open private chat.
+   * Otherwise, every user who ever passed through a channel would be kept until they quit, along with everything that
+   * listens to them.
+   */
+  private void removeChatUsersWithoutChannel(Collection<String> usernames) {
+    if (usernames.isEmpty()) {
+      return;
+    }
+    String ownUsername = userService.getUsername();
+    synchronized (chatUsersByName) {
+      synchronized (channels) {
+        for (String username : usernames) {
+          if (ownUsername.equalsIgnoreCase(username)
+              || privateChatUsernames.contains(username.toLowerCase(US))
+              || channels.values().stream().anyMatch(channel -> channel.getUser(username) != null)) {
+            continue;
+          }
+          removeChatUser(username);
+        }
+      }
     }
   }
 
-  private void onChatUserQuit(String username) {
-    synchronized (channels) {
-      channels.values().forEach(channel -> channel.removeUser(username));
-    }
-    synchronized (chatUsersByName) {
-      chatUsersByName.remove(username);
+  /**
+   * Removes the specified user from the nickname index and then from the chat users, so that the index is up to date
+   * when the chat users listeners are notified. Must be called while holding the lock on {@link #chatUsersByName}.
+   */
+  private void removeChatUser(String username) {
+    String lowerUsername = username.toLowerCase(US);
+    ChatUser chatUser = chatUsersByName.get(lowerUsername);
+    if (chatUser != null) {
+      nicknameIndex.remove(chatUser.getUsername());
+      chatUsersByName.remove(lowerUsername);
     }
   }
 
@@ -457,13 +584,14 @@ public class PircBotXChatService implements ChatService {
         }
 
         chatUsersByName.put(lowerUsername, new ChatUser(username, color));
+        nicknameIndex.add(username);
       }
       return chatUsersByName.get(lowerUsername);
     }
   }
 
   @Override
-  public void addUsersListener(String channelName, MapChangeListener<String, ChatUser> listener) {
+  public void addUsersListener(String channelName, ChannelUsersListener listener) {
     getOrCreateChannel(channelName).addUsersListeners(listener);
   }
 
@@ -474,6 +602,21 @@ public class PircBotXChatService implements ChatService {
     }
   }
 
+  @Override
+  public void openPrivateChat(String username) {
+    synchronized (chatUsersByName) {
+      privateChatUsernames.add(username.toLowerCase(US));
+    }
+  }
+
+  @Override
+  public void closePrivateChat(String username) {
+    synchronized (chatUsersByName) {
+      privateChatUsernames.remove(username.toLowerCase(US));
+    }
+    removeChatUsersWithoutChannel(Collections.singletonList(username));
+  }
+
   @Override
   public void addChannelsListener(MapChangeListener<String, Channel> listener) {
     synchronized (channels) {
@@ -482,7 +625,7 @@ public class PircBotXChatService implements ChatService {
   }
 
   @Override
-  public void removeUsersListener(String channelName, MapChangeListener<String, ChatUser> listener) {
+  public void removeUsersListener(String channelName, ChannelUsersListener listener) {
     getOrCreateChannel(channelName).removeUserListener(listener);
   }
 
@@ -543,6 +686,7 @@ public class PircBotXChatService implements ChatService {
         }
 
         chatUsersByName.put(lowerUsername, ChatUser.fromIrcUser(user, color));
+        nicknameIndex.add(username);
       }
       return chatUsersByName.get(lowerUsername);
     }
@@ -578,4 +722,42 @@ public class PircBotXChatService implements ChatService {
 
     void onEvent(T event);
   }
+
+  /**
+   * A user joining, leaving or being listed in a channel, or quitting.
+   */
+  private static final class UserChange {
+
+    private final Type type;
+    private final String channelName;
+    private final User user;
+    private final String username;
+
+    private UserChange(Type type, String channelName, User user, String username) {
+      this.type = type;
+      this.channelName = channelName;
+      this.user = user;
+      this.username = username;
+    }
+
+    static UserChange listed(String channelName, User user) {
+      return new UserChange(Type.LISTED, channelName, user, user.getNick());
+    }
+
+    static UserChange joined(String channelName, User user) {
+      return new UserChange(Type.JOINED, channelName, user, user.getNick());
+    }
+
+    static UserChange left(String channelName, String username) {
+      return new UserChange(Type.LEFT, channelName, null, username);
+    }
+
+    static UserChange quit(String username) {
+      return new UserChange(Type.QUIT, null, null, username);
+    }
+
+    private enum Type {
+      LISTED, JOINED, LEFT, QUIT
+    }
+  }
 }
@@ -6,6 +6,8 @@ import com.faforever.client.player.Player;
 import com.faforever.client.preferences.ChatPrefs;
 import com.google.common.annotations.VisibleForTesting;
 import javafx.application.Platform;
+import javafx.collections.MapChangeListener;
+import javafx.collections.WeakMapChangeListener;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TextInputControl;
 import javafx.scene.web.WebView;
@@ -25,6 +27,10 @@ public class PrivateChatTabController extends AbstractChatTabController {
   private final AudioService audioService;
   private final ChatService chatService;
   private final WebViewConfigurer webViewConfigurer;
+  /**
+   * Registered as a weak listener, since the chat service outlives this tab.
+   */
+  private final MapChangeListener<String, ChatUser> chatUsersByNameListener;
   public Tab privateChatTabRoot;
   public WebView messagesWebView;
   public TextInputControl messageTextField;
@@ -35,6 +41,14 @@ public class PrivateChatTabController extends AbstractChatTabController {
     this.audioService = audioService;
     this.chatService = chatService;
     this.webViewConfigurer = webViewConfigurer;
+    chatUsersByNameListener = change -> {
+      if (change.wasRemoved()) {
+        onPlayerDisconnected(change.getKey(), change.getValueRemoved());
+      }
+      if (change.wasAdded()) {
+        onPlayerConnected(change.getKey(), change.getValueRemoved());
+      }
+    };
   }
 
   public boolean isUserOffline() {
@@ -51,19 +65,19 @@ public class PrivateChatTabController extends AbstractChatTabController {
     super.setReceiver(username);
     privateChatTabRoot.setId(username);
     privateChatTabRoot.setText(username);
+    // Otherwise, the user would appear to have left whenever they leave the last channel we share
+    chatService.openPrivateChat(username);
   }
 
   public void initialize() {
     userOffline = false;
-    chatService.addChatUsersByNameListener(change -> {
-      if (change.wasRemoved()) {
-        onPlayerDisconnected(change.getKey(), change.getValueRemoved());
-      }
-      if (change.wasAdded()) {
-        onPlayerConnected(change.getKey(), change.getValueRemoved());
+    chatService.addChatUsersByNameListener(new WeakMapChangeListener<>(chatUsersByNameListener));
+    webViewConfigurer.configureWebView(messagesWebView);
+    privateChatTabRoot.tabPaneProperty().addListener((observable, oldValue, newValue) -> {
+      if (oldValue != null && newValue == null) {
+        chatService.closePrivateChat(getReceiver());
       }
     });
-    webViewConfigurer.configureWebView(messagesWebView);
   }
 
   @Override
@@ -0,0 +1,188 @@
+package com.faforever.client.chat;
+
+import com.faforever.client.chat.UrlPreviewResolver.Preview;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+
+/**
+ * Stores resolved URL previews on disk, so that they don't need to be resolved again after a restart. Entries are
+ * appended to a file as one JSON object per line. When the file is loaded, expired and superseded entries are skipped
+ * and the file is rewritten if it contains too many of them. At most {@code maxEntries} previews are kept, the least
+ * recently used ones are evicted first.
+ * <p>
+ * The file is loaded on first access, which is why this class should only be accessed in background.
+ */
+class UrlPreviewCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final Gson gson = new Gson();
+
+  private final Path cacheFile;
+  private final int maxEntries;
+  private final Duration timeToLive;
+  /**
+   * Cached entries by URL, in order of access. Guarded by {@code this}.
+   */
+  private final LinkedHashMap<String, Entry> entries;
+  /**
+   * Guarded by {@code this}.
+   */
+  private boolean loaded;
+  /**
+   * Number of lines in the cache file. Guarded by {@code this}.
+   */
+  private int lineCount;
+
+  UrlPreviewCache(Path cacheFile, int maxEntries, Duration timeToLive) {
+    this.cacheFile = cacheFile;
+    this.maxEntries = maxEntries;
+    this.timeToLive = timeToLive;
+    entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        return size() > UrlPreviewCache.this.maxEntries;
+      }
+    };
+  }
+
+  /**
+   * Returns the cached preview of the specified URL, or {@code null} if there is none or it has expired.
+   */
+  synchronized Preview get(String url) {
+    ensureLoaded();
+    Entry entry = entries.get(url);
+    if (entry == null) {
+      return null;
+    }
+    if (isExpired(entry)) {
+      entries.remove(url);
+      return null;
+    }
+    return entry.toPreview();
+  }
+
+  synchronized void put(String url, Preview preview) {
+    ensureLoaded();
+    Entry entry = new Entry(url, preview, Instant.now().toEpochMilli());
+    entries.put(url, entry);
+
+    if (lineCount >= maxEntries * 2) {
+      rewrite();
+      return;
+    }
+    try {
+      Files.createDirectories(cacheFile.getParent());
+      try (BufferedWriter writer = Files.newBufferedWriter(cacheFile, UTF_8, CREATE, APPEND)) {
+        writer.write(gson.toJson(entry));
+        writer.newLine();
+      }
+      lineCount++;
+    } catch (IOException e) {
+      logger.warn("URL preview cache could not be written: {}", cacheFile, e);
+    }
+  }
+
+  private boolean isExpired(Entry entry) {
+    return Instant.ofEpochMilli(entry.resolvedAt).plus(timeToLive).isBefore(Instant.now());
+  }
+
+  private void ensureLoaded() {
+    if (loaded) {
+      return;
+    }
+    loaded = true;
+
+    if (Files.notExists(cacheFile)) {
+      return;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(cacheFile, UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lineCount++;
+        Entry entry = parse(line);
+        if (entry != null && !isExpired(entry)) {
+          entries.put(entry.url, entry);
+        }
+      }
+    } catch (IOException e) {
+      logger.warn("URL preview cache could not be read: {}", cacheFile, e);
+      return;
+    }
+
+    if (lineCount > entries.size() * 2 || lineCount >= maxEntries * 2) {
+      rewrite();
+    }
+  }
+
+  private Entry parse(String line) {
+    try {
+      Entry entry = gson.fromJson(line, Entry.class);
+      if (entry == null || entry.url == null) {
+        return null;
+      }
+      return entry;
+    } catch (JsonParseException e) {
+      logger.debug("Skipping malformed URL preview cache entry: {}", line, e);
+      return null;
+    }
+  }
+
+  /**
+   * Replaces the cache file by one that contains only the current entries.
+   */
+  private void rewrite() {
+    Path tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(cacheFile.getParent());
+      try (BufferedWriter writer = Files.newBufferedWriter(tempFile, UTF_8)) {
+        for (Entry entry : entries.values()) {
+          writer.write(gson.toJson(entry));
+          writer.newLine();
+        }
+      }
+      Files.move(tempFile, cacheFile, REPLACE_EXISTING);
+      lineCount = entries.size();
+    } catch (IOException e) {
+      logger.warn("URL preview cache could not be rewritten: {}", cacheFile, e);
+    }
+  }
+
+  private static class Entry {
+
+    private String url;
+    private String previewUrl;
+    private String contentType;
+    private long contentLength;
+    private long resolvedAt;
+
+    Entry(String url, Preview preview, long resolvedAt) {
+      this.url = url;
+      this.previewUrl = preview.getUrl();
+      this.contentType = preview.getContentType();
+      this.contentLength = preview.getContentLength();
+      this.resolvedAt = resolvedAt;
+    }
+
+    Preview toPreview() {
+      return new Preview(previewUrl, contentType, contentLength);
+    }
+  }
+}
@@ -2,26 +2,58 @@ package com.faforever.client.chat;
 
 import javafx.scene.Node;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface UrlPreviewResolver {
 
+  /**
+   * What is known about the content behind a URL. Contains no UI elements, so that it can be resolved in background
+   * and stored on disk.
+   */
   class Preview {
 
-    private final Node node;
-    private final String description;
+    private final String url;
+    private final String contentType;
+    private final long contentLength;
+
+    /**
+     * @param url the URL of the content, which may differ from the URL that has been resolved (e.g. for imgur
+     * galleries)
+     * @param contentType the content type as sent by the server, or {@code null} if unknown
+     * @param contentLength the content length in bytes, or {@code -1} if unknown
+     */
+    public Preview(String url, String contentType, long contentLength) {
+      this.url = url;
+      this.contentType = contentType;
+      this.contentLength = contentLength;
+    }
 
-    public Preview(Node node, String description) {
-      this.node = node;
-      this.description = description;
+    public String getUrl() {
+      return url;
     }
 
-    public Node getNode() {
-      return node;
+    public String getContentType() {
+      return contentType;
     }
 
-    public String getDescription() {
-      return description;
+    public long getContentLength() {
+      return contentLength;
     }
   }
 
-  Preview resolvePreview(String urlString);
+  /**
+   * Resolves the preview of the specified URL in background. The returned future is completed with {@code null} if no
+   * preview is available.
+   */
+  CompletableFuture<Preview> resolvePreview(String urlString);
+
+  /**
+   * Creates the node that displays the specified preview. Must be called from the FX application thread.
+   */
+  Node createNode(Preview preview);
+
+  /**
+   * Returns a human readable description of the specified preview, like its content type and size.
+   */
+  String getDescription(Preview preview);
 }
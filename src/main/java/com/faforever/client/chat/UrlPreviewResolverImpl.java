@@ -1,112 +1,278 @@
 package com.faforever.client.chat;
 
-import com.faforever.client.config.CacheNames;
 import com.faforever.client.fx.FxmlLoader;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.preferences.PreferencesService;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.net.MediaType;
 import javafx.scene.Node;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
-import org.springframework.cache.annotation.Cacheable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import java.io.IOException;
+import java.lang.invoke.MethodHandles;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static com.faforever.client.io.Bytes.formatSize;
 
+/**
+ * Resolves URL previews using {@code HEAD} requests on a small executor of its own, so that hovering over many links
+ * can neither tie up the application's thread pool nor open an unbounded number of connections. If the executor is
+ * busy, further requests are rejected and yield no preview. Requests for a URL that is already being resolved share
+ * the same result. Resolved previews are cached on disk.
+ * <p>
+ * Since imgur gallery links don't reveal the image type, the possible image URLs are probed in parallel on another
+ * executor. Probes are only started by the resolver threads, which limits their number.
+ */
 @Lazy
 @Component
 public class UrlPreviewResolverImpl implements UrlPreviewResolver {
 
+  private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   private static final Pattern IMGUR_PATTERN = Pattern.compile("https?://imgur\\.com/gallery/(\\w+)");
-  private static final String IMGUR_JPG = "http://i.imgur.com/%s.jpg";
-  private static final String IMGUR_PNG = "http://i.imgur.com/%s.png";
-  private static final String IMGUR_GIF = "http://i.imgur.com/%s.gif";
+  /**
+   * Image types imgur serves, in order of preference.
+   */
+  private static final List<String> IMGUR_EXTENSIONS = ImmutableList.of("jpg", "png", "gif");
+  private static final Set<MediaType> IMAGE_TYPES = ImmutableSet.of(MediaType.JPEG, MediaType.PNG, MediaType.GIF);
+  private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+  private static final int READ_TIMEOUT_MILLIS = 3000;
+  private static final int RESOLVER_THREADS = 2;
+  private static final int MAX_QUEUED_RESOLUTIONS = 8;
+  private static final String CACHE_FILE_NAME = "urlPreviews.json";
+  private static final int MAX_CACHED_PREVIEWS = 1000;
+  private static final Duration CACHE_TIME_TO_LIVE = Duration.ofDays(7);
+
+  /**
+   * Results of the URLs that are currently being resolved.
+   */
+  private final Map<String, CompletableFuture<Preview>> resolutionsInFlight;
+  private final ThreadPoolExecutor executor;
+  private final ExecutorService imgurProbeExecutor;
 
   @Inject
   FxmlLoader fxmlLoader;
-
   @Inject
   I18n i18n;
+  @Inject
+  PreferencesService preferencesService;
 
-  private static boolean testUrl(String urlString) {
-    try {
-      return ((HttpURLConnection) new URL(urlString).openConnection()).getResponseCode() == HttpURLConnection.HTTP_OK;
-    } catch (IOException e) {
-      return false;
-    }
-  }
+  /**
+   * Format of imgur image URLs, taking the image ID and the file extension.
+   */
+  @VisibleForTesting
+  String imgurImageUrlFormat = "http://i.imgur.com/%s.%s";
+  private UrlPreviewCache cache;
 
-  @Override
-  @Cacheable(CacheNames.URL_PREVIEW)
-  public Preview resolvePreview(String urlString) {
-    try {
-      String guessedUrl = guessUrl(urlString);
+  public UrlPreviewResolverImpl() {
+    resolutionsInFlight = new ConcurrentHashMap<>();
 
-      URL url = new URL(guessedUrl);
+    AtomicInteger threadNumber = new AtomicInteger();
+    executor = new ThreadPoolExecutor(RESOLVER_THREADS, RESOLVER_THREADS, 60L, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(MAX_QUEUED_RESOLUTIONS), runnable -> {
+      Thread thread = new Thread(runnable, "url-preview-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.allowCoreThreadTimeOut(true);
 
-      String protocol = url.getProtocol();
+    AtomicInteger probeThreadNumber = new AtomicInteger();
+    imgurProbeExecutor = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "url-preview-probe-" + probeThreadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
 
-      if (!"http".equals(protocol) && !"https".equals(protocol)) {
-        // TODO log unhandled protocol
+  /**
+   * Requests the headers of the specified URL. Since some servers don't allow {@code HEAD} requests, falls back to a
+   * {@code GET} request, of which only the headers are read.
+   *
+   * @return the preview, or {@code null} if the server responded with neither a success nor a redirect status
+   */
+  private static Preview requestPreview(String urlString) throws IOException {
+    HttpURLConnection connection = openConnection(urlString, "HEAD");
+    try {
+      int responseCode = connection.getResponseCode();
+      if (responseCode == HttpURLConnection.HTTP_BAD_METHOD) {
+        connection.disconnect();
+        connection = openConnection(urlString, "GET");
+        responseCode = connection.getResponseCode();
+      }
+      // Redirects from HTTP to HTTPS are not followed, but still point to an existing resource
+      if (responseCode < HttpURLConnection.HTTP_OK || responseCode >= HttpURLConnection.HTTP_BAD_REQUEST) {
         return null;
       }
+      return new Preview(urlString, connection.getContentType(), connection.getContentLengthLong());
+    } finally {
+      connection.disconnect();
+    }
+  }
 
-      HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-      connection.setInstanceFollowRedirects(true);
+  private static Preview probePreview(String urlString) {
+    try {
+      return requestPreview(urlString);
+    } catch (IOException e) {
+      return null;
+    }
+  }
 
-      long contentLength = connection.getContentLengthLong();
-      String contentType = connection.getContentType();
+  private static HttpURLConnection openConnection(String urlString, String requestMethod) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) new URL(urlString).openConnection();
+    connection.setRequestMethod(requestMethod);
+    connection.setInstanceFollowRedirects(true);
+    connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+    connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+    return connection;
+  }
 
-      Node root = fxmlLoader.loadAndGetRoot("theme/image_preview.fxml");
-      ImageView imageView = (ImageView) root.lookup("#imageView");
+  private static boolean isImage(Preview preview) {
+    if (preview.getContentType() == null) {
+      return false;
+    }
+    try {
+      return IMAGE_TYPES.contains(MediaType.parse(preview.getContentType()).withoutParameters());
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
 
-      if (MediaType.JPEG.toString().equals(contentType)
-          || MediaType.PNG.toString().equals(contentType)) {
-        imageView.setImage(new Image(guessedUrl));
-      }
+  @PostConstruct
+  void postConstruct() {
+    cache = new UrlPreviewCache(preferencesService.getCacheDirectory().resolve(CACHE_FILE_NAME),
+        MAX_CACHED_PREVIEWS, CACHE_TIME_TO_LIVE);
+  }
 
-      String description = i18n.get("urlPreviewDescription", contentType, formatSize(contentLength, i18n.getLocale()));
+  @PreDestroy
+  void preDestroy() {
+    executor.shutdownNow();
+    imgurProbeExecutor.shutdownNow();
+  }
 
-      return new Preview(imageView, description);
-    } catch (IOException e) {
-      return null;
+  @Override
+  public CompletableFuture<Preview> resolvePreview(String urlString) {
+    CompletableFuture<Preview> future = new CompletableFuture<>();
+    CompletableFuture<Preview> inFlight = resolutionsInFlight.putIfAbsent(urlString, future);
+    if (inFlight != null) {
+      return inFlight;
+    }
+
+    future.whenComplete((preview, throwable) -> resolutionsInFlight.remove(urlString, future));
+    try {
+      executor.execute(() -> {
+        try {
+          future.complete(resolvePreviewCached(urlString));
+        } catch (RuntimeException e) {
+          future.completeExceptionally(e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      logger.debug("Too many URL previews are being resolved, skipping: {}", urlString);
+      future.complete(null);
     }
+    return future;
   }
 
-  private String guessUrl(String urlString) {
-    Matcher matcher = IMGUR_PATTERN.matcher(urlString);
-    if (matcher.find()) {
-      return guessImgurUrl(urlString, matcher);
+  @Override
+  public Node createNode(Preview preview) {
+    ImageView imageView = fxmlLoader.loadAndGetRoot("theme/image_preview.fxml");
+    if (isImage(preview)) {
+      imageView.setImage(new Image(preview.getUrl(), true));
     }
+    return imageView;
+  }
 
-    return urlString;
+  @Override
+  public String getDescription(Preview preview) {
+    return i18n.get("urlPreviewDescription", preview.getContentType(), formatSize(preview.getContentLength(), i18n.getLocale()));
   }
 
-  private String guessImgurUrl(String urlString, Matcher matcher) {
-    String imageId = matcher.group(1);
+  private Preview resolvePreviewCached(String urlString) {
+    Preview preview = cache.get(urlString);
+    if (preview != null) {
+      return preview;
+    }
 
-    String imgurJpgUrl = String.format(IMGUR_JPG, imageId);
-    if (testUrl(imgurJpgUrl)) {
-      return imgurJpgUrl;
+    preview = resolvePreviewUncached(urlString);
+    if (preview != null) {
+      cache.put(urlString, preview);
     }
+    return preview;
+  }
+
+  private Preview resolvePreviewUncached(String urlString) {
+    try {
+      Matcher matcher = IMGUR_PATTERN.matcher(urlString);
+      if (matcher.find()) {
+        Preview preview = resolveImgurPreview(matcher.group(1));
+        if (preview != null) {
+          return preview;
+        }
+      }
 
-    String imgurPngUrl = String.format(IMGUR_PNG, imageId);
-    if (testUrl(imgurPngUrl)) {
-      return imgurJpgUrl;
+      String protocol = new URL(urlString).getProtocol();
+      if (!"http".equals(protocol) && !"https".equals(protocol)) {
+        logger.debug("Not resolving preview of URL with unhandled protocol: {}", urlString);
+        return null;
+      }
+
+      return requestPreview(urlString);
+    } catch (IOException e) {
+      logger.debug("Preview of URL could not be resolved: {}", urlString, e);
+      return null;
     }
+  }
 
-    String imgurGifUrl = String.format(IMGUR_GIF, imageId);
-    if (testUrl(imgurGifUrl)) {
-      return imgurGifUrl;
+  /**
+   * Probes the image URLs of all types at once, so that a missing image takes as long as a single request rather than
+   * one per type.
+   *
+   * @return the preview of the preferred image type that exists, or {@code null} if there is none
+   */
+  private Preview resolveImgurPreview(String imageId) {
+    List<CompletableFuture<Preview>> probes = new ArrayList<>(IMGUR_EXTENSIONS.size());
+    try {
+      for (String extension : IMGUR_EXTENSIONS) {
+        String imageUrl = String.format(imgurImageUrlFormat, imageId, extension);
+        probes.add(CompletableFuture.supplyAsync(() -> probePreview(imageUrl), imgurProbeExecutor));
+      }
+    } catch (RejectedExecutionException e) {
+      // Shutting down
+      return null;
     }
 
-    return urlString;
+    for (CompletableFuture<Preview> probe : probes) {
+      Preview preview = probe.join();
+      if (preview != null) {
+        return preview;
+      }
+    }
+    return null;
   }
 }
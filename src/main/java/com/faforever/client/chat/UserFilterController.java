@@ -3,6 +3,7 @@ package com.faforever.client.chat;
 import com.faforever.client.fx.Controller;
 import com.faforever.client.game.PlayerStatus;
 import com.faforever.client.i18n.I18n;
+import com.faforever.client.player.Player;
 import com.faforever.client.util.RatingUtil;
 import com.google.api.client.repackaged.com.google.common.annotations.VisibleForTesting;
 import javafx.event.ActionEvent;
@@ -10,13 +11,11 @@ import javafx.scene.Node;
 import javafx.scene.control.MenuButton;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.GridPane;
-import javafx.scene.layout.Pane;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
-import java.util.Map;
 
 import static com.faforever.client.game.PlayerStatus.HOSTING;
 import static com.faforever.client.game.PlayerStatus.IDLE;
@@ -58,29 +57,22 @@ public class UserFilterController implements Controller<Node> {
   }
 
   private void filterUsers() {
-    Map<String, Map<Pane, ChatUserItemController>> userToChatUserControls = channelTabController.getUserToChatUserControls();
-    for (Map<Pane, ChatUserItemController> chatUserControlMap : userToChatUserControls.values()) {
-      for (Map.Entry<Pane, ChatUserItemController> chatUserControlEntry : chatUserControlMap.entrySet()) {
-        ChatUserItemController chatUserItemController = chatUserControlEntry.getValue();
-        chatUserItemController.setVisible(filterUser(chatUserItemController));
-      }
-    }
+    channelTabController.refilterUsers();
   }
 
-  boolean filterUser(ChatUserItemController chatUserItemController) {
-    return channelTabController.isUsernameMatch(chatUserItemController)
-        && isInClan(chatUserItemController)
-        && isBoundedByRating(chatUserItemController)
-        && isGameStatusMatch(chatUserItemController);
+  boolean filterUser(Player player) {
+    return isInClan(player)
+        && isBoundedByRating(player)
+        && isGameStatusMatch(player);
   }
 
   @VisibleForTesting
-  boolean isInClan(ChatUserItemController chatUserItemController) {
+  boolean isInClan(Player player) {
     if (clanFilterField.getText().isEmpty()) {
       return true;
     }
 
-    String clan = chatUserItemController.getPlayer().getClan();
+    String clan = player.getClan();
     if (clan == null) {
       return false;
     } else {
@@ -90,12 +82,12 @@ public class UserFilterController implements Controller<Node> {
   }
 
   @VisibleForTesting
-  boolean isBoundedByRating(ChatUserItemController chatUserItemController) {
+  boolean isBoundedByRating(Player player) {
     if (minRatingFilterField.getText().isEmpty() && maxRatingFilterField.getText().isEmpty()) {
       return true;
     }
 
-    int globalRating = RatingUtil.getGlobalRating(chatUserItemController.getPlayer());
+    int globalRating = RatingUtil.getGlobalRating(player);
     int minRating;
     int maxRating;
 
@@ -114,12 +106,12 @@ public class UserFilterController implements Controller<Node> {
   }
 
   @VisibleForTesting
-  boolean isGameStatusMatch(ChatUserItemController chatUserItemController) {
+  boolean isGameStatusMatch(Player player) {
     if (playerStatusFilter == null) {
       return true;
     }
 
-    PlayerStatus playerStatus = chatUserItemController.getPlayer().getStatus();
+    PlayerStatus playerStatus = player.getStatus();
     if (playerStatusFilter == LOBBYING) {
       return LOBBYING == playerStatus || HOSTING == playerStatus;
     } else {
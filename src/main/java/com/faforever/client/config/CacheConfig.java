@@ -32,7 +32,6 @@ import static com.faforever.client.config.CacheNames.NEWS;
 import static com.faforever.client.config.CacheNames.RATING_HISTORY;
 import static com.faforever.client.config.CacheNames.STATISTICS;
 import static com.faforever.client.config.CacheNames.THEME_IMAGES;
-import static com.faforever.client.config.CacheNames.URL_PREVIEW;
 import static com.google.common.cache.CacheBuilder.newBuilder;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -63,7 +62,6 @@ public class CacheConfig implements CachingConfigurer {
         // at the same time it doesn't prevent unused images from being garbage collected.
         new GuavaCache(ACHIEVEMENT_IMAGES, newBuilder().weakValues().build()),
         new GuavaCache(AVATARS, newBuilder().weakValues().build()),
-        new GuavaCache(URL_PREVIEW, newBuilder().weakValues().expireAfterAccess(30, MINUTES).build()),
         new GuavaCache(MAP_PREVIEW, newBuilder().weakValues().build()),
         new GuavaCache(COUNTRY_FLAGS, newBuilder().weakValues().build()),
         new GuavaCache(THEME_IMAGES, newBuilder().weakValues().build()),
@@ -5,7 +5,6 @@ public final class CacheNames {
   public static final String AVATARS = "avatars";
   public static final String COUNTRY_FLAGS = "countryFlags";
   public static final String MAP_PREVIEW = "mapPreview";
-  public static final String URL_PREVIEW = "urlPreview";
   public static final String STATISTICS = "statistics";
   public static final String ACHIEVEMENT_IMAGES = "achievementImages";
   public static final String ACHIEVEMENTS = "achievements";
@@ -32,7 +32,6 @@ import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.event.ActionEvent;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
@@ -59,7 +58,6 @@ import org.springframework.stereotype.Component;
 import javax.inject.Inject;
 import java.time.Duration;
 import java.util.Arrays;
-import java.util.function.Predicate;
 
 import static com.faforever.client.game.KnownFeaturedMod.COOP;
 import static java.util.Collections.emptySet;
@@ -71,10 +69,6 @@ import static javafx.collections.FXCollections.observableList;
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 public class CoopController implements Controller<Node> {
 
-  private static final Predicate<Game> OPEN_COOP_GAMES_PREDICATE = gameInfoBean ->
-      gameInfoBean.getStatus() == GameState.OPEN
-          && COOP.getString().equals(gameInfoBean.getFeaturedMod());
-
   public Node coopRoot;
   public ComboBox<CoopMission> missionComboBox;
   public ImageView mapImageView;
@@ -164,14 +158,11 @@ public class CoopController implements Controller<Node> {
 
     webViewConfigurer.configureWebView(descriptionWebView);
 
-    ObservableList<Game> games = gameService.getGames();
-
-    FilteredList<Game> filteredItems = new FilteredList<>(games);
-    filteredItems.setPredicate(OPEN_COOP_GAMES_PREDICATE);
+    ObservableList<Game> games = gameService.getGames(GameState.OPEN, COOP.getString());
 
     GamesTableController gamesTableController = uiService.loadFxml("theme/play/games_table.fxml");
     gamesTableController.selectedGameProperty().addListener((observable, oldValue, newValue) -> setSelectedGame(newValue));
-    gamesTableController.initializeGameTable(filteredItems);
+    gamesTableController.initializeGameTable(games);
 
     Node root = gamesTableController.getRoot();
     populateContainer(root);
@@ -0,0 +1,117 @@
+package com.faforever.client.fx;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.beans.WeakInvalidationListener;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.beans.value.WeakChangeListener;
+import javafx.collections.ObservableSet;
+import javafx.collections.SetChangeListener;
+import javafx.collections.WeakSetChangeListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the listeners a controller adds to objects that outlive it, like players, chat users or preferences, so
+ * that they can all be removed at once when the controller no longer needs them (e.g. when a tab is closed or a user
+ * leaves a channel).
+ * <p>
+ * Listeners are registered as weak listeners, while this object holds the only strong reference to them. Therefore,
+ * even if {@link #dispose()} is never called, the observed objects don't keep the listeners (and whatever they
+ * reference) alive once these subscriptions are no longer referenced. Listeners that are added after the subscriptions
+ * have been disposed are not registered at all. This class is thread safe.
+ */
+public class Subscriptions {
+
+  /**
+   * Actions that remove the registered listeners, in order of registration. Guarded by {@code this}.
+   */
+  private final List<Runnable> disposers;
+  /**
+   * The registered listeners, which are only weakly referenced by the observed objects. Guarded by {@code this}.
+   */
+  private final List<Object> listeners;
+  /**
+   * Guarded by {@code this}.
+   */
+  private boolean disposed;
+
+  public Subscriptions() {
+    disposers = new ArrayList<>();
+    listeners = new ArrayList<>();
+  }
+
+  public synchronized <T> void addListener(ObservableValue<T> observable, ChangeListener<T> listener) {
+    if (disposed) {
+      return;
+    }
+    WeakChangeListener<T> weakListener = new WeakChangeListener<>(listener);
+    observable.addListener(weakListener);
+    listeners.add(listener);
+    disposers.add(() -> observable.removeListener(weakListener));
+  }
+
+  public synchronized void addListener(Observable observable, InvalidationListener listener) {
+    if (disposed) {
+      return;
+    }
+    WeakInvalidationListener weakListener = new WeakInvalidationListener(listener);
+    observable.addListener(weakListener);
+    listeners.add(listener);
+    disposers.add(() -> observable.removeListener(weakListener));
+  }
+
+  public synchronized <E> void addListener(ObservableSet<E> set, SetChangeListener<E> listener) {
+    if (disposed) {
+      return;
+    }
+    WeakSetChangeListener<E> weakListener = new WeakSetChangeListener<>(listener);
+    set.addListener(weakListener);
+    listeners.add(listener);
+    disposers.add(() -> set.removeListener(weakListener));
+  }
+
+  /**
+   * Registers an action to be executed when these subscriptions are disposed. If they have already been disposed, the
+   * action is executed immediately.
+   */
+  public void onDispose(Runnable disposer) {
+    synchronized (this) {
+      if (!disposed) {
+        disposers.add(disposer);
+        return;
+      }
+    }
+    disposer.run();
+  }
+
+  /**
+   * Removes all listeners and runs all dispose actions that have been added so far.
+   */
+  public void dispose() {
+    List<Runnable> disposersToRun;
+    synchronized (this) {
+      if (disposed) {
+        return;
+      }
+      disposed = true;
+      disposersToRun = new ArrayList<>(disposers);
+      disposers.clear();
+      listeners.clear();
+    }
+    disposersToRun.forEach(Runnable::run);
+  }
+
+  public synchronized boolean isDisposed() {
+    return disposed;
+  }
+
+  /**
+   * Returns the number of listeners and dispose actions that have been added and not yet disposed.
+   */
+  public synchronized int size() {
+    return disposers.size();
+  }
+}
@@ -18,6 +18,8 @@ import javafx.collections.ObservableMap;
 import org.apache.commons.lang3.StringEscapeUtils;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -91,24 +93,15 @@ public class Game {
     passwordProtected.set(gameInfoMessage.getPasswordProtected());
 
     synchronized (simMods.get()) {
-      simMods.clear();
-      if (gameInfoMessage.getSimMods() != null) {
-        simMods.putAll(gameInfoMessage.getSimMods());
-      }
+      updateMap(simMods, gameInfoMessage.getSimMods());
     }
 
     synchronized (teams.get()) {
-      teams.clear();
-      if (gameInfoMessage.getTeams() != null) {
-        teams.putAll(gameInfoMessage.getTeams());
-      }
+      updateMap(teams, gameInfoMessage.getTeams());
     }
 
     synchronized (featuredModVersions.get()) {
-      featuredModVersions.clear();
-      if (gameInfoMessage.getFeaturedModVersions() != null) {
-        featuredModVersions.putAll(gameInfoMessage.getFeaturedModVersions());
-      }
+      updateMap(featuredModVersions, gameInfoMessage.getFeaturedModVersions());
     }
 
     // TODO this can be removed as soon as we get server side support. Until then, let's be hacky
@@ -144,6 +137,23 @@ public class Game {
     }
   }
 
+  /**
+   * Makes the target map equal to the source map by only removing, adding or replacing the entries that differ, so
+   * that listeners are not notified about entries that didn't change.
+   */
+  private static <K, V> void updateMap(ObservableMap<K, V> target, Map<K, V> source) {
+    if (source == null) {
+      target.clear();
+      return;
+    }
+    target.keySet().retainAll(source.keySet());
+    for (Map.Entry<K, V> entry : source.entrySet()) {
+      if (!target.containsKey(entry.getKey()) || !Objects.equals(target.get(entry.getKey()), entry.getValue())) {
+        target.put(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
   private int parseRating(String string) {
     try {
       return Integer.parseInt(string);
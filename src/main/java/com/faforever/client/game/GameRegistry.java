@@ -0,0 +1,177 @@
+package com.faforever.client.game;
+
+import com.faforever.client.remote.domain.GameInfoMessage;
+import com.faforever.client.remote.domain.GameState;
+import com.faforever.client.util.IntObjectHashMap;
+import javafx.beans.Observable;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Holds all known games by their UID and maintains indexes by state and featured mod as well as by player name, so that
+ * looking up games doesn't require scanning all of them. Changes are applied incrementally to an observable list of all
+ * games and to one observable list per state and featured mod.
+ * <p>
+ * Games must only be added, updated and removed through this registry, from the FX application thread. Lookups by UID
+ * and player name may be performed from any thread, observable lists must only be accessed from the FX application
+ * thread.
+ */
+class GameRegistry {
+
+  private final IntObjectHashMap<Game> gamesByUid;
+  private final Map<GameState, Map<String, ObservableList<Game>>> gamesByStateAndFeaturedMod;
+  private final Map<String, Set<Game>> gamesByPlayerName;
+  private final ObservableList<Game> games;
+
+  GameRegistry() {
+    gamesByUid = new IntObjectHashMap<>();
+    gamesByStateAndFeaturedMod = new EnumMap<>(GameState.class);
+    gamesByPlayerName = new HashMap<>();
+    games = FXCollections.observableList(new ArrayList<>(),
+        item -> new Observable[]{item.statusProperty(), item.getTeams()}
+    );
+  }
+
+  /**
+   * An observable list of all games. <strong>Do not modify its content directly</strong>.
+   */
+  ObservableList<Game> getGames() {
+    return games;
+  }
+
+  synchronized Game get(int uid) {
+    return gamesByUid.get(uid);
+  }
+
+  synchronized boolean contains(int uid) {
+    return gamesByUid.containsKey(uid);
+  }
+
+  /**
+   * @return the UIDs of all games
+   */
+  synchronized int[] uids() {
+    return gamesByUid.keys();
+  }
+
+  void add(Game game) {
+    synchronized (this) {
+      gamesByUid.put(game.getId(), game);
+      indexPlayers(game);
+    }
+    games.add(game);
+    addToStateAndFeaturedModIndex(game);
+  }
+
+  /**
+   * Updates the specified game from the specified game info and updates all indexes accordingly.
+   */
+  void update(Game game, GameInfoMessage gameInfoMessage) {
+    GameState oldState = game.getStatus();
+    String oldFeaturedMod = game.getFeaturedMod();
+    synchronized (this) {
+      unindexPlayers(game);
+      game.updateFromGameInfo(gameInfoMessage);
+      indexPlayers(game);
+    }
+    if (oldState != game.getStatus() || !Objects.equals(oldFeaturedMod, game.getFeaturedMod())) {
+      removeFromStateAndFeaturedModIndex(game, oldState, oldFeaturedMod);
+      addToStateAndFeaturedModIndex(game);
+    }
+  }
+
+  /**
+   * @return the removed game, or {@code null} if there was no game with the specified UID
+   */
+  Game remove(int uid) {
+    Game game;
+    synchronized (this) {
+      game = gamesByUid.remove(uid);
+      if (game == null) {
+        return null;
+      }
+      unindexPlayers(game);
+    }
+    games.remove(game);
+    removeFromStateAndFeaturedModIndex(game, game.getStatus(), game.getFeaturedMod());
+    return game;
+  }
+
+  void clear() {
+    synchronized (this) {
+      gamesByUid.clear();
+      gamesByPlayerName.clear();
+    }
+    games.clear();
+    gamesByStateAndFeaturedMod.values().forEach(byFeaturedMod -> byFeaturedMod.values().forEach(List::clear));
+  }
+
+  /**
+   * Returns an observable list of all games with the specified state and featured mod. The list is kept up to date as
+   * games are added, updated and removed, so the same instance is returned on every call. <strong>Do not modify its
+   * content directly</strong>.
+   */
+  ObservableList<Game> getByStateAndFeaturedMod(GameState state, String featuredMod) {
+    return stateAndFeaturedModIndex(state, featuredMod);
+  }
+
+  /**
+   * Checks the specified game against all games the specified player is listed in. A player may be listed in more than
+   * one game if the server didn't close a previous game (yet), so removing one of them must not affect the others.
+   *
+   * @return whether the specified player is listed in the specified game
+   */
+  synchronized boolean isPlayerInGame(String playerName, Game game) {
+    Set<Game> games = gamesByPlayerName.get(playerName);
+    return games != null && games.contains(game);
+  }
+
+  private ObservableList<Game> stateAndFeaturedModIndex(GameState state, String featuredMod) {
+    return gamesByStateAndFeaturedMod
+        .computeIfAbsent(state, key -> new HashMap<>())
+        .computeIfAbsent(featuredMod, key -> FXCollections.observableArrayList());
+  }
+
+  private void addToStateAndFeaturedModIndex(Game game) {
+    if (game.getStatus() == null || game.getFeaturedMod() == null) {
+      return;
+    }
+    stateAndFeaturedModIndex(game.getStatus(), game.getFeaturedMod()).add(game);
+  }
+
+  private void removeFromStateAndFeaturedModIndex(Game game, GameState state, String featuredMod) {
+    if (state == null || featuredMod == null) {
+      return;
+    }
+    // Empty lists are kept since they may be observed
+    stateAndFeaturedModIndex(state, featuredMod).remove(game);
+  }
+
+  private void indexPlayers(Game game) {
+    for (List<String> team : game.getTeams().values()) {
+      for (String playerName : team) {
+        gamesByPlayerName.computeIfAbsent(playerName, name -> new LinkedHashSet<>()).add(game);
+      }
+    }
+  }
+
+  private void unindexPlayers(Game game) {
+    for (List<String> team : game.getTeams().values()) {
+      for (String playerName : team) {
+        Set<Game> games = gamesByPlayerName.get(playerName);
+        if (games != null && games.remove(game) && games.isEmpty()) {
+          gamesByPlayerName.remove(playerName);
+        }
+      }
+    }
+  }
+}
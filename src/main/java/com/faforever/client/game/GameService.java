@@ -1,6 +1,7 @@
 package com.faforever.client.game;
 
 import com.faforever.client.rankedmatch.MatchmakerMessage;
+import com.faforever.client.remote.domain.GameState;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.ReadOnlyBooleanProperty;
 import javafx.collections.ObservableList;
@@ -36,6 +37,12 @@ public interface GameService {
 
   Game getByUid(int uid);
 
+  /**
+   * Returns an observable list of all games in the specified state with the specified featured mod, which is kept up to
+   * date as games change. <strong>Do not modify its content directly</strong>.
+   */
+  ObservableList<Game> getGames(GameState state, String featuredMod);
+
   void addOnRankedMatchNotificationListener(Consumer<MatchmakerMessage> listener);
 
   CompletionStage<Void> startSearchRanked1v1(Faction faction);
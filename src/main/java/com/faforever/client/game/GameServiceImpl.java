@@ -4,7 +4,6 @@ import com.faforever.client.fa.ForgedAllianceService;
 import com.faforever.client.fa.RatingMode;
 import com.faforever.client.fa.relay.event.RehostRequestEvent;
 import com.faforever.client.fa.relay.ice.IceAdapter;
-import com.faforever.client.fx.JavaFxUtil;
 import com.faforever.client.i18n.I18n;
 import com.faforever.client.map.MapService;
 import com.faforever.client.mod.FeaturedModBean;
@@ -30,14 +29,11 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 import javafx.application.Platform;
-import javafx.beans.Observable;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.ReadOnlyBooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleObjectProperty;
-import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.ObservableMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
@@ -52,10 +48,12 @@ import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.net.URI;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -63,6 +61,7 @@ import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import static com.faforever.client.fa.RatingMode.NONE;
@@ -79,17 +78,27 @@ import static java.util.concurrent.CompletableFuture.completedFuture;
 public class GameServiceImpl implements GameService {
 
   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  /**
+   * How long to wait for the full game list after reconnecting before games that haven't been confirmed by the server
+   * are removed.
+   */
+  private static final Duration STALE_GAME_SWEEP_DELAY = Duration.ofSeconds(30);
 
   @VisibleForTesting
   final BooleanProperty gameRunning;
   @VisibleForTesting
   final SimpleObjectProperty<Game> currentGame;
 
+  private final GameRegistry gameRegistry;
+  /**
+   * Game infos that have been received but not yet been applied, by game UID. Guarded by itself.
+   */
+  private final Map<Integer, GameInfoMessage> pendingGameInfos;
   /**
-   * An observable copy of {@link #uidToGameInfoBean}. <strong>Do not modify its content directly</strong>.
+   * UIDs of the games that were known when the connection to the server was lost and haven't been confirmed by the
+   * server since. Is {@code null} unless a reconnect is in progress. Only accessed in the FX application thread.
    */
-  private final ObservableList<Game> games;
-  private final ObservableMap<Integer, Game> uidToGameInfoBean;
+  private Set<Integer> staleGameUids;
 
   @Inject
   FafService fafService;
@@ -128,16 +137,15 @@ public class GameServiceImpl implements GameService {
   private Process process;
   private BooleanProperty searching1v1;
   private boolean rehostRequested;
+  private boolean gameInfoFlushScheduled;
+  private boolean gameListReceived;
 
   public GameServiceImpl() {
-    uidToGameInfoBean = FXCollections.observableHashMap();
+    gameRegistry = new GameRegistry();
+    pendingGameInfos = new LinkedHashMap<>();
     searching1v1 = new SimpleBooleanProperty();
     gameRunning = new SimpleBooleanProperty();
     currentGame = new SimpleObjectProperty<>();
-    games = FXCollections.observableList(new ArrayList<>(),
-        item -> new Observable[]{item.statusProperty(), item.getTeams()}
-    );
-    JavaFxUtil.attachListToMap(games, uidToGameInfoBean);
   }
 
   @Override
@@ -254,12 +262,17 @@ public class GameServiceImpl implements GameService {
 
   @Override
   public ObservableList<Game> getGames() {
-    return games;
+    return gameRegistry.getGames();
+  }
+
+  @Override
+  public ObservableList<Game> getGames(GameState state, String featuredMod) {
+    return gameRegistry.getByStateAndFeaturedMod(state, featuredMod);
   }
 
   @Override
   public Game getByUid(int uid) {
-    Game game = uidToGameInfoBean.get(uid);
+    Game game = gameRegistry.get(uid);
     if (game == null) {
       logger.warn("Can't find {} in gameInfoBean map", uid);
     }
@@ -448,26 +461,124 @@ public class GameServiceImpl implements GameService {
     fafService.addOnMessageListener(GameInfoMessage.class, this::onGameInfo);
     fafService.connectionStateProperty().addListener((observable, oldValue, newValue) -> {
       if (newValue == ConnectionState.DISCONNECTED) {
-        uidToGameInfoBean.clear();
+        markGamesStale();
+      } else if (newValue == ConnectionState.CONNECTED) {
+        scheduleStaleGameSweep();
       }
     });
   }
 
+  /**
+   * Queues the specified game info to be applied with the next FX pulse. If the game has already been queued, the
+   * queued info is replaced since each game info message contains the complete state of the game.
+   */
   private void onGameInfo(GameInfoMessage gameInfoMessage) {
     if (gameInfoMessage.getGames() != null) {
       gameInfoMessage.getGames().forEach(this::onGameInfo);
+      synchronized (pendingGameInfos) {
+        gameListReceived = true;
+        scheduleGameInfoFlush();
+      }
       return;
     }
 
-    final Game game;
-    Integer gameId = gameInfoMessage.getUid();
+    synchronized (pendingGameInfos) {
+      pendingGameInfos.put(gameInfoMessage.getUid(), gameInfoMessage);
+      scheduleGameInfoFlush();
+    }
+  }
+
+  private void scheduleGameInfoFlush() {
+    if (!gameInfoFlushScheduled) {
+      gameInfoFlushScheduled = true;
+      Platform.runLater(this::applyPendingGameInfos);
+    }
+  }
+
+  private void applyPendingGameInfos() {
+    List<GameInfoMessage> gameInfoMessages;
+    boolean sweepStaleGames;
+    synchronized (pendingGameInfos) {
+      gameInfoMessages = new ArrayList<>(pendingGameInfos.values());
+      pendingGameInfos.clear();
+      gameInfoFlushScheduled = false;
+      sweepStaleGames = gameListReceived;
+      gameListReceived = false;
+    }
+
     Player currentPlayer = playerService.getCurrentPlayer();
-    if (!uidToGameInfoBean.containsKey(gameId)) {
+    gameInfoMessages.forEach(gameInfoMessage -> applyGameInfo(gameInfoMessage, currentPlayer));
+
+    if (sweepStaleGames) {
+      removeStaleGames();
+    }
+  }
+
+  /**
+   * Keeps the games of the lost connection, so that they don't need to be recreated when the server sends them again
+   * after reconnecting, but marks them as stale until the server confirms them.
+   */
+  private void markGamesStale() {
+    staleGameUids = new HashSet<>();
+    for (int uid : gameRegistry.uids()) {
+      staleGameUids.add(uid);
+    }
+    logger.debug("Marked {} games as stale", staleGameUids.size());
+  }
+
+  /**
+   * Removes the games that are still stale some time after reconnecting, in case the server doesn't send a full game
+   * list. Does nothing if the connection has been lost again in the meantime.
+   */
+  private void scheduleStaleGameSweep() {
+    Set<Integer> staleGameUidsToSweep = staleGameUids;
+    if (staleGameUidsToSweep == null) {
+      return;
+    }
+    scheduledExecutorService.schedule(() -> Platform.runLater(() -> {
+      if (staleGameUids == staleGameUidsToSweep) {
+        removeStaleGames();
+      }
+    }), STALE_GAME_SWEEP_DELAY.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Removes all games that are still marked as stale, which are the ones that have been closed while the connection to
+   * the server was lost. To be called after the full game list has been received. If the current game is one of them,
+   * the current game is reset.
+   */
+  private void removeStaleGames() {
+    if (staleGameUids == null) {
+      return;
+    }
+    logger.debug("Removing {} stale games", staleGameUids.size());
+    synchronized (currentGame) {
+      Game game = currentGame.get();
+      if (game != null && staleGameUids.contains(game.getId())) {
+        currentGame.set(null);
+      }
+    }
+    staleGameUids.forEach(gameRegistry::remove);
+    staleGameUids = null;
+  }
+
+  private void applyGameInfo(GameInfoMessage gameInfoMessage, Player currentPlayer) {
+    final Game game;
+    int gameId = gameInfoMessage.getUid();
+    if (staleGameUids != null) {
+      staleGameUids.remove(gameId);
+    }
+    Game knownGame = gameRegistry.get(gameId);
+    if (knownGame == null) {
+      if (GameState.CLOSED == gameInfoMessage.getState()) {
+        // Game has been opened and closed within the same pulse
+        return;
+      }
       game = new Game(gameInfoMessage);
-      uidToGameInfoBean.put(gameId, game);
+      gameRegistry.add(game);
     } else {
-      game = uidToGameInfoBean.get(gameId);
-      Platform.runLater(() -> game.updateFromGameInfo(gameInfoMessage));
+      game = knownGame;
+      gameRegistry.update(game, gameInfoMessage);
 
       if (GameState.CLOSED == gameInfoMessage.getState()) {
         if (currentPlayer.getGame() == game) {
@@ -484,8 +595,7 @@ public class GameServiceImpl implements GameService {
       }
     }
 
-    boolean currentPlayerInGame = gameInfoMessage.getTeams().values().stream()
-        .anyMatch(team -> team.contains(currentPlayer.getUsername()));
+    boolean currentPlayerInGame = currentPlayer != null && gameRegistry.isPlayerInGame(currentPlayer.getUsername(), game);
 
     if (currentPlayerInGame && GameState.OPEN == gameInfoMessage.getState()) {
       synchronized (currentGame) {
@@ -498,9 +608,7 @@ public class GameServiceImpl implements GameService {
     Platform.runLater(() -> {
       // This needs to run in the application thread since otherwise code triggered by the above updateFromGameInfo
       // operation, which runs in the application thread, too, may try to access the removed element.
-      synchronized (uidToGameInfoBean) {
-        uidToGameInfoBean.remove(gameInfoMessage.getUid());
-      }
+      gameRegistry.remove(gameInfoMessage.getUid());
     });
   }
 }
@@ -3,6 +3,7 @@ package com.faforever.client.main;
 import com.faforever.client.chat.UserInfoWindowController;
 import com.faforever.client.fx.Controller;
 import com.faforever.client.player.PlayerService;
+import com.faforever.client.remote.metrics.LobbyMetricsController;
 import com.faforever.client.theme.UiService;
 import com.faforever.client.user.event.LogOutRequestEvent;
 import com.faforever.client.user.event.LoginSuccessEvent;
@@ -58,6 +59,12 @@ public class UserButtonController implements Controller<Node> {
     userInfoWindowController.show();
   }
 
+  public void onShowLobbyMetrics(ActionEvent event) {
+    LobbyMetricsController lobbyMetricsController = uiService.loadFxml("theme/lobby_metrics_window.fxml");
+    lobbyMetricsController.setOwnerWindow(userButtonRoot.getScene().getWindow());
+    lobbyMetricsController.show();
+  }
+
   public void onLogOut(ActionEvent actionEvent) {
     eventBus.post(new LogOutRequestEvent());
   }
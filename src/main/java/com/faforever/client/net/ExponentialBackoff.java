@@ -0,0 +1,51 @@
+package com.faforever.client.net;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * Calculates delays between reconnection attempts. The upper bound of the delay doubles with every attempt, up to a
+ * maximum. The actual delay is chosen randomly between half the upper bound and the upper bound, so that many clients
+ * that lost their connection at the same time don't all reconnect at the same time.
+ * <p>
+ * This class is not thread safe.
+ */
+public class ExponentialBackoff {
+
+  private static final int MAX_SHIFT = 30;
+
+  private final long initialDelayMillis;
+  private final long maxDelayMillis;
+  private final Random random;
+  private int attempts;
+
+  public ExponentialBackoff(Duration initialDelay, Duration maxDelay) {
+    this(initialDelay, maxDelay, new Random());
+  }
+
+  ExponentialBackoff(Duration initialDelay, Duration maxDelay, Random random) {
+    this.initialDelayMillis = initialDelay.toMillis();
+    this.maxDelayMillis = maxDelay.toMillis();
+    this.random = random;
+  }
+
+  /**
+   * Returns the delay to wait before the next attempt and counts the attempt.
+   */
+  public Duration nextDelay() {
+    long upperBound = Math.min(maxDelayMillis, initialDelayMillis << Math.min(attempts, MAX_SHIFT));
+    if (attempts < MAX_SHIFT) {
+      attempts++;
+    }
+
+    long lowerBound = upperBound / 2;
+    return Duration.ofMillis(lowerBound + (long) (random.nextDouble() * (upperBound - lowerBound)));
+  }
+
+  /**
+   * Resets the delay to the initial delay, e.g. after a connection has been established successfully.
+   */
+  public void reset() {
+    attempts = 0;
+  }
+}
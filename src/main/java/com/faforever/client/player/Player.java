@@ -4,6 +4,8 @@ import com.faforever.client.chat.SocialStatus;
 import com.faforever.client.game.Game;
 import com.faforever.client.game.PlayerStatus;
 import com.faforever.client.remote.domain.GameState;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.FloatProperty;
@@ -31,6 +33,11 @@ import static com.faforever.client.chat.SocialStatus.OTHER;
  */
 public class Player {
 
+  /**
+   * Countries and clans are shared by many players, so they are interned instead of keeping one copy per player.
+   */
+  private static final Interner<String> SHARED_STRINGS = Interners.newWeakInterner();
+
   private final IntegerProperty id;
   private final StringProperty username;
   private final StringProperty clan;
@@ -49,12 +56,16 @@ public class Player {
   private final IntegerProperty numberOfGames;
   private final ObjectProperty<Instant> idleSince;
 
+  private static String intern(String string) {
+    return string == null ? null : SHARED_STRINGS.intern(string);
+  }
+
   public Player(com.faforever.client.remote.domain.Player player) {
     this();
 
     username.set(player.getLogin());
-    clan.set(player.getClan());
-    country.set(player.getCountry());
+    clan.set(intern(player.getClan()));
+    country.set(intern(player.getCountry()));
 
     if (player.getAvatar() != null) {
       avatarTooltip.set(player.getAvatar().getTooltip());
@@ -318,8 +329,8 @@ public class Player {
   public void updateFromPlayerInfo(com.faforever.client.remote.domain.Player player) {
     setId(player.getId());
     setChatOnly(false);
-    setClan(player.getClan());
-    setCountry(player.getCountry());
+    setClan(intern(player.getClan()));
+    setCountry(intern(player.getCountry()));
 
     if (player.getGlobalRating() != null) {
       setGlobalRatingMean(player.getGlobalRating()[0]);
@@ -0,0 +1,88 @@
+package com.faforever.client.player;
+
+import com.faforever.client.util.IntObjectHashMap;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Bidirectional index between player names and the UID of the game they are in. Instead of rebuilding the index
+ * whenever a game changes, the new players of a game are compared to its previous ones so that only players who
+ * actually joined or left the game are reported.
+ * <p>
+ * A player can only be in one game at a time. If a player joins another game before the server reported them to have
+ * left their previous game, the player is considered to be in the game they joined last and leaving the previous game
+ * is not reported.
+ * <p>
+ * This class is not thread safe.
+ */
+class PlayerGameIndex {
+
+  private final Map<String, Integer> gameUidByPlayerName;
+  private final IntObjectHashMap<Set<String>> playerNamesByGameUid;
+
+  PlayerGameIndex() {
+    gameUidByPlayerName = new HashMap<>();
+    playerNamesByGameUid = new IntObjectHashMap<>();
+  }
+
+  /**
+   * Sets the players of the specified game.
+   *
+   * @param onJoined called with the name of each player who wasn't in the game before
+   * @param onLeft called with the name of each player who was in the game before but no longer is
+   */
+  void setPlayers(int gameUid, Collection<String> playerNames, Consumer<String> onJoined, Consumer<String> onLeft) {
+    Set<String> previousPlayerNames = playerNamesByGameUid.get(gameUid);
+    if (previousPlayerNames == null) {
+      previousPlayerNames = Collections.emptySet();
+    }
+    Set<String> newPlayerNames = new HashSet<>(playerNames);
+
+    for (String playerName : previousPlayerNames) {
+      if (!newPlayerNames.contains(playerName) && gameUidByPlayerName.remove(playerName, gameUid)) {
+        onLeft.accept(playerName);
+      }
+    }
+    for (String playerName : newPlayerNames) {
+      Integer previousGameUid = gameUidByPlayerName.put(playerName, gameUid);
+      if (previousGameUid == null || previousGameUid != gameUid) {
+        onJoined.accept(playerName);
+      }
+    }
+
+    if (newPlayerNames.isEmpty()) {
+      playerNamesByGameUid.remove(gameUid);
+    } else {
+      playerNamesByGameUid.put(gameUid, newPlayerNames);
+    }
+  }
+
+  /**
+   * Removes the specified game and reports all of its players, who haven't joined another game in the meantime, as
+   * having left.
+   */
+  void removeGame(int gameUid, Consumer<String> onLeft) {
+    setPlayers(gameUid, Collections.emptySet(), playerName -> {
+    }, onLeft);
+  }
+
+  /**
+   * @return the UID of the game the specified player is in, or {@code null} if the player is not in any known game
+   */
+  @Nullable
+  Integer getGameUid(String playerName) {
+    return gameUidByPlayerName.get(playerName);
+  }
+
+  Set<String> getPlayerNames(int gameUid) {
+    Set<String> playerNames = playerNamesByGameUid.get(gameUid);
+    return playerNames == null ? Collections.emptySet() : Collections.unmodifiableSet(playerNames);
+  }
+}
@@ -0,0 +1,98 @@
+package com.faforever.client.player;
+
+import com.faforever.client.util.IntObjectHashMap;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Holds all known players. Players are looked up by their username, which is case sensitive, and by their ID if it is
+ * known. Players who are only known from chat don't have an ID and can therefore only be looked up by their name.
+ * <p>
+ * This class is thread safe.
+ */
+class PlayerRegistry {
+
+  private final Map<String, Player> playersByName;
+  private final IntObjectHashMap<Player> playersById;
+  private final Consumer<Player> onPlayerAdded;
+
+  /**
+   * @param onPlayerAdded called whenever a player has been added
+   */
+  PlayerRegistry(Consumer<Player> onPlayerAdded) {
+    this.onPlayerAdded = onPlayerAdded;
+    playersByName = new HashMap<>();
+    playersById = new IntObjectHashMap<>();
+  }
+
+  @Nullable
+  synchronized Player get(String username) {
+    if (username == null) {
+      return null;
+    }
+    return playersByName.get(username);
+  }
+
+  @Nullable
+  synchronized Player get(int id) {
+    return playersById.get(id);
+  }
+
+  /**
+   * Returns the player with the specified name. If there is no such player yet, it is created using the specified
+   * name.
+   */
+  synchronized Player getOrCreate(String username) {
+    Player player = get(username);
+    if (player == null) {
+      player = add(new Player(username));
+    }
+    return player;
+  }
+
+  /**
+   * Adds the specified player unless there already is a player with the same name. Added players are indexed by their
+   * ID as soon as it is set.
+   *
+   * @return the player that is registered for the name of the specified player
+   */
+  synchronized Player addIfAbsent(Player player) {
+    Player existing = get(player.getUsername());
+    if (existing != null) {
+      return existing;
+    }
+    return add(player);
+  }
+
+  private Player add(Player player) {
+    playersByName.put(player.getUsername(), player);
+    if (player.getId() != 0) {
+      playersById.put(player.getId(), player);
+    }
+    player.idProperty().addListener((observable, oldValue, newValue) ->
+        onIdChanged(player, oldValue.intValue(), newValue.intValue()));
+    onPlayerAdded.accept(player);
+    return player;
+  }
+
+  private synchronized void onIdChanged(Player player, int oldId, int newId) {
+    if (playersById.get(oldId) == player) {
+      playersById.remove(oldId);
+    }
+    playersById.put(newId, player);
+  }
+
+  /**
+   * @return a copy of the names of all known players
+   */
+  synchronized Set<String> getUsernames() {
+    Set<String> usernames = new HashSet<>(playersByName.size() * 2);
+    playersByName.values().forEach(player -> usernames.add(player.getUsername()));
+    return usernames;
+  }
+}
@@ -1,5 +1,6 @@
 package com.faforever.client.player;
 
+import com.faforever.client.chat.NicknameIndex;
 import com.faforever.client.chat.SocialStatus;
 import com.faforever.client.chat.avatar.AvatarBean;
 import com.faforever.client.chat.avatar.event.AvatarChangedEvent;
@@ -14,12 +15,13 @@ import com.faforever.client.remote.domain.SocialMessage;
 import com.faforever.client.user.UserService;
 import com.faforever.client.user.event.LoginSuccessEvent;
 import com.faforever.client.util.Assert;
+import com.faforever.client.util.IntHashSet;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
+import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
-import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableMap;
 import org.jetbrains.annotations.NotNull;
@@ -30,7 +32,9 @@ import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -44,11 +48,24 @@ import static com.faforever.client.chat.SocialStatus.SELF;
 @Service
 public class PlayerServiceImpl implements PlayerService {
 
-  private final ObservableMap<String, Player> playersByName;
-  private final ObservableMap<Integer, Player> playersById;
-  private final List<Integer> foeList;
-  private final List<Integer> friendList;
+  private final PlayerRegistry playerRegistry;
+  /**
+   * IDs of the current player's foes. Guarded by itself.
+   */
+  private final IntHashSet foeIds;
+  /**
+   * IDs of the current player's friends. Guarded by itself.
+   */
+  private final IntHashSet friendIds;
   private final ObjectProperty<Player> currentPlayer;
+  /**
+   * Which player is in which game. Only accessed in the FX application thread.
+   */
+  private final PlayerGameIndex playerGameIndex;
+  /**
+   * Player infos that have been received but not yet been applied, by player ID. Guarded by itself.
+   */
+  private final Map<Integer, PendingPlayerInfo> pendingPlayerInfos;
   @Inject
   FafService fafService;
   @Inject
@@ -57,13 +74,16 @@ public class PlayerServiceImpl implements PlayerService {
   GameService gameService;
   @Inject
   EventBus eventBus;
+  @Inject
+  NicknameIndex nicknameIndex;
 
   public PlayerServiceImpl() {
-    playersByName = FXCollections.observableHashMap();
-    playersById = FXCollections.observableHashMap();
-    friendList = new ArrayList<>();
-    foeList = new ArrayList<>();
+    playerRegistry = new PlayerRegistry(player -> nicknameIndex.add(player.getUsername()));
+    friendIds = new IntHashSet();
+    foeIds = new IntHashSet();
     currentPlayer = new SimpleObjectProperty<>();
+    playerGameIndex = new PlayerGameIndex();
+    pendingPlayerInfos = new LinkedHashMap<>();
   }
 
   @PostConstruct
@@ -74,15 +94,15 @@ public class PlayerServiceImpl implements PlayerService {
 
     gameService.getGames().addListener((ListChangeListener<? super Game>) listChange -> {
       while (listChange.next()) {
-        listChange.getRemoved().forEach(this::updateGameForPlayersInGame);
+        listChange.getRemoved().forEach(this::onGameRemoved);
 
         if (listChange.wasUpdated()) {
           for (int i = listChange.getFrom(); i < listChange.getTo(); i++) {
-            updateGameForPlayersInGame(listChange.getList().get(i));
+            onGameChanged(listChange.getList().get(i));
           }
         }
 
-        listChange.getAddedSubList().forEach(this::updateGameForPlayersInGame);
+        listChange.getAddedSubList().forEach(this::onGameChanged);
       }
     });
   }
@@ -118,94 +138,108 @@ public class PlayerServiceImpl implements PlayerService {
     Optional.ofNullable(playerForUsername).ifPresent(player -> player.setIdleSince(Instant.now()));
   }
 
-  private void updateGameForPlayersInGame(Game game) {
+  private void onGameChanged(Game game) {
+    List<String> playerNames = new ArrayList<>();
     ObservableMap<String, List<String>> teams = game.getTeams();
     synchronized (teams) {
-      teams.forEach((team, players) -> updateGamePlayers(players, game));
+      teams.values().forEach(playerNames::addAll);
     }
+    playerGameIndex.setPlayers(game.getId(), playerNames,
+        playerName -> onPlayerJoinedGame(playerName, game),
+        this::onPlayerLeftGame
+    );
   }
 
-  private void updateGamePlayers(List<String> players, Game game) {
-    players.stream()
-        .map(this::getPlayerForUsername)
-        .filter(Objects::nonNull)
-        .forEach(player -> {
-          resetIdleTime(player);
-          player.setGame(game);
-          if (game == null) {
-            return;
-          }
-          GameState gameState = game.getStatus();
-          if (player.getSocialStatus() == FRIEND) {
-            if (gameState == GameState.OPEN) {
-              eventBus.post(new FriendJoinedGameEvent(player));
-            } else if (gameState == GameState.PLAYING) {
-//              eventBus.post(new FriendPlaysGameEvent(player));
-            }
-          }
-        });
+  private void onGameRemoved(Game game) {
+    playerGameIndex.removeGame(game.getId(), this::onPlayerLeftGame);
+  }
+
+  private void onPlayerJoinedGame(String playerName, Game game) {
+    Player player = getPlayerForUsername(playerName);
+    if (player == null) {
+      return;
+    }
+    resetIdleTime(player);
+    player.setGame(game);
+
+    GameState gameState = game.getStatus();
+    if (player.getSocialStatus() == FRIEND) {
+      if (gameState == GameState.OPEN) {
+        eventBus.post(new FriendJoinedGameEvent(player));
+      } else if (gameState == GameState.PLAYING) {
+//        eventBus.post(new FriendPlaysGameEvent(player));
+      }
+    }
+  }
+
+  private void onPlayerLeftGame(String playerName) {
+    Player player = getPlayerForUsername(playerName);
+    if (player == null) {
+      return;
+    }
+    resetIdleTime(player);
+    player.setGame(null);
   }
 
   @Override
   public Player getPlayerForUsername(String username) {
-    return playersByName.get(username);
+    return playerRegistry.get(username);
   }
 
   @Override
   public Player createAndGetPlayerForUsername(@NotNull String username) {
     Assert.checkNullArgument(username, "username must not be null");
 
-    synchronized (playersByName) {
-      if (!playersByName.containsKey(username)) {
-        Player player = new Player(username);
-        player.idProperty().addListener((observable, oldValue, newValue) -> {
-          synchronized (playersById) {
-            playersById.remove(oldValue.intValue());
-            playersById.put(newValue.intValue(), player);
-          }
-        });
-        playersByName.put(username, player);
-      }
-    }
-
-    return playersByName.get(username);
+    return playerRegistry.getOrCreate(username);
   }
 
   @Override
   public Set<String> getPlayerNames() {
-    return playersByName.keySet();
+    return playerRegistry.getUsernames();
   }
 
   @Override
   public void addFriend(Player player) {
-    playersByName.get(player.getUsername()).setSocialStatus(FRIEND);
-    friendList.add(player.getId());
-    foeList.remove((Integer) player.getId());
+    playerRegistry.get(player.getUsername()).setSocialStatus(FRIEND);
+    synchronized (friendIds) {
+      friendIds.add(player.getId());
+    }
+    synchronized (foeIds) {
+      foeIds.remove(player.getId());
+    }
 
     fafService.addFriend(player);
   }
 
   @Override
   public void removeFriend(Player player) {
-    playersByName.get(player.getUsername()).setSocialStatus(OTHER);
-    friendList.remove((Integer) player.getId());
+    playerRegistry.get(player.getUsername()).setSocialStatus(OTHER);
+    synchronized (friendIds) {
+      friendIds.remove(player.getId());
+    }
 
     fafService.removeFriend(player);
   }
 
   @Override
   public void addFoe(Player player) {
-    playersByName.get(player.getUsername()).setSocialStatus(FOE);
-    foeList.add(player.getId());
-    friendList.remove((Integer) player.getId());
+    playerRegistry.get(player.getUsername()).setSocialStatus(FOE);
+    synchronized (foeIds) {
+      foeIds.add(player.getId());
+    }
+    synchronized (friendIds) {
+      friendIds.remove(player.getId());
+    }
 
     fafService.addFoe(player);
   }
 
   @Override
   public void removeFoe(Player player) {
-    playersByName.get(player.getUsername()).setSocialStatus(OTHER);
-    foeList.remove((Integer) player.getId());
+    playerRegistry.get(player.getUsername()).setSocialStatus(OTHER);
+    synchronized (foeIds) {
+      foeIds.remove(player.getId());
+    }
 
     fafService.removeFoe(player);
   }
@@ -221,8 +255,38 @@ public class PlayerServiceImpl implements PlayerService {
     return currentPlayer;
   }
 
+  /**
+   * Queues the specified player infos to be applied with the next FX pulse, so that the thousands of player infos the
+   * server sends after login don't cause one round of property change notifications per player. Players who are not
+   * yet known are created right away, since nobody observes them before they are published.
+   */
   private void onPlayersInfo(PlayersMessage playersMessage) {
-    playersMessage.getPlayers().forEach(this::onPlayerInfo);
+    List<PendingPlayerInfo> playerInfos = new ArrayList<>(playersMessage.getPlayers().size());
+    for (com.faforever.client.remote.domain.Player player : playersMessage.getPlayers()) {
+      Player newPlayer = null;
+      if (playerRegistry.get(player.getLogin()) == null) {
+        newPlayer = new Player(player);
+        newPlayer.updateFromPlayerInfo(player);
+      }
+      playerInfos.add(new PendingPlayerInfo(player, newPlayer));
+    }
+
+    synchronized (pendingPlayerInfos) {
+      boolean flushScheduled = !pendingPlayerInfos.isEmpty();
+      playerInfos.forEach(playerInfo -> pendingPlayerInfos.put(playerInfo.playerInfo.getId(), playerInfo));
+      if (!flushScheduled) {
+        Platform.runLater(this::applyPendingPlayerInfos);
+      }
+    }
+  }
+
+  private void applyPendingPlayerInfos() {
+    List<PendingPlayerInfo> playerInfos;
+    synchronized (pendingPlayerInfos) {
+      playerInfos = new ArrayList<>(pendingPlayerInfos.values());
+      pendingPlayerInfos.clear();
+    }
+    playerInfos.forEach(this::applyPlayerInfo);
   }
 
   private void onFoeList(SocialMessage socialMessage) {
@@ -231,44 +295,86 @@ public class PlayerServiceImpl implements PlayerService {
   }
 
   private void onFoeList(List<Integer> foes) {
-    updateSocialList(foeList, foes, FOE);
+    updateSocialList(foeIds, foes, FOE);
   }
 
   private void onFriendList(List<Integer> friends) {
-    updateSocialList(friendList, friends, FRIEND);
+    updateSocialList(friendIds, friends, FRIEND);
   }
 
-  private void updateSocialList(List<Integer> socialList, List<Integer> newValues, SocialStatus socialStatus) {
-    socialList.clear();
-    socialList.addAll(newValues);
+  private void updateSocialList(IntHashSet socialIds, List<Integer> newValues, SocialStatus socialStatus) {
+    synchronized (socialIds) {
+      socialIds.clear();
+      socialIds.addAll(newValues);
+    }
 
-    synchronized (playersById) {
-      for (Integer userId : socialList) {
-        Player player = playersById.get(userId);
-        if (player != null) {
-          player.setSocialStatus(socialStatus);
-        }
+    for (Integer userId : newValues) {
+      Player player = playerRegistry.get(userId);
+      if (player != null) {
+        player.setSocialStatus(socialStatus);
       }
     }
   }
 
-  private void onPlayerInfo(com.faforever.client.remote.domain.Player player) {
+  private void applyPlayerInfo(PendingPlayerInfo pendingPlayerInfo) {
+    com.faforever.client.remote.domain.Player player = pendingPlayerInfo.playerInfo;
+    Player playerInfoBean;
     if (player.getLogin().equalsIgnoreCase(userService.getUsername())) {
-      Player playerInfoBean = getCurrentPlayer();
+      playerInfoBean = getCurrentPlayer();
       playerInfoBean.updateFromPlayerInfo(player);
       playerInfoBean.setSocialStatus(SELF);
     } else {
-      Player playerInfoBean = createAndGetPlayerForUsername(player.getLogin());
+      if (pendingPlayerInfo.newPlayer != null) {
+        playerInfoBean = playerRegistry.addIfAbsent(pendingPlayerInfo.newPlayer);
+      } else {
+        playerInfoBean = createAndGetPlayerForUsername(player.getLogin());
+      }
 
-      if (friendList.contains(player.getId())) {
+      if (isFriend(player.getId())) {
         playerInfoBean.setSocialStatus(FRIEND);
-      } else if (foeList.contains(player.getId())) {
+      } else if (isFoe(player.getId())) {
         playerInfoBean.setSocialStatus(FOE);
       } else {
         playerInfoBean.setSocialStatus(OTHER);
       }
 
-      playerInfoBean.updateFromPlayerInfo(player);
+      if (playerInfoBean != pendingPlayerInfo.newPlayer) {
+        playerInfoBean.updateFromPlayerInfo(player);
+      }
+    }
+
+    // The player's game may have been received before the player, in which case joining it couldn't be applied
+    if (playerInfoBean.getGame() == null) {
+      Integer gameUid = playerGameIndex.getGameUid(playerInfoBean.getUsername());
+      if (gameUid != null) {
+        playerInfoBean.setGame(gameService.getByUid(gameUid));
+      }
+    }
+  }
+
+  private boolean isFriend(int playerId) {
+    synchronized (friendIds) {
+      return friendIds.contains(playerId);
+    }
+  }
+
+  private boolean isFoe(int playerId) {
+    synchronized (foeIds) {
+      return foeIds.contains(playerId);
+    }
+  }
+
+  private static final class PendingPlayerInfo {
+
+    private final com.faforever.client.remote.domain.Player playerInfo;
+    /**
+     * The player created from {@link #playerInfo} if the player was not known yet, {@code null} otherwise.
+     */
+    private final Player newPlayer;
+
+    private PendingPlayerInfo(com.faforever.client.remote.domain.Player playerInfo, Player newPlayer) {
+      this.playerInfo = playerInfo;
+      this.newPlayer = newPlayer;
     }
   }
 }
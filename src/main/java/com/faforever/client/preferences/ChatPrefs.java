@@ -4,14 +4,17 @@ import com.faforever.client.chat.ChatColorMode;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ListProperty;
 import javafx.beans.property.MapProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleListProperty;
 import javafx.beans.property.SimpleMapProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.collections.ObservableMap;
 import javafx.scene.paint.Color;
 
@@ -27,6 +30,10 @@ public class ChatPrefs {
   private final IntegerProperty channelTabScrollPaneWidth;
   private final MapProperty<String, Color> userToColor;
   private final BooleanProperty hideFoeMessages;
+  /**
+   * Words that are highlighted in chat messages like the user's own name, for instance clan tags or nicknames.
+   */
+  private final ListProperty<String> highlightedWords;
 
   /**
    * Time in minutes a player has to be inactive to be considered idle.
@@ -44,6 +51,7 @@ public class ChatPrefs {
     userToColor = new SimpleMapProperty<>(FXCollections.observableHashMap());
     chatColorMode = new SimpleObjectProperty<>(CUSTOM);
     idleThreshold = new SimpleIntegerProperty(10);
+    highlightedWords = new SimpleListProperty<>(FXCollections.observableArrayList());
   }
 
   public ChatColorMode getChatColorMode() {
@@ -158,4 +166,16 @@ public class ChatPrefs {
   public void setIdleThreshold(int idleThreshold) {
     this.idleThreshold.set(idleThreshold);
   }
+
+  public ObservableList<String> getHighlightedWords() {
+    return highlightedWords.get();
+  }
+
+  public void setHighlightedWords(ObservableList<String> highlightedWords) {
+    this.highlightedWords.set(highlightedWords);
+  }
+
+  public ListProperty<String> highlightedWordsProperty() {
+    return highlightedWords;
+  }
 }
@@ -66,6 +66,7 @@ public class PreferencesService {
   private static final String REPLAYS_SUB_FOLDER = "replays";
   private static final String CORRUPTED_REPLAYS_SUB_FOLDER = "corrupt";
   private static final String CACHE_SUB_FOLDER = "cache";
+  private static final String CHAT_HISTORY_SUB_FOLDER = "chat";
   private static final String CACHE_STYLESHEETS_SUB_FOLDER = Paths.get(CACHE_SUB_FOLDER, "stylesheets").toString();
   private static final Collection<Path> USUAL_GAME_PATHS = Arrays.asList(
       Paths.get(System.getenv("ProgramFiles") + "\\THQ\\Gas Powered Games\\Supreme Commander - Forged Alliance"),
@@ -303,6 +304,10 @@ public class PreferencesService {
     return getFafDataDirectory().resolve(CACHE_SUB_FOLDER);
   }
 
+  public Path getChatHistoryDirectory() {
+    return getFafDataDirectory().resolve(CHAT_HISTORY_SUB_FOLDER);
+  }
+
   public Path getFafLogDirectory() {
     return getFafDataDirectory().resolve("logs");
   }
@@ -12,11 +12,14 @@ import com.faforever.client.theme.Theme;
 import com.faforever.client.theme.UiService;
 import com.faforever.client.ui.preferences.event.GameDirectoryChooseEvent;
 import com.faforever.client.user.UserService;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
 import com.google.common.eventbus.EventBus;
 import javafx.beans.binding.Bindings;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.WeakChangeListener;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.scene.Node;
 import javafx.scene.control.CheckBox;
@@ -36,6 +39,7 @@ import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
 import java.text.NumberFormat;
+import java.util.List;
 
 import static com.faforever.client.fx.JavaFxUtil.PATH_STRING_CONVERTER;
 import static com.faforever.client.theme.UiService.DEFAULT_THEME;
@@ -55,6 +59,7 @@ public class SettingsController implements Controller<Node> {
   public TextField gameLocationTextField;
   public CheckBox autoDownloadMapsCheckBox;
   public TextField maxMessagesTextField;
+  public TextField highlightedWordsTextField;
   public CheckBox imagePreviewCheckBox;
   public CheckBox enableNotificationsCheckBox;
   public CheckBox enableSoundsCheckBox;
@@ -152,6 +157,15 @@ public class SettingsController implements Controller<Node> {
 
     hideFoeCheckBox.selectedProperty().bindBidirectional(preferences.getChat().hideFoeMessagesProperty());
 
+    // Only applied when editing is done, since every change of the highlighted words rebuilds their matcher
+    highlightedWordsTextField.setText(Joiner.on(", ").join(preferences.getChat().getHighlightedWords()));
+    highlightedWordsTextField.setOnAction(event -> onHighlightedWordsEdited());
+    highlightedWordsTextField.focusedProperty().addListener((observable, oldValue, newValue) -> {
+      if (!newValue) {
+        onHighlightedWordsEdited();
+      }
+    });
+
     preferences.getChat().chatColorModeProperty().addListener((observable, oldValue, newValue) -> setSelectedColorMode(newValue));
     setSelectedColorMode(preferences.getChat().getChatColorMode());
 
@@ -223,6 +237,15 @@ public class SettingsController implements Controller<Node> {
     return new StringListCell<>(screen -> i18n.get("settings.screenFormat", Screen.getScreens().indexOf(screen) + 1));
   }
 
+  private void onHighlightedWordsEdited() {
+    List<String> highlightedWords = Splitter.on(',').trimResults().omitEmptyStrings()
+        .splitToList(highlightedWordsTextField.getText());
+    ObservableList<String> currentHighlightedWords = preferencesService.getPreferences().getChat().getHighlightedWords();
+    if (!highlightedWords.equals(currentHighlightedWords)) {
+      currentHighlightedWords.setAll(highlightedWords);
+    }
+  }
+
   private void setSelectedColorMode(ChatColorMode newValue) {
     switch (newValue) {
       case DEFAULT:
@@ -2,17 +2,24 @@ package com.faforever.client.remote;
 
 import com.faforever.client.fx.JavaFxUtil;
 import com.faforever.client.remote.domain.FafServerMessage;
-import com.faforever.client.remote.io.QDataInputStream;
+import com.faforever.client.remote.io.LobbyTrafficRecorder;
+import com.faforever.client.remote.io.QDataFrameDecoder;
 import org.apache.commons.compress.utils.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.PreDestroy;
-import java.io.BufferedInputStream;
-import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.invoke.MethodHandles;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
 
 /**
  * Super class for all server accessors.
@@ -20,9 +27,13 @@ import java.net.Socket;
 public abstract class AbstractServerAccessor {
 
   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final long SELECT_TIMEOUT = 1000;
+  private static final int READ_BUFFER_SIZE = 8192;
 
-  private boolean stopped;
-  private QDataInputStream dataInput;
+  private volatile boolean stopped;
+  private InputStream inputStream;
+  private Selector selector;
+  private volatile LobbyTrafficRecorder trafficRecorder;
 
   /**
    * Reads data received from the server and dispatches it. So far, there are two types of data sent by the server: <ol>
@@ -33,21 +44,112 @@ public abstract class AbstractServerAccessor {
   protected void blockingReadServer(Socket socket) throws IOException {
     JavaFxUtil.assertBackgroundThread();
 
-    dataInput = new QDataInputStream(new DataInputStream(new BufferedInputStream(socket.getInputStream())));
+    inputStream = socket.getInputStream();
+    QDataFrameDecoder frameDecoder = new QDataFrameDecoder();
+    QDataFrameDecoder.FrameHandler frameHandler = this::onFrame;
+    byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+
     while (!stopped && !socket.isInputShutdown()) {
-      dataInput.skipBlockSize();
-      String message = dataInput.readQString();
+      int bytesRead = inputStream.read(readBuffer);
+      if (bytesRead == -1) {
+        throw new EOFException("Server closed the connection");
+      }
+      frameDecoder.decode(ByteBuffer.wrap(readBuffer, 0, bytesRead), frameHandler);
+    }
 
-      logger.debug("Message from server: {}", message);
+    logger.info("Connection to server {} has been closed", socket.getRemoteSocketAddress());
+  }
+
+  /**
+   * Like {@link #blockingReadServer(Socket)}, but reads from a non-blocking channel using a {@link Selector}. Frames are
+   * decoded by a {@link QDataFrameDecoder}, which reuses its buffers for every message.
+   */
+  protected void nonBlockingReadServer(SocketChannel socketChannel) throws IOException {
+    JavaFxUtil.assertBackgroundThread();
 
-      try {
-        onServerMessage(message);
-      } catch (Exception e) {
-        logger.warn("Error while handling server message: " + message, e);
+    QDataFrameDecoder frameDecoder = new QDataFrameDecoder();
+    QDataFrameDecoder.FrameHandler frameHandler = this::onFrame;
+
+    socketChannel.configureBlocking(false);
+    try (Selector selector = Selector.open()) {
+      this.selector = selector;
+      socketChannel.register(selector, SelectionKey.OP_READ);
+
+      while (!stopped) {
+        // A timeout is used since closing the channel from another thread doesn't reliably wake up the selector
+        selector.select(SELECT_TIMEOUT);
+        selector.selectedKeys().clear();
+
+        // Throws a ClosedChannelException if the channel has been closed in the meantime
+        int bytesRead;
+        do {
+          bytesRead = frameDecoder.readFrom(socketChannel, frameHandler);
+        } while (bytesRead > 0);
+
+        if (bytesRead == -1) {
+          throw new EOFException("Server closed the connection");
+        }
       }
+    } catch (ClosedSelectorException e) {
+      // The selector is only closed by close(), which may race with select()
+      logger.debug("Selector has been closed, stopping to read from server");
     }
 
-    logger.info("Connection to server {} has been closed", socket.getRemoteSocketAddress());
+    logger.info("Connection to server {} has been closed", socketChannel.socket().getRemoteSocketAddress());
+  }
+
+  /**
+   * Starts recording all messages received from the server into the specified capture file, replacing any previous
+   * recording.
+   *
+   * @see LobbyTrafficRecorder
+   */
+  protected void startTrafficRecording(Path captureFile) throws IOException {
+    stopTrafficRecording();
+    logger.info("Recording lobby traffic to {}", captureFile);
+    trafficRecorder = new LobbyTrafficRecorder(captureFile);
+  }
+
+  protected void stopTrafficRecording() {
+    IOUtils.closeQuietly(trafficRecorder);
+    trafficRecorder = null;
+  }
+
+  protected boolean isRecordingTraffic() {
+    return trafficRecorder != null;
+  }
+
+  private void onFrame(ByteBuffer frame, String message) {
+    recordTraffic(frame);
+
+    if (message == null) {
+      logger.debug("Ignoring null message from server");
+      return;
+    }
+
+    logger.trace("Message from server: {}", message);
+    try {
+      onServerMessage(message);
+    } catch (Exception e) {
+      logger.warn("Error while handling server message: " + message, e);
+    }
+  }
+
+  /**
+   * Records the raw frame as received from the server. Since recording is optional, any failure stops the recording
+   * rather than reading from the server.
+   */
+  private void recordTraffic(ByteBuffer frame) {
+    LobbyTrafficRecorder recorder = this.trafficRecorder;
+    if (recorder == null) {
+      return;
+    }
+    try {
+      recorder.record(frame);
+    } catch (Exception e) {
+      logger.warn("Could not record lobby traffic, recording stopped", e);
+      stopTrafficRecording();
+    }
   }
 
   protected abstract void onServerMessage(String message) throws IOException;
@@ -55,6 +157,8 @@ public abstract class AbstractServerAccessor {
   @PreDestroy
   void close() throws IOException {
     stopped = true;
-    IOUtils.closeQuietly(dataInput);
+    IOUtils.closeQuietly(inputStream);
+    IOUtils.closeQuietly(selector);
+    stopTrafficRecording();
   }
 }
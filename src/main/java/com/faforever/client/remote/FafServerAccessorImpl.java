@@ -10,6 +10,7 @@ import com.faforever.client.i18n.I18n;
 import com.faforever.client.legacy.UidService;
 import com.faforever.client.login.LoginFailedException;
 import com.faforever.client.net.ConnectionState;
+import com.faforever.client.net.ExponentialBackoff;
 import com.faforever.client.notification.DismissAction;
 import com.faforever.client.notification.ImmediateNotification;
 import com.faforever.client.notification.NotificationService;
@@ -42,6 +43,7 @@ import com.faforever.client.remote.domain.SelectAvatarMessage;
 import com.faforever.client.remote.domain.SerializableMessage;
 import com.faforever.client.remote.domain.ServerCommand;
 import com.faforever.client.remote.domain.ServerMessage;
+import com.faforever.client.remote.domain.ServerMessageType;
 import com.faforever.client.remote.domain.SessionMessage;
 import com.faforever.client.remote.domain.VictoryCondition;
 import com.faforever.client.remote.gson.ClientMessageTypeTypeAdapter;
@@ -50,9 +52,12 @@ import com.faforever.client.remote.gson.GameStateTypeAdapter;
 import com.faforever.client.remote.gson.GpgServerMessageTypeTypeAdapter;
 import com.faforever.client.remote.gson.MessageTargetTypeAdapter;
 import com.faforever.client.remote.gson.RatingRangeTypeAdapter;
+import com.faforever.client.remote.gson.ServerMessageDecoder;
 import com.faforever.client.remote.gson.ServerMessageTypeAdapter;
 import com.faforever.client.remote.gson.ServerMessageTypeTypeAdapter;
 import com.faforever.client.remote.gson.VictoryConditionTypeAdapter;
+import com.faforever.client.remote.io.ChannelOutputStream;
+import com.faforever.client.remote.metrics.LobbyMetrics;
 import com.faforever.client.update.Version;
 import com.github.nocatch.NoCatch;
 import com.google.gson.FieldNamingPolicy;
@@ -72,7 +77,6 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
-import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
 
 import javax.annotation.PreDestroy;
@@ -80,18 +84,20 @@ import javax.inject.Inject;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.invoke.MethodHandles;
+import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.URL;
-import java.util.Collection;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
+import static com.faforever.client.remote.metrics.LobbyMetrics.UNKNOWN_MESSAGE_TYPE;
 import static com.faforever.client.util.ConcurrentUtil.executeInBackground;
 
 @Lazy
@@ -100,20 +106,37 @@ import static com.faforever.client.util.ConcurrentUtil.executeInBackground;
 public class FafServerAccessorImpl extends AbstractServerAccessor implements FafServerAccessor {
 
   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
-  private static final long RECONNECT_DELAY = 3000;
+  private static final Duration INITIAL_RECONNECT_DELAY = Duration.ofSeconds(1);
+  private static final Duration MAX_RECONNECT_DELAY = Duration.ofMinutes(1);
   private final Gson gson;
-  private final HashMap<Class<? extends ServerMessage>, Collection<Consumer<ServerMessage>>> messageListeners;
+  private final ServerMessageDecoder serverMessageDecoder;
+  private final ServerMessageListenerRegistry messageListeners;
+  private final ExponentialBackoff reconnectBackoff;
 
   private final PreferencesService preferencesService;
   private final UidService uidService;
   private final NotificationService notificationService;
   private final I18n i18n;
+  private final LobbyMetrics lobbyMetrics;
   private final String lobbyHost;
   private final int lobbyPort;
 
+  /**
+   * Whether to read from the lobby server using a non-blocking {@link SocketChannel} instead of a plain socket.
+   */
+  @Value("${lobby.useNio}")
+  boolean useNio;
+  /**
+   * If set, all messages received from the lobby server are recorded into this file.
+   *
+   * @see com.faforever.client.remote.io.LobbyReplayServer
+   */
+  @Value("${lobby.recordTrafficTo}")
+  String recordTrafficTo;
+
   private Task<Void> fafConnectionTask;
   private String localIp;
-  private ServerWriter serverWriter;
+  private volatile ServerWriter serverWriter;
   private CompletableFuture<LoginMessage> loginFuture;
   private CompletableFuture<SessionMessage> sessionFuture;
   private CompletableFuture<GameLaunchMessage> gameLaunchFuture;
@@ -129,11 +152,14 @@ public class FafServerAccessorImpl extends AbstractServerAccessor implements Faf
                                UidService uidService,
                                NotificationService notificationService,
                                I18n i18n,
+                               LobbyMetrics lobbyMetrics,
                                @Value("${lobby.host}") String lobbyHost,
                                @Value("${lobby.port}") int lobbyPort) {
     this.lobbyHost = lobbyHost;
     this.lobbyPort = lobbyPort;
-    messageListeners = new HashMap<>();
+    this.lobbyMetrics = lobbyMetrics;
+    messageListeners = new ServerMessageListenerRegistry();
+    reconnectBackoff = new ExponentialBackoff(INITIAL_RECONNECT_DELAY, MAX_RECONNECT_DELAY);
     connectionState = new SimpleObjectProperty<>();
     sessionId = new SimpleObjectProperty<>();
     // TODO note to myself; seriously, create a single gson instance (or builder) and put it all there
@@ -149,6 +175,7 @@ public class FafServerAccessorImpl extends AbstractServerAccessor implements Faf
         .registerTypeAdapter(ServerMessage.class, ServerMessageTypeAdapter.INSTANCE)
         .registerTypeAdapter(RatingRange.class, RatingRangeTypeAdapter.INSTANCE)
         .create();
+    serverMessageDecoder = new ServerMessageDecoder(gson);
 
     addOnMessageListener(NoticeMessage.class, this::onNotice);
     addOnMessageListener(SessionMessage.class, this::onSessionInitiated);
@@ -175,18 +202,13 @@ public class FafServerAccessorImpl extends AbstractServerAccessor implements Faf
   }
 
   @Override
-  @SuppressWarnings("unchecked")
   public <T extends ServerMessage> void addOnMessageListener(Class<T> type, Consumer<T> listener) {
-    if (!messageListeners.containsKey(type)) {
-      messageListeners.put(type, new LinkedList<>());
-    }
-    messageListeners.get(type).add((Consumer<ServerMessage>) listener);
+    messageListeners.addListener(type, listener);
   }
 
   @Override
-  @SuppressWarnings("unchecked")
   public <T extends ServerMessage> void removeOnMessageListener(Class<T> type, Consumer<T> listener) {
-    messageListeners.get(type).remove(listener);
+    messageListeners.removeListener(type, listener);
   }
 
   @Override
@@ -200,6 +222,7 @@ public class FafServerAccessorImpl extends AbstractServerAccessor implements Faf
     loginFuture = new CompletableFuture<>();
     this.username = username;
     this.password = password;
+    reconnectBackoff.reset();
 
     // TODO extract class?
     fafConnectionTask = new Task<Void>() {
@@ -211,29 +234,20 @@ public class FafServerAccessorImpl extends AbstractServerAccessor implements Faf
           Platform.runLater(() -> connectionState.set(ConnectionState.CONNECTING));
 
 
-          try (Socket fafServerSocket = new Socket(lobbyHost, lobbyPort);
-               OutputStream outputStream = fafServerSocket.getOutputStream()) {
-            FafServerAccessorImpl.this.fafServerSocket = fafServerSocket;
-
-            fafServerSocket.setKeepAlive(true);
-
-            localIp = fafServerSocket.getLocalAddress().getHostAddress();
-
-            serverWriter = createServerWriter(outputStream);
-
-            writeToServer(new InitSessionMessage(Version.VERSION));
-
-            logger.info("FAF server connection established");
-            Platform.runLater(() -> connectionState.set(ConnectionState.CONNECTED));
-
-            blockingReadServer(fafServerSocket);
+          try {
+            if (useNio) {
+              connectNonBlocking();
+            } else {
+              connectBlocking();
+            }
           } catch (IOException e) {
             Platform.runLater(() -> connectionState.set(ConnectionState.DISCONNECTED));
             if (isCancelled()) {
               logger.debug("Connection to FAF server has been closed");
             } else {
-              logger.warn("Lost connection to FAF server, trying to reconnect in " + RECONNECT_DELAY / 1000 + "s", e);
-              Thread.sleep(RECONNECT_DELAY);
+              Duration reconnectDelay = reconnectBackoff.nextDelay();
+              logger.warn("Lost connection to FAF server, trying to reconnect in " + reconnectDelay.toMillis() + "ms", e);
+              Thread.sleep(reconnectDelay.toMillis());
             }
           }
         }
@@ -251,6 +265,44 @@ public class FafServerAccessorImpl extends AbstractServerAccessor implements Faf
     return loginFuture;
   }
 
+  private void connectBlocking() throws IOException {
+    try (Socket fafServerSocket = new Socket(lobbyHost, lobbyPort);
+         OutputStream outputStream = fafServerSocket.getOutputStream()) {
+      onConnected(fafServerSocket, outputStream);
+      blockingReadServer(fafServerSocket);
+    }
+  }
+
+  private void connectNonBlocking() throws IOException {
+    try (SocketChannel socketChannel = SocketChannel.open(new InetSocketAddress(lobbyHost, lobbyPort))) {
+      socketChannel.configureBlocking(false);
+      try (OutputStream outputStream = new ChannelOutputStream(socketChannel)) {
+        onConnected(socketChannel.socket(), outputStream);
+        nonBlockingReadServer(socketChannel);
+      }
+    }
+  }
+
+  private void onConnected(Socket fafServerSocket, OutputStream outputStream) throws IOException {
+    this.fafServerSocket = fafServerSocket;
+
+    fafServerSocket.setKeepAlive(true);
+
+    localIp = fafServerSocket.getLocalAddress().getHostAddress();
+
+    if (!StringUtils.isEmpty(recordTrafficTo) && !isRecordingTraffic()) {
+      startTrafficRecording(Paths.get(recordTrafficTo));
+    }
+
+    IOUtils.closeQuietly(serverWriter);
+    serverWriter = createServerWriter(outputStream);
+
+    writeToServer(new InitSessionMessage(Version.VERSION));
+
+    logger.info("FAF server connection established");
+    Platform.runLater(() -> connectionState.set(ConnectionState.CONNECTED));
+  }
+
   @Override
   public CompletionStage<GameLaunchMessage> requestHostGame(NewGameInfo newGameInfo) {
     HostGameMessage hostGameMessage = new HostGameMessage(
@@ -346,12 +398,26 @@ public class FafServerAccessorImpl extends AbstractServerAccessor implements Faf
 
   private ServerWriter createServerWriter(OutputStream outputStream) throws IOException {
     ServerWriter serverWriter = new ServerWriter(outputStream);
+    serverWriter.setLobbyMetrics(lobbyMetrics);
+    serverWriter.setOnWriteFailed(e -> onWriteFailed(serverWriter));
     serverWriter.registerMessageSerializer(new ClientMessageSerializer(), ClientMessage.class);
     serverWriter.registerMessageSerializer(new StringSerializer(), String.class);
     serverWriter.registerMessageSerializer(new GpgClientMessageSerializer(), GpgGameMessage.class);
     return serverWriter;
   }
 
+  /**
+   * Called when the specified writer failed to write to the server. Unless the writer has been replaced in the meantime,
+   * this closes the connection so that it is re-established by the connection task.
+   */
+  private void onWriteFailed(ServerWriter failedServerWriter) {
+    if (failedServerWriter != serverWriter) {
+      return;
+    }
+    logger.info("Reconnecting since writing to the FAF server failed");
+    reconnect();
+  }
+
   private void writeToServer(SerializableMessage message) {
     serverWriter.write(message);
   }
@@ -378,28 +444,39 @@ public class FafServerAccessorImpl extends AbstractServerAccessor implements Faf
   }
 
   private void parseServerObject(String jsonString) {
+    boolean measure = lobbyMetrics.isEnabled();
+    long startNanos = measure ? System.nanoTime() : 0;
     try {
-      ServerMessage serverMessage = gson.fromJson(jsonString, ServerMessage.class);
+      ServerMessage serverMessage = serverMessageDecoder.decode(jsonString);
       if (serverMessage == null) {
+        if (measure) {
+          lobbyMetrics.record(UNKNOWN_MESSAGE_TYPE, frameSize(jsonString), System.nanoTime() - startNanos, 0);
+        }
         logger.debug("Discarding unimplemented server message: {}", jsonString);
         return;
       }
 
-      Class<?> messageClass = serverMessage.getClass();
-      while (messageClass != Object.class) {
-        messageListeners.getOrDefault(messageClass, Collections.emptyList())
-            .forEach(consumer -> consumer.accept(serverMessage));
-        messageClass = messageClass.getSuperclass();
-      }
-      for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(messageClass)) {
-        messageListeners.getOrDefault(messageClass, Collections.emptyList())
-            .forEach(consumer -> consumer.accept(serverMessage));
+      long decodedNanos = measure ? System.nanoTime() : 0;
+      messageListeners.dispatch(serverMessage);
+
+      if (measure) {
+        ServerMessageType messageType = serverMessage.getMessageType();
+        lobbyMetrics.record(messageType != null ? messageType.getString() : UNKNOWN_MESSAGE_TYPE,
+            frameSize(jsonString), decodedNanos - startNanos, System.nanoTime() - decodedNanos);
       }
     } catch (JsonSyntaxException e) {
       logger.warn("Could not deserialize message: " + jsonString, e);
     }
   }
 
+  /**
+   * Returns the number of bytes the server used to send the specified message, which is the block size and the length
+   * of the QString followed by its UTF-16 characters.
+   */
+  private static int frameSize(String message) {
+    return Integer.BYTES * 2 + message.length() * 2;
+  }
+
   private void onServerPing() {
     writeToServer(new PongMessage());
   }
@@ -412,6 +489,7 @@ public class FafServerAccessorImpl extends AbstractServerAccessor implements Faf
 
   private void onFafLoginSucceeded(LoginMessage loginServerMessage) {
     logger.info("FAF login succeeded");
+    reconnectBackoff.reset();
 
     if (loginFuture != null) {
       loginFuture.complete(loginServerMessage);
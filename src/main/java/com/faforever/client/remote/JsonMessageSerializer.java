@@ -1,7 +1,6 @@
 package com.faforever.client.remote;
 
 import com.faforever.client.remote.domain.SerializableMessage;
-import com.faforever.client.remote.io.QDataWriter;
 import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -10,42 +9,40 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.serializer.Serializer;
 
-import java.io.ByteArrayOutputStream;
+import java.io.CharArrayWriter;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.StringWriter;
 import java.io.Writer;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
-import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
 
 public class JsonMessageSerializer<T extends SerializableMessage> implements Serializer<T> {
 
   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
   private static final String CONFIDENTIAL_INFORMATION_MASK = "********";
+  private static final Field SEPARATOR_FIELD = separatorField();
 
+  /**
+   * Reused for every message, holds the JSON string of the message being serialized.
+   */
+  private final JsonCharBuffer jsonCharBuffer = new JsonCharBuffer();
+  private byte[] byteBuffer = new byte[1024];
   private Gson gson;
 
+  /**
+   * Writes the message as a QString, that is the number of bytes followed by the UTF-16BE encoded JSON string.
+   */
   // TODO Clean this up, such that the message is logged within ServerWriter and everything makes much more sense
   @Override
-  public void serialize(SerializableMessage message, OutputStream outputStream) throws IOException {
-    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-
-    Writer jsonStringWriter = new StringWriter();
-
-    // Serialize the object into a StringWriter which is later send as one string block with its size prepended.
-    getGson().toJson(message, message.getClass(), fixedJsonWriter(jsonStringWriter));
-
-    QDataWriter qDataWriter = new QDataWriter(byteArrayOutputStream);
-    qDataWriter.append(jsonStringWriter.toString());
+  public synchronized void serialize(SerializableMessage message, OutputStream outputStream) throws IOException {
+    jsonCharBuffer.reset();
 
-    byte[] byteArray = byteArrayOutputStream.toByteArray();
+    // Serialize the object into a reused char buffer which is then encoded without further copies
+    getGson().toJson(message, message.getClass(), fixedJsonWriter(jsonCharBuffer));
 
     if (logger.isDebugEnabled()) {
-      // Remove the first 4 bytes which contain the length of the following data
-      String data = new String(Arrays.copyOfRange(byteArray, 4, byteArray.length), StandardCharsets.UTF_16BE);
+      String data = jsonCharBuffer.toString();
 
       for (String stringToMask : message.getStringsToMask()) {
         data = data.replace("\"" + stringToMask + "\"", "\"" + CONFIDENTIAL_INFORMATION_MASK + "\"");
@@ -54,7 +51,8 @@ public class JsonMessageSerializer<T extends SerializableMessage> implements Ser
       logger.debug("Writing to server: {}", data);
     }
 
-    outputStream.write(byteArray);
+    int length = jsonCharBuffer.encodeQString();
+    outputStream.write(byteBuffer, 0, length);
   }
 
   private Gson getGson() {
@@ -70,18 +68,26 @@ public class JsonMessageSerializer<T extends SerializableMessage> implements Ser
     return gson;
   }
 
+  private static Field separatorField() {
+    try {
+      Field separatorField = JsonWriter.class.getDeclaredField("separator");
+      separatorField.setAccessible(true);
+      return separatorField;
+    } catch (NoSuchFieldException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   private JsonWriter fixedJsonWriter(Writer writer) {
     // Does GSON suck because its separator can't be set, or python because it can't handle JSON without a space after colon?
     try {
       JsonWriter jsonWriter = new JsonWriter(writer);
       jsonWriter.setSerializeNulls(false);
 
-      Field separatorField = JsonWriter.class.getDeclaredField("separator");
-      separatorField.setAccessible(true);
-      separatorField.set(jsonWriter, ": ");
+      SEPARATOR_FIELD.set(jsonWriter, ": ");
 
       return jsonWriter;
-    } catch (NoSuchFieldException | IllegalAccessException e) {
+    } catch (IllegalAccessException e) {
       throw new RuntimeException(e);
     }
   }
@@ -92,4 +98,34 @@ public class JsonMessageSerializer<T extends SerializableMessage> implements Ser
   protected void addTypeAdapters(GsonBuilder gsonBuilder) {
     // To be overridden by subclasses, if desired
   }
+
+  /**
+   * A {@link CharArrayWriter} that can encode its content as QString into {@link #byteBuffer} without copying it first.
+   */
+  private class JsonCharBuffer extends CharArrayWriter {
+
+    /**
+     * @return the number of bytes written to {@link #byteBuffer}
+     */
+    int encodeQString() {
+      int byteLength = count * 2;
+      int totalLength = Integer.BYTES + byteLength;
+      if (byteBuffer.length < totalLength) {
+        byteBuffer = new byte[Integer.highestOneBit(totalLength) << 1];
+      }
+
+      byteBuffer[0] = (byte) (byteLength >>> 24);
+      byteBuffer[1] = (byte) (byteLength >>> 16);
+      byteBuffer[2] = (byte) (byteLength >>> 8);
+      byteBuffer[3] = (byte) byteLength;
+
+      int index = Integer.BYTES;
+      for (int i = 0; i < count; i++) {
+        char c = buf[i];
+        byteBuffer[index++] = (byte) (c >>> 8);
+        byteBuffer[index++] = (byte) c;
+      }
+      return totalLength;
+    }
+  }
 }
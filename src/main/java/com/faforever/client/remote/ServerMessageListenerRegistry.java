@@ -0,0 +1,101 @@
+package com.faforever.client.remote;
+
+import com.faforever.client.remote.domain.ServerMessage;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Keeps track of server message listeners and dispatches messages to them. Listeners can be registered for a message
+ * class, any of its super classes or any interface it implements. The full set of listeners for a concrete message class
+ * is resolved once and cached as an array, so that dispatching a message neither walks the type hierarchy nor allocates.
+ * The cache is invalidated whenever a listener is added or removed.
+ * <p>
+ * This class is thread safe. Listeners may be added or removed from any thread while messages are being dispatched.
+ */
+public class ServerMessageListenerRegistry {
+
+  @SuppressWarnings("unchecked")
+  private static final Consumer<ServerMessage>[] NO_LISTENERS = new Consumer[0];
+
+  /**
+   * Listeners by the type they have been registered for. Guarded by {@code this}.
+   */
+  private final Map<Class<?>, List<Consumer<ServerMessage>>> listenersByType;
+  /**
+   * All listeners to be called for a concrete message class, including the ones registered for super types.
+   */
+  private final Map<Class<?>, Consumer<ServerMessage>[]> dispatchTable;
+
+  public ServerMessageListenerRegistry() {
+    listenersByType = new HashMap<>();
+    dispatchTable = new ConcurrentHashMap<>();
+  }
+
+  @SuppressWarnings("unchecked")
+  public synchronized <T extends ServerMessage> void addListener(Class<T> type, Consumer<T> listener) {
+    listenersByType.computeIfAbsent(type, key -> new ArrayList<>()).add((Consumer<ServerMessage>) listener);
+    dispatchTable.clear();
+  }
+
+  public synchronized <T extends ServerMessage> void removeListener(Class<T> type, Consumer<T> listener) {
+    List<Consumer<ServerMessage>> listeners = listenersByType.get(type);
+    if (listeners == null) {
+      return;
+    }
+    listeners.remove(listener);
+    if (listeners.isEmpty()) {
+      listenersByType.remove(type);
+    }
+    dispatchTable.clear();
+  }
+
+  /**
+   * Passes the specified message to every listener registered for its class, super classes or interfaces.
+   */
+  public void dispatch(ServerMessage message) {
+    for (Consumer<ServerMessage> listener : getListeners(message.getClass())) {
+      listener.accept(message);
+    }
+  }
+
+  /**
+   * Returns all listeners to be called for messages of the specified concrete class. The returned array must not be
+   * modified.
+   */
+  Consumer<ServerMessage>[] getListeners(Class<?> messageClass) {
+    Consumer<ServerMessage>[] listeners = dispatchTable.get(messageClass);
+    if (listeners == null) {
+      listeners = resolveListeners(messageClass);
+    }
+    return listeners;
+  }
+
+  @SuppressWarnings("unchecked")
+  private synchronized Consumer<ServerMessage>[] resolveListeners(Class<?> messageClass) {
+    Consumer<ServerMessage>[] cached = dispatchTable.get(messageClass);
+    if (cached != null) {
+      return cached;
+    }
+
+    List<Consumer<ServerMessage>> listeners = new ArrayList<>();
+    Class<?> type = messageClass;
+    while (type != null && type != Object.class) {
+      listeners.addAll(listenersByType.getOrDefault(type, Collections.emptyList()));
+      type = type.getSuperclass();
+    }
+    for (Class<?> interfaceType : ClassUtils.getAllInterfacesForClassAsSet(messageClass)) {
+      listeners.addAll(listenersByType.getOrDefault(interfaceType, Collections.emptyList()));
+    }
+
+    Consumer<ServerMessage>[] resolved = listeners.isEmpty() ? NO_LISTENERS : listeners.toArray(new Consumer[listeners.size()]);
+    dispatchTable.put(messageClass, resolved);
+    return resolved;
+  }
+}
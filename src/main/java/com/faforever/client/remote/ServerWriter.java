@@ -1,43 +1,84 @@
 package com.faforever.client.remote;
 
 import com.faforever.client.remote.domain.SerializableMessage;
-import com.faforever.client.remote.io.QDataWriter;
+import com.faforever.client.remote.metrics.LobbyMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.serializer.Serializer;
 
-import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
-import java.io.DataOutputStream;
-import java.io.EOFException;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.invoke.MethodHandles;
-import java.net.SocketException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
 
 /**
  * Sends data to the server. Classes should not use the server writer directly, but e.g. {@link com.faforever.client.remote.FafService} or
  * any other server accessor instead.
+ * <p>
+ * Messages are not written on the caller's thread but put into a queue, which is processed by a dedicated writer
+ * thread. The writer thread encodes all queued messages into one reused buffer and sends them with a single write, so
+ * that bursts of messages (like the game messages during game setup) don't result in one flush per message.
+ * <p>
+ * If writing fails, the writer stops, discards all pending messages and notifies the handler set using {@link
+ * #setOnWriteFailed(Consumer)}, which is expected to re-establish the connection.
  */
 public class ServerWriter implements Closeable {
 
   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
 
-  private final QDataWriter qDataWriter;
+  private final OutputStream outputStream;
   private final Map<Class<?>, Serializer<?>> objectWriters;
+  private final BlockingQueue<OutboundMessage> queue;
+  private final FrameBuffer frameBuffer;
+  private final Thread writerThread;
+
+  private volatile boolean closed;
+  private volatile boolean failed;
+  private volatile Consumer<IOException> onWriteFailed;
+  private volatile LobbyMetrics lobbyMetrics;
 
   public ServerWriter(OutputStream outputStream) {
-    qDataWriter = new QDataWriter(new DataOutputStream(new BufferedOutputStream(outputStream)));
+    this.outputStream = outputStream;
     objectWriters = new HashMap<>();
+    queue = new LinkedBlockingQueue<>();
+    frameBuffer = new FrameBuffer();
+
+    writerThread = new Thread(this::processQueue, "server-writer");
+    writerThread.setDaemon(true);
+    writerThread.start();
   }
 
   public void registerMessageSerializer(Serializer<?> objectSerializer, Class<?> writableClass) {
     objectWriters.put(writableClass, objectSerializer);
   }
 
+  /**
+   * Sets the handler to be called on the writer thread if a message could not be written to the server.
+   */
+  public void setOnWriteFailed(Consumer<IOException> onWriteFailed) {
+    this.onWriteFailed = onWriteFailed;
+  }
+
+  /**
+   * Sets the metrics to publish the queue depth and flush latencies to.
+   */
+  public void setLobbyMetrics(LobbyMetrics lobbyMetrics) {
+    this.lobbyMetrics = lobbyMetrics;
+    lobbyMetrics.setOutboundQueueDepthSource(this::getQueueDepth);
+  }
+
+  /**
+   * Queues the specified message to be sent to the server. Messages are sent in the order they have been queued.
+   */
   @SuppressWarnings("unchecked")
   public void write(SerializableMessage object) {
     Class<?> clazz = object.getClass();
@@ -48,19 +89,81 @@ public class ServerWriter implements Closeable {
       throw new IllegalStateException("No object writer registered for type: " + clazz);
     }
 
-    try {
-      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    if (failed) {
+      logger.warn("Writing to the server failed, discarding message: {}", object);
+      return;
+    }
+    if (closed) {
+      logger.debug("Server writer has been closed, discarding message: {}", object);
+      return;
+    }
+
+    queue.add(new OutboundMessage(object, serializer, System.nanoTime()));
+  }
 
-      serializer.serialize(object, outputStream);
+  /**
+   * @return the number of messages waiting to be sent
+   */
+  public int getQueueDepth() {
+    return queue.size();
+  }
 
-      synchronized (qDataWriter) {
-        qDataWriter.appendWithSize(outputStream.toByteArray());
-        qDataWriter.flush();
+  private void processQueue() {
+    List<OutboundMessage> batch = new ArrayList<>();
+    try {
+      while (!closed) {
+        batch.add(queue.take());
+        queue.drainTo(batch);
+
+        writeBatch(batch);
+        batch.clear();
       }
-    } catch (EOFException | SocketException e) {
-      logger.debug("Server writer has been closed");
+    } catch (InterruptedException e) {
+      logger.debug("Server writer has been interrupted");
     } catch (IOException e) {
-      logger.debug("Server writer has been closed", e);
+      if (closed) {
+        logger.debug("Server writer has been closed");
+      } else {
+        onWriteFailed(e, batch.size());
+      }
+    } finally {
+      closed = true;
+      queue.clear();
+    }
+  }
+
+  private void onWriteFailed(IOException e, int unsentMessages) {
+    failed = true;
+    closed = true;
+    logger.warn("Could not write to server, discarding " + (unsentMessages + queue.size()) + " unsent messages", e);
+    queue.clear();
+
+    Consumer<IOException> onWriteFailed = this.onWriteFailed;
+    if (onWriteFailed != null) {
+      onWriteFailed.accept(e);
+    }
+  }
+
+  private void writeBatch(List<OutboundMessage> batch) throws IOException {
+    frameBuffer.reset();
+    for (OutboundMessage outboundMessage : batch) {
+      int sizePosition = frameBuffer.reserveInt();
+      try {
+        outboundMessage.serializer.serialize(outboundMessage.message, frameBuffer);
+      } catch (RuntimeException e) {
+        logger.warn("Could not serialize message: " + outboundMessage.message, e);
+        frameBuffer.truncate(sizePosition);
+        continue;
+      }
+      frameBuffer.writeSizeAt(sizePosition);
+    }
+
+    frameBuffer.writeTo(outputStream);
+    outputStream.flush();
+
+    LobbyMetrics lobbyMetrics = this.lobbyMetrics;
+    if (lobbyMetrics != null && lobbyMetrics.isEnabled()) {
+      lobbyMetrics.recordFlush(System.nanoTime() - batch.get(0).queuedNanos);
     }
   }
 
@@ -81,6 +184,63 @@ public class ServerWriter implements Closeable {
 
   @Override
   public void close() throws IOException {
-    qDataWriter.close();
+    closed = true;
+    writerThread.interrupt();
+    outputStream.close();
+  }
+
+  private static final class OutboundMessage {
+
+    private final SerializableMessage message;
+    private final Serializer<SerializableMessage> serializer;
+    private final long queuedNanos;
+
+    private OutboundMessage(SerializableMessage message, Serializer<SerializableMessage> serializer, long queuedNanos) {
+      this.message = message;
+      this.serializer = serializer;
+      this.queuedNanos = queuedNanos;
+    }
+  }
+
+  /**
+   * Reusable buffer that allows to prepend each frame with its size once it has been serialized.
+   */
+  private static final class FrameBuffer extends ByteArrayOutputStream {
+
+    private FrameBuffer() {
+      super(INITIAL_BUFFER_SIZE);
+    }
+
+    /**
+     * Writes a placeholder for a 32 bit integer.
+     *
+     * @return the position of the placeholder
+     */
+    int reserveInt() {
+      int position = count;
+      write(0);
+      write(0);
+      write(0);
+      write(0);
+      return position;
+    }
+
+    /**
+     * Discards everything written after the specified position.
+     */
+    void truncate(int position) {
+      count = position;
+    }
+
+    /**
+     * Writes the number of bytes written since the placeholder at the specified position into the placeholder.
+     */
+    void writeSizeAt(int position) {
+      int size = count - position - Integer.BYTES;
+      buf[position] = (byte) (size >>> 24);
+      buf[position + 1] = (byte) (size >>> 16);
+      buf[position + 2] = (byte) (size >>> 8);
+      buf[position + 3] = (byte) size;
+    }
   }
 }
@@ -0,0 +1,219 @@
+package com.faforever.client.remote.gson;
+
+import com.faforever.client.remote.domain.ServerMessage;
+import com.faforever.client.remote.domain.ServerMessageType;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * Deserializes server messages in a single streaming pass. Unlike {@link ServerMessageTypeAdapter}, which needs to
+ * build a JSON tree in order to find out the message type, this decoder scans the raw JSON string for the top-level
+ * {@code command} and {@code target} fields and then binds the string directly into the concrete message class.
+ * <p>
+ * If the discriminator fields can't be found by scanning (e.g. because they contain escape sequences), the message is
+ * deserialized using {@link ServerMessageTypeAdapter} instead.
+ */
+public class ServerMessageDecoder {
+
+  private static final String COMMAND = "command";
+  private static final String TARGET = "target";
+
+  private final Gson gson;
+
+  /**
+   * @param gson a Gson instance with {@link ServerMessageTypeAdapter} registered for {@link ServerMessage}
+   */
+  public ServerMessageDecoder(Gson gson) {
+    this.gson = gson;
+  }
+
+  /**
+   * @return the deserialized message or {@code null} if the message type is not supported
+   */
+  public ServerMessage decode(String json) throws JsonParseException {
+    Discriminators discriminators = new Discriminators();
+    if (!scan(json, discriminators)) {
+      return gson.fromJson(json, ServerMessage.class);
+    }
+
+    ServerMessageType serverMessageType = ServerMessageTypeAdapter.resolveMessageType(discriminators.command, discriminators.target);
+    if (serverMessageType == null) {
+      return null;
+    }
+
+    // Unlike TypeAdapter.fromJson(), this parses leniently, just like the fallback
+    return gson.fromJson(json, serverMessageType.getType());
+  }
+
+  /**
+   * Scans the top level of the specified JSON object for the discriminator fields without building a tree.
+   *
+   * @return {@code true} if the {@code command} field has been found and all discriminators could be read, {@code
+   * false} if the caller needs to fall back to a full parse
+   */
+  static boolean scan(String json, Discriminators discriminators) {
+    int length = json.length();
+    int index = skipWhitespace(json, 0);
+    if (index >= length || json.charAt(index) != '{') {
+      return false;
+    }
+    index++;
+
+    while (true) {
+      index = skipWhitespace(json, index);
+      if (index >= length) {
+        return false;
+      }
+
+      char c = json.charAt(index);
+      if (c == '}') {
+        return discriminators.command != null;
+      }
+      if (c == ',') {
+        index++;
+        continue;
+      }
+      if (c != '"') {
+        return false;
+      }
+
+      int keyEnd = skipString(json, index);
+      if (keyEnd < 0) {
+        return false;
+      }
+      boolean isCommand = isKey(json, index, keyEnd, COMMAND);
+      boolean isTarget = !isCommand && isKey(json, index, keyEnd, TARGET);
+
+      index = skipWhitespace(json, keyEnd);
+      if (index >= length || json.charAt(index) != ':') {
+        return false;
+      }
+      index = skipWhitespace(json, index + 1);
+      if (index >= length) {
+        return false;
+      }
+
+      int valueEnd = skipValue(json, index);
+      if (valueEnd < 0) {
+        return false;
+      }
+
+      if (isCommand || isTarget) {
+        String value;
+        if (json.charAt(index) == '"') {
+          // Values with escape sequences are left to the full parser
+          if (containsEscape(json, index + 1, valueEnd - 1)) {
+            return false;
+          }
+          value = json.substring(index + 1, valueEnd - 1);
+        } else if (json.startsWith("null", index)) {
+          value = null;
+        } else {
+          return false;
+        }
+
+        if (isCommand) {
+          discriminators.command = value;
+        } else {
+          discriminators.target = value;
+        }
+      }
+      index = valueEnd;
+    }
+  }
+
+  private static boolean isKey(String json, int keyStart, int keyEnd, String key) {
+    return keyEnd - keyStart - 2 == key.length() && json.startsWith(key, keyStart + 1);
+  }
+
+  private static boolean containsEscape(String json, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (json.charAt(i) == '\\') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int skipWhitespace(String json, int index) {
+    int length = json.length();
+    while (index < length) {
+      char c = json.charAt(index);
+      if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+        break;
+      }
+      index++;
+    }
+    return index;
+  }
+
+  /**
+   * @return the index after the closing quote of the string starting at {@code index}, or {@code -1} if the string is
+   * not terminated
+   */
+  private static int skipString(String json, int index) {
+    int length = json.length();
+    for (int i = index + 1; i < length; i++) {
+      char c = json.charAt(i);
+      if (c == '\\') {
+        i++;
+      } else if (c == '"') {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return the index after the value starting at {@code index}, or {@code -1} if the value is malformed
+   */
+  private static int skipValue(String json, int index) {
+    int length = json.length();
+    char first = json.charAt(index);
+    if (first == '"') {
+      return skipString(json, index);
+    }
+
+    if (first == '{' || first == '[') {
+      int depth = 0;
+      int i = index;
+      while (i < length) {
+        char c = json.charAt(i);
+        if (c == '"') {
+          i = skipString(json, i);
+          if (i < 0) {
+            return -1;
+          }
+          continue;
+        }
+        if (c == '{' || c == '[') {
+          depth++;
+        } else if (c == '}' || c == ']') {
+          depth--;
+          if (depth == 0) {
+            return i + 1;
+          }
+        }
+        i++;
+      }
+      return -1;
+    }
+
+    // Numbers and literals
+    int i = index;
+    while (i < length) {
+      char c = json.charAt(i);
+      if (c == ',' || c == '}' || c == ']' || c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+        break;
+      }
+      i++;
+    }
+    return i;
+  }
+
+  static class Discriminators {
+
+    String command;
+    String target;
+  }
+}
@@ -30,26 +30,34 @@ public class ServerMessageTypeAdapter implements JsonDeserializer<ServerMessage>
       target = targetElement.getAsString();
     }
 
+    ServerMessageType serverMessageType = resolveMessageType(command, target);
+    if (serverMessageType == null) {
+      return null;
+    }
+    return context.deserialize(jsonObject, serverMessageType.getType());
+  }
+
+  /**
+   * Determines the type of a server message by its {@code command} and {@code target} fields.
+   *
+   * @return the message type or {@code null} if the message is not supported
+   */
+  static ServerMessageType resolveMessageType(String command, String target) {
     MessageTarget messageTarget = MessageTarget.fromString(target);
+    if (messageTarget == null) {
+      return null;
+    }
 
-    ServerMessageType serverMessageType;
     switch (messageTarget) {
       case GAME:
       case CONNECTIVITY:
-        serverMessageType = GpgServerMessageType.fromString(command);
-        break;
+        return GpgServerMessageType.fromString(command);
 
       case CLIENT:
-        serverMessageType = FafServerMessageType.fromString(command);
-        break;
+        return FafServerMessageType.fromString(command);
 
       default:
         return null;
     }
-
-    if (serverMessageType == null) {
-      return null;
-    }
-    return context.deserialize(jsonObject, serverMessageType.getType());
   }
 }
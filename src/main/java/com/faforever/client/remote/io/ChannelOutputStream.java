@@ -0,0 +1,66 @@
+package com.faforever.client.remote.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Output stream that writes to a non-blocking {@link SocketChannel}. Unlike {@link java.nio.channels.Channels#newOutputStream},
+ * this works on channels in non-blocking mode by waiting on a private selector whenever the socket's send buffer is full.
+ */
+public class ChannelOutputStream extends OutputStream {
+
+  private final SocketChannel channel;
+  private final byte[] singleByte;
+  private Selector writeSelector;
+
+  public ChannelOutputStream(SocketChannel channel) {
+    this.channel = channel;
+    this.singleByte = new byte[1];
+  }
+
+  @Override
+  public synchronized void write(int b) throws IOException {
+    singleByte[0] = (byte) b;
+    write(singleByte, 0, 1);
+  }
+
+  @Override
+  public synchronized void write(byte[] b, int off, int len) throws IOException {
+    write(ByteBuffer.wrap(b, off, len));
+  }
+
+  /**
+   * Writes all remaining bytes of the specified buffer, waiting for the channel to become writable if necessary.
+   */
+  public synchronized void write(ByteBuffer byteBuffer) throws IOException {
+    while (byteBuffer.hasRemaining()) {
+      if (channel.write(byteBuffer) == 0) {
+        awaitWritable();
+      }
+    }
+  }
+
+  private void awaitWritable() throws IOException {
+    if (writeSelector == null) {
+      writeSelector = Selector.open();
+      channel.register(writeSelector, SelectionKey.OP_WRITE);
+    }
+    writeSelector.select();
+    writeSelector.selectedKeys().clear();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    try {
+      if (writeSelector != null) {
+        writeSelector.close();
+      }
+    } finally {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,138 @@
+package com.faforever.client.remote.io;
+
+import com.faforever.client.remote.io.LobbyTrafficReader.RecordedFrame;
+import org.apache.commons.compress.utils.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A local stand-in for the lobby server that replays a capture written by a {@link LobbyTrafficRecorder} to every
+ * client that connects to it. Anything the client sends is discarded and the connection is kept open until the client
+ * closes it. This allows to profile the client against a real message stream without network access; point
+ * {@code lobby.host} and {@code lobby.port} to this server.
+ * <p>
+ * The capture is either replayed in the recorded timing (speed {@code 1}), faster or slower by the given factor, or as
+ * fast as possible (speed {@code 0}).
+ */
+public class LobbyReplayServer implements Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private final Path captureFile;
+  private final double speed;
+  private ServerSocket serverSocket;
+
+  public LobbyReplayServer(Path captureFile, double speed) {
+    this.captureFile = captureFile;
+    this.speed = speed;
+  }
+
+  /**
+   * Usage: {@code LobbyReplayServer <captureFile> <port> [speed]}
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: LobbyReplayServer <captureFile> <port> [speed, 0 for as fast as possible]");
+      System.exit(1);
+    }
+    double speed = args.length > 2 ? Double.parseDouble(args[2]) : 1;
+    LobbyReplayServer server = new LobbyReplayServer(Paths.get(args[0]), speed);
+    int port = server.start(Integer.parseInt(args[1]));
+    logger.info("Replaying {} on port {}", args[0], port);
+  }
+
+  /**
+   * Starts accepting connections in the background.
+   *
+   * @param port the port to listen on, or {@code 0} to use any free port
+   * @return the port the server is listening on
+   */
+  public int start(int port) throws IOException {
+    serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+    startThread(this::acceptConnections, "lobby-replay-server", false);
+    return serverSocket.getLocalPort();
+  }
+
+  private void acceptConnections() {
+    try {
+      while (!serverSocket.isClosed()) {
+        Socket socket = serverSocket.accept();
+        logger.info("Client connected from {}", socket.getRemoteSocketAddress());
+        startThread(() -> discardInput(socket), "lobby-replay-input", true);
+        startThread(() -> replay(socket), "lobby-replay-output", true);
+      }
+    } catch (SocketException e) {
+      logger.debug("Lobby replay server has been closed");
+    } catch (IOException e) {
+      logger.warn("Lobby replay server failed", e);
+    }
+  }
+
+  /**
+   * Writes the capture to the specified socket. The socket is left open afterwards, since the client would otherwise
+   * reconnect and receive the capture again.
+   */
+  private void replay(Socket socket) {
+    try (LobbyTrafficReader reader = new LobbyTrafficReader(captureFile)) {
+      OutputStream outputStream = new BufferedOutputStream(socket.getOutputStream());
+      long startNanos = System.nanoTime();
+      int frames = 0;
+
+      RecordedFrame frame;
+      while ((frame = reader.next()) != null) {
+        if (speed > 0) {
+          long delayNanos = (long) (frame.getTimestampNanos() / speed) - (System.nanoTime() - startNanos);
+          if (delayNanos > 0) {
+            outputStream.flush();
+            TimeUnit.NANOSECONDS.sleep(delayNanos);
+          }
+        }
+        outputStream.write(frame.getBytes());
+        frames++;
+      }
+      outputStream.flush();
+
+      logger.info("Replayed {} frames in {}ms", frames, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    } catch (SocketException e) {
+      logger.debug("Client closed the connection");
+    } catch (IOException | InterruptedException e) {
+      logger.warn("Replay failed", e);
+    }
+  }
+
+  private void discardInput(Socket socket) {
+    byte[] buffer = new byte[4096];
+    try (InputStream inputStream = socket.getInputStream()) {
+      while (inputStream.read(buffer) != -1) {
+        // Client messages are not of interest
+      }
+    } catch (IOException e) {
+      logger.debug("Client connection has been closed");
+    }
+  }
+
+  private static void startThread(Runnable runnable, String name, boolean daemon) {
+    Thread thread = new Thread(runnable, name);
+    thread.setDaemon(daemon);
+    thread.start();
+  }
+
+  @Override
+  public void close() {
+    IOUtils.closeQuietly(serverSocket);
+  }
+}
@@ -0,0 +1,75 @@
+package com.faforever.client.remote.io;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads capture files written by a {@link LobbyTrafficRecorder}.
+ */
+public class LobbyTrafficReader implements Closeable {
+
+  private final DataInputStream inputStream;
+
+  public LobbyTrafficReader(Path captureFile) throws IOException {
+    inputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(captureFile)));
+    if (inputStream.readInt() != LobbyTrafficRecorder.MAGIC) {
+      inputStream.close();
+      throw new IOException("Not a lobby traffic capture: " + captureFile);
+    }
+    int version = inputStream.readInt();
+    if (version != LobbyTrafficRecorder.VERSION) {
+      inputStream.close();
+      throw new IOException("Unsupported capture version: " + version);
+    }
+  }
+
+  /**
+   * @return the next recorded frame, or {@code null} if the end of the capture has been reached
+   */
+  public RecordedFrame next() throws IOException {
+    long timestamp;
+    try {
+      timestamp = inputStream.readLong();
+    } catch (EOFException e) {
+      return null;
+    }
+    byte[] frame = new byte[inputStream.readInt()];
+    inputStream.readFully(frame);
+    return new RecordedFrame(timestamp, frame);
+  }
+
+  @Override
+  public void close() throws IOException {
+    inputStream.close();
+  }
+
+  public static class RecordedFrame {
+
+    private final long timestampNanos;
+    private final byte[] bytes;
+
+    RecordedFrame(long timestampNanos, byte[] bytes) {
+      this.timestampNanos = timestampNanos;
+      this.bytes = bytes;
+    }
+
+    /**
+     * @return the time in nanoseconds since the recording has been started
+     */
+    public long getTimestampNanos() {
+      return timestampNanos;
+    }
+
+    /**
+     * @return the frame as sent by the server, including its block size
+     */
+    public byte[] getBytes() {
+      return bytes;
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package com.faforever.client.remote.io;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Records messages received from the lobby server into a capture file, so that the traffic can be replayed later using
+ * a {@link LobbyReplayServer}. Each message is stored as the frame the server sent it in (block size followed by a
+ * QString), prefixed with the time in nanoseconds since the recording has been started. See {@link LobbyTrafficReader}
+ * for reading a capture file.
+ */
+public class LobbyTrafficRecorder implements Closeable {
+
+  static final int MAGIC = 0x46414652;
+  static final int VERSION = 1;
+
+  private final DataOutputStream outputStream;
+  private final long startNanos;
+  private byte[] frameBytes = new byte[1024];
+
+  public LobbyTrafficRecorder(Path captureFile) throws IOException {
+    outputStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(captureFile)));
+    outputStream.writeInt(MAGIC);
+    outputStream.writeInt(VERSION);
+    startNanos = System.nanoTime();
+  }
+
+  /**
+   * Records the bytes between the specified frame's position and limit, as received from the server. The frame's
+   * position is not changed.
+   */
+  public synchronized void record(ByteBuffer frame) throws IOException {
+    long timestamp = System.nanoTime() - startNanos;
+    int length = frame.remaining();
+    if (frameBytes.length < length) {
+      frameBytes = new byte[Integer.highestOneBit(length) << 1];
+    }
+    frame.duplicate().get(frameBytes, 0, length);
+
+    outputStream.writeLong(timestamp);
+    outputStream.writeInt(length);
+    outputStream.write(frameBytes, 0, length);
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    outputStream.close();
+  }
+}
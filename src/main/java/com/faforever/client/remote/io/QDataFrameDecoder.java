@@ -0,0 +1,143 @@
+package com.faforever.client.remote.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Decodes the lobby server's framing ({@code block size} followed by a {@code QString}) from a {@link
+ * ReadableByteChannel} into strings. Bytes are read into a single, reused direct buffer and the UTF-16BE payload is
+ * decoded straight from that buffer into a reused char array, so no intermediate byte arrays are allocated per frame.
+ * Partial frames are kept in the buffer until the rest of their bytes arrived. Besides the decoded string, the handler
+ * gets the raw bytes of each frame, e.g. to record them.
+ * <p>
+ * This class is not thread safe and is meant to be used by the one thread reading the channel.
+ */
+public class QDataFrameDecoder {
+
+  private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+  /**
+   * Upper bound for a single frame, to protect against reading garbage as a huge block size.
+   */
+  private static final int MAX_FRAME_SIZE = 64 * 1024 * 1024;
+
+  private ByteBuffer buffer;
+  private char[] chars;
+
+  public QDataFrameDecoder() {
+    this(DEFAULT_BUFFER_SIZE);
+  }
+
+  public QDataFrameDecoder(int initialBufferSize) {
+    buffer = ByteBuffer.allocateDirect(initialBufferSize);
+    chars = new char[initialBufferSize / 2];
+  }
+
+  /**
+   * Reads as many bytes as currently available from the specified channel and passes every complete frame to the
+   * specified handler.
+   *
+   * @return the number of bytes read, possibly zero, or {@code -1} if the channel has reached end-of-stream
+   */
+  public int readFrom(ReadableByteChannel channel, FrameHandler frameHandler) throws IOException {
+    int bytesRead = channel.read(buffer);
+    if (bytesRead > 0) {
+      decodeFrames(frameHandler);
+    }
+    return bytesRead;
+  }
+
+  /**
+   * Appends the specified bytes as if they had been read from a channel and passes every complete frame to the
+   * specified handler.
+   */
+  public void decode(ByteBuffer bytes, FrameHandler frameHandler) throws IOException {
+    while (bytes.hasRemaining()) {
+      // After decoding, the buffer always has room for at least the rest of the pending frame
+      int length = Math.min(buffer.remaining(), bytes.remaining());
+      ByteBuffer slice = bytes.duplicate();
+      slice.limit(slice.position() + length);
+      buffer.put(slice);
+      bytes.position(bytes.position() + length);
+      decodeFrames(frameHandler);
+    }
+  }
+
+  private void decodeFrames(FrameHandler frameHandler) throws IOException {
+    buffer.flip();
+    try {
+      while (buffer.remaining() >= Integer.BYTES) {
+        int frameStart = buffer.position();
+        int blockSize = buffer.getInt(frameStart);
+
+        if (blockSize < Integer.BYTES || blockSize > MAX_FRAME_SIZE) {
+          throw new IOException("Invalid block size: " + blockSize);
+        }
+
+        int frameSize = Integer.BYTES + blockSize;
+        if (buffer.remaining() < frameSize) {
+          ensureCapacity(frameSize);
+          return;
+        }
+
+        buffer.position(frameStart + Integer.BYTES);
+        String message = readQString(blockSize - Integer.BYTES);
+
+        int limit = buffer.limit();
+        buffer.limit(frameStart + frameSize).position(frameStart);
+        try {
+          frameHandler.onFrame(buffer, message);
+        } finally {
+          buffer.limit(limit).position(frameStart + frameSize);
+        }
+      }
+    } finally {
+      buffer.compact();
+    }
+  }
+
+  private String readQString(int maxLength) throws IOException {
+    int stringSize = buffer.getInt();
+    if (stringSize == -1) {
+      return null;
+    }
+    if (stringSize < 0 || stringSize > maxLength || stringSize % 2 != 0) {
+      throw new IOException("Invalid string size: " + stringSize);
+    }
+
+    int length = stringSize / 2;
+    if (chars.length < length) {
+      chars = new char[Integer.highestOneBit(length) << 1];
+    }
+    // The buffer's byte order is big endian, so each char is one UTF-16BE code unit
+    for (int i = 0; i < length; i++) {
+      chars[i] = buffer.getChar();
+    }
+    return new String(chars, 0, length);
+  }
+
+  /**
+   * Grows the buffer, which must be in read mode, such that it can hold at least {@code minCapacity} bytes. Content and
+   * position are preserved.
+   */
+  private void ensureCapacity(int minCapacity) {
+    if (buffer.capacity() >= minCapacity) {
+      return;
+    }
+    int newCapacity = Integer.highestOneBit(minCapacity - 1) << 1;
+    ByteBuffer newBuffer = ByteBuffer.allocateDirect(newCapacity);
+    newBuffer.put(buffer);
+    newBuffer.flip();
+    buffer = newBuffer;
+  }
+
+  public interface FrameHandler {
+
+    /**
+     * @param frame the raw bytes of the frame (block size followed by the QString) between the buffer's position and
+     * limit, which are only valid during this call
+     * @param message the decoded message, or {@code null} if the frame contains a null string
+     */
+    void onFrame(ByteBuffer frame, String message) throws IOException;
+  }
+}
@@ -0,0 +1,156 @@
+package com.faforever.client.remote.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.invoke.MethodHandles;
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Collects per message type metrics of the messages received from the lobby server: how many messages have been
+ * received, how many bytes they had and how long it took to decode them and to pass them to all listeners. The metrics
+ * are exposed through JMX as {@value #OBJECT_NAME} and can be viewed in the client using the lobby metrics window. For
+ * messages sent to the server, the number of queued messages and the flush latencies are exposed through JMX.
+ * <p>
+ * Collecting metrics is disabled by default. Callers are expected to check {@link #isEnabled()} before taking any
+ * measurements, so that disabled metrics don't cost anything besides reading a flag.
+ */
+@Component
+public class LobbyMetrics implements LobbyMetricsMXBean {
+
+  public static final String UNKNOWN_MESSAGE_TYPE = "unknown";
+  static final String OBJECT_NAME = "com.faforever.client:type=LobbyMetrics";
+
+  private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private final Map<String, MessageTypeMetrics> metricsByMessageType;
+
+  @Value("${lobby.metricsEnabled}")
+  boolean enabledOnStartup;
+
+  private volatile boolean enabled;
+  private volatile IntSupplier outboundQueueDepthSource;
+  private volatile long lastFlushLatencyNanos;
+  private volatile long maxFlushLatencyNanos;
+  private ObjectName objectName;
+
+  public LobbyMetrics() {
+    metricsByMessageType = new ConcurrentHashMap<>();
+    outboundQueueDepthSource = () -> 0;
+  }
+
+  @PostConstruct
+  void postConstruct() {
+    enabled = enabledOnStartup;
+    try {
+      objectName = new ObjectName(OBJECT_NAME);
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+    } catch (JMException e) {
+      logger.warn("Lobby metrics could not be registered with JMX", e);
+      objectName = null;
+    }
+  }
+
+  @PreDestroy
+  void preDestroy() {
+    if (objectName == null) {
+      return;
+    }
+    MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    try {
+      mBeanServer.unregisterMBean(objectName);
+    } catch (JMException e) {
+      logger.debug("Lobby metrics could not be unregistered from JMX", e);
+    }
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public void setEnabled(boolean enabled) {
+    logger.info("Lobby metrics have been {}", enabled ? "enabled" : "disabled");
+    this.enabled = enabled;
+  }
+
+  /**
+   * Records a received message.
+   *
+   * @param messageType the message type as sent by the server, or {@link #UNKNOWN_MESSAGE_TYPE}
+   * @param bytes the size of the message's frame in bytes
+   * @param decodeNanos the time it took to decode the message
+   * @param dispatchNanos the time it took to pass the message to all listeners
+   */
+  public void record(String messageType, int bytes, long decodeNanos, long dispatchNanos) {
+    metricsByMessageType.computeIfAbsent(messageType, type -> new MessageTypeMetrics())
+        .record(bytes, decodeNanos, dispatchNanos);
+  }
+
+  /**
+   * Records a batch of messages that has been flushed to the server.
+   *
+   * @param latencyNanos the time between queuing the oldest message of the batch and flushing the batch
+   */
+  public void recordFlush(long latencyNanos) {
+    lastFlushLatencyNanos = latencyNanos;
+    if (latencyNanos > maxFlushLatencyNanos) {
+      maxFlushLatencyNanos = latencyNanos;
+    }
+  }
+
+  /**
+   * Sets where to get the number of messages waiting to be sent to the server from.
+   */
+  public void setOutboundQueueDepthSource(IntSupplier outboundQueueDepthSource) {
+    this.outboundQueueDepthSource = outboundQueueDepthSource;
+  }
+
+  @Override
+  public int getOutboundQueueDepth() {
+    return outboundQueueDepthSource.getAsInt();
+  }
+
+  @Override
+  public long getLastFlushLatency() {
+    return TimeUnit.NANOSECONDS.toMicros(lastFlushLatencyNanos);
+  }
+
+  @Override
+  public long getMaxFlushLatency() {
+    return TimeUnit.NANOSECONDS.toMicros(maxFlushLatencyNanos);
+  }
+
+  /**
+   * @return the statistics of every message type received so far, ordered by message type
+   */
+  @Override
+  public List<MessageTypeStatistics> getStatistics() {
+    return metricsByMessageType.entrySet().stream()
+        .map(entry -> entry.getValue().toStatistics(entry.getKey()))
+        .sorted(Comparator.comparing(MessageTypeStatistics::getMessageType))
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public void reset() {
+    metricsByMessageType.clear();
+    lastFlushLatencyNanos = 0;
+    maxFlushLatencyNanos = 0;
+  }
+}
@@ -0,0 +1,118 @@
+package com.faforever.client.remote.metrics;
+
+import com.faforever.client.fx.Controller;
+import com.faforever.client.fx.WindowController;
+import com.faforever.client.theme.UiService;
+import com.faforever.client.util.Assert;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.scene.Node;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+import javafx.stage.Window;
+import javafx.util.Duration;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.function.ToLongFunction;
+
+import static com.faforever.client.fx.WindowController.WindowButtonType.CLOSE;
+
+/**
+ * Shows the {@link LobbyMetrics} and refreshes them every second while the window is open.
+ */
+@Component
+@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+public class LobbyMetricsController implements Controller<Node> {
+
+  private static final Duration REFRESH_INTERVAL = Duration.seconds(1);
+
+  public VBox lobbyMetricsRoot;
+  public CheckBox enabledCheckBox;
+  public TableView<MessageTypeStatistics> statisticsTable;
+  public TableColumn<MessageTypeStatistics, String> messageTypeColumn;
+  public TableColumn<MessageTypeStatistics, Number> countColumn;
+  public TableColumn<MessageTypeStatistics, Number> bytesColumn;
+  public TableColumn<MessageTypeStatistics, Number> decodeMedianColumn;
+  public TableColumn<MessageTypeStatistics, Number> decode99thPercentileColumn;
+  public TableColumn<MessageTypeStatistics, Number> decodeMaxColumn;
+  public TableColumn<MessageTypeStatistics, Number> dispatchMedianColumn;
+  public TableColumn<MessageTypeStatistics, Number> dispatch99thPercentileColumn;
+  public TableColumn<MessageTypeStatistics, Number> dispatchMaxColumn;
+
+  @Inject
+  LobbyMetrics lobbyMetrics;
+  @Inject
+  UiService uiService;
+
+  private Timeline refreshTimeline;
+  private Window ownerWindow;
+
+  public void initialize() {
+    messageTypeColumn.setCellValueFactory(param -> new ReadOnlyStringWrapper(param.getValue().getMessageType()));
+    bindLongColumn(countColumn, MessageTypeStatistics::getCount);
+    bindLongColumn(bytesColumn, MessageTypeStatistics::getBytes);
+    bindLongColumn(decodeMedianColumn, MessageTypeStatistics::getDecodeMedian);
+    bindLongColumn(decode99thPercentileColumn, MessageTypeStatistics::getDecode99thPercentile);
+    bindLongColumn(decodeMaxColumn, MessageTypeStatistics::getDecodeMax);
+    bindLongColumn(dispatchMedianColumn, MessageTypeStatistics::getDispatchMedian);
+    bindLongColumn(dispatch99thPercentileColumn, MessageTypeStatistics::getDispatch99thPercentile);
+    bindLongColumn(dispatchMaxColumn, MessageTypeStatistics::getDispatchMax);
+
+    refreshTimeline = new Timeline(new KeyFrame(REFRESH_INTERVAL, event -> refresh()));
+    refreshTimeline.setCycleCount(Animation.INDEFINITE);
+
+    refresh();
+  }
+
+  private static void bindLongColumn(TableColumn<MessageTypeStatistics, Number> column, ToLongFunction<MessageTypeStatistics> getter) {
+    column.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(getter.applyAsLong(param.getValue())));
+  }
+
+  private void refresh() {
+    enabledCheckBox.setSelected(lobbyMetrics.isEnabled());
+    statisticsTable.getItems().setAll(lobbyMetrics.getStatistics());
+  }
+
+  public void onEnabledChanged() {
+    lobbyMetrics.setEnabled(enabledCheckBox.isSelected());
+  }
+
+  public void onReset() {
+    lobbyMetrics.reset();
+    refresh();
+  }
+
+  public void setOwnerWindow(Window ownerWindow) {
+    this.ownerWindow = ownerWindow;
+  }
+
+  public void show() {
+    Assert.checkNullIllegalState(ownerWindow, "ownerWindow must be set");
+    Stage lobbyMetricsWindow = new Stage(StageStyle.TRANSPARENT);
+    lobbyMetricsWindow.initModality(Modality.NONE);
+    lobbyMetricsWindow.initOwner(ownerWindow);
+    lobbyMetricsWindow.setOnHidden(event -> refreshTimeline.stop());
+
+    WindowController windowController = uiService.loadFxml("theme/window.fxml");
+    windowController.configure(lobbyMetricsWindow, lobbyMetricsRoot, true, CLOSE);
+
+    lobbyMetricsWindow.show();
+    refreshTimeline.play();
+  }
+
+  @Override
+  public Node getRoot() {
+    return lobbyMetricsRoot;
+  }
+}
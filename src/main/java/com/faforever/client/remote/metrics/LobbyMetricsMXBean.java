@@ -0,0 +1,33 @@
+package com.faforever.client.remote.metrics;
+
+import java.util.List;
+
+/**
+ * Exposes the {@link LobbyMetrics} through JMX.
+ */
+public interface LobbyMetricsMXBean {
+
+  boolean isEnabled();
+
+  void setEnabled(boolean enabled);
+
+  List<MessageTypeStatistics> getStatistics();
+
+  /**
+   * @return the number of messages waiting to be sent to the server
+   */
+  int getOutboundQueueDepth();
+
+  /**
+   * @return the time in microseconds between queuing the oldest message of the most recently sent batch and flushing
+   * the batch
+   */
+  long getLastFlushLatency();
+
+  /**
+   * @return the highest flush latency in microseconds observed since the last reset
+   */
+  long getMaxFlushLatency();
+
+  void reset();
+}
@@ -0,0 +1,47 @@
+package com.faforever.client.remote.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of all received messages of one message type.
+ */
+class MessageTypeMetrics {
+
+  private final LongAdder count;
+  private final LongAdder bytes;
+  private final LatencyHistogram decodeTime;
+  private final LatencyHistogram dispatchTime;
+
+  MessageTypeMetrics() {
+    count = new LongAdder();
+    bytes = new LongAdder();
+    decodeTime = new LatencyHistogram();
+    dispatchTime = new LatencyHistogram();
+  }
+
+  void record(int messageBytes, long decodeNanos, long dispatchNanos) {
+    count.increment();
+    bytes.add(messageBytes);
+    decodeTime.record(decodeNanos);
+    dispatchTime.record(dispatchNanos);
+  }
+
+  MessageTypeStatistics toStatistics(String messageType) {
+    return new MessageTypeStatistics(
+        messageType,
+        count.sum(),
+        bytes.sum(),
+        toMicros(decodeTime.getValueAtPercentile(50)),
+        toMicros(decodeTime.getValueAtPercentile(99)),
+        toMicros(decodeTime.getMax()),
+        toMicros(dispatchTime.getValueAtPercentile(50)),
+        toMicros(dispatchTime.getValueAtPercentile(99)),
+        toMicros(dispatchTime.getMax())
+    );
+  }
+
+  private static long toMicros(long nanos) {
+    return TimeUnit.NANOSECONDS.toMicros(nanos);
+  }
+}
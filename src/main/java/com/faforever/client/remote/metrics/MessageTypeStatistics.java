@@ -0,0 +1,71 @@
+package com.faforever.client.remote.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * An immutable snapshot of the metrics of one message type. Durations are in microseconds.
+ */
+public class MessageTypeStatistics {
+
+  private final String messageType;
+  private final long count;
+  private final long bytes;
+  private final long decodeMedian;
+  private final long decode99thPercentile;
+  private final long decodeMax;
+  private final long dispatchMedian;
+  private final long dispatch99thPercentile;
+  private final long dispatchMax;
+
+  @ConstructorProperties({"messageType", "count", "bytes", "decodeMedian", "decode99thPercentile", "decodeMax",
+      "dispatchMedian", "dispatch99thPercentile", "dispatchMax"})
+  public MessageTypeStatistics(String messageType, long count, long bytes,
+                               long decodeMedian, long decode99thPercentile, long decodeMax,
+                               long dispatchMedian, long dispatch99thPercentile, long dispatchMax) {
+    this.messageType = messageType;
+    this.count = count;
+    this.bytes = bytes;
+    this.decodeMedian = decodeMedian;
+    this.decode99thPercentile = decode99thPercentile;
+    this.decodeMax = decodeMax;
+    this.dispatchMedian = dispatchMedian;
+    this.dispatch99thPercentile = dispatch99thPercentile;
+    this.dispatchMax = dispatchMax;
+  }
+
+  public String getMessageType() {
+    return messageType;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getBytes() {
+    return bytes;
+  }
+
+  public long getDecodeMedian() {
+    return decodeMedian;
+  }
+
+  public long getDecode99thPercentile() {
+    return decode99thPercentile;
+  }
+
+  public long getDecodeMax() {
+    return decodeMax;
+  }
+
+  public long getDispatchMedian() {
+    return dispatchMedian;
+  }
+
+  public long getDispatch99thPercentile() {
+    return dispatch99thPercentile;
+  }
+
+  public long getDispatchMax() {
+    return dispatchMax;
+  }
+}
@@ -1,24 +1,42 @@
 package com.faforever.client.replay;
 
 import com.faforever.client.remote.io.QtCompress;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.io.BaseEncoding;
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.lang.invoke.MethodHandles;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reads {@code .fafreplay} files, which consist of a JSON header on the first line and the base64 encoded, compressed
+ * replay data on the second line.
+ */
 @Lazy
 @Component
 public class ReplayFileReaderImpl implements ReplayFileReader {
 
   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  /**
+   * Headers are usually a few kilobytes. Anything longer than this is considered corrupt rather than being read into
+   * memory.
+   */
+  @VisibleForTesting
+  static final int MAX_HEADER_LENGTH = 1024 * 1024;
+  private static final int HEADER_BUFFER_SIZE = 4096;
 
   private final Gson gson;
 
@@ -29,8 +47,28 @@ public class ReplayFileReaderImpl implements ReplayFileReader {
   @Override
   public LocalReplayInfo readReplayInfo(Path replayFile) throws IOException {
     logger.debug("Reading replay file {}", replayFile);
-    List<String> lines = Files.readAllLines(replayFile);
-    return gson.fromJson(lines.get(0), LocalReplayInfo.class);
+    try (InputStream inputStream = Files.newInputStream(replayFile)) {
+      return readReplayInfo(inputStream);
+    }
+  }
+
+  /**
+   * Parses the header from the specified stream while reading it, and stops reading at the end of the first line. This
+   * way, the replay data is never read, which makes up almost all of a replay file.
+   */
+  @VisibleForTesting
+  LocalReplayInfo readReplayInfo(InputStream inputStream) throws IOException {
+    JsonReader jsonReader = new JsonReader(new InputStreamReader(new FirstLineInputStream(inputStream, MAX_HEADER_LENGTH), UTF_8));
+    LocalReplayInfo replayInfo;
+    try {
+      replayInfo = gson.fromJson(jsonReader, LocalReplayInfo.class);
+    } catch (JsonParseException e) {
+      throw new IOException("Replay header could not be parsed", e);
+    }
+    if (replayInfo == null) {
+      throw new IOException("Replay file has no header");
+    }
+    return replayInfo;
   }
 
   @Override
@@ -44,4 +82,61 @@ public class ReplayFileReaderImpl implements ReplayFileReader {
       return null;
     }
   }
+
+  /**
+   * Ends at the first line feed of the underlying stream. The underlying stream is read in small chunks, so at most
+   * one chunk is read beyond the first line. Since a line feed never occurs within a multi-byte UTF-8 sequence, the
+   * line can be split at byte level.
+   */
+  private static final class FirstLineInputStream extends InputStream {
+
+    private final InputStream inputStream;
+    private final int maxLength;
+    private int length;
+    private boolean endOfLine;
+
+    private FirstLineInputStream(InputStream inputStream, int maxLength) {
+      this.inputStream = inputStream;
+      this.maxLength = maxLength;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] singleByte = new byte[1];
+      return read(singleByte, 0, 1) == -1 ? -1 : singleByte[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) throws IOException {
+      if (endOfLine) {
+        return -1;
+      }
+      if (count == 0) {
+        return 0;
+      }
+
+      int bytesRead = inputStream.read(buffer, offset, Math.min(count, HEADER_BUFFER_SIZE));
+      if (bytesRead == -1) {
+        endOfLine = true;
+        return -1;
+      }
+
+      for (int i = offset; i < offset + bytesRead; i++) {
+        if (buffer[i] == '\n') {
+          endOfLine = true;
+          bytesRead = i - offset;
+          break;
+        }
+      }
+
+      length += bytesRead;
+      if (length > maxLength) {
+        throw new IOException("Replay header is longer than " + maxLength + " bytes");
+      }
+      if (bytesRead == 0 && endOfLine) {
+        return -1;
+      }
+      return bytesRead;
+    }
+  }
 }
@@ -66,6 +66,12 @@ public interface UiService {
 
   ReadOnlyObjectProperty<Theme> currentThemeProperty();
 
+  /**
+   * Registers a listener to be called whenever the current theme has been replaced or any of its files has changed.
+   * The listener may be called from any thread.
+   */
+  void addThemeChangeListener(Runnable listener);
+
   /**
    * Loads an FXML file and returns its controller instance. The controller instance is retrieved from the application
    * context, so its scope (which should always be "prototype") depends on the bean definition.
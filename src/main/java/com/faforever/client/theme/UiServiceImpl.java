@@ -48,10 +48,12 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ThreadPoolExecutor;
 
 import static com.faforever.client.io.FileUtils.deleteRecursively;
@@ -73,6 +75,7 @@ public class UiServiceImpl implements UiService {
   private static final String METADATA_FILE_NAME = "theme.properties";
   private final Set<Scene> scenes;
   private final Set<WebView> webViews;
+  private final List<Runnable> themeChangeListeners;
 
   private final PreferencesService preferencesService;
   private final ThreadPoolExecutor threadPoolExecutor;
@@ -93,6 +96,7 @@ public class UiServiceImpl implements UiService {
   public UiServiceImpl(PreferencesService preferencesService, ThreadPoolExecutor threadPoolExecutor, Locale locale, CacheManager cacheManager, MessageSource messageSource, ApplicationContext applicationContext) {
     scenes = Collections.synchronizedSet(new HashSet<>());
     webViews = new HashSet<>();
+    themeChangeListeners = new CopyOnWriteArrayList<>();
     watchKeys = new HashMap<>();
     currentTheme = new SimpleObjectProperty<>(DEFAULT_THEME);
     folderNamesByTheme = new HashMap<>();
@@ -197,6 +201,7 @@ public class UiServiceImpl implements UiService {
     }
 
     reloadStylesheet();
+    notifyThemeChangeListeners();
   }
 
   private void watchDirectory(Path directory, WatchService watchService) {
@@ -264,6 +269,11 @@ public class UiServiceImpl implements UiService {
     reloadStylesheet();
     currentTheme.set(theme);
     cacheManager.getCache(CacheNames.THEME_IMAGES).clear();
+    notifyThemeChangeListeners();
+  }
+
+  private void notifyThemeChangeListeners() {
+    themeChangeListeners.forEach(Runnable::run);
   }
 
   @Override
@@ -322,6 +332,11 @@ public class UiServiceImpl implements UiService {
     return currentTheme;
   }
 
+  @Override
+  public void addThemeChangeListener(Runnable listener) {
+    themeChangeListeners.add(listener);
+  }
+
   @Override
   public <T extends Controller<?>> T loadFxml(String relativePath) {
     FXMLLoader loader = new FXMLLoader();
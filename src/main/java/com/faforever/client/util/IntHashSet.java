@@ -0,0 +1,164 @@
+package com.faforever.client.util;
+
+import java.util.Arrays;
+
+/**
+ * A hash set of primitive {@code int} values, so that neither values are boxed nor entries are allocated. Uses open
+ * addressing with linear probing. Since {@code 0} marks an empty slot, it is tracked separately.
+ * <p>
+ * This class is not thread safe.
+ */
+public class IntHashSet {
+
+  private static final int DEFAULT_EXPECTED_SIZE = 16;
+  private static final int EMPTY = 0;
+
+  private int[] values;
+  private int mask;
+  /**
+   * Number of non-zero values in {@link #values}.
+   */
+  private int size;
+  private boolean containsZero;
+
+  public IntHashSet() {
+    this(DEFAULT_EXPECTED_SIZE);
+  }
+
+  public IntHashSet(int expectedSize) {
+    allocate(IntHashing.capacityFor(expectedSize));
+  }
+
+  private void allocate(int capacity) {
+    values = new int[capacity];
+    mask = capacity - 1;
+  }
+
+  /**
+   * Returns the slot that contains the specified non-zero value or, if it is not contained, the empty slot to put it
+   * in.
+   */
+  private int slotOf(int value) {
+    int slot = IntHashing.hash(value) & mask;
+    while (values[slot] != EMPTY && values[slot] != value) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  public boolean contains(int value) {
+    if (value == EMPTY) {
+      return containsZero;
+    }
+    return values[slotOf(value)] != EMPTY;
+  }
+
+  /**
+   * @return {@code true} if the value has not been contained before
+   */
+  public boolean add(int value) {
+    if (value == EMPTY) {
+      boolean added = !containsZero;
+      containsZero = true;
+      return added;
+    }
+
+    int slot = slotOf(value);
+    if (values[slot] != EMPTY) {
+      return false;
+    }
+    values[slot] = value;
+
+    if (++size * 2 > values.length) {
+      resize(values.length * 2);
+    }
+    return true;
+  }
+
+  public void addAll(Iterable<Integer> values) {
+    for (int value : values) {
+      add(value);
+    }
+  }
+
+  /**
+   * @return {@code true} if the value has been contained
+   */
+  public boolean remove(int value) {
+    if (value == EMPTY) {
+      boolean removed = containsZero;
+      containsZero = false;
+      return removed;
+    }
+
+    int slot = slotOf(value);
+    if (values[slot] == EMPTY) {
+      return false;
+    }
+    values[slot] = EMPTY;
+    size--;
+    closeGap(slot);
+    return true;
+  }
+
+  /**
+   * Moves values that follow the specified, now empty slot back into it where necessary, so that every value can still
+   * be found by probing from its hash slot.
+   */
+  private void closeGap(int gap) {
+    int slot = gap;
+    while (true) {
+      slot = (slot + 1) & mask;
+      if (values[slot] == EMPTY) {
+        return;
+      }
+      if (!IntHashing.isReachableWithoutGap(gap, slot, IntHashing.hash(values[slot]) & mask)) {
+        values[gap] = values[slot];
+        values[slot] = EMPTY;
+        gap = slot;
+      }
+    }
+  }
+
+  private void resize(int capacity) {
+    int[] oldValues = values;
+    allocate(capacity);
+
+    for (int value : oldValues) {
+      if (value != EMPTY) {
+        values[slotOf(value)] = value;
+      }
+    }
+  }
+
+  public int size() {
+    return containsZero ? size + 1 : size;
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public void clear() {
+    Arrays.fill(values, EMPTY);
+    size = 0;
+    containsZero = false;
+  }
+
+  /**
+   * @return a copy of all values, in no particular order
+   */
+  public int[] toArray() {
+    int[] result = new int[size()];
+    int index = 0;
+    if (containsZero) {
+      result[index++] = EMPTY;
+    }
+    for (int value : values) {
+      if (value != EMPTY) {
+        result[index++] = value;
+      }
+    }
+    return result;
+  }
+}
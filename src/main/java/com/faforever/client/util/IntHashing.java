@@ -0,0 +1,37 @@
+package com.faforever.client.util;
+
+/**
+ * Hashing and probing arithmetic shared by the open-addressing {@code int} collections {@link IntHashSet} and {@link
+ * IntObjectHashMap}. Tables have a power of two capacity and use linear probing.
+ */
+final class IntHashing {
+
+  private static final int MIN_CAPACITY = 4;
+
+  private IntHashing() {
+    throw new AssertionError("Not instantiatable");
+  }
+
+  /**
+   * Returns a power of two that keeps the load factor at or below 0.5 for the specified number of entries.
+   */
+  static int capacityFor(int size) {
+    return Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, size) * 2 - 1) << 1);
+  }
+
+  static int hash(int key) {
+    int hash = key * 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * Used when closing the gap left by a removed entry. Returns whether the entry in {@code slot}, whose hash slot is
+   * {@code hashSlot}, can still be found by probing from its hash slot if {@code gap} is empty. Otherwise, it needs to be
+   * moved into the gap.
+   */
+  static boolean isReachableWithoutGap(int gap, int slot, int hashSlot) {
+    return gap <= slot
+        ? gap < hashSlot && hashSlot <= slot
+        : gap < hashSlot || hashSlot <= slot;
+  }
+}
@@ -0,0 +1,172 @@
+package com.faforever.client.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A hash map with primitive {@code int} keys, so that neither keys are boxed nor entries are allocated. Uses open
+ * addressing with linear probing. {@code null} values are not supported.
+ * <p>
+ * This class is not thread safe.
+ */
+public class IntObjectHashMap<V> {
+
+  private static final int DEFAULT_EXPECTED_SIZE = 16;
+
+  private int[] keys;
+  /**
+   * A {@code null} value marks an empty slot.
+   */
+  private Object[] values;
+  private int mask;
+  private int size;
+
+  public IntObjectHashMap() {
+    this(DEFAULT_EXPECTED_SIZE);
+  }
+
+  public IntObjectHashMap(int expectedSize) {
+    allocate(IntHashing.capacityFor(expectedSize));
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    values = new Object[capacity];
+    mask = capacity - 1;
+  }
+
+  /**
+   * Returns the slot that contains the specified key or, if the key is not contained, the empty slot to put it in.
+   */
+  private int slotOf(int key) {
+    int slot = IntHashing.hash(key) & mask;
+    while (values[slot] != null && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  @SuppressWarnings("unchecked")
+  public V get(int key) {
+    return (V) values[slotOf(key)];
+  }
+
+  public boolean containsKey(int key) {
+    return values[slotOf(key)] != null;
+  }
+
+  /**
+   * @return the previous value of the specified key, or {@code null} if there was none
+   */
+  @SuppressWarnings("unchecked")
+  public V put(int key, V value) {
+    Assert.checkNullArgument(value, "value must not be null");
+
+    int slot = slotOf(key);
+    V previous = (V) values[slot];
+    keys[slot] = key;
+    values[slot] = value;
+
+    if (previous == null && ++size * 2 > values.length) {
+      resize(values.length * 2);
+    }
+    return previous;
+  }
+
+  /**
+   * @return the removed value, or {@code null} if the key was not contained
+   */
+  @SuppressWarnings("unchecked")
+  public V remove(int key) {
+    int slot = slotOf(key);
+    V previous = (V) values[slot];
+    if (previous == null) {
+      return null;
+    }
+    values[slot] = null;
+    size--;
+    closeGap(slot);
+    return previous;
+  }
+
+  /**
+   * Moves entries that follow the specified, now empty slot back into it where necessary, so that every entry can still
+   * be found by probing from its hash slot.
+   */
+  private void closeGap(int gap) {
+    int slot = gap;
+    while (true) {
+      slot = (slot + 1) & mask;
+      if (values[slot] == null) {
+        return;
+      }
+      if (!IntHashing.isReachableWithoutGap(gap, slot, IntHashing.hash(keys[slot]) & mask)) {
+        keys[gap] = keys[slot];
+        values[gap] = values[slot];
+        values[slot] = null;
+        gap = slot;
+      }
+    }
+  }
+
+  private void resize(int capacity) {
+    int[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(capacity);
+
+    for (int i = 0; i < oldValues.length; i++) {
+      if (oldValues[i] != null) {
+        int slot = slotOf(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    Arrays.fill(values, null);
+    size = 0;
+  }
+
+  /**
+   * @return a copy of all keys, in no particular order
+   */
+  public int[] keys() {
+    int[] result = new int[size];
+    int index = 0;
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] != null) {
+        result[index++] = keys[i];
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return a copy of all values, in no particular order
+   */
+  public List<V> values() {
+    List<V> result = new ArrayList<>(size);
+    forEachValue(result::add);
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  public void forEachValue(Consumer<? super V> action) {
+    for (Object value : values) {
+      if (value != null) {
+        action.accept((V) value);
+      }
+    }
+  }
+}
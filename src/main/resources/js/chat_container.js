@@ -1,28 +1,20 @@
 isScrolledToBottom = true;
 window.onscroll = function (e) {
   isScrolledToBottom = window.scrollY + window.innerHeight + 20 >= document.documentElement.scrollHeight;
+  if (window.scrollY === 0) {
+    chatTab.loadOlderMessages();
+  } else if (isScrolledToBottom) {
+    chatTab.loadNewerMessages();
+  }
 };
-
-function link(input) {
-  return Autolinker.link(input, {
-        email: false,
-        phone: false,
-        twitter: false,
-        replaceFn: function (autolinker, match) {
-          return new Autolinker.HtmlTag({
-            tagName: "a",
-            attrs: {
-              "href": "javascript:void(0);",
-              "onClick": "chatTab.openUrl('" + match.getUrl() + "')",
-              "onMouseOver": "chatTab.previewUrl('" + match.getUrl() + "')",
-              "onMouseOut": "chatTab.hideUrlPreview()"
-            },
-            innerHtml: match.getAnchorText()
-          });
-        }
-      }
-  );
-}
+// If the messages don't fill the window, there is nothing to scroll, but older messages should be loaded anyway
+window.addEventListener("mousewheel", function (e) {
+  if (e.wheelDelta > 0 && window.scrollY === 0) {
+    chatTab.loadOlderMessages();
+  } else if (e.wheelDelta < 0 && isScrolledToBottom) {
+    chatTab.loadNewerMessages();
+  }
+});
 
 function showPlayerInfo(node) {
   chatTab.playerInfo(node.textContent);
@@ -42,6 +34,101 @@ function scrollToBottomIfDesired() {
   }
 }
 
+/**
+ * Appends a batch of HTML fragments, removes the topmost chat sections and scrolls to the bottom if desired.
+ *
+ * @param batchJson JSON array of fragments like {"target": "chat-section-1", "html": "..."}
+ * @param sectionsToRemove the number of chat sections to remove from the top
+ */
+function appendChatBatch(batchJson, sectionsToRemove) {
+  var batch = JSON.parse(batchJson);
+  var container = document.getElementById("chat-container");
+
+  for (var i = 0; i < batch.length; i++) {
+    var fragment = batch[i];
+    var target = document.getElementById(fragment.target);
+    if (target) {
+      target.insertAdjacentHTML("beforeend", fragment.html);
+    }
+  }
+
+  // Only chat sections are counted by the chat tab, so any other element must not be removed instead
+  for (var j = 0; j < sectionsToRemove; j++) {
+    var section = container.querySelector(".chat-section");
+    if (!section) {
+      break;
+    }
+    container.removeChild(section);
+  }
+
+  scrollToBottomIfDesired();
+}
+
+/**
+ * Appends a batch of HTML fragments loaded from the chat history below the bottommost chat section and removes the
+ * topmost chat sections, keeping the currently visible messages in place.
+ *
+ * @param batchJson JSON array of fragments like {"target": "chat-section-1", "html": "..."}
+ * @param sectionsToRemove the number of chat sections to remove from the top
+ */
+function appendHistoryBatch(batchJson, sectionsToRemove) {
+  var batch = JSON.parse(batchJson);
+  var container = document.getElementById("chat-container");
+
+  for (var i = 0; i < batch.length; i++) {
+    var fragment = batch[i];
+    var target = document.getElementById(fragment.target);
+    if (target) {
+      target.insertAdjacentHTML("beforeend", fragment.html);
+    }
+  }
+
+  var scrollHeight = document.documentElement.scrollHeight;
+  for (var j = 0; j < sectionsToRemove; j++) {
+    var section = container.querySelector(".chat-section");
+    if (!section) {
+      break;
+    }
+    container.removeChild(section);
+  }
+  window.scrollBy(0, document.documentElement.scrollHeight - scrollHeight);
+}
+
+/**
+ * Inserts a batch of HTML fragments loaded from the chat history above the topmost chat section and removes the
+ * bottommost chat sections, keeping the currently visible messages in place.
+ *
+ * @param batchJson JSON array of fragments like {"target": "chat-section--1", "html": "..."}, where fragments targeting
+ * the chat container are new chat sections
+ * @param sectionsToRemove the number of chat sections to remove from the bottom
+ */
+function prependChatBatch(batchJson, sectionsToRemove) {
+  var batch = JSON.parse(batchJson);
+  var container = document.getElementById("chat-container");
+  var firstSection = container.querySelector(".chat-section");
+  var scrollHeight = document.documentElement.scrollHeight;
+
+  for (var i = 0; i < batch.length; i++) {
+    var fragment = batch[i];
+    if (fragment.target === "chat-container" && firstSection) {
+      firstSection.insertAdjacentHTML("beforebegin", fragment.html);
+      continue;
+    }
+    var target = document.getElementById(fragment.target);
+    if (target) {
+      target.insertAdjacentHTML("beforeend", fragment.html);
+    }
+  }
+
+  window.scrollBy(0, document.documentElement.scrollHeight - scrollHeight);
+
+  // Removing sections below the visible ones doesn't move them
+  var sections = container.querySelectorAll(".chat-section");
+  for (var j = 0; j < sectionsToRemove && j < sections.length; j++) {
+    container.removeChild(sections[sections.length - 1 - j]);
+  }
+}
+
 function setAllMessageColors(userListString) {
   var userList = JSON.parse(userListString);
 
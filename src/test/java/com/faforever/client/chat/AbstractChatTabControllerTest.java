@@ -15,6 +15,9 @@ import com.faforever.client.theme.UiService;
 import com.faforever.client.uploader.ImageUploadService;
 import com.faforever.client.user.UserService;
 import com.faforever.client.util.TimeService;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import javafx.concurrent.Worker;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
@@ -28,14 +31,17 @@ import javafx.scene.input.KeyEvent;
 import javafx.scene.paint.Color;
 import javafx.scene.web.WebView;
 import javafx.stage.Stage;
+import netscape.javascript.JSObject;
 import org.bridj.Platform;
 import org.jetbrains.annotations.NotNull;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.mockito.Mock;
+import org.mockito.invocation.Invocation;
 import org.testfx.util.WaitForAsyncUtils;
 
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
@@ -46,15 +52,20 @@ import static com.faforever.client.chat.SocialStatus.FOE;
 import static com.faforever.client.chat.SocialStatus.FRIEND;
 import static com.faforever.client.chat.SocialStatus.OTHER;
 import static com.faforever.client.chat.SocialStatus.SELF;
+import static com.faforever.client.theme.UiService.CHAT_TEXT;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.text.IsEmptyString.isEmptyString;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
-import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -91,8 +102,13 @@ public class AbstractChatTabControllerTest extends AbstractPlainJavaFxTest {
   private UiService uiService;
   @Mock
   private WebViewConfigurer webViewConfigurer;
+  @Mock
+  private JSObject jsObject;
+  @Mock
+  private ChatHistoryService chatHistoryService;
 
   private Preferences preferences;
+  private ChatHistory chatHistory;
   private AbstractChatTabController instance;
   private CountDownLatch chatReadyLatch;
 
@@ -119,6 +135,11 @@ public class AbstractChatTabControllerTest extends AbstractPlainJavaFxTest {
       protected WebView getMessagesWebView() {
         return webView;
       }
+
+      @Override
+      protected JSObject getJsObject() {
+        return jsObject;
+      }
     };
     instance.chatService = chatService;
     instance.userService = userService;
@@ -133,8 +154,11 @@ public class AbstractChatTabControllerTest extends AbstractPlainJavaFxTest {
     instance.i18n = i18n;
     instance.stage = stage;
     instance.autoCompletionHelper = autoCompletionHelper;
+    instance.chatTemplates = new ChatTemplates();
+    instance.chatTemplates.uiService = uiService;
     instance.webViewConfigurer = webViewConfigurer;
     instance.uiService = uiService;
+    instance.chatHistoryService = chatHistoryService;
 
     TabPane tabPane = new TabPane(instance.getRoot());
     getRoot().getChildren().setAll(tabPane);
@@ -142,11 +166,17 @@ public class AbstractChatTabControllerTest extends AbstractPlainJavaFxTest {
     preferences = new Preferences();
 
     when(uiService.getThemeFileUrl(any())).thenReturn(getClass().getResource("/theme/chat/chat_section.html"));
+    when(uiService.getThemeFileUrl(CHAT_TEXT)).thenReturn(getClass().getResource("/" + CHAT_TEXT));
     when(timeService.asShortTime(any())).thenReturn("123");
     when(userService.getUsername()).thenReturn("junit");
     when(preferencesService.getPreferences()).thenReturn(preferences);
     when(preferencesService.getCacheDirectory()).thenReturn(tempDir.getRoot().toPath());
 
+    Path historyDirectory = tempDir.getRoot().toPath();
+    chatHistory = new ChatHistory("#junit", historyDirectory.resolve("junit.log"), historyDirectory.resolve("junit.idx"), 2, 1000, Runnable::run);
+    when(chatHistoryService.getHistory(anyString())).thenReturn(chatHistory);
+    instance.setReceiver("#junit");
+
     chatReadyLatch = new CountDownLatch(1);
     instance.getMessagesWebView().getEngine().getLoadWorker().stateProperty().addListener((observable, oldValue, newValue) -> {
       if (Worker.State.SUCCEEDED.equals(newValue)) {
@@ -265,22 +295,43 @@ public class AbstractChatTabControllerTest extends AbstractPlainJavaFxTest {
   @Test
   public void testPreviewUrlReturnsNull() throws Exception {
     String url = "http://www.example.com";
+    when(urlPreviewResolver.resolvePreview(url)).thenReturn(CompletableFuture.completedFuture(null));
 
     instance.previewUrl(url);
 
     verify(urlPreviewResolver).resolvePreview(url);
+    verify(urlPreviewResolver, never()).createNode(any());
   }
 
   @Test
   public void testPreviewUrlReturnsPreview() throws Exception {
     String url = "http://www.example.com";
-    UrlPreviewResolver.Preview preview = mock(UrlPreviewResolver.Preview.class);
-    when(urlPreviewResolver.resolvePreview(url)).thenReturn(preview);
+    UrlPreviewResolver.Preview preview = new UrlPreviewResolver.Preview(url, "text/html", 1024);
+    when(urlPreviewResolver.resolvePreview(url)).thenReturn(CompletableFuture.completedFuture(preview));
 
     WaitForAsyncUtils.waitForAsyncFx(1000, () -> instance.previewUrl(url));
+    WaitForAsyncUtils.waitForFxEvents();
 
     verify(urlPreviewResolver).resolvePreview(url);
-    verify(preview).getNode();
+    verify(urlPreviewResolver).createNode(preview);
+    verify(urlPreviewResolver).getDescription(preview);
+  }
+
+  @Test
+  public void testPreviewUrlResolvedAfterHideIsDiscarded() throws Exception {
+    String url = "http://www.example.com";
+    UrlPreviewResolver.Preview preview = new UrlPreviewResolver.Preview(url, "text/html", 1024);
+    CompletableFuture<UrlPreviewResolver.Preview> future = new CompletableFuture<>();
+    when(urlPreviewResolver.resolvePreview(url)).thenReturn(future);
+
+    WaitForAsyncUtils.waitForAsyncFx(TIMEOUT, () -> {
+      instance.previewUrl(url);
+      instance.hideUrlPreview();
+    });
+    future.complete(preview);
+    WaitForAsyncUtils.waitForFxEvents();
+
+    verify(urlPreviewResolver, never()).createNode(any());
   }
 
   @Test
@@ -291,8 +342,8 @@ public class AbstractChatTabControllerTest extends AbstractPlainJavaFxTest {
   @Test
   public void testHideUrlPreview() throws Exception {
     String url = "http://www.example.com";
-    UrlPreviewResolver.Preview preview = mock(UrlPreviewResolver.Preview.class);
-    when(urlPreviewResolver.resolvePreview(url)).thenReturn(preview);
+    UrlPreviewResolver.Preview preview = new UrlPreviewResolver.Preview(url, "text/html", 1024);
+    when(urlPreviewResolver.resolvePreview(url)).thenReturn(CompletableFuture.completedFuture(preview));
 
     WaitForAsyncUtils.waitForAsyncFx(TIMEOUT, () -> {
       instance.previewUrl(url);
@@ -315,6 +366,20 @@ public class AbstractChatTabControllerTest extends AbstractPlainJavaFxTest {
         modifiers.contains(KeyCode.META));
   }
 
+  /**
+   * Returns the batch passed to the last call of the specified JavaScript function. An {@code ArgumentCaptor} can't be
+   * used for this, since it captures all varargs of {@link JSObject#call(String, Object...)}.
+   */
+  private JsonArray lastBatch(String function) {
+    String batchJson = null;
+    for (Invocation invocation : mockingDetails(jsObject).getInvocations()) {
+      Object[] arguments = invocation.getArguments();
+      if (invocation.getMethod().getName().equals("call") && function.equals(arguments[0])) {
+        batchJson = (String) arguments[1];
+      }
+    }
+    return new JsonParser().parse(batchJson).getAsJsonArray();
+  }
 
   @Test
   public void testOnChatMessage() throws Exception {
@@ -328,6 +393,151 @@ public class AbstractChatTabControllerTest extends AbstractPlainJavaFxTest {
     instance.onChatMessage(new ChatMessage("", Instant.now(), "junit", "Test action", true));
   }
 
+  @Test
+  public void testOnChatMessageRendersBatchAndRemovesTopmostSections() throws Exception {
+    preferences.getChat().setMaxMessages(2);
+    when(chatService.getOrCreateChatUser(anyString())).thenAnswer(invocation -> new ChatUser((String) invocation.getArguments()[0], null));
+    WaitForAsyncUtils.waitForAsyncFx(TIMEOUT, () -> instance.onChatContainerLoaded());
+
+    Instant now = Instant.now();
+    // Queued within one FX event, so that the render can't run in between
+    WaitForAsyncUtils.waitForAsyncFx(TIMEOUT, () -> {
+      for (int i = 0; i < 5; i++) {
+        instance.onChatMessage(new ChatMessage("", now, "user" + i, "message " + i));
+      }
+      instance.onChatMessage(new ChatMessage("", now, "user4", "another message"));
+    });
+    WaitForAsyncUtils.waitForFxEvents();
+
+    verify(jsObject).call(eq("appendChatBatch"), anyString(), eq(3));
+
+    JsonArray batch = lastBatch("appendChatBatch");
+    assertThat(batch.size(), is(11));
+    JsonObject lastFragment = batch.get(10).getAsJsonObject();
+    assertThat(lastFragment.get("target").getAsString(), is("chat-section-5"));
+    assertThat(lastFragment.get("html").getAsString(), containsString("another message"));
+  }
+
+  @Test
+  public void testOnChatMessageLinkifiesAndHighlightsMentions() throws Exception {
+    when(chatService.getOrCreateChatUser(anyString())).thenAnswer(invocation -> new ChatUser((String) invocation.getArguments()[0], null));
+    WaitForAsyncUtils.waitForAsyncFx(TIMEOUT, () -> instance.onChatContainerLoaded());
+
+    instance.onChatMessage(new ChatMessage("", Instant.now(), "user", "JUnit, see faforever.com/junit <3"));
+    WaitForAsyncUtils.waitForFxEvents();
+
+    verify(jsObject).call(eq("appendChatBatch"), anyString(), eq(0));
+
+    JsonArray batch = lastBatch("appendChatBatch");
+    assertThat(batch.get(1).getAsJsonObject().get("html").getAsString(), containsString(
+        "<span class='self'>JUnit</span>, see <a href=\"javascript:void(0);\" onClick=\"chatTab.openUrl('http://faforever.com/junit')\""));
+    assertThat(batch.get(1).getAsJsonObject().get("html").getAsString(), containsString("</a> &lt;3"));
+  }
+
+  @Test
+  public void testOnChatMessageHighlightsHighlightedWords() throws Exception {
+    when(chatService.getOrCreateChatUser(anyString())).thenAnswer(invocation -> new ChatUser((String) invocation.getArguments()[0], null));
+    WaitForAsyncUtils.waitForAsyncFx(TIMEOUT, () -> instance.onChatContainerLoaded());
+
+    preferences.getChat().getHighlightedWords().add("[FAF]");
+    instance.onChatMessage(new ChatMessage("", Instant.now(), "user", "join [faf] today"));
+    WaitForAsyncUtils.waitForFxEvents();
+
+    verify(jsObject).call(eq("appendChatBatch"), anyString(), eq(0));
+
+    JsonArray batch = lastBatch("appendChatBatch");
+    assertThat(batch.get(1).getAsJsonObject().get("html").getAsString(), containsString("join <span class='self'>[faf]</span> today"));
+  }
+
+  @Test
+  public void testLoadOlderMessagesPrependsHistory() throws Exception {
+    when(chatService.getOrCreateChatUser(anyString())).thenAnswer(invocation -> new ChatUser((String) invocation.getArguments()[0], null));
+    Instant now = Instant.now();
+    chatHistory.append(new ChatMessage("#junit", now, "user1", "old message 1"));
+    chatHistory.append(new ChatMessage("#junit", now, "user1", "old message 2"));
+    chatHistory.append(new ChatMessage("#junit", now, "user2", "old message 3"));
+    WaitForAsyncUtils.waitForAsyncFx(TIMEOUT, () -> instance.onChatContainerLoaded());
+
+    instance.onChatMessage(new ChatMessage("#junit", now, "user3", "new message"));
+    WaitForAsyncUtils.waitForFxEvents();
+    WaitForAsyncUtils.waitForAsyncFx(TIMEOUT, () -> instance.loadOlderMessages());
+    WaitForAsyncUtils.waitForFxEvents();
+
+    verify(jsObject).call(eq("prependChatBatch"), anyString(), eq(0));
+
+    JsonArray batch = lastBatch("prependChatBatch");
+    assertThat(batch.size(), is(5));
+    assertThat(batch.get(0).getAsJsonObject().get("target").getAsString(), is("chat-container"));
+    assertThat(batch.get(1).getAsJsonObject().get("target").getAsString(), is("chat-section--1"));
+    assertThat(batch.get(1).getAsJsonObject().get("html").getAsString(), containsString("old message 1"));
+    assertThat(batch.get(2).getAsJsonObject().get("html").getAsString(), containsString("old message 2"));
+    assertThat(batch.get(4).getAsJsonObject().get("target").getAsString(), is("chat-section--2"));
+    assertThat(batch.get(4).getAsJsonObject().get("html").getAsString(), containsString("old message 3"));
+  }
+
+  @Test
+  public void testMessageAfterLoadingOlderMessagesIsAddedToLatestSection() throws Exception {
+    when(chatService.getOrCreateChatUser(anyString())).thenAnswer(invocation -> new ChatUser((String) invocation.getArguments()[0], null));
+    Instant now = Instant.now();
+    chatHistory.append(new ChatMessage("#junit", now, "user1", "old message"));
+    WaitForAsyncUtils.waitForAsyncFx(TIMEOUT, () -> instance.onChatContainerLoaded());
+
+    instance.onChatMessage(new ChatMessage("#junit", now, "user2", "new message"));
+    WaitForAsyncUtils.waitForFxEvents();
+    WaitForAsyncUtils.waitForAsyncFx(TIMEOUT, () -> instance.loadOlderMessages());
+    WaitForAsyncUtils.waitForFxEvents();
+    instance.onChatMessage(new ChatMessage("#junit", now, "user2", "another new message"));
+    WaitForAsyncUtils.waitForFxEvents();
+
+    verify(jsObject, times(2)).call(eq("appendChatBatch"), anyString(), eq(0));
+
+    JsonArray batch = lastBatch("appendChatBatch");
+    assertThat(batch.size(), is(1));
+    assertThat(batch.get(0).getAsJsonObject().get("target").getAsString(), is("chat-section-1"));
+    assertThat(batch.get(0).getAsJsonObject().get("html").getAsString(), containsString("another new message"));
+  }
+
+  @Test
+  public void testLoadOlderMessagesRemovesBottomSectionsUntilScrolledDown() throws Exception {
+    preferences.getChat().setMaxMessages(2);
+    when(chatService.getOrCreateChatUser(anyString())).thenAnswer(invocation -> new ChatUser((String) invocation.getArguments()[0], null));
+    Instant now = Instant.now();
+    chatHistory.append(new ChatMessage("#junit", now, "user1", "old message 1"));
+    chatHistory.append(new ChatMessage("#junit", now, "user2", "old message 2"));
+    WaitForAsyncUtils.waitForAsyncFx(TIMEOUT, () -> instance.onChatContainerLoaded());
+
+    instance.onChatMessage(new ChatMessage("#junit", now, "user3", "new message"));
+    WaitForAsyncUtils.waitForFxEvents();
+    WaitForAsyncUtils.waitForAsyncFx(TIMEOUT, () -> instance.loadOlderMessages());
+    WaitForAsyncUtils.waitForFxEvents();
+
+    verify(jsObject).call(eq("prependChatBatch"), anyString(), eq(1));
+
+    // Not rendered until the user scrolls down, since the message before it is missing
+    instance.onChatMessage(new ChatMessage("#junit", now, "user3", "another new message"));
+    WaitForAsyncUtils.waitForFxEvents();
+
+    verify(jsObject, times(2)).call(eq("appendChatBatch"), anyString(), eq(0));
+    assertThat(lastBatch("appendChatBatch").size(), is(0));
+
+    WaitForAsyncUtils.waitForAsyncFx(TIMEOUT, () -> instance.loadNewerMessages());
+    WaitForAsyncUtils.waitForFxEvents();
+
+    verify(jsObject).call(eq("appendHistoryBatch"), anyString(), eq(1));
+    JsonArray batch = lastBatch("appendHistoryBatch");
+    assertThat(batch.size(), is(3));
+    assertThat(batch.get(0).getAsJsonObject().get("target").getAsString(), is("chat-container"));
+    assertThat(batch.get(1).getAsJsonObject().get("html").getAsString(), containsString("new message"));
+    assertThat(batch.get(2).getAsJsonObject().get("html").getAsString(), containsString("another new message"));
+
+    // All messages are shown again, so new messages are rendered right away
+    instance.onChatMessage(new ChatMessage("#junit", now, "user3", "latest message"));
+    WaitForAsyncUtils.waitForFxEvents();
+
+    verify(jsObject, times(3)).call(eq("appendChatBatch"), anyString(), eq(0));
+    assertThat(lastBatch("appendChatBatch").toString(), containsString("latest message"));
+  }
+
   @Test
   public void testHasFocus() throws Exception {
     assertThat(instance.hasFocus(), is(true));
@@ -1,7 +1,5 @@
 package com.faforever.client.chat;
 
-import com.faforever.client.player.PlayerService;
-import javafx.collections.FXCollections;
 import javafx.scene.control.TextField;
 import javafx.scene.control.TextInputControl;
 import javafx.scene.input.KeyCode;
@@ -9,9 +7,6 @@ import javafx.scene.input.KeyEvent;
 import org.jetbrains.annotations.NotNull;
 import org.junit.Before;
 import org.junit.Test;
-import org.junit.runner.RunWith;
-import org.mockito.Mock;
-import org.mockito.runners.MockitoJUnitRunner;
 import org.testfx.util.WaitForAsyncUtils;
 
 import java.util.Collection;
@@ -22,22 +17,20 @@ import static org.hamcrest.text.IsEmptyString.isEmptyString;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
-import static org.mockito.Mockito.when;
 
-@RunWith(MockitoJUnitRunner.class)
 public class AutoCompletionHelperTest {
 
   private static final long TIMEOUT = 5000;
 
-  @Mock
-  PlayerService playerService;
   AutoCompletionHelper instance;
+  private NicknameIndex nicknameIndex;
   private TextInputControl textInputControl;
 
   @Before
   public void setUp() throws Exception {
     instance = new AutoCompletionHelper();
-    instance.playerService = playerService;
+    nicknameIndex = new NicknameIndex();
+    instance.nicknameIndex = nicknameIndex;
 
     textInputControl = new TextField();
     instance.bindTo(textInputControl);
@@ -52,6 +45,12 @@ public class AutoCompletionHelperTest {
     assertThat(textInputControl.getText(), isEmptyString());
   }
 
+  private void addNames(String... names) {
+    for (String name : names) {
+      nicknameIndex.add(name);
+    }
+  }
+
   @NotNull
   private KeyEvent keyEvent(KeyCode keyCode) {
     return keyEvent(keyCode, emptyList());
@@ -78,7 +77,7 @@ public class AutoCompletionHelperTest {
 
   @Test
   public void testAutoCompleteDoesntCompleteWhenTheresNoWordBeforeCaret() throws Exception {
-    when(playerService.getPlayerNames()).thenReturn(FXCollections.observableSet("DummyUser", "Junit"));
+    addNames("DummyUser", "Junit");
     textInputControl.setText("j");
     textInputControl.positionCaret(0);
     KeyEvent keyEvent = keyEvent(KeyCode.TAB);
@@ -90,7 +89,7 @@ public class AutoCompletionHelperTest {
 
   @Test
   public void testAutoCompleteCompletesToFirstMatchCaseInsensitive() throws Exception {
-    when(playerService.getPlayerNames()).thenReturn(FXCollections.observableSet("DummyUser", "Junit"));
+    addNames("DummyUser", "Junit");
     textInputControl.setText("j");
     textInputControl.positionCaret(1);
     KeyEvent keyEvent = keyEvent(KeyCode.TAB);
@@ -102,7 +101,7 @@ public class AutoCompletionHelperTest {
 
   @Test
   public void testAutoCompleteCompletesToFirstMatchCaseInsensitiveRepeated() throws Exception {
-    when(playerService.getPlayerNames()).thenReturn(FXCollections.observableSet("DummyUser", "Junit"));
+    addNames("DummyUser", "Junit");
     textInputControl.setText("j");
     textInputControl.positionCaret(1);
     KeyEvent keyEvent = keyEvent(KeyCode.TAB);
@@ -114,7 +113,7 @@ public class AutoCompletionHelperTest {
 
   @Test
   public void testAutoCompleteCycles() throws Exception {
-    when(playerService.getPlayerNames()).thenReturn(FXCollections.observableSet("JayUnit", "Junit"));
+    addNames("JayUnit", "Junit");
     textInputControl.setText("j");
     textInputControl.positionCaret(1);
     KeyEvent keyEvent = keyEvent(KeyCode.TAB);
@@ -131,7 +130,7 @@ public class AutoCompletionHelperTest {
 
   @Test
   public void testAutoCompleteSortedByName() throws Exception {
-    when(playerService.getPlayerNames()).thenReturn(FXCollections.observableSet("JBunit", "JAyUnit"));
+    addNames("JBunit", "JAyUnit");
     textInputControl.setText("j");
     textInputControl.positionCaret(1);
     KeyEvent keyEvent = keyEvent(KeyCode.TAB);
@@ -143,7 +142,7 @@ public class AutoCompletionHelperTest {
 
   @Test
   public void testAutoCompleteCaretMovedAway() throws Exception {
-    when(playerService.getPlayerNames()).thenReturn(FXCollections.observableSet("JUnit", "Downlord"));
+    addNames("JUnit", "Downlord");
     KeyEvent keyEvent = keyEvent(KeyCode.TAB);
 
     // Start auto completion on "JB"
@@ -157,4 +156,19 @@ public class AutoCompletionHelperTest {
 
     assertThat(textInputControl.getText(), is("JUnit Downlord"));
   }
+
+  @Test
+  public void testAutoCompletePrefersUsersInChannel() throws Exception {
+    addNames("JAyUnit", "JBunit", "Junit");
+    instance.setPresentInChannel("JBunit"::equals);
+    textInputControl.setText("j");
+    textInputControl.positionCaret(1);
+    KeyEvent keyEvent = keyEvent(KeyCode.TAB);
+
+    simulate(keyEvent);
+    assertThat(textInputControl.getText(), is("JBunit"));
+
+    simulate(keyEvent);
+    assertThat(textInputControl.getText(), is("JAyUnit"));
+  }
 }
@@ -1,6 +1,7 @@
 package com.faforever.client.chat;
 
 import com.faforever.client.fx.PlatformService;
+import com.faforever.client.fx.Subscriptions;
 import com.faforever.client.fx.WebViewConfigurer;
 import com.faforever.client.i18n.I18n;
 import com.faforever.client.notification.NotificationService;
@@ -15,9 +16,6 @@ import com.faforever.client.uploader.ImageUploadService;
 import com.faforever.client.user.UserService;
 import com.faforever.client.util.TimeService;
 import javafx.collections.FXCollections;
-import javafx.collections.MapChangeListener;
-import javafx.collections.MapChangeListener.Change;
-import javafx.collections.ObservableMap;
 import javafx.scene.control.TabPane;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
@@ -30,18 +28,27 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.testfx.util.WaitForAsyncUtils;
 
+import java.util.EnumSet;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadPoolExecutor;
 
 import static com.faforever.client.theme.UiService.CHAT_CONTAINER;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -54,6 +61,8 @@ public class ChannelTabControllerTest extends AbstractPlainJavaFxTest {
   @Rule
   public TemporaryFolder tempDir = new TemporaryFolder();
   @Mock
+  private ChatHistoryService chatHistoryService;
+  @Mock
   private ChatService chatService;
   @Mock
   private UserService userService;
@@ -85,6 +94,8 @@ public class ChannelTabControllerTest extends AbstractPlainJavaFxTest {
   private ChatUserItemController chatUserItemController;
   @Mock
   private WebViewConfigurer webViewConfigurer;
+  @Mock
+  private ScheduledFuture<?> presenceStatusUpdateFuture;
 
   private ChannelTabController instance;
 
@@ -100,18 +111,24 @@ public class ChannelTabControllerTest extends AbstractPlainJavaFxTest {
     instance.preferencesService = preferencesService;
     instance.platformService = platformService;
     instance.autoCompletionHelper = autoCompletionHelper;
+    instance.chatTemplates = new ChatTemplates();
+    instance.chatTemplates.uiService = uiService;
     instance.uiService = uiService;
     instance.webViewConfigurer = webViewConfigurer;
     instance.stage = getStage();
+    instance.chatHistoryService = chatHistoryService;
 
+    when(chatHistoryService.getHistory(anyString())).thenReturn(mock(ChatHistory.class));
     when(preferencesService.getPreferences()).thenReturn(new Preferences());
     when(preferencesService.getCacheDirectory()).thenReturn(tempDir.getRoot().toPath());
     when(userService.getUsername()).thenReturn(USER_NAME);
     when(uiService.loadFxml("theme/chat/user_filter.fxml")).thenReturn(userFilterController);
     when(uiService.loadFxml("theme/chat/chat_user_item.fxml")).thenReturn(chatUserItemController);
     when(userFilterController.getRoot()).thenReturn(new Pane());
+    when(userFilterController.filterUser(any())).thenReturn(true);
     when(chatUserItemController.getRoot()).thenReturn(new Pane());
     when(uiService.getThemeFileUrl(CHAT_CONTAINER)).thenReturn(getClass().getResource("/theme/chat/chat_container.html"));
+    doReturn(presenceStatusUpdateFuture).when(scheduledExecutorService).scheduleWithFixedDelay(any(), anyLong(), anyLong(), any());
 
     loadFxml("theme/chat/channel_tab.fxml", clazz -> instance);
 
@@ -182,22 +199,15 @@ public class ChannelTabControllerTest extends AbstractPlainJavaFxTest {
   }
 
   @Test
-  @SuppressWarnings("unchecked")
   public void testOnUserJoinsChannel() throws Exception {
     Channel channel = new Channel(CHANNEL_NAME);
     instance.setChannel(channel);
 
-    ArgumentCaptor<MapChangeListener<String, ChatUser>> captor = ArgumentCaptor.forClass(MapChangeListener.class);
+    ArgumentCaptor<ChannelUsersListener> captor = ArgumentCaptor.forClass(ChannelUsersListener.class);
     verify(chatService).addUsersListener(anyString(), captor.capture());
 
     ChatUser chatUser = new ChatUser("junit", null);
-    ObservableMap<String, ChatUser> userMap = FXCollections.observableHashMap();
-    userMap.put("junit", chatUser);
-
-    Change<String, ChatUser> change = mock(Change.class);
-    when(change.wasAdded()).thenReturn(true);
-    when(change.getValueAdded()).thenReturn(chatUser);
-    when(change.getMap()).thenReturn(userMap);
+    channel.addUser(chatUser);
 
     Player player = PlayerBuilder.create("Hans").defaultValues().get();
     when(playerService.createAndGetPlayerForUsername("junit")).thenReturn(player);
@@ -206,11 +216,125 @@ public class ChannelTabControllerTest extends AbstractPlainJavaFxTest {
     when(chatUserItemController.getPlayer()).thenReturn(player);
 
     // Actual test execution
-    captor.getValue().onChanged(change);
+    captor.getValue().onUsersChanged(singletonList(chatUser), emptyList());
     WaitForAsyncUtils.waitForFxEvents();
 
-    assertThat(player.usernameProperty().isBound(), is(true));
     assertThat(player.getUsername(), is("junit"));
     assertThat(instance.userSearchTextField.getPromptText(), is("1 Players"));
+    assertThat(instance.chatUserListModel.getCategories(player), is(EnumSet.of(ChatUserCategory.OTHER)));
+    assertThat(instance.chatUserListView.getItems().stream().anyMatch(item -> item.getPlayer() == player), is(true));
+
+    chatUser.usernameProperty().set("junit2");
+    assertThat(player.getUsername(), is("junit2"));
+  }
+
+  @Test
+  public void testOnUsersJoinAndLeaveChannel() throws Exception {
+    Channel channel = new Channel(CHANNEL_NAME);
+    instance.setChannel(channel);
+
+    ArgumentCaptor<ChannelUsersListener> captor = ArgumentCaptor.forClass(ChannelUsersListener.class);
+    verify(chatService).addUsersListener(anyString(), captor.capture());
+
+    ChatUser chatUser1 = new ChatUser("junit1", null);
+    ChatUser chatUser2 = new ChatUser("junit2", null);
+    Player player1 = PlayerBuilder.create("junit1").defaultValues().get();
+    Player player2 = PlayerBuilder.create("junit2").defaultValues().get();
+    when(playerService.createAndGetPlayerForUsername("junit1")).thenReturn(player1);
+    when(playerService.createAndGetPlayerForUsername("junit2")).thenReturn(player2);
+    when(playerService.getPlayerForUsername("junit1")).thenReturn(player1);
+
+    captor.getValue().onUsersChanged(asList(chatUser1, chatUser2), emptyList());
+    WaitForAsyncUtils.waitForFxEvents();
+    assertThat(instance.chatUserListModel.getCategories(player1).isEmpty(), is(false));
+    assertThat(instance.chatUserListModel.getCategories(player2).isEmpty(), is(false));
+
+    captor.getValue().onUsersChanged(emptyList(), singletonList(chatUser1));
+    WaitForAsyncUtils.waitForFxEvents();
+
+    assertThat(instance.chatUserListModel.getCategories(player1).isEmpty(), is(true));
+    assertThat(instance.chatUserListModel.getCategories(player2).isEmpty(), is(false));
+  }
+
+  @Test
+  public void testUserLeavingChannelDisposesListeners() throws Exception {
+    Channel channel = new Channel(CHANNEL_NAME);
+    instance.setChannel(channel);
+
+    ArgumentCaptor<ChannelUsersListener> captor = ArgumentCaptor.forClass(ChannelUsersListener.class);
+    verify(chatService).addUsersListener(anyString(), captor.capture());
+
+    ChatUser chatUser = new ChatUser("JUnit1", null);
+    Player player = PlayerBuilder.create("JUnit1").defaultValues().get();
+    when(playerService.createAndGetPlayerForUsername("JUnit1")).thenReturn(player);
+    when(playerService.getPlayerForUsername("JUnit1")).thenReturn(player);
+
+    captor.getValue().onUsersChanged(singletonList(chatUser), emptyList());
+    assertThat(instance.userSubscriptions.containsKey("junit1"), is(true));
+    assertThat(instance.userSubscriptions.get("junit1").size() > 0, is(true));
+
+    captor.getValue().onUsersChanged(emptyList(), singletonList(chatUser));
+    assertThat(instance.userSubscriptions.isEmpty(), is(true));
+  }
+
+  @Test
+  public void testClosingTabDisposesListenersAndStopsTimer() throws Exception {
+    Channel channel = new Channel(CHANNEL_NAME);
+    instance.setChannel(channel);
+
+    ArgumentCaptor<ChannelUsersListener> captor = ArgumentCaptor.forClass(ChannelUsersListener.class);
+    verify(chatService).addUsersListener(anyString(), captor.capture());
+
+    ChatUser chatUser = new ChatUser("junit1", null);
+    Player player = PlayerBuilder.create("junit1").defaultValues().get();
+    when(playerService.createAndGetPlayerForUsername("junit1")).thenReturn(player);
+    captor.getValue().onUsersChanged(singletonList(chatUser), emptyList());
+    Subscriptions subscriptions = instance.userSubscriptions.get("junit1");
+
+    WaitForAsyncUtils.waitForAsyncFx(5000, () -> instance.getRoot().getTabPane().getTabs().remove(instance.getRoot()));
+
+    verify(presenceStatusUpdateFuture).cancel(false);
+    assertThat(subscriptions.isDisposed(), is(true));
+    assertThat(instance.userSubscriptions.isEmpty(), is(true));
+
+    // Users listed after the tab has been closed must not be subscribed to
+    ChatUser lateChatUser = new ChatUser("junit2", null);
+    when(playerService.createAndGetPlayerForUsername("junit2")).thenReturn(PlayerBuilder.create("junit2").defaultValues().get());
+    captor.getValue().onUsersChanged(singletonList(lateChatUser), emptyList());
+    assertThat(instance.userSubscriptions.isEmpty(), is(true));
+  }
+
+  @Test
+  public void testPartReleasesChatUserAndPlayer() throws Exception {
+    Channel channel = new Channel(CHANNEL_NAME);
+    instance.setChannel(channel);
+
+    ArgumentCaptor<ChannelUsersListener> captor = ArgumentCaptor.forClass(ChannelUsersListener.class);
+    verify(chatService).addUsersListener(anyString(), captor.capture());
+    ChannelUsersListener usersListener = captor.getValue();
+
+    ChatUser chatUser = new ChatUser("junit2", null);
+    Player player = new Player("junit2");
+    when(playerService.createAndGetPlayerForUsername("junit2")).thenReturn(player);
+    when(playerService.getPlayerForUsername("junit2")).thenReturn(player);
+
+    usersListener.onUsersChanged(singletonList(chatUser), emptyList());
+    Subscriptions subscriptions = instance.userSubscriptions.get("junit2");
+    assertThat(subscriptions.size(), greaterThan(0));
+
+    chatUser.getModeratorInChannels().add(CHANNEL_NAME);
+    assertThat(player.getModeratorForChannels(), contains(CHANNEL_NAME));
+
+    usersListener.onUsersChanged(emptyList(), singletonList(chatUser));
+    WaitForAsyncUtils.waitForFxEvents();
+
+    assertThat(instance.userSubscriptions.isEmpty(), is(true));
+    assertThat(subscriptions.isDisposed(), is(true));
+    assertThat(subscriptions.size(), is(0));
+    // Nothing of the player, which outlives the tab, refers to the chat user anymore
+    assertThat(player.usernameProperty().isBound(), is(false));
+    assertThat(player.moderatorForChannelsProperty().isBound(), is(false));
+    chatUser.getModeratorInChannels().remove(CHANNEL_NAME);
+    assertThat(player.getModeratorForChannels(), contains(CHANNEL_NAME));
   }
 }
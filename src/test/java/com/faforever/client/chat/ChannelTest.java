@@ -0,0 +1,94 @@
+package com.faforever.client.chat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ChannelTest {
+
+  private Channel instance;
+  private List<List<ChatUser>> addedNotifications;
+  private List<List<ChatUser>> removedNotifications;
+
+  @Before
+  public void setUp() throws Exception {
+    instance = new Channel("#junit");
+    addedNotifications = new ArrayList<>();
+    removedNotifications = new ArrayList<>();
+    instance.addUsersListeners((added, removed) -> {
+      addedNotifications.add(added);
+      removedNotifications.add(removed);
+    });
+  }
+
+  @Test
+  public void testAddUsersNotifiesOnce() throws Exception {
+    ChatUser user1 = new ChatUser("user1", null);
+    ChatUser user2 = new ChatUser("user2", null);
+
+    instance.addUsers(Arrays.asList(user1, user2));
+
+    assertThat(addedNotifications, hasSize(1));
+    assertThat(addedNotifications.get(0), containsInAnyOrder(user1, user2));
+    assertThat(removedNotifications.get(0), empty());
+    assertThat(instance.getUserCount(), is(2));
+  }
+
+  @Test
+  public void testUpdateUsers() throws Exception {
+    ChatUser user1 = new ChatUser("user1", null);
+    ChatUser user2 = new ChatUser("user2", null);
+    ChatUser user3 = new ChatUser("user3", null);
+    instance.addUsers(Arrays.asList(user1, user2));
+
+    Map<String, ChatUser> changes = new LinkedHashMap<>();
+    changes.put("user1", null);
+    changes.put("user2", user2);
+    changes.put("user3", user3);
+    changes.put("unknown", null);
+    instance.updateUsers(changes);
+
+    assertThat(addedNotifications, hasSize(2));
+    assertThat(addedNotifications.get(1), contains(user3));
+    assertThat(removedNotifications.get(1), contains(user1));
+    assertThat(instance.getUsers(), containsInAnyOrder(user2, user3));
+    assertThat(instance.getUser("user1"), is(nullValue()));
+  }
+
+  @Test
+  public void testUpdateWithoutChangesDoesNotNotify() throws Exception {
+    ChatUser user1 = new ChatUser("user1", null);
+    instance.addUser(user1);
+
+    instance.addUser(user1);
+    instance.removeUser("unknown");
+
+    assertThat(addedNotifications, hasSize(1));
+  }
+
+  @Test
+  public void testClearUsers() throws Exception {
+    ChatUser user1 = new ChatUser("user1", null);
+    ChatUser user2 = new ChatUser("user2", null);
+    instance.addUsers(Arrays.asList(user1, user2));
+
+    instance.clearUsers();
+
+    assertThat(removedNotifications, hasSize(2));
+    assertThat(removedNotifications.get(1), containsInAnyOrder(user1, user2));
+    assertThat(instance.getUserCount(), is(0));
+  }
+}
@@ -24,6 +24,8 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import static com.natpryce.hamcrest.reflection.HasAnnotationMatcher.hasAnnotation;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.Matchers.empty;
@@ -59,7 +61,7 @@ public class ChatControllerTest extends AbstractPlainJavaFxTest {
   @Captor
   private ArgumentCaptor<MapChangeListener<String, Channel>> channelsListener;
   @Captor
-  private ArgumentCaptor<MapChangeListener<String, ChatUser>> onUsersListenerCaptor;
+  private ArgumentCaptor<ChannelUsersListener> onUsersListenerCaptor;
 
   private ChatController instance;
   private SimpleObjectProperty<ConnectionState> connectionState;
@@ -175,11 +177,7 @@ public class ChatControllerTest extends AbstractPlainJavaFxTest {
     verify(chatService).joinChannel(TEST_CHANNEL_NAME);
     verify(chatService).addUsersListener(eq(TEST_CHANNEL_NAME), onUsersListenerCaptor.capture());
 
-    MapChangeListener.Change<? extends String, ? extends ChatUser> change = mock(MapChangeListener.Change.class);
-    when(change.wasAdded()).thenReturn(true);
-    // Error here is caused by a bug in IntelliJ
-    when(change.getValueAdded()).thenReturn(new ChatUser(TEST_USER_NAME, null));
-    onUsersListenerCaptor.getValue().onChanged(change);
+    onUsersListenerCaptor.getValue().onUsersChanged(singletonList(new ChatUser(TEST_USER_NAME, null)), emptyList());
 
     CountDownLatch tabAddedLatch = new CountDownLatch(1);
     instance.tabPane.getTabs().addListener((InvalidationListener) observable -> tabAddedLatch.countDown());
@@ -0,0 +1,142 @@
+package com.faforever.client.chat;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ChatHistoryTest {
+
+  private static final String RECEIVER = "#junit";
+  private static final Executor DIRECT_EXECUTOR = Runnable::run;
+  private static final int MAX_STORED_MESSAGES = 5;
+
+  @Rule
+  public TemporaryFolder tempDir = new TemporaryFolder();
+
+  private Path logFile;
+  private Path indexFile;
+  private ChatHistory instance;
+
+  @Before
+  public void setUp() throws Exception {
+    logFile = tempDir.getRoot().toPath().resolve("junit.log");
+    indexFile = tempDir.getRoot().toPath().resolve("junit.idx");
+    instance = createHistory();
+  }
+
+  private ChatHistory createHistory() {
+    return new ChatHistory(RECEIVER, logFile, indexFile, 2, MAX_STORED_MESSAGES, DIRECT_EXECUTOR);
+  }
+
+  private static ChatMessage message(String text) {
+    return new ChatMessage(RECEIVER, Instant.ofEpochMilli(1000), "junit", text);
+  }
+
+  private static List<String> texts(List<ChatMessage> messages) {
+    return messages.stream().map(ChatMessage::getMessage).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testAppendReturnsIndex() throws Exception {
+    assertThat(instance.append(message("a")), is(0L));
+    assertThat(instance.append(message("b")), is(1L));
+    assertThat(instance.size(), is(2L));
+  }
+
+  @Test
+  public void testGetMessagesFromMemoryAndDisk() throws Exception {
+    for (int i = 0; i < 5; i++) {
+      instance.append(message("message " + i));
+    }
+
+    assertThat(texts(instance.getMessages(3, 5)), contains("message 3", "message 4"));
+    assertThat(texts(instance.getMessages(0, 3)), contains("message 0", "message 1", "message 2"));
+    assertThat(texts(instance.getMessages(1, 5)), contains("message 1", "message 2", "message 3", "message 4"));
+    assertThat(instance.getMessages(2, 2), is(empty()));
+  }
+
+  @Test
+  public void testMessagesAreReadCompletely() throws Exception {
+    instance.append(new ChatMessage(RECEIVER, Instant.ofEpochMilli(1234), "user", "action", true));
+    instance.append(message("a"));
+    instance.append(message("b"));
+
+    ChatMessage message = instance.getMessages(0, 1).get(0);
+    assertThat(message.getSource(), is(RECEIVER));
+    assertThat(message.getTime(), is(Instant.ofEpochMilli(1234)));
+    assertThat(message.getUsername(), is("user"));
+    assertThat(message.getMessage(), is("action"));
+    assertThat(message.isAction(), is(true));
+  }
+
+  @Test
+  public void testHistoryIsLoadedFromDisk() throws Exception {
+    instance.append(message("a"));
+    instance.append(message("b"));
+    instance.append(message("c"));
+
+    ChatHistory reloaded = createHistory();
+
+    assertThat(reloaded.size(), is(3L));
+    assertThat(reloaded.append(message("d")), is(3L));
+    assertThat(texts(reloaded.getMessages(0, 4)), contains("a", "b", "c", "d"));
+  }
+
+  @Test
+  public void testIncompleteRecordIsDropped() throws Exception {
+    instance.append(message("a"));
+    instance.append(message("b"));
+
+    try (FileChannel log = FileChannel.open(logFile, WRITE)) {
+      log.truncate(log.size() - 1);
+    }
+
+    ChatHistory reloaded = createHistory();
+
+    assertThat(reloaded.size(), is(1L));
+    reloaded.append(message("c"));
+    reloaded.append(message("d"));
+    reloaded.append(message("e"));
+    assertThat(texts(reloaded.getMessages(0, 4)), contains("a", "c", "d", "e"));
+  }
+
+  @Test
+  public void testOldMessagesAreDroppedWhenLoaded() throws Exception {
+    for (int i = 0; i < MAX_STORED_MESSAGES + 3; i++) {
+      instance.append(message("message " + i));
+    }
+    assertThat(instance.size(), is((long) MAX_STORED_MESSAGES + 3));
+
+    ChatHistory reloaded = createHistory();
+
+    assertThat(reloaded.size(), is((long) MAX_STORED_MESSAGES));
+    assertThat(texts(reloaded.getMessages(0, 2)), contains("message 3", "message 4"));
+    assertThat(reloaded.append(message("new")), is((long) MAX_STORED_MESSAGES));
+
+    ChatHistory reloadedAgain = createHistory();
+
+    assertThat(texts(reloadedAgain.getMessages(0, MAX_STORED_MESSAGES)),
+        contains("message 4", "message 5", "message 6", "message 7", "new"));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGetMessagesOutOfBounds() throws Exception {
+    instance.append(message("a"));
+
+    instance.getMessages(0, 2);
+  }
+}
@@ -0,0 +1,107 @@
+package com.faforever.client.chat;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Expectations mirror the behaviour of Autolinker.js 0.17.1, which has been used to linkify chat messages before.
+ */
+public class ChatLinkifierTest {
+
+  private static String linkify(String text) {
+    StringBuilder builder = new StringBuilder();
+    ChatLinkifier.linkify(builder, text);
+    return builder.toString();
+  }
+
+  private static String urlAnchor(String href, String text) {
+    return "<a href=\"javascript:void(0);\" onClick=\"chatTab.openUrl('" + href + "')\" "
+        + "onMouseOver=\"chatTab.previewUrl('" + href + "')\" onMouseOut=\"chatTab.hideUrlPreview()\">" + text + "</a>";
+  }
+
+  @Test
+  public void testNoLinks() throws Exception {
+    assertThat(linkify("Hello <b>world</b>, version 1.2.3 e.g. foo.baz"),
+        is("Hello &lt;b&gt;world&lt;/b&gt;, version 1.2.3 e.g. foo.baz"));
+  }
+
+  @Test
+  public void testUrlWithScheme() throws Exception {
+    assertThat(linkify("see http://www.faforever.com/ now"),
+        is("see " + urlAnchor("http://www.faforever.com/", "faforever.com") + " now"));
+    assertThat(linkify("https://github.com/FAForever/downlords-faf-client/issues?q=is%3Aopen"),
+        is(urlAnchor("https://github.com/FAForever/downlords-faf-client/issues?q=is%3Aopen",
+            "github.com/FAForever/downlords-faf-client/issues?q=is%3Aopen")));
+    assertThat(linkify("ftp://example.com/file"), is(urlAnchor("ftp://example.com/file", "ftp://example.com/file")));
+  }
+
+  @Test
+  public void testUrlWithWwwPrefix() throws Exception {
+    assertThat(linkify("www.faforever.com"), is(urlAnchor("http://www.faforever.com", "faforever.com")));
+  }
+
+  @Test
+  public void testUrlWithTopLevelDomain() throws Exception {
+    assertThat(linkify("go to faforever.com/news"), is("go to " + urlAnchor("http://faforever.com/news", "faforever.com/news")));
+    assertThat(linkify("FAFOREVER.COM"), is(urlAnchor("http://FAFOREVER.COM", "FAFOREVER.COM")));
+    assertThat(linkify("forum.faforever.co.uk"), is(urlAnchor("http://forum.faforever.co.uk", "forum.faforever.co.uk")));
+  }
+
+  @Test
+  public void testTrailingPunctuationIsExcluded() throws Exception {
+    assertThat(linkify("Visit faforever.com."), is("Visit " + urlAnchor("http://faforever.com", "faforever.com") + "."));
+    assertThat(linkify("http://faforever.com/?, ok"), is(urlAnchor("http://faforever.com/", "faforever.com") + "?, ok"));
+  }
+
+  @Test
+  public void testUnbalancedClosingParenthesisIsExcluded() throws Exception {
+    assertThat(linkify("(see http://faforever.com/foo)"),
+        is("(see " + urlAnchor("http://faforever.com/foo", "faforever.com/foo") + ")"));
+    assertThat(linkify("https://en.wikipedia.org/wiki/Foo_(bar)"),
+        is(urlAnchor("https://en.wikipedia.org/wiki/Foo_(bar)", "en.wikipedia.org/wiki/Foo_(bar)")));
+  }
+
+  @Test
+  public void testUrlIsEscaped() throws Exception {
+    assertThat(linkify("http://faforever.com/?a=1&b=it's"),
+        is(urlAnchor("http://faforever.com/?a=1&amp;b=it\\&#39;s", "faforever.com/?a=1&amp;b=it&#39;s")));
+  }
+
+  @Test
+  public void testScriptSchemesAreNotLinked() throws Exception {
+    assertThat(linkify("javascript://alert"), is("javascript://alert"));
+  }
+
+  @Test
+  public void testEmail() throws Exception {
+    assertThat(linkify("mail admin@faforever.com."),
+        is("mail <a href=\"javascript:void(0);\" onClick=\"chatTab.openUrl('mailto:admin@faforever.com')\">admin@faforever.com</a>."));
+    assertThat(linkify("admin@localhost"), is("admin@localhost"));
+  }
+
+  @Test
+  public void testChannel() throws Exception {
+    assertThat(linkify("join #aeolus-2 now"),
+        is("join <a href=\"javascript:void(0);\" onClick=\"chatTab.joinChannel('#aeolus-2')\">#aeolus-2</a> now"));
+    assertThat(linkify("we are #1 and c#"), is("we are #1 and c#"));
+  }
+
+  @Test
+  public void testFind() throws Exception {
+    ChatLinkifier.Link link = new ChatLinkifier.Link();
+    String text = "a faforever.com b #aeolus";
+
+    assertThat(ChatLinkifier.find(text, 0, link), is(true));
+    assertThat(link.getType(), is(ChatLinkifier.LinkType.URL));
+    assertThat(link.getStart(), is(2));
+    assertThat(link.getEnd(), is(15));
+
+    assertThat(ChatLinkifier.find(text, link.getEnd(), link), is(true));
+    assertThat(link.getType(), is(ChatLinkifier.LinkType.CHANNEL));
+    assertThat(link.getStart(), is(18));
+
+    assertThat(ChatLinkifier.find(text, link.getEnd(), link), is(false));
+  }
+}
@@ -0,0 +1,43 @@
+package com.faforever.client.chat;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ChatTemplateTest {
+
+  @Test
+  public void testRender() throws Exception {
+    ChatTemplate template = ChatTemplate.compile("<div class=\"{css-classes}\">{text}</div>",
+        Arrays.asList("css-classes", "text"), Collections.singleton("text"));
+
+    StringBuilder target = new StringBuilder("existing");
+    template.render(target, "message\" onclick=\"alert(1)", "<a href='x'>x</a>");
+
+    assertThat(target.toString(),
+        is("existing<div class=\"message&quot; onclick=&quot;alert(1)\"><a href='x'>x</a></div>"));
+  }
+
+  @Test
+  public void testRepeatedAndUnknownPlaceholders() throws Exception {
+    ChatTemplate template = ChatTemplate.compile("{a}{unknown}{a}{b} {", Arrays.asList("a", "b"), Collections.emptySet());
+
+    StringBuilder target = new StringBuilder();
+    template.render(target, "<", null);
+
+    assertThat(target.toString(), is("&lt;{unknown}&lt; {"));
+  }
+
+  @Test
+  public void testAppendEscaped() throws Exception {
+    StringBuilder target = new StringBuilder();
+
+    ChatTemplate.appendEscaped(target, "Tom & 'Jerry' <3");
+
+    assertThat(target.toString(), is("Tom &amp; &#39;Jerry&#39; &lt;3"));
+  }
+}
@@ -0,0 +1,67 @@
+package com.faforever.client.chat;
+
+import com.faforever.client.theme.UiService;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.faforever.client.theme.UiService.CHAT_TEXT;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ChatTemplatesTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Mock
+  private UiService uiService;
+
+  private ChatTemplates instance;
+  private Path chatTextFile;
+
+  @Before
+  public void setUp() throws Exception {
+    MockitoAnnotations.initMocks(this);
+
+    chatTextFile = temporaryFolder.getRoot().toPath().resolve("chat_text.html");
+    Files.write(chatTextFile, "<p class='{css-classes}'>{text}</p>".getBytes(StandardCharsets.UTF_8));
+    when(uiService.getThemeFileUrl(CHAT_TEXT)).thenAnswer(invocation -> chatTextFile.toUri().toURL());
+
+    instance = new ChatTemplates();
+    instance.uiService = uiService;
+    instance.postConstruct();
+  }
+
+  @Test
+  public void testTemplateIsLoadedOnceAndReloadedOnThemeChange() throws Exception {
+    ArgumentCaptor<Runnable> themeChangeListener = ArgumentCaptor.forClass(Runnable.class);
+    verify(uiService).addThemeChangeListener(themeChangeListener.capture());
+
+    assertThat(renderChatText(), is("<p class='message'><b>hi</b></p>"));
+    assertThat(renderChatText(), is("<p class='message'><b>hi</b></p>"));
+    verify(uiService, times(1)).getThemeFileUrl(CHAT_TEXT);
+
+    Files.write(chatTextFile, "<div>{text}</div>".getBytes(StandardCharsets.UTF_8));
+    themeChangeListener.getValue().run();
+
+    assertThat(renderChatText(), is("<div><b>hi</b></div>"));
+  }
+
+  private String renderChatText() {
+    StringBuilder target = new StringBuilder();
+    instance.renderChatText(target, "message", "<b>hi</b>");
+    return target.toString();
+  }
+}
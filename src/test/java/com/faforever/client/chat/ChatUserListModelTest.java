@@ -0,0 +1,190 @@
+package com.faforever.client.chat;
+
+import com.faforever.client.player.Player;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.faforever.client.chat.ChatUserCategory.CHAT_ONLY;
+import static com.faforever.client.chat.ChatUserCategory.FOE;
+import static com.faforever.client.chat.ChatUserCategory.FRIEND;
+import static com.faforever.client.chat.ChatUserCategory.MODERATOR;
+import static com.faforever.client.chat.ChatUserCategory.OTHER;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ChatUserListModelTest {
+
+  private ChatUserListModel instance;
+
+  @Before
+  public void setUp() throws Exception {
+    instance = new ChatUserListModel();
+  }
+
+  private static Player player(String username) {
+    return new Player(username);
+  }
+
+  /**
+   * Returns the flat list as strings, where headers are represented by their category.
+   */
+  private List<String> items() {
+    return instance.getItems().stream()
+        .map(item -> item.isHeader() ? item.getCategory().name() : item.getPlayer().getUsername())
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void testEmptyModelContainsHeaders() throws Exception {
+    assertThat(items(), contains("MODERATOR", "FRIEND", "OTHER", "CHAT_ONLY", "FOE"));
+  }
+
+  @Test
+  public void testUsersAreGroupedAndSorted() throws Exception {
+    instance.add(player("charlie"), OTHER);
+    instance.add(player("Bravo"), OTHER);
+    instance.add(player("zulu"), FOE);
+    instance.add(player("alpha"), OTHER);
+    instance.add(player("delta"), FRIEND);
+    instance.add(player("echo"), CHAT_ONLY);
+
+    assertThat(items(), contains("MODERATOR", "FRIEND", "delta", "OTHER", "alpha", "Bravo", "charlie", "CHAT_ONLY", "echo", "FOE", "zulu"));
+  }
+
+  @Test
+  public void testSelfIsFirst() throws Exception {
+    Player self = player("zulu");
+    self.setSocialStatus(SocialStatus.SELF);
+
+    instance.add(player("alpha"), OTHER);
+    instance.add(self, OTHER);
+
+    assertThat(items(), contains("MODERATOR", "FRIEND", "OTHER", "zulu", "alpha", "CHAT_ONLY", "FOE"));
+  }
+
+  @Test
+  public void testAddTwiceIsIgnored() throws Exception {
+    Player player = player("alpha");
+
+    assertThat(instance.add(player, OTHER), is(true));
+    assertThat(instance.add(player, OTHER), is(false));
+
+    assertThat(items(), contains("MODERATOR", "FRIEND", "OTHER", "alpha", "CHAT_ONLY", "FOE"));
+  }
+
+  @Test
+  public void testSetCategoriesAndRemoveAll() throws Exception {
+    Player player = player("alpha");
+    instance.add(player("bravo"), OTHER);
+
+    instance.setCategories(player, EnumSet.of(MODERATOR, OTHER));
+    assertThat(items(), contains("MODERATOR", "alpha", "FRIEND", "OTHER", "alpha", "bravo", "CHAT_ONLY", "FOE"));
+
+    instance.setCategories(player, EnumSet.of(MODERATOR, FRIEND));
+    assertThat(items(), contains("MODERATOR", "alpha", "FRIEND", "alpha", "OTHER", "bravo", "CHAT_ONLY", "FOE"));
+    assertThat(instance.getCategories(player), is(EnumSet.of(MODERATOR, FRIEND)));
+
+    instance.removeAll(player);
+    assertThat(items(), contains("MODERATOR", "FRIEND", "OTHER", "bravo", "CHAT_ONLY", "FOE"));
+    assertThat(instance.getCategories(player).isEmpty(), is(true));
+  }
+
+  @Test
+  public void testFilter() throws Exception {
+    instance.add(player("alpha"), OTHER);
+    instance.add(player("bravo"), OTHER);
+
+    instance.setFilter(player -> player.getUsername().contains("b"));
+    assertThat(items(), contains("MODERATOR", "FRIEND", "OTHER", "bravo", "CHAT_ONLY", "FOE"));
+
+    instance.add(player("abba"), OTHER);
+    instance.add(player("charlie"), OTHER);
+    assertThat(items(), contains("MODERATOR", "FRIEND", "OTHER", "abba", "bravo", "CHAT_ONLY", "FOE"));
+
+    instance.setFilter(player -> true);
+    assertThat(items(), contains("MODERATOR", "FRIEND", "OTHER", "abba", "alpha", "bravo", "charlie", "CHAT_ONLY", "FOE"));
+  }
+
+  @Test
+  public void testSearchText() throws Exception {
+    instance.add(player("alpha"), OTHER);
+    instance.add(player("Bravo"), OTHER);
+    instance.add(player("abba"), FRIEND);
+
+    instance.setSearchText("B");
+    assertThat(items(), contains("MODERATOR", "FRIEND", "abba", "OTHER", "Bravo", "CHAT_ONLY", "FOE"));
+
+    instance.setSearchText("br");
+    assertThat(items(), contains("MODERATOR", "FRIEND", "OTHER", "Bravo", "CHAT_ONLY", "FOE"));
+
+    instance.add(player("brother"), OTHER);
+    instance.add(player("charlie"), OTHER);
+    assertThat(items(), contains("MODERATOR", "FRIEND", "OTHER", "Bravo", "brother", "CHAT_ONLY", "FOE"));
+
+    instance.setSearchText("a");
+    assertThat(items(), contains("MODERATOR", "FRIEND", "abba", "OTHER", "alpha", "Bravo", "charlie", "CHAT_ONLY", "FOE"));
+
+    instance.setSearchText("");
+    assertThat(items(), contains("MODERATOR", "FRIEND", "abba", "OTHER", "alpha", "Bravo", "brother", "charlie", "CHAT_ONLY", "FOE"));
+  }
+
+  @Test
+  public void testSearchTextAndFilter() throws Exception {
+    Player alpha = player("alpha");
+    instance.add(alpha, OTHER);
+    instance.add(player("alpaca"), OTHER);
+    instance.setFilter(player -> player != alpha);
+
+    instance.setSearchText("alp");
+    assertThat(items(), contains("MODERATOR", "FRIEND", "OTHER", "alpaca", "CHAT_ONLY", "FOE"));
+
+    instance.setSearchText("al");
+    assertThat(items(), contains("MODERATOR", "FRIEND", "OTHER", "alpaca", "CHAT_ONLY", "FOE"));
+  }
+
+  @Test
+  public void testRenameAppliesSearchText() throws Exception {
+    Player player = player("alpha");
+    instance.add(player, OTHER);
+    instance.setSearchText("z");
+
+    player.setUsername("zulu");
+    instance.updateSortOrder(player);
+
+    assertThat(items(), contains("MODERATOR", "FRIEND", "OTHER", "zulu", "CHAT_ONLY", "FOE"));
+  }
+
+  @Test
+  public void testCollapse() throws Exception {
+    instance.add(player("alpha"), FRIEND);
+    instance.add(player("bravo"), OTHER);
+
+    instance.setCollapsed(FRIEND, true);
+    assertThat(instance.isCollapsed(FRIEND), is(true));
+    assertThat(items(), contains("MODERATOR", "FRIEND", "OTHER", "bravo", "CHAT_ONLY", "FOE"));
+
+    instance.add(player("charlie"), FRIEND);
+    assertThat(items(), contains("MODERATOR", "FRIEND", "OTHER", "bravo", "CHAT_ONLY", "FOE"));
+
+    instance.setCollapsed(FRIEND, false);
+    assertThat(items(), contains("MODERATOR", "FRIEND", "alpha", "charlie", "OTHER", "bravo", "CHAT_ONLY", "FOE"));
+  }
+
+  @Test
+  public void testUpdateSortOrder() throws Exception {
+    Player player = player("alpha");
+    instance.add(player, OTHER);
+    instance.add(player("bravo"), OTHER);
+    instance.add(player("charlie"), OTHER);
+
+    player.setUsername("delta");
+    instance.updateSortOrder(player);
+
+    assertThat(items(), contains("MODERATOR", "FRIEND", "OTHER", "bravo", "charlie", "delta", "CHAT_ONLY", "FOE"));
+  }
+}
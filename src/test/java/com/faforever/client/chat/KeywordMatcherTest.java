@@ -0,0 +1,74 @@
+package com.faforever.client.chat;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class KeywordMatcherTest {
+
+  private static List<String> findAll(String text, String... keywords) {
+    KeywordMatcher matcher = KeywordMatcher.compile(Arrays.asList(keywords));
+    KeywordMatcher.Match match = new KeywordMatcher.Match();
+
+    List<String> matches = new ArrayList<>();
+    int position = 0;
+    while (matcher.find(text, position, text.length(), match)) {
+      matches.add(text.substring(match.getStart(), match.getEnd()));
+      position = match.getEnd();
+    }
+    return matches;
+  }
+
+  @Test
+  public void testFindsAllKeywordsIgnoringCase() throws Exception {
+    assertThat(findAll("Hey JUnit, Downlord and junit", "junit", "downlord"), contains("JUnit", "Downlord", "junit"));
+  }
+
+  @Test
+  public void testOnlyMatchesWholeWords() throws Exception {
+    assertThat(findAll("junits junit_ xjunit 1junit", "junit"), is(empty()));
+    assertThat(findAll("(junit) junit! @junit", "junit"), contains("junit", "junit", "junit"));
+  }
+
+  @Test
+  public void testKeywordsWithNonWordCharacters() throws Exception {
+    assertThat(findAll("Join [FAF] now, [FAF]s", "[FAF]"), contains("[FAF]"));
+  }
+
+  @Test
+  public void testPrefersLeftmostThenLongest() throws Exception {
+    assertThat(findAll("the big tournament", "big tournament", "tournament", "big"), contains("big tournament"));
+    assertThat(findAll("abc bcd", "abc bcd", "c b"), contains("abc bcd"));
+  }
+
+  @Test
+  public void testShorterKeywordMatchesIfLongerIsNoWholeWord() throws Exception {
+    assertThat(findAll("xa-b", "a-b", "b"), contains("b"));
+    assertThat(findAll("she shells", "shell", "she", "he"), contains("she"));
+  }
+
+  @Test
+  public void testRegionUsesSurroundingCharactersForBoundaries() throws Exception {
+    KeywordMatcher matcher = KeywordMatcher.compile(Collections.singletonList("junit"));
+    KeywordMatcher.Match match = new KeywordMatcher.Match();
+
+    assertThat(matcher.find("xjunit junit", 1, 6, match), is(false));
+    assertThat(matcher.find("xjunit junit", 7, 12, match), is(true));
+    assertThat(match.getStart(), is(7));
+    assertThat(match.getEnd(), is(12));
+  }
+
+  @Test
+  public void testEmptyKeywords() throws Exception {
+    assertThat(findAll("junit", ""), is(empty()));
+    assertThat(findAll("junit"), is(empty()));
+  }
+}
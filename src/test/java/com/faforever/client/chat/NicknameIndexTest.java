@@ -0,0 +1,63 @@
+package com.faforever.client.chat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+
+public class NicknameIndexTest {
+
+  private NicknameIndex instance;
+
+  @Before
+  public void setUp() throws Exception {
+    instance = new NicknameIndex();
+  }
+
+  @Test
+  public void testCompleteIsCaseInsensitiveAndSorted() throws Exception {
+    instance.add("Junit");
+    instance.add("DummyUser");
+    instance.add("JAyUnit");
+    instance.add("j");
+
+    assertThat(instance.complete("J"), contains("j", "JAyUnit", "Junit"));
+    assertThat(instance.complete("jU"), contains("Junit"));
+    assertThat(instance.complete("x"), empty());
+  }
+
+  @Test
+  public void testEmptyPrefixCompletesAll() throws Exception {
+    instance.add("b");
+    instance.add("a");
+
+    assertThat(instance.complete(""), contains("a", "b"));
+  }
+
+  @Test
+  public void testNamesAreReferenceCounted() throws Exception {
+    instance.add("Junit");
+    instance.add("junit");
+
+    instance.remove("JUNIT");
+    assertThat(instance.complete("j"), contains("Junit"));
+
+    instance.remove("Junit");
+    assertThat(instance.complete("j"), empty());
+  }
+
+  @Test
+  public void testRemoveKeepsLongerAndShorterNames() throws Exception {
+    instance.add("Ju");
+    instance.add("Jun");
+    instance.add("Junit");
+
+    instance.remove("Jun");
+    instance.remove("unknown");
+    instance.remove("Junitor");
+
+    assertThat(instance.complete("j"), contains("Ju", "Junit"));
+  }
+}
@@ -63,13 +63,17 @@ import org.pircbotx.snapshot.UserSnapshot;
 import org.testfx.util.WaitForAsyncUtils;
 
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.net.InetAddress;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -185,6 +189,7 @@ public class PircBotXChatServiceTest {
     instance.threadPoolExecutor = threadPoolExecutor;
     instance.defaultChannelName = DEFAULT_CHANNEL_NAME;
     instance.eventBus = eventBus;
+    instance.nicknameIndex = new NicknameIndex();
 
     botShutdownLatch = new CountDownLatch(1);
 
@@ -271,16 +276,12 @@ public class PircBotXChatServiceTest {
     when(user2.compareTo(user1)).thenReturn(1);
 
     connect();
-    CountDownLatch usersJoinedLatch = new CountDownLatch(2);
-    instance.addUsersListener(channel.getName(), change -> {
-      if (change.wasAdded()) {
-        usersJoinedLatch.countDown();
-      }
-    });
+    CompletableFuture<List<ChatUser>> usersJoinedFuture = new CompletableFuture<>();
+    instance.addUsersListener(channel.getName(), (added, removed) -> usersJoinedFuture.complete(added));
 
     firePircBotXEvent(new UserListEvent(pircBotX, defaultChannel, ImmutableSortedSet.of(user1, user2), true));
 
-    assertTrue(usersJoinedLatch.await(TIMEOUT, TIMEOUT_UNIT));
+    assertThat(usersJoinedFuture.get(TIMEOUT, TIMEOUT_UNIT), containsInAnyOrder(chatUser1, chatUser2));
     assertThat(channel.getUsers(), hasSize(2));
     assertThat(channel.getUser(chatUser1.getUsername()), sameInstance(chatUser1));
     assertThat(channel.getUser(chatUser2.getUsername()), sameInstance(chatUser2));
@@ -351,9 +352,9 @@ public class PircBotXChatServiceTest {
 
   private CompletableFuture<ChatUser> listenForUserJoined(org.pircbotx.Channel channel) {
     CompletableFuture<ChatUser> future = new CompletableFuture<>();
-    instance.addUsersListener(channel.getName(), change -> {
-      if (change.wasAdded()) {
-        future.complete(change.getValueAdded());
+    instance.addUsersListener(channel.getName(), (added, removed) -> {
+      if (!added.isEmpty()) {
+        future.complete(added.get(0));
       }
     });
     return future;
@@ -387,9 +388,9 @@ public class PircBotXChatServiceTest {
 
   private CompletableFuture<ChatUser> listenForUserParted(org.pircbotx.Channel channel) {
     CompletableFuture<ChatUser> future = new CompletableFuture<>();
-    instance.addUsersListener(channel.getName(), change -> {
-      if (change.wasRemoved()) {
-        future.complete(change.getValueRemoved());
+    instance.addUsersListener(channel.getName(), (added, removed) -> {
+      if (!removed.isEmpty()) {
+        future.complete(removed.get(0));
       }
     });
     return future;
@@ -423,9 +424,9 @@ public class PircBotXChatServiceTest {
 
   private CompletableFuture<ChatUser> listenForUserQuit() {
     CompletableFuture<ChatUser> future = new CompletableFuture<>();
-    instance.addUsersListener(DEFAULT_CHANNEL_NAME, change -> {
-      if (change.wasRemoved()) {
-        future.complete(change.getValueRemoved());
+    instance.addUsersListener(DEFAULT_CHANNEL_NAME, (added, removed) -> {
+      if (!removed.isEmpty()) {
+        future.complete(removed.get(0));
       }
     });
     return future;
@@ -690,15 +691,14 @@ public class PircBotXChatServiceTest {
   @Test
   public void testAddChannelUserListListener() throws Exception {
     connect();
-    @SuppressWarnings("unchecked")
-    MapChangeListener<String, ChatUser> listener = mock(MapChangeListener.class);
+    ChannelUsersListener listener = mock(ChannelUsersListener.class);
 
     instance.addUsersListener(DEFAULT_CHANNEL_NAME, listener);
 
     joinChannel(defaultChannel, user1);
     joinChannel(defaultChannel, user2);
 
-    verify(listener, times(2)).onChanged(any());
+    verify(listener, times(2)).onUsersChanged(any(), any());
   }
 
   @Test
@@ -914,4 +914,119 @@ public class PircBotXChatServiceTest {
     ChatUser chatUserModerator = instance.getOrCreateChatUser(moderator.getNick());
     assertTrue(chatUserModerator.moderatorInChannelsProperty().getValue().contains(DEFAULT_CHANNEL_NAME));
   }
+
+  @Test
+  public void testPartedUserIsRemovedUnlessInAnotherChannel() throws Exception {
+    connect();
+    joinChannel(defaultChannel, user1);
+    joinChannel(otherChannel, user1);
+    joinChannel(defaultChannel, user2);
+
+    List<String> removedUsernames = new CopyOnWriteArrayList<>();
+    CountDownLatch user2RemovedLatch = new CountDownLatch(1);
+    instance.addChatUsersByNameListener(change -> {
+      if (change.wasRemoved()) {
+        removedUsernames.add(change.getKey());
+        if ("user2".equals(change.getKey())) {
+          user2RemovedLatch.countDown();
+        }
+      }
+    });
+
+    firePircBotXEvent(createPartEvent(defaultChannel, user1));
+    firePircBotXEvent(createPartEvent(defaultChannel, user2));
+    assertTrue(user2RemovedLatch.await(TIMEOUT, TIMEOUT_UNIT));
+
+    assertThat(removedUsernames, is(Collections.singletonList("user2")));
+    assertThat(instance.nicknameIndex.complete("user"), is(Collections.singletonList("user1")));
+    assertThat(instance.getOrCreateChannel(OTHER_CHANNEL_NAME).getUser("user1"), sameInstance(chatUser1));
+  }
+
+  @Test
+  public void testPartedUserWithOpenPrivateChatIsKeptUntilPrivateChatIsClosed() throws Exception {
+    connect();
+    joinChannel(defaultChannel, user1);
+    joinChannel(defaultChannel, user2);
+    instance.openPrivateChat("user1");
+
+    List<String> removedUsernames = new CopyOnWriteArrayList<>();
+    CountDownLatch user2RemovedLatch = new CountDownLatch(1);
+    instance.addChatUsersByNameListener(change -> {
+      if (change.wasRemoved()) {
+        removedUsernames.add(change.getKey());
+        if ("user2".equals(change.getKey())) {
+          user2RemovedLatch.countDown();
+        }
+      }
+    });
+
+    firePircBotXEvent(createPartEvent(defaultChannel, user1));
+    firePircBotXEvent(createPartEvent(defaultChannel, user2));
+    assertTrue(user2RemovedLatch.await(TIMEOUT, TIMEOUT_UNIT));
+
+    assertThat(removedUsernames, is(Collections.singletonList("user2")));
+    assertThat(instance.getOrCreateChatUser("user1"), sameInstance(chatUser1));
+
+    instance.closePrivateChat("user1");
+
+    assertThat(removedUsernames, is(Arrays.asList("user2", "user1")));
+  }
+
+  /**
+   * Churns through many users joining and leaving a channel, as happens in a busy channel over a long session, and
+   * makes sure that none of them is retained afterwards.
+   */
+  @Test
+  public void testJoinsAndPartsDoNotRetainChatUsers() throws Exception {
+    int userCount = 10_000;
+    int batchSize = 1_000;
+    connect();
+
+    Channel channel = instance.getOrCreateChannel(DEFAULT_CHANNEL_NAME);
+    List<WeakReference<ChatUser>> references = Collections.synchronizedList(new ArrayList<>(userCount));
+    CountDownLatch[] latch = new CountDownLatch[1];
+    instance.addUsersListener(DEFAULT_CHANNEL_NAME, (added, removed) -> {
+      added.forEach(chatUser -> references.add(new WeakReference<>(chatUser)));
+      for (int i = 0; i < added.size() + removed.size(); i++) {
+        latch[0].countDown();
+      }
+    });
+    CountDownLatch[] removedLatch = new CountDownLatch[1];
+    instance.addChatUsersByNameListener(change -> {
+      if (change.wasRemoved()) {
+        removedLatch[0].countDown();
+      }
+    });
+
+    for (int batchStart = 0; batchStart < userCount; batchStart += batchSize) {
+      List<User> users = new ArrayList<>(batchSize);
+      for (int i = batchStart; i < batchStart + batchSize; i++) {
+        User user = mock(User.class);
+        when(user.getNick()).thenReturn("churn" + i);
+        when(user.getChannels()).thenReturn(ImmutableSortedSet.of());
+        users.add(user);
+      }
+
+      latch[0] = new CountDownLatch(batchSize);
+      users.forEach(user -> firePircBotXEvent(createJoinEvent(defaultChannel, user)));
+      assertTrue(latch[0].await(TIMEOUT, TIMEOUT_UNIT));
+
+      latch[0] = new CountDownLatch(batchSize);
+      removedLatch[0] = new CountDownLatch(batchSize);
+      users.forEach(user -> firePircBotXEvent(createPartEvent(defaultChannel, user)));
+      assertTrue(latch[0].await(TIMEOUT, TIMEOUT_UNIT));
+      assertTrue(removedLatch[0].await(TIMEOUT, TIMEOUT_UNIT));
+    }
+
+    assertThat(channel.getUserCount(), is(0));
+    assertThat(instance.nicknameIndex.complete("churn"), empty());
+    assertThat(references, hasSize(userCount));
+
+    List<WeakReference<ChatUser>> allReferences = new ArrayList<>(references);
+    for (int i = 0; i < 20 && allReferences.stream().anyMatch(reference -> reference.get() != null); i++) {
+      System.gc();
+      Thread.sleep(50);
+    }
+    assertThat(allReferences.stream().filter(reference -> reference.get() != null).count(), is(0L));
+  }
 }
@@ -26,12 +26,17 @@ import java.time.Instant;
 import static junit.framework.TestCase.assertTrue;
 import static org.junit.Assert.assertFalse;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 public class PrivateChatTabControllerTest extends AbstractPlainJavaFxTest {
 
+  @Mock
+  private ChatHistoryService chatHistoryService;
   @Mock
   private PreferencesService preferencesService;
   @Mock
@@ -61,6 +66,7 @@ public class PrivateChatTabControllerTest extends AbstractPlainJavaFxTest {
     instance.playerService = playerService;
     instance.notificationService = notificationService;
     instance.i18n = i18n;
+    instance.chatHistoryService = chatHistoryService;
 
     WaitForAsyncUtils.asyncFx(() -> instance.stage = new Stage());
     WaitForAsyncUtils.waitForFxEvents();
@@ -68,6 +74,7 @@ public class PrivateChatTabControllerTest extends AbstractPlainJavaFxTest {
     playerName = "testUser";
     Player player = new Player(playerName);
 
+    when(chatHistoryService.getHistory(anyString())).thenReturn(mock(ChatHistory.class));
     when(preferencesService.getPreferences()).thenReturn(preferences);
     when(preferences.getChat()).thenReturn(chatPrefs);
     when(playerService.getPlayerForUsername(playerName)).thenReturn(player);
@@ -124,6 +131,16 @@ public class PrivateChatTabControllerTest extends AbstractPlainJavaFxTest {
 
   }
 
+  @Test
+  public void testPrivateChatIsOpenWhileTabIsOpen() throws Exception {
+    verify(chatService).openPrivateChat(playerName);
+    verify(chatService, never()).closePrivateChat(anyString());
+
+    WaitForAsyncUtils.waitForAsyncFx(5000, () -> instance.getRoot().getTabPane().getTabs().remove(instance.getRoot()));
+
+    verify(chatService).closePrivateChat(playerName);
+  }
+
   @Test
   public void onPlayerConnectedTest() {
     assertFalse(instance.isUserOffline());
@@ -0,0 +1,244 @@
+package com.faforever.client.chat;
+
+import com.faforever.client.chat.UrlPreviewResolver.Preview;
+import com.faforever.client.preferences.PreferencesService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.when;
+
+public class UrlPreviewResolverImplTest {
+
+  private static final long TIMEOUT = 5000;
+
+  @Rule
+  public TemporaryFolder cacheDirectory = new TemporaryFolder();
+
+  @Mock
+  private PreferencesService preferencesService;
+
+  private UrlPreviewResolverImpl instance;
+  private HttpServer server;
+  private ExecutorService serverExecutor;
+  private Map<String, AtomicInteger> requestCounts;
+  private List<String> requestMethods;
+  private CountDownLatch slowResponseLatch;
+  private CountDownLatch imgurProbesLatch;
+
+  @Before
+  public void setUp() throws Exception {
+    MockitoAnnotations.initMocks(this);
+    when(preferencesService.getCacheDirectory()).thenReturn(cacheDirectory.getRoot().toPath());
+
+    requestCounts = new ConcurrentHashMap<>();
+    requestMethods = new ArrayList<>();
+    slowResponseLatch = new CountDownLatch(1);
+    imgurProbesLatch = new CountDownLatch(2);
+
+    serverExecutor = Executors.newCachedThreadPool();
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.setExecutor(serverExecutor);
+    server.createContext("/image.png", exchange -> respond(exchange, 200, "image/png", 2048));
+    server.createContext("/missing", exchange -> respond(exchange, 404, "text/html", 0));
+    server.createContext("/headNotAllowed.png", exchange -> {
+      if ("HEAD".equals(exchange.getRequestMethod())) {
+        respond(exchange, 405, "text/html", 0);
+      } else {
+        synchronized (requestMethods) {
+          requestMethods.add(exchange.getRequestMethod());
+        }
+        exchange.getResponseHeaders().set("Content-Type", "image/png");
+        exchange.sendResponseHeaders(200, 512);
+        exchange.getResponseBody().write(new byte[512]);
+        exchange.close();
+      }
+    });
+    server.createContext("/movedToHttps", exchange -> {
+      exchange.getResponseHeaders().set("Location", "https://localhost/movedToHttps");
+      respond(exchange, 301, "text/html", 0);
+    });
+    // Only answers once the other image types have been requested, so it fails unless they are probed in parallel
+    server.createContext("/imgur/abc.jpg", exchange -> {
+      try {
+        boolean othersProbed = imgurProbesLatch.await(TIMEOUT, TimeUnit.MILLISECONDS);
+        respond(exchange, othersProbed ? 404 : 500, "text/html", 0);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    server.createContext("/imgur/abc.png", exchange -> {
+      imgurProbesLatch.countDown();
+      respond(exchange, 200, "image/png", 4096);
+    });
+    server.createContext("/imgur/abc.gif", exchange -> {
+      imgurProbesLatch.countDown();
+      respond(exchange, 200, "image/gif", 8192);
+    });
+    server.createContext("/slow", exchange -> {
+      try {
+        slowResponseLatch.await(TIMEOUT, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      respond(exchange, 200, "text/html", 100);
+    });
+    server.start();
+
+    instance = createResolver();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    slowResponseLatch.countDown();
+    instance.preDestroy();
+    server.stop(0);
+    serverExecutor.shutdownNow();
+  }
+
+  private UrlPreviewResolverImpl createResolver() {
+    UrlPreviewResolverImpl resolver = new UrlPreviewResolverImpl();
+    resolver.preferencesService = preferencesService;
+    resolver.imgurImageUrlFormat = url("/imgur/%s.%s");
+    resolver.postConstruct();
+    return resolver;
+  }
+
+  private void respond(HttpExchange exchange, int status, String contentType, long contentLength) throws IOException {
+    requestCounts.computeIfAbsent(exchange.getRequestURI().getPath(), path -> new AtomicInteger()).incrementAndGet();
+    synchronized (requestMethods) {
+      requestMethods.add(exchange.getRequestMethod());
+    }
+    exchange.getResponseHeaders().set("Content-Type", contentType);
+    exchange.getResponseHeaders().set("Content-Length", String.valueOf(contentLength));
+    exchange.sendResponseHeaders(status, -1);
+    exchange.close();
+  }
+
+  private String url(String path) {
+    return "http://localhost:" + server.getAddress().getPort() + path;
+  }
+
+  private int requestCount(String path) {
+    AtomicInteger count = requestCounts.get(path);
+    return count == null ? 0 : count.get();
+  }
+
+  @Test
+  public void testResolvePreviewSendsHeadRequest() throws Exception {
+    Preview preview = instance.resolvePreview(url("/image.png")).get(TIMEOUT, TimeUnit.MILLISECONDS);
+
+    assertThat(preview, notNullValue());
+    assertThat(preview.getUrl(), is(url("/image.png")));
+    assertThat(preview.getContentType(), is("image/png"));
+    assertThat(preview.getContentLength(), is(2048L));
+    assertThat(requestMethods, is(singletonList("HEAD")));
+  }
+
+  @Test
+  public void testResolvePreviewNotFoundReturnsNull() throws Exception {
+    assertThat(instance.resolvePreview(url("/missing")).get(TIMEOUT, TimeUnit.MILLISECONDS), nullValue());
+  }
+
+  @Test
+  public void testResolvePreviewFallsBackToGetIfHeadIsNotAllowed() throws Exception {
+    Preview preview = instance.resolvePreview(url("/headNotAllowed.png")).get(TIMEOUT, TimeUnit.MILLISECONDS);
+
+    assertThat(preview, notNullValue());
+    assertThat(preview.getContentType(), is("image/png"));
+    assertThat(preview.getContentLength(), is(512L));
+    assertThat(requestMethods, contains("HEAD", "GET"));
+  }
+
+  @Test
+  public void testResolvePreviewAcceptsRedirect() throws Exception {
+    Preview preview = instance.resolvePreview(url("/movedToHttps")).get(TIMEOUT, TimeUnit.MILLISECONDS);
+
+    assertThat(preview, notNullValue());
+    assertThat(preview.getUrl(), is(url("/movedToHttps")));
+  }
+
+  @Test
+  public void testResolveImgurPreviewProbesImageTypesInParallel() throws Exception {
+    Preview preview = instance.resolvePreview("https://imgur.com/gallery/abc").get(TIMEOUT * 2, TimeUnit.MILLISECONDS);
+
+    assertThat(preview, notNullValue());
+    assertThat(preview.getUrl(), is(url("/imgur/abc.png")));
+    assertThat(preview.getContentType(), is("image/png"));
+    assertThat(requestCount("/imgur/abc.jpg"), is(1));
+  }
+
+  @Test
+  public void testResolvePreviewUnhandledProtocolReturnsNull() throws Exception {
+    assertThat(instance.resolvePreview("ftp://localhost/file.png").get(TIMEOUT, TimeUnit.MILLISECONDS), nullValue());
+  }
+
+  @Test
+  public void testConcurrentRequestsForSameUrlAreResolvedOnce() throws Exception {
+    CompletableFuture<Preview> first = instance.resolvePreview(url("/slow"));
+    CompletableFuture<Preview> second = instance.resolvePreview(url("/slow"));
+
+    assertThat(second, sameInstance(first));
+
+    slowResponseLatch.countDown();
+    assertThat(first.get(TIMEOUT, TimeUnit.MILLISECONDS), notNullValue());
+    assertThat(requestCount("/slow"), is(1));
+  }
+
+  @Test
+  public void testRequestsAreRejectedWhenResolverIsBusy() throws Exception {
+    List<CompletableFuture<Preview>> futures = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      futures.add(instance.resolvePreview(url("/slow?" + i)));
+    }
+
+    CompletableFuture<Preview> rejected = instance.resolvePreview(url("/slow?rejected"));
+    assertThat(rejected.isDone(), is(true));
+    assertThat(rejected.get(), nullValue());
+
+    slowResponseLatch.countDown();
+    for (CompletableFuture<Preview> future : futures) {
+      assertThat(future.get(TIMEOUT, TimeUnit.MILLISECONDS), notNullValue());
+    }
+  }
+
+  @Test
+  public void testResolvedPreviewIsCachedOnDisk() throws Exception {
+    instance.resolvePreview(url("/image.png")).get(TIMEOUT, TimeUnit.MILLISECONDS);
+    instance.preDestroy();
+
+    instance = createResolver();
+    Preview preview = instance.resolvePreview(url("/image.png")).get(TIMEOUT, TimeUnit.MILLISECONDS);
+
+    assertThat(preview.getContentType(), is("image/png"));
+    assertThat(preview.getContentLength(), is(2048L));
+    assertThat(requestCount("/image.png"), is(1));
+  }
+}
@@ -7,8 +7,6 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 
-import java.util.HashMap;
-
 import static com.faforever.client.game.PlayerStatus.HOSTING;
 import static com.faforever.client.game.PlayerStatus.IDLE;
 import static com.faforever.client.game.PlayerStatus.LOBBYING;
@@ -20,8 +18,6 @@ import static org.mockito.Mockito.when;
 
 public class UserFilterControllerTest extends AbstractPlainJavaFxTest {
 
-  @Mock
-  ChatUserItemController chatUserItemController;
   @Mock
   Player player;
   @Mock
@@ -37,8 +33,6 @@ public class UserFilterControllerTest extends AbstractPlainJavaFxTest {
     instance.channelTabController = channelTabController;
     instance.i18n = i18n;
 
-    when(chatUserItemController.getPlayer()).thenReturn(player);
-
     loadFxml("theme/chat/user_filter.fxml", clazz -> instance);
   }
 
@@ -54,7 +48,7 @@ public class UserFilterControllerTest extends AbstractPlainJavaFxTest {
     when(player.getClan()).thenReturn(testClan);
     instance.clanFilterField.setText(testClan);
 
-    assertTrue(instance.isInClan(chatUserItemController));
+    assertTrue(instance.isInClan(player));
   }
 
   @Test
@@ -64,7 +58,7 @@ public class UserFilterControllerTest extends AbstractPlainJavaFxTest {
     instance.minRatingFilterField.setText("300");
     instance.maxRatingFilterField.setText("700");
 
-    assertTrue(instance.isBoundedByRating(chatUserItemController));
+    assertTrue(instance.isBoundedByRating(player));
   }
 
   @Test
@@ -74,7 +68,7 @@ public class UserFilterControllerTest extends AbstractPlainJavaFxTest {
     instance.minRatingFilterField.setText("600");
     instance.maxRatingFilterField.setText("300");
 
-    assertFalse(instance.isBoundedByRating(chatUserItemController));
+    assertFalse(instance.isBoundedByRating(player));
   }
 
   @Test
@@ -82,7 +76,7 @@ public class UserFilterControllerTest extends AbstractPlainJavaFxTest {
     when(player.getStatus()).thenReturn(PLAYING);
     instance.playerStatusFilter = PLAYING;
 
-    assertTrue(instance.isGameStatusMatch(chatUserItemController));
+    assertTrue(instance.isGameStatusMatch(player));
   }
 
   @Test
@@ -90,17 +84,16 @@ public class UserFilterControllerTest extends AbstractPlainJavaFxTest {
     when(player.getStatus()).thenReturn(HOSTING);
     instance.playerStatusFilter = HOSTING;
 
-    assertTrue(instance.isGameStatusMatch(chatUserItemController));
+    assertTrue(instance.isGameStatusMatch(player));
 
     when(player.getStatus()).thenReturn(LOBBYING);
     instance.playerStatusFilter = LOBBYING;
 
-    assertTrue(instance.isGameStatusMatch(chatUserItemController));
+    assertTrue(instance.isGameStatusMatch(player));
   }
 
   @Test
   public void testOnGameStatusPlaying() throws Exception {
-    when(channelTabController.getUserToChatUserControls()).thenReturn(new HashMap<>());
     when(i18n.get("chat.filter.gameStatus.playing")).thenReturn("playing");
 
     instance.onGameStatusPlaying(null);
@@ -110,7 +103,6 @@ public class UserFilterControllerTest extends AbstractPlainJavaFxTest {
 
   @Test
   public void testOnGameStatusLobby() throws Exception {
-    when(channelTabController.getUserToChatUserControls()).thenReturn(new HashMap<>());
     when(i18n.get("chat.filter.gameStatus.lobby")).thenReturn("lobby");
 
     instance.onGameStatusLobby(null);
@@ -120,7 +112,6 @@ public class UserFilterControllerTest extends AbstractPlainJavaFxTest {
 
   @Test
   public void testOnGameStatusNone() throws Exception {
-    when(channelTabController.getUserToChatUserControls()).thenReturn(new HashMap<>());
     when(i18n.get("chat.filter.gameStatus.none")).thenReturn("none");
 
     instance.onGameStatusNone(null);
@@ -130,7 +121,6 @@ public class UserFilterControllerTest extends AbstractPlainJavaFxTest {
 
   @Test
   public void testOnClearGameStatus() throws Exception {
-    when(channelTabController.getUserToChatUserControls()).thenReturn(new HashMap<>());
     when(i18n.get("chat.filter.gameStatus")).thenReturn("gameStatus");
 
     instance.onClearGameStatus(null);
@@ -10,10 +10,12 @@ import com.faforever.client.i18n.I18n;
 import com.faforever.client.map.MapService;
 import com.faforever.client.mod.ModService;
 import com.faforever.client.preferences.PreferencesService;
+import com.faforever.client.remote.domain.GameState;
 import com.faforever.client.test.AbstractPlainJavaFxTest;
 import com.faforever.client.theme.UiService;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.scene.layout.Pane;
 import org.junit.Before;
 import org.junit.Rule;
@@ -62,6 +64,7 @@ public class CoopControllerTest extends AbstractPlainJavaFxTest {
   private ModService modService;
 
   private SimpleObjectProperty<Game> selectedGameProperty;
+  private ObservableList<Game> openCoopGames;
 
   @Before
   public void setUp() throws Exception {
@@ -78,7 +81,8 @@ public class CoopControllerTest extends AbstractPlainJavaFxTest {
     when(coopService.getLeaderboard(any(), anyInt())).thenReturn(CompletableFuture.completedFuture(emptyList()));
     when(modService.getFeaturedMod(COOP.getString())).thenReturn(CompletableFuture.completedFuture(FeaturedModBeanBuilder.create().defaultValues().technicalName("coop").get()));
     when(preferencesService.getCacheDirectory()).thenReturn(cacheDirectory.getRoot().toPath());
-    when(gameService.getGames()).thenReturn(FXCollections.emptyObservableList());
+    openCoopGames = FXCollections.observableArrayList();
+    when(gameService.getGames(GameState.OPEN, COOP.getString())).thenReturn(openCoopGames);
     when(uiService.loadFxml("theme/play/games_table.fxml")).thenReturn(gamesTableController);
     when(gamesTableController.getRoot()).thenReturn(new Pane());
     selectedGameProperty = new SimpleObjectProperty<>();
@@ -89,6 +93,11 @@ public class CoopControllerTest extends AbstractPlainJavaFxTest {
     verify(webViewConfigurer).configureWebView(instance.descriptionWebView);
   }
 
+  @Test
+  public void testGamesTableShowsOpenCoopGames() throws Exception {
+    verify(gamesTableController).initializeGameTable(openCoopGames);
+  }
+
   @Test
   public void setUpIfNecessary() throws Exception {
     when(coopService.getMissions()).thenReturn(completedFuture(singletonList(new CoopMission())));
@@ -0,0 +1,100 @@
+package com.faforever.client.fx;
+
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableSet;
+import javafx.collections.SetChangeListener;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class SubscriptionsTest {
+
+  private Subscriptions instance;
+
+  @Before
+  public void setUp() throws Exception {
+    instance = new Subscriptions();
+  }
+
+  @Test
+  public void testListenersAreRemovedOnDispose() throws Exception {
+    StringProperty property = new SimpleStringProperty();
+    ObservableSet<String> set = FXCollections.observableSet();
+    List<String> changes = new ArrayList<>();
+
+    instance.addListener(property, (observable, oldValue, newValue) -> changes.add("changed " + newValue));
+    instance.addListener(property, observable -> changes.add("invalidated"));
+    instance.addListener(set, (SetChangeListener<String>) change -> changes.add("added " + change.getElementAdded()));
+    assertThat(instance.size(), is(3));
+
+    property.set("a");
+    set.add("b");
+    assertThat(changes.size(), is(3));
+
+    instance.dispose();
+    property.set("c");
+    set.add("d");
+
+    assertThat(changes.size(), is(3));
+    assertThat(instance.isDisposed(), is(true));
+    assertThat(instance.size(), is(0));
+  }
+
+  @Test
+  public void testListenersAddedAfterDisposeAreIgnored() throws Exception {
+    StringProperty property = new SimpleStringProperty();
+    AtomicInteger changeCount = new AtomicInteger();
+    instance.dispose();
+
+    instance.addListener(property, (observable, oldValue, newValue) -> changeCount.incrementAndGet());
+    property.set("a");
+
+    assertThat(changeCount.get(), is(0));
+    assertThat(instance.size(), is(0));
+  }
+
+  @Test
+  public void testOnDispose() throws Exception {
+    AtomicInteger disposeCount = new AtomicInteger();
+    instance.onDispose(disposeCount::incrementAndGet);
+
+    instance.dispose();
+    instance.dispose();
+    assertThat(disposeCount.get(), is(1));
+
+    instance.onDispose(disposeCount::incrementAndGet);
+    assertThat(disposeCount.get(), is(2));
+  }
+
+  @Test
+  public void testObservableDoesNotRetainListenerOfUnreferencedSubscriptions() throws Exception {
+    StringProperty property = new SimpleStringProperty();
+    WeakReference<Object> ownerReference = subscribeUnreferencedOwner(property);
+
+    for (int i = 0; i < 20 && ownerReference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(50);
+    }
+    assertThat(ownerReference.get(), is(nullValue()));
+  }
+
+  /**
+   * Adds a listener that references a new object to the specified property, using subscriptions that are not
+   * referenced afterwards.
+   */
+  private static WeakReference<Object> subscribeUnreferencedOwner(StringProperty property) {
+    Object owner = new Object();
+    new Subscriptions().addListener(property, (observable, oldValue, newValue) -> owner.hashCode());
+    return new WeakReference<>(owner);
+  }
+}
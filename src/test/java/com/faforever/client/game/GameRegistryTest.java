@@ -0,0 +1,85 @@
+package com.faforever.client.game;
+
+import com.faforever.client.remote.domain.GameState;
+import javafx.collections.ObservableList;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class GameRegistryTest {
+
+  private GameRegistry instance;
+
+  @Before
+  public void setUp() throws Exception {
+    instance = new GameRegistry();
+  }
+
+  @Test
+  public void testAddAndGet() throws Exception {
+    Game game = new Game(GameInfoMessageBuilder.create(1).defaultValues().addTeamMember("1", "Alice").get());
+
+    instance.add(game);
+
+    assertThat(instance.get(1), sameInstance(game));
+    assertThat(instance.getGames(), contains(game));
+    assertThat(instance.isPlayerInGame("Alice", game), is(true));
+    assertThat(instance.getByStateAndFeaturedMod(GameState.OPEN, "faf"), contains(game));
+  }
+
+  @Test
+  public void testUpdateReindexes() throws Exception {
+    Game game = new Game(GameInfoMessageBuilder.create(1).defaultValues().addTeamMember("1", "Alice").get());
+    instance.add(game);
+    ObservableList<Game> openFafGames = instance.getByStateAndFeaturedMod(GameState.OPEN, "faf");
+    ObservableList<Game> playingCoopGames = instance.getByStateAndFeaturedMod(GameState.PLAYING, "coop");
+
+    instance.update(game, GameInfoMessageBuilder.create(1).defaultValues()
+        .state(GameState.PLAYING)
+        .featuredMod("coop")
+        .addTeamMember("1", "Bob")
+        .get());
+
+    assertThat(instance.isPlayerInGame("Alice", game), is(false));
+    assertThat(instance.isPlayerInGame("Bob", game), is(true));
+    assertThat(openFafGames, empty());
+    assertThat(playingCoopGames, contains(game));
+    assertThat(instance.getByStateAndFeaturedMod(GameState.PLAYING, "coop"), sameInstance(playingCoopGames));
+    assertThat(instance.getByStateAndFeaturedMod(GameState.OPEN, "coop"), empty());
+  }
+
+  @Test
+  public void testPlayerIndexKeepsOtherGames() throws Exception {
+    Game first = new Game(GameInfoMessageBuilder.create(1).defaultValues().addTeamMember("1", "Alice").get());
+    Game second = new Game(GameInfoMessageBuilder.create(2).defaultValues().addTeamMember("1", "Alice").get());
+    instance.add(second);
+    instance.add(first);
+    instance.update(first, GameInfoMessageBuilder.create(1).defaultValues().addTeamMember("1", "Alice").get());
+
+    instance.remove(1);
+
+    assertThat(instance.isPlayerInGame("Alice", first), is(false));
+    assertThat(instance.isPlayerInGame("Alice", second), is(true));
+  }
+
+  @Test
+  public void testRemove() throws Exception {
+    Game game = new Game(GameInfoMessageBuilder.create(1).defaultValues().addTeamMember("1", "Alice").get());
+    instance.add(game);
+
+    assertThat(instance.remove(1), sameInstance(game));
+    assertThat(instance.remove(1), nullValue());
+
+    assertThat(instance.get(1), nullValue());
+    assertThat(instance.getGames(), empty());
+    assertThat(instance.isPlayerInGame("Alice", game), is(false));
+    assertThat(instance.getByStateAndFeaturedMod(GameState.OPEN, "faf"), empty());
+    assertThat(instance.uids().length, is(0));
+  }
+}
@@ -7,6 +7,7 @@ import com.faforever.client.map.MapService;
 import com.faforever.client.mod.FeaturedModBean;
 import com.faforever.client.mod.ModService;
 import com.faforever.client.patch.GameUpdater;
+import com.faforever.client.net.ConnectionState;
 import com.faforever.client.player.PlayerBuilder;
 import com.faforever.client.player.PlayerService;
 import com.faforever.client.preferences.ForgedAlliancePrefs;
@@ -20,6 +21,7 @@ import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.collections.ObservableMap;
 import org.junit.Before;
 import org.junit.Test;
@@ -52,13 +54,16 @@ import static com.faforever.client.remote.domain.GameState.PLAYING;
 import static com.natpryce.hamcrest.reflection.HasAnnotationMatcher.hasAnnotation;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.collection.IsEmptyCollection.empty;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
@@ -115,6 +120,7 @@ public class GameServiceImplTest {
 
   @Captor
   private ArgumentCaptor<Consumer<GameInfoMessage>> gameInfoMessageListenerCaptor;
+  private SimpleObjectProperty<ConnectionState> connectionState;
 
   @Before
   public void setUp() throws Exception {
@@ -135,7 +141,8 @@ public class GameServiceImplTest {
     when(preferencesService.getPreferences()).thenReturn(preferences);
     when(preferences.getForgedAlliance()).thenReturn(forgedAlliancePrefs);
     when(forgedAlliancePrefs.getPort()).thenReturn(GAME_PORT);
-    when(fafService.connectionStateProperty()).thenReturn(new SimpleObjectProperty<>());
+    connectionState = new SimpleObjectProperty<>();
+    when(fafService.connectionStateProperty()).thenReturn(connectionState);
     when(replayService.startReplayServer(anyInt())).thenReturn(CompletableFuture.completedFuture(null));
     when(iceAdapter.start()).thenReturn(CompletableFuture.completedFuture(GPG_PORT));
     when(fafService.getFeaturedMods()).thenReturn(completedFuture(asList(
@@ -265,6 +272,7 @@ public class GameServiceImplTest {
     ));
 
     gameInfoMessageListenerCaptor.getValue().accept(multiGameInfoMessage);
+    WaitForAsyncUtils.waitForFxEvents();
 
     assertThat(instance.getGames(), hasSize(2));
   }
@@ -278,6 +286,7 @@ public class GameServiceImplTest {
 
     GameInfoMessage gameInfoMessage2 = GameInfoMessageBuilder.create(2).defaultValues().title("Game 2").get();
     gameInfoMessageListenerCaptor.getValue().accept(gameInfoMessage2);
+    WaitForAsyncUtils.waitForFxEvents();
 
     Game game1 = new Game(gameInfoMessage1);
     Game game2 = new Game(gameInfoMessage2);
@@ -285,6 +294,23 @@ public class GameServiceImplTest {
     assertThat(instance.getGames(), containsInAnyOrder(game1, game2));
   }
 
+  @Test
+  public void testGetGamesByStateAndFeaturedMod() {
+    ObservableList<Game> openCoopGames = instance.getGames(OPEN, "coop");
+
+    gameInfoMessageListenerCaptor.getValue().accept(GameInfoMessageBuilder.create(1).defaultValues().featuredMod("coop").get());
+    gameInfoMessageListenerCaptor.getValue().accept(GameInfoMessageBuilder.create(2).defaultValues().get());
+    WaitForAsyncUtils.waitForFxEvents();
+
+    assertThat(openCoopGames, contains(instance.getByUid(1)));
+
+    gameInfoMessageListenerCaptor.getValue().accept(GameInfoMessageBuilder.create(1).defaultValues().featuredMod("coop").state(PLAYING).get());
+    WaitForAsyncUtils.waitForFxEvents();
+
+    assertThat(openCoopGames, empty());
+    assertThat(instance.getGames(PLAYING, "coop"), contains(instance.getByUid(1)));
+  }
+
   @Test
   public void testOnGameInfoMessageSetsCurrentGameIfUserIsInAndStatusOpen() throws Exception {
     assertThat(instance.getCurrentGame(), nullValue());
@@ -295,6 +321,7 @@ public class GameServiceImplTest {
         .state(OPEN)
         .addTeamMember("1", "PlayerName").get();
     gameInfoMessageListenerCaptor.getValue().accept(gameInfoMessage);
+    WaitForAsyncUtils.waitForFxEvents();
 
     assertThat(instance.getCurrentGame(), notNullValue());
     assertThat(instance.getCurrentGame().getId(), is(1234));
@@ -310,6 +337,7 @@ public class GameServiceImplTest {
         .state(PLAYING)
         .addTeamMember("1", "PlayerName").get();
     gameInfoMessageListenerCaptor.getValue().accept(gameInfoMessage);
+    WaitForAsyncUtils.waitForFxEvents();
 
     assertThat(instance.getCurrentGame(), nullValue());
   }
@@ -322,6 +350,7 @@ public class GameServiceImplTest {
 
     GameInfoMessage gameInfoMessage = GameInfoMessageBuilder.create(1234).defaultValues().addTeamMember("1", "Other").get();
     gameInfoMessageListenerCaptor.getValue().accept(gameInfoMessage);
+    WaitForAsyncUtils.waitForFxEvents();
 
     assertThat(instance.getCurrentGame(), nullValue());
   }
@@ -332,6 +361,7 @@ public class GameServiceImplTest {
 
     GameInfoMessage gameInfoMessage = GameInfoMessageBuilder.create(1).defaultValues().title("Game 1").state(PLAYING).get();
     gameInfoMessageListenerCaptor.getValue().accept(gameInfoMessage);
+    WaitForAsyncUtils.waitForFxEvents();
 
     CountDownLatch changeLatch = new CountDownLatch(1);
     Game game = instance.getGames().iterator().next();
@@ -346,6 +376,85 @@ public class GameServiceImplTest {
     assertEquals(gameInfoMessage.getTitle(), game.getTitle());
   }
 
+  @Test
+  public void testOnGameInfoMergesUpdatesOfSameGame() {
+    assertThat(instance.getGames(), empty());
+
+    when(playerService.getCurrentPlayer()).thenReturn(PlayerBuilder.create("PlayerName").get());
+
+    gameInfoMessageListenerCaptor.getValue().accept(GameInfoMessageBuilder.create(1).defaultValues().title("Game 1").get());
+    gameInfoMessageListenerCaptor.getValue().accept(GameInfoMessageBuilder.create(1).defaultValues().title("Game 1 modified").get());
+    WaitForAsyncUtils.waitForFxEvents();
+
+    assertThat(instance.getGames(), hasSize(1));
+    assertThat(instance.getGames().get(0).getTitle(), is("Game 1 modified"));
+  }
+
+  @Test
+  public void testReconnectKeepsConfirmedGamesAndRemovesStaleGames() {
+    GameInfoMessage multiGameInfoMessage = new GameInfoMessage();
+    multiGameInfoMessage.setGames(asList(
+        GameInfoMessageBuilder.create(1).defaultValues().get(),
+        GameInfoMessageBuilder.create(2).defaultValues().get()
+    ));
+    gameInfoMessageListenerCaptor.getValue().accept(multiGameInfoMessage);
+    WaitForAsyncUtils.waitForFxEvents();
+    Game game2 = instance.getByUid(2);
+
+    connectionState.set(ConnectionState.DISCONNECTED);
+    assertThat(instance.getGames(), hasSize(2));
+
+    multiGameInfoMessage.setGames(asList(
+        GameInfoMessageBuilder.create(2).defaultValues().title("Game 2 modified").get(),
+        GameInfoMessageBuilder.create(3).defaultValues().get()
+    ));
+    gameInfoMessageListenerCaptor.getValue().accept(multiGameInfoMessage);
+    WaitForAsyncUtils.waitForFxEvents();
+
+    assertThat(instance.getGames(), hasSize(2));
+    assertThat(instance.getByUid(1), nullValue());
+    assertThat(instance.getByUid(2), sameInstance(game2));
+    assertThat(game2.getTitle(), is("Game 2 modified"));
+    assertThat(instance.getByUid(3), notNullValue());
+  }
+
+  @Test
+  public void testStaleGamesAreRemovedAfterReconnectWithoutGameList() {
+    gameInfoMessageListenerCaptor.getValue().accept(GameInfoMessageBuilder.create(1).defaultValues().get());
+    WaitForAsyncUtils.waitForFxEvents();
+    ArgumentCaptor<Runnable> sweepCaptor = ArgumentCaptor.forClass(Runnable.class);
+    when(scheduledExecutorService.schedule(sweepCaptor.capture(), anyLong(), any())).thenReturn(mock(ScheduledFuture.class));
+
+    connectionState.set(ConnectionState.DISCONNECTED);
+    connectionState.set(ConnectionState.CONNECTED);
+    gameInfoMessageListenerCaptor.getValue().accept(GameInfoMessageBuilder.create(2).defaultValues().get());
+    WaitForAsyncUtils.waitForFxEvents();
+    assertThat(instance.getGames(), hasSize(2));
+
+    sweepCaptor.getValue().run();
+    WaitForAsyncUtils.waitForFxEvents();
+
+    assertThat(instance.getByUid(1), nullValue());
+    assertThat(instance.getByUid(2), notNullValue());
+  }
+
+  @Test
+  public void testStaleGameSweepResetsCurrentGame() {
+    GameInfoMessage multiGameInfoMessage = new GameInfoMessage();
+    multiGameInfoMessage.setGames(singletonList(GameInfoMessageBuilder.create(1).defaultValues().get()));
+    gameInfoMessageListenerCaptor.getValue().accept(multiGameInfoMessage);
+    WaitForAsyncUtils.waitForFxEvents();
+    instance.currentGame.set(instance.getByUid(1));
+
+    connectionState.set(ConnectionState.DISCONNECTED);
+    multiGameInfoMessage.setGames(singletonList(GameInfoMessageBuilder.create(2).defaultValues().get()));
+    gameInfoMessageListenerCaptor.getValue().accept(multiGameInfoMessage);
+    WaitForAsyncUtils.waitForFxEvents();
+
+    assertThat(instance.getByUid(1), nullValue());
+    assertThat(instance.getCurrentGame(), nullValue());
+  }
+
   @Test
   public void testOnGameInfoRemove() {
     assertThat(instance.getGames(), empty());
@@ -1,8 +1,17 @@
 package com.faforever.client.game;
 
+import com.faforever.client.remote.domain.GameInfoMessage;
+import javafx.collections.MapChangeListener;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.*;
 
 public class GameTest {
@@ -54,4 +63,38 @@ public class GameTest {
     assertNotEquals(one.hashCode(), two.hashCode());
   }
 
+  @Test
+  public void testUpdateFromGameInfoOnlyChangesDifferentTeams() {
+    Game game = new Game(GameInfoMessageBuilder.create(1).defaultValues()
+        .addTeamMember("1", "Alice")
+        .addTeamMember("2", "Bob")
+        .addTeamMember("3", "Eve")
+        .get());
+
+    List<String> changedTeams = new ArrayList<>();
+    game.getTeams().addListener((MapChangeListener<String, List<String>>) change -> changedTeams.add(change.getKey()));
+
+    GameInfoMessage gameInfoMessage = GameInfoMessageBuilder.create(1).defaultValues()
+        .addTeamMember("1", "Alice")
+        .addTeamMember("2", "Bob")
+        .addTeamMember("2", "Carol")
+        .get();
+    game.updateFromGameInfo(gameInfoMessage);
+
+    assertThat(changedTeams, containsInAnyOrder("2", "3"));
+    assertThat(game.getTeams(), not(hasKey("3")));
+  }
+
+  @Test
+  public void testUpdateFromGameInfoWithUnchangedTeams() {
+    GameInfoMessage gameInfoMessage = GameInfoMessageBuilder.create(1).defaultValues().addTeamMember("1", "Alice").get();
+    Game game = new Game(gameInfoMessage);
+
+    List<String> changedTeams = new ArrayList<>();
+    game.getTeams().addListener((MapChangeListener<String, List<String>>) change -> changedTeams.add(change.getKey()));
+
+    game.updateFromGameInfo(GameInfoMessageBuilder.create(1).defaultValues().addTeamMember("1", "Alice").get());
+
+    assertThat(changedTeams, empty());
+  }
 }
@@ -0,0 +1,51 @@
+package com.faforever.client.net;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+public class ExponentialBackoffTest {
+
+  private ExponentialBackoff instance;
+
+  @Before
+  public void setUp() throws Exception {
+    instance = new ExponentialBackoff(Duration.ofSeconds(1), Duration.ofSeconds(10), new Random(42));
+  }
+
+  @Test
+  public void testDelayDoublesUpToMaximum() throws Exception {
+    assertThat(instance.nextDelay().toMillis(), allOf(greaterThanOrEqualTo(500L), lessThanOrEqualTo(1000L)));
+    assertThat(instance.nextDelay().toMillis(), allOf(greaterThanOrEqualTo(1000L), lessThanOrEqualTo(2000L)));
+    assertThat(instance.nextDelay().toMillis(), allOf(greaterThanOrEqualTo(2000L), lessThanOrEqualTo(4000L)));
+    assertThat(instance.nextDelay().toMillis(), allOf(greaterThanOrEqualTo(4000L), lessThanOrEqualTo(8000L)));
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(instance.nextDelay().toMillis(), allOf(greaterThanOrEqualTo(5000L), lessThanOrEqualTo(10000L)));
+    }
+  }
+
+  @Test
+  public void testReset() throws Exception {
+    instance.nextDelay();
+    instance.nextDelay();
+    instance.reset();
+
+    assertThat(instance.nextDelay().toMillis(), allOf(greaterThanOrEqualTo(500L), lessThanOrEqualTo(1000L)));
+  }
+
+  @Test
+  public void testZeroDelay() throws Exception {
+    instance = new ExponentialBackoff(Duration.ZERO, Duration.ZERO);
+
+    assertThat(instance.nextDelay(), is(Duration.ZERO));
+  }
+}
@@ -0,0 +1,79 @@
+package com.faforever.client.player;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class PlayerGameIndexTest {
+
+  private PlayerGameIndex instance;
+  private List<String> joined;
+  private List<String> left;
+
+  @Before
+  public void setUp() throws Exception {
+    instance = new PlayerGameIndex();
+    joined = new ArrayList<>();
+    left = new ArrayList<>();
+  }
+
+  @Test
+  public void testOnlyChangedPlayersAreReported() throws Exception {
+    instance.setPlayers(1, Arrays.asList("Alice", "Bob"), joined::add, left::add);
+    assertThat(joined, containsInAnyOrder("Alice", "Bob"));
+
+    joined.clear();
+    instance.setPlayers(1, Arrays.asList("Bob", "Carol"), joined::add, left::add);
+
+    assertThat(joined, contains("Carol"));
+    assertThat(left, contains("Alice"));
+    assertThat(instance.getGameUid("Alice"), nullValue());
+    assertThat(instance.getGameUid("Carol"), is(1));
+    assertThat(instance.getPlayerNames(1), containsInAnyOrder("Bob", "Carol"));
+  }
+
+  @Test
+  public void testUnchangedPlayersAreNotReported() throws Exception {
+    instance.setPlayers(1, Arrays.asList("Alice", "Bob"), joined::add, left::add);
+    joined.clear();
+
+    instance.setPlayers(1, Arrays.asList("Bob", "Alice"), joined::add, left::add);
+
+    assertThat(joined, empty());
+    assertThat(left, empty());
+  }
+
+  @Test
+  public void testPlayerMovedToOtherGameBeforeLeavingPreviousOne() throws Exception {
+    instance.setPlayers(1, Collections.singletonList("Alice"), joined::add, left::add);
+    instance.setPlayers(2, Collections.singletonList("Alice"), joined::add, left::add);
+
+    instance.setPlayers(1, Collections.emptyList(), joined::add, left::add);
+
+    assertThat(joined, contains("Alice", "Alice"));
+    assertThat(left, empty());
+    assertThat(instance.getGameUid("Alice"), is(2));
+  }
+
+  @Test
+  public void testRemoveGame() throws Exception {
+    instance.setPlayers(1, Arrays.asList("Alice", "Bob"), joined::add, left::add);
+
+    instance.removeGame(1, left::add);
+
+    assertThat(left, containsInAnyOrder("Alice", "Bob"));
+    assertThat(instance.getGameUid("Bob"), nullValue());
+    assertThat(instance.getPlayerNames(1), empty());
+  }
+}
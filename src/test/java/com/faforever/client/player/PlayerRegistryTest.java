@@ -0,0 +1,63 @@
+package com.faforever.client.player;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class PlayerRegistryTest {
+
+  private PlayerRegistry instance;
+  private List<Player> addedPlayers;
+
+  @Before
+  public void setUp() throws Exception {
+    addedPlayers = new ArrayList<>();
+    instance = new PlayerRegistry(addedPlayers::add);
+  }
+
+  @Test
+  public void testGetIsCaseSensitive() throws Exception {
+    Player player = instance.getOrCreate("Junit");
+
+    assertThat(instance.get("Junit"), sameInstance(player));
+    assertThat(instance.getOrCreate("Junit"), sameInstance(player));
+    assertThat(instance.get("jUNIT"), nullValue());
+    assertThat(instance.get((String) null), nullValue());
+    assertThat(addedPlayers, contains(player));
+
+    Player otherPlayer = instance.getOrCreate("JUNIT");
+    assertThat(otherPlayer, not(sameInstance(player)));
+    assertThat(otherPlayer.getUsername(), is("JUNIT"));
+  }
+
+  @Test
+  public void testPlayersAreIndexedById() throws Exception {
+    Player player = instance.getOrCreate("junit");
+    assertThat(instance.get(0), nullValue());
+
+    player.setId(5);
+    assertThat(instance.get(5), sameInstance(player));
+
+    player.setId(6);
+    assertThat(instance.get(5), nullValue());
+    assertThat(instance.get(6), sameInstance(player));
+  }
+
+  @Test
+  public void testGetUsernames() throws Exception {
+    instance.getOrCreate("Alice");
+    instance.getOrCreate("bob");
+
+    assertThat(instance.getUsernames(), containsInAnyOrder("Alice", "bob"));
+  }
+}
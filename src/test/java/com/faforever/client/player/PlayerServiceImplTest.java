@@ -1,6 +1,10 @@
 package com.faforever.client.player;
 
+import com.faforever.client.chat.NicknameIndex;
+import com.faforever.client.game.Game;
+import com.faforever.client.game.GameBuilder;
 import com.faforever.client.game.GameService;
+import com.faforever.client.player.event.FriendJoinedGameEvent;
 import com.faforever.client.remote.FafService;
 import com.faforever.client.remote.domain.PlayersMessage;
 import com.faforever.client.remote.domain.SocialMessage;
@@ -8,25 +12,36 @@ import com.faforever.client.user.UserService;
 import com.faforever.client.user.event.LoginSuccessEvent;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
+import javafx.application.Platform;
+import javafx.beans.Observable;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.util.ReflectionUtils;
+import org.testfx.util.WaitForAsyncUtils;
 
+import java.util.Arrays;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.function.Consumer;
 
 import static com.faforever.client.chat.SocialStatus.FOE;
 import static com.faforever.client.chat.SocialStatus.FRIEND;
+import static com.faforever.client.chat.SocialStatus.OTHER;
+import static com.github.nocatch.NoCatch.noCatch;
 import static com.natpryce.hamcrest.reflection.HasAnnotationMatcher.hasAnnotation;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -35,6 +50,7 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -60,6 +76,7 @@ public class PlayerServiceImplTest {
     instance.fafService = fafService;
     instance.userService = userService;
     instance.gameService = gameService;
+    instance.nicknameIndex = new NicknameIndex();
 
     when(fafService.connectionStateProperty()).thenReturn(new SimpleObjectProperty<>());
     when(gameService.getGames()).thenReturn(FXCollections.observableList(emptyList()));
@@ -204,6 +221,106 @@ public class PlayerServiceImplTest {
     assertFalse("Property 'friend' was not set to false", player.getSocialStatus() == FRIEND);
   }
 
+  @Test
+  public void testPlayersJoiningAndLeavingGames() throws Exception {
+    ObservableList<Game> games = FXCollections.observableArrayList(game -> new Observable[]{game.getTeams()});
+    when(gameService.getGames()).thenReturn(games);
+    instance.postConstruct();
+
+    Player friend = instance.createAndGetPlayerForUsername("friend");
+    friend.setSocialStatus(FRIEND);
+    Player other = instance.createAndGetPlayerForUsername("other");
+
+    Game game = GameBuilder.create().defaultValues().get();
+    game.setTeams(FXCollections.observableHashMap());
+    game.getTeams().put("1", singletonList("friend"));
+    games.add(game);
+
+    assertThat(friend.getGame(), is(game));
+    verify(eventBus).post(any(FriendJoinedGameEvent.class));
+
+    game.getTeams().put("1", Arrays.asList("friend", "other"));
+
+    assertThat(other.getGame(), is(game));
+    verify(eventBus, times(1)).post(any(FriendJoinedGameEvent.class));
+
+    game.getTeams().put("1", singletonList("other"));
+
+    assertThat(friend.getGame(), nullValue());
+    assertThat(other.getGame(), is(game));
+
+    games.remove(game);
+
+    assertThat(other.getGame(), nullValue());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testPlayerJoinsGameReceivedBeforePlayerInfo() throws Exception {
+    ObservableList<Game> games = FXCollections.observableArrayList(game -> new Observable[]{game.getTeams()});
+    when(gameService.getGames()).thenReturn(games);
+    instance.postConstruct();
+
+    Game game = GameBuilder.create().defaultValues().get();
+    game.setTeams(FXCollections.observableHashMap());
+    game.getTeams().put("1", singletonList("late"));
+    games.add(game);
+    when(gameService.getByUid(game.getId())).thenReturn(game);
+
+    ArgumentCaptor<Consumer<PlayersMessage>> captor = ArgumentCaptor.forClass(Consumer.class);
+    verify(fafService, times(2)).addOnMessageListener(eq(PlayersMessage.class), captor.capture());
+    captor.getValue().accept(playersMessage(playerInfo(2, "late", "DE")));
+    WaitForAsyncUtils.waitForFxEvents();
+
+    assertThat(instance.getPlayerForUsername("late").getGame(), is(game));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testPlayerInfosAreAppliedInBatch() throws Exception {
+    when(userService.getUsername()).thenReturn("junit");
+    instance.onLoginSuccess(new LoginSuccessEvent("junit", "", 1));
+    Player existing = instance.createAndGetPlayerForUsername("existing");
+
+    ArgumentCaptor<Consumer<PlayersMessage>> captor = ArgumentCaptor.forClass(Consumer.class);
+    verify(fafService).addOnMessageListener(eq(PlayersMessage.class), captor.capture());
+
+    // Keeps the FX application thread busy until all messages have been received
+    CountDownLatch fxThreadBlocked = new CountDownLatch(1);
+    Platform.runLater(() -> noCatch(() -> fxThreadBlocked.await()));
+
+    captor.getValue().accept(playersMessage(playerInfo(2, "existing", "DE"), playerInfo(3, "new", "CH")));
+    captor.getValue().accept(playersMessage(playerInfo(2, "existing", "US")));
+
+    assertThat(existing.getCountry(), nullValue());
+    assertThat(instance.getPlayerForUsername("new"), nullValue());
+
+    fxThreadBlocked.countDown();
+    WaitForAsyncUtils.waitForFxEvents();
+
+    assertThat(existing.getCountry(), is("US"));
+    assertThat(existing.getId(), is(2));
+    Player newPlayer = instance.getPlayerForUsername("new");
+    assertThat(newPlayer.getCountry(), is("CH"));
+    assertThat(newPlayer.getSocialStatus(), is(OTHER));
+    assertThat(newPlayer.isChatOnly(), is(false));
+  }
+
+  private static PlayersMessage playersMessage(com.faforever.client.remote.domain.Player... players) {
+    PlayersMessage playersMessage = new PlayersMessage();
+    playersMessage.setPlayers(Arrays.asList(players));
+    return playersMessage;
+  }
+
+  private static com.faforever.client.remote.domain.Player playerInfo(int id, String login, String country) {
+    com.faforever.client.remote.domain.Player player = new com.faforever.client.remote.domain.Player();
+    player.setId(id);
+    player.setLogin(login);
+    player.setCountry(country);
+    player.setNumberOfGames(0);
+    return player;
+  }
+
   @Test
   public void testGetCurrentPlayer() throws Exception {
     LoginSuccessEvent event = new LoginSuccessEvent("junit", "", 1);
@@ -0,0 +1,117 @@
+package com.faforever.client.remote;
+
+import com.faforever.client.remote.io.LobbyTrafficReader;
+import com.faforever.client.remote.io.QDataWriter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class AbstractServerAccessorTest {
+
+  private static final long TIMEOUT = 5000;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private AbstractServerAccessor instance;
+  private List<String> messages;
+  private ServerSocketChannel serverSocketChannel;
+  private SocketChannel clientChannel;
+  private SocketChannel serverSideChannel;
+
+  @Before
+  public void setUp() throws Exception {
+    messages = new CopyOnWriteArrayList<>();
+    instance = new AbstractServerAccessor() {
+      @Override
+      protected void onServerMessage(String message) {
+        messages.add(message);
+      }
+    };
+
+    serverSocketChannel = ServerSocketChannel.open();
+    serverSocketChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    clientChannel = SocketChannel.open(serverSocketChannel.getLocalAddress());
+    serverSideChannel = serverSocketChannel.accept();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    clientChannel.close();
+    serverSideChannel.close();
+    serverSocketChannel.close();
+  }
+
+  private static byte[] frame(String message) throws IOException {
+    ByteArrayOutputStream qString = new ByteArrayOutputStream();
+    new QDataWriter(qString).append(message);
+
+    ByteArrayOutputStream frame = new ByteArrayOutputStream();
+    new QDataWriter(frame).appendWithSize(qString.toByteArray());
+    return frame.toByteArray();
+  }
+
+  @Test
+  public void testNullMessageIsRecordedAndSkipped() throws Exception {
+    Path captureFile = temporaryFolder.getRoot().toPath().resolve("lobby.capture");
+    instance.startTrafficRecording(captureFile);
+
+    serverSideChannel.write(ByteBuffer.wrap(frame(null)));
+    serverSideChannel.write(ByteBuffer.wrap(frame("PING")));
+    serverSideChannel.close();
+
+    try {
+      instance.blockingReadServer(clientChannel.socket());
+    } catch (EOFException e) {
+      // Expected since the server closed the connection
+    }
+    instance.close();
+
+    assertThat(messages, contains("PING"));
+    try (LobbyTrafficReader reader = new LobbyTrafficReader(captureFile)) {
+      assertThat(reader.next().getBytes(), is(frame(null)));
+      assertThat(reader.next().getBytes(), is(frame("PING")));
+      assertThat(reader.next(), nullValue());
+    }
+  }
+
+  @Test
+  public void testCloseWhileSelectingStopsReaderCleanly() throws Exception {
+    CompletableFuture<Void> readerResult = CompletableFuture.runAsync(() -> {
+      try {
+        instance.nonBlockingReadServer(clientChannel);
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    });
+
+    // Give the reader time to block in select()
+    Thread.sleep(200);
+    instance.close();
+
+    readerResult.get(TIMEOUT, TimeUnit.MILLISECONDS);
+    assertThat(messages, empty());
+  }
+}
@@ -31,6 +31,7 @@ import com.faforever.client.remote.gson.MessageTargetTypeAdapter;
 import com.faforever.client.remote.gson.RatingRangeTypeAdapter;
 import com.faforever.client.remote.gson.ServerMessageTypeTypeAdapter;
 import com.faforever.client.remote.io.QDataInputStream;
+import com.faforever.client.remote.metrics.LobbyMetrics;
 import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -108,6 +109,7 @@ public class FafServerAccessorImplTest {
   private I18n i18n;
 
   private FafServerAccessorImpl instance;
+  private LobbyMetrics lobbyMetrics;
   private ServerSocket fafLobbyServerSocket;
   private Socket localToServerSocket;
   private ServerWriter serverToClientWriter;
@@ -122,7 +124,9 @@ public class FafServerAccessorImplTest {
 
     startFakeFafLobbyServer();
 
-    instance = new FafServerAccessorImpl(preferencesService, uidService, notificationService, i18n, LOOPBACK_ADDRESS.getHostAddress(), fafLobbyServerSocket.getLocalPort());
+    lobbyMetrics = new LobbyMetrics();
+    lobbyMetrics.setEnabled(true);
+    instance = new FafServerAccessorImpl(preferencesService, uidService, notificationService, i18n, lobbyMetrics, LOOPBACK_ADDRESS.getHostAddress(), fafLobbyServerSocket.getLocalPort());
 
     LoginPrefs loginPrefs = new LoginPrefs();
     loginPrefs.setUsername("junit");
@@ -0,0 +1,82 @@
+package com.faforever.client.remote;
+
+import com.faforever.client.remote.domain.FafServerMessage;
+import com.faforever.client.remote.domain.GameInfoMessage;
+import com.faforever.client.remote.domain.NoticeMessage;
+import com.faforever.client.remote.domain.ServerMessage;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class ServerMessageListenerRegistryTest {
+
+  private ServerMessageListenerRegistry instance;
+  private List<String> calls;
+
+  @Before
+  public void setUp() throws Exception {
+    instance = new ServerMessageListenerRegistry();
+    calls = new ArrayList<>();
+  }
+
+  @Test
+  public void testDispatchToClassSuperClassAndInterfaceListeners() throws Exception {
+    instance.addListener(GameInfoMessage.class, message -> calls.add("class"));
+    instance.addListener(FafServerMessage.class, message -> calls.add("superclass"));
+    instance.addListener(ServerMessage.class, message -> calls.add("interface"));
+    instance.addListener(NoticeMessage.class, message -> calls.add("other"));
+
+    instance.dispatch(new GameInfoMessage());
+
+    assertThat(calls, contains("class", "superclass", "interface"));
+  }
+
+  @Test
+  public void testResolvedListenersAreCached() throws Exception {
+    instance.addListener(GameInfoMessage.class, message -> calls.add("class"));
+
+    assertThat(instance.getListeners(GameInfoMessage.class), sameInstance(instance.getListeners(GameInfoMessage.class)));
+  }
+
+  @Test
+  public void testAddListenerInvalidatesCache() throws Exception {
+    instance.addListener(GameInfoMessage.class, message -> calls.add("first"));
+    instance.dispatch(new GameInfoMessage());
+
+    instance.addListener(FafServerMessage.class, message -> calls.add("second"));
+    instance.dispatch(new GameInfoMessage());
+
+    assertThat(calls, contains("first", "first", "second"));
+  }
+
+  @Test
+  public void testRemoveListener() throws Exception {
+    Consumer<GameInfoMessage> listener = message -> calls.add("removed");
+    instance.addListener(GameInfoMessage.class, listener);
+    instance.dispatch(new GameInfoMessage());
+
+    instance.removeListener(GameInfoMessage.class, listener);
+    instance.dispatch(new GameInfoMessage());
+
+    assertThat(calls, contains("removed"));
+    assertThat(instance.getListeners(GameInfoMessage.class), arrayWithSize(0));
+  }
+
+  @Test
+  public void testRemoveUnknownListener() throws Exception {
+    instance.removeListener(GameInfoMessage.class, message -> calls.add("unknown"));
+
+    instance.dispatch(new GameInfoMessage());
+
+    assertThat(calls, empty());
+  }
+}
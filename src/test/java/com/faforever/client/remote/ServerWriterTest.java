@@ -0,0 +1,134 @@
+package com.faforever.client.remote;
+
+import com.faforever.client.remote.domain.ClientMessage;
+import com.faforever.client.remote.domain.InitSessionMessage;
+import com.faforever.client.remote.domain.SerializableMessage;
+import com.faforever.client.remote.metrics.LobbyMetrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.serializer.Serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class ServerWriterTest {
+
+  private static final long TIMEOUT = 5000;
+
+  private ServerWriter instance;
+  private FlushRecordingOutputStream outputStream;
+
+  @Before
+  public void setUp() throws Exception {
+    outputStream = new FlushRecordingOutputStream();
+    instance = new ServerWriter(outputStream);
+    instance.registerMessageSerializer((Serializer<SerializableMessage>) (message, out) -> out.write(message.getClass().getSimpleName().getBytes(StandardCharsets.US_ASCII)), ClientMessage.class);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    instance.close();
+  }
+
+  @Test
+  public void testWritePrependsFrameSize() throws Exception {
+    instance.write(new InitSessionMessage(null));
+
+    assertTrue(outputStream.flushLatch.await(TIMEOUT, TimeUnit.MILLISECONDS));
+
+    DataInputStream dataInputStream = new DataInputStream(new ByteArrayInputStream(outputStream.toByteArray()));
+    assertThat(dataInputStream.readInt(), is("InitSessionMessage".length()));
+    byte[] payload = new byte["InitSessionMessage".length()];
+    dataInputStream.readFully(payload);
+    assertThat(new String(payload, StandardCharsets.US_ASCII), is("InitSessionMessage"));
+    assertThat(instance.getQueueDepth(), is(0));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testWriteWithoutSerializer() throws Exception {
+    ServerWriter serverWriter = new ServerWriter(new ByteArrayOutputStream());
+    try {
+      serverWriter.write(new InitSessionMessage(null));
+    } finally {
+      serverWriter.close();
+    }
+  }
+
+  @Test
+  public void testWriteAfterCloseIsDiscarded() throws Exception {
+    instance.close();
+    instance.write(new InitSessionMessage(null));
+
+    assertThat(instance.getQueueDepth(), is(0));
+  }
+
+  @Test
+  public void testWriteFailureNotifiesHandlerAndDiscardsMessages() throws Exception {
+    CompletableFuture<IOException> failure = new CompletableFuture<>();
+    ServerWriter serverWriter = new ServerWriter(new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        throw new IOException("Broken pipe");
+      }
+    });
+    serverWriter.registerMessageSerializer((Serializer<SerializableMessage>) (message, out) -> out.write(1), ClientMessage.class);
+    serverWriter.setOnWriteFailed(failure::complete);
+
+    try {
+      serverWriter.write(new InitSessionMessage(null));
+
+      assertThat(failure.get(TIMEOUT, TimeUnit.MILLISECONDS).getMessage(), is("Broken pipe"));
+      serverWriter.write(new InitSessionMessage(null));
+      assertThat(serverWriter.getQueueDepth(), is(0));
+    } finally {
+      serverWriter.close();
+    }
+  }
+
+  @Test
+  public void testFlushIsRecordedInLobbyMetrics() throws Exception {
+    LobbyMetrics lobbyMetrics = new LobbyMetrics();
+    lobbyMetrics.setEnabled(true);
+    instance.setLobbyMetrics(lobbyMetrics);
+    instance.registerMessageSerializer((Serializer<SerializableMessage>) (message, out) -> {
+      try {
+        Thread.sleep(5);
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    }, InitSessionMessage.class);
+
+    instance.write(new InitSessionMessage(null));
+    assertTrue(outputStream.flushLatch.await(TIMEOUT, TimeUnit.MILLISECONDS));
+
+    long deadline = System.currentTimeMillis() + TIMEOUT;
+    while (lobbyMetrics.getLastFlushLatency() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(lobbyMetrics.getLastFlushLatency() >= 5_000, is(true));
+    assertThat(lobbyMetrics.getMaxFlushLatency(), is(lobbyMetrics.getLastFlushLatency()));
+    assertThat(lobbyMetrics.getOutboundQueueDepth(), is(0));
+  }
+
+  private static class FlushRecordingOutputStream extends ByteArrayOutputStream {
+
+    private final CountDownLatch flushLatch = new CountDownLatch(1);
+
+    @Override
+    public void flush() {
+      flushLatch.countDown();
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package com.faforever.client.remote.gson;
+
+import com.faforever.client.fa.relay.GpgServerMessageType;
+import com.faforever.client.fa.relay.HostGameMessage;
+import com.faforever.client.remote.domain.FafServerMessageType;
+import com.faforever.client.remote.domain.GameInfoMessage;
+import com.faforever.client.remote.domain.GameState;
+import com.faforever.client.remote.domain.MessageTarget;
+import com.faforever.client.remote.domain.NoticeMessage;
+import com.faforever.client.remote.domain.ServerMessage;
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ServerMessageDecoderTest {
+
+  private ServerMessageDecoder instance;
+
+  @Before
+  public void setUp() throws Exception {
+    Gson gson = new GsonBuilder()
+        .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+        .registerTypeAdapter(GameState.class, GameStateTypeAdapter.INSTANCE)
+        .registerTypeAdapter(FafServerMessageType.class, ServerMessageTypeTypeAdapter.INSTANCE)
+        .registerTypeAdapter(GpgServerMessageType.class, GpgServerMessageTypeTypeAdapter.INSTANCE)
+        .registerTypeAdapter(MessageTarget.class, MessageTargetTypeAdapter.INSTANCE)
+        .registerTypeAdapter(ServerMessage.class, ServerMessageTypeAdapter.INSTANCE)
+        .create();
+
+    instance = new ServerMessageDecoder(gson);
+  }
+
+  @Test
+  public void testDecodeGameInfo() throws Exception {
+    ServerMessage serverMessage = instance.decode("{\"uid\": 1, \"teams\": {\"1\": [\"foo\", \"b}a\\\"r\"]}, " +
+        "\"command\": \"game_info\", \"title\": \"Test\", \"state\": \"open\"}");
+
+    assertThat(serverMessage, instanceOf(GameInfoMessage.class));
+    GameInfoMessage gameInfoMessage = (GameInfoMessage) serverMessage;
+    assertThat(gameInfoMessage.getUid(), is(1));
+    assertThat(gameInfoMessage.getTitle(), is("Test"));
+    assertThat(gameInfoMessage.getState(), is(GameState.OPEN));
+    assertThat(gameInfoMessage.getTeams().get("1").get(1), is("b}a\"r"));
+  }
+
+  @Test
+  public void testDecodeIsLenient() throws Exception {
+    ServerMessage serverMessage = instance.decode("{\"command\": \"game_info\", \"uid\": 1, \"title\": 'Test'}");
+
+    assertThat(serverMessage, instanceOf(GameInfoMessage.class));
+    assertThat(((GameInfoMessage) serverMessage).getTitle(), is("Test"));
+  }
+
+  @Test
+  public void testDecodeWithNullTarget() throws Exception {
+    ServerMessage serverMessage = instance.decode("{\"command\": \"notice\", \"target\": null, \"style\": \"info\", \"text\": \"foo\"}");
+
+    assertThat(serverMessage, instanceOf(NoticeMessage.class));
+    assertThat(((NoticeMessage) serverMessage).getText(), is("foo"));
+  }
+
+  @Test
+  public void testDecodeGpgMessage() throws Exception {
+    ServerMessage serverMessage = instance.decode("{\"command\": \"HostGame\", \"target\": \"game\", \"args\": [\"SCMP_001\"]}");
+
+    assertThat(serverMessage, instanceOf(HostGameMessage.class));
+    assertThat(((HostGameMessage) serverMessage).getMap(), is("SCMP_001"));
+  }
+
+  @Test
+  public void testDecodeUnknownCommandReturnsNull() throws Exception {
+    assertThat(instance.decode("{\"command\": \"foobar\"}"), nullValue());
+  }
+
+  @Test
+  public void testDecodeEscapedCommandFallsBack() throws Exception {
+    ServerMessage serverMessage = instance.decode("{\"command\": \"notic\\u0065\", \"text\": \"foo\"}");
+
+    assertThat(serverMessage, instanceOf(NoticeMessage.class));
+  }
+
+  @Test
+  public void testScanFindsTopLevelFieldsOnly() throws Exception {
+    ServerMessageDecoder.Discriminators discriminators = new ServerMessageDecoder.Discriminators();
+
+    boolean found = ServerMessageDecoder.scan("{\"games\": [{\"command\": \"inner\", \"target\": \"inner\"}], \"command\": \"game_info\"}", discriminators);
+
+    assertThat(found, is(true));
+    assertThat(discriminators.command, is("game_info"));
+    assertThat(discriminators.target, nullValue());
+  }
+
+  @Test
+  public void testScanWithoutCommand() throws Exception {
+    assertThat(ServerMessageDecoder.scan("{\"uid\": 1}", new ServerMessageDecoder.Discriminators()), is(false));
+  }
+}
@@ -0,0 +1,82 @@
+package com.faforever.client.remote.io;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class LobbyReplayServerTest {
+
+  private static final int TIMEOUT = 5000;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private LobbyReplayServer instance;
+  private Path captureFile;
+
+  @Before
+  public void setUp() throws Exception {
+    captureFile = temporaryFolder.getRoot().toPath().resolve("lobby.capture");
+    try (LobbyTrafficRecorder recorder = new LobbyTrafficRecorder(captureFile)) {
+      recorder.record(ByteBuffer.wrap(frame("PING")));
+      recorder.record(ByteBuffer.wrap(frame("{\"command\": \"welcome\", \"text\": \"f\u00f6\u00f6\"}")));
+    }
+    instance = new LobbyReplayServer(captureFile, 0);
+  }
+
+  private static byte[] frame(String message) throws IOException {
+    ByteArrayOutputStream qString = new ByteArrayOutputStream();
+    new QDataWriter(qString).append(message);
+
+    ByteArrayOutputStream frame = new ByteArrayOutputStream();
+    new QDataWriter(frame).appendWithSize(qString.toByteArray());
+    return frame.toByteArray();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    instance.close();
+  }
+
+  @Test
+  public void testReaderReadsRecordedFrames() throws Exception {
+    try (LobbyTrafficReader reader = new LobbyTrafficReader(captureFile)) {
+      LobbyTrafficReader.RecordedFrame first = reader.next();
+      LobbyTrafficReader.RecordedFrame second = reader.next();
+
+      assertThat(first.getBytes(), is(frame("PING")));
+      assertThat(second.getTimestampNanos() >= first.getTimestampNanos(), is(true));
+      assertThat(reader.next(), nullValue());
+    }
+  }
+
+  @Test
+  public void testReplay() throws Exception {
+    int port = instance.start(0);
+
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      socket.setSoTimeout(TIMEOUT);
+      QDataInputStream inputStream = new QDataInputStream(new DataInputStream(new BufferedInputStream(socket.getInputStream())));
+
+      inputStream.skipBlockSize();
+      assertThat(inputStream.readQString(), is("PING"));
+      inputStream.skipBlockSize();
+      assertThat(inputStream.readQString(), is("{\"command\": \"welcome\", \"text\": \"f\u00f6\u00f6\"}"));
+    }
+  }
+}
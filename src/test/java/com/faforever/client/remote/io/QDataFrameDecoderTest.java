@@ -0,0 +1,130 @@
+package com.faforever.client.remote.io;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class QDataFrameDecoderTest {
+
+  private QDataFrameDecoder instance;
+  private List<String> frames;
+
+  @Before
+  public void setUp() throws Exception {
+    instance = new QDataFrameDecoder(16);
+    frames = new ArrayList<>();
+  }
+
+  private void onFrame(ByteBuffer frame, String message) {
+    frames.add(message);
+  }
+
+  private static byte[] frame(String message) throws IOException {
+    ByteArrayOutputStream qString = new ByteArrayOutputStream();
+    new QDataWriter(qString).append(message);
+
+    ByteArrayOutputStream frame = new ByteArrayOutputStream();
+    new QDataWriter(frame).appendWithSize(qString.toByteArray());
+    return frame.toByteArray();
+  }
+
+  @Test
+  public void testDecodeSingleFrame() throws Exception {
+    instance.decode(ByteBuffer.wrap(frame("PING")), this::onFrame);
+
+    assertThat(frames, contains("PING"));
+  }
+
+  @Test
+  public void testDecodeMultipleFramesAtOnce() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    bytes.write(frame("{\"command\": \"welcome\"}"));
+    bytes.write(frame("PING"));
+
+    instance.decode(ByteBuffer.wrap(bytes.toByteArray()), this::onFrame);
+
+    assertThat(frames, contains("{\"command\": \"welcome\"}", "PING"));
+  }
+
+  @Test
+  public void testDecodePartialFrames() throws Exception {
+    byte[] bytes = frame("Hello w\u00f6rld, this is longer than the initial buffer");
+
+    for (byte b : bytes) {
+      instance.decode(ByteBuffer.wrap(new byte[]{b}), this::onFrame);
+    }
+
+    assertThat(frames, contains("Hello w\u00f6rld, this is longer than the initial buffer"));
+  }
+
+  @Test
+  public void testDecodeIncompleteFrame() throws Exception {
+    byte[] bytes = frame("PING");
+
+    instance.decode(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 1)), this::onFrame);
+
+    assertThat(frames, empty());
+  }
+
+  @Test
+  public void testDecodeNullString() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    new QDataWriter(bytes).appendWithSize(new byte[]{(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff});
+    bytes.write(frame("PING"));
+
+    instance.decode(ByteBuffer.wrap(bytes.toByteArray()), this::onFrame);
+
+    assertThat(frames, contains(null, "PING"));
+  }
+
+  @Test
+  public void testDecodePassesRawFrame() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    bytes.write(frame("first"));
+    bytes.write(frame("second"));
+    List<byte[]> rawFrames = new ArrayList<>();
+
+    instance.decode(ByteBuffer.wrap(bytes.toByteArray()), (frame, message) -> {
+      byte[] rawFrame = new byte[frame.remaining()];
+      frame.get(rawFrame);
+      rawFrames.add(rawFrame);
+    });
+
+    assertThat(rawFrames, contains(frame("first"), frame("second")));
+  }
+
+  @Test(expected = IOException.class)
+  public void testDecodeInvalidBlockSize() throws Exception {
+    instance.decode(ByteBuffer.wrap(new byte[]{(byte) 0xff, 0x00, 0x00, 0x00}), this::onFrame);
+  }
+
+  @Test
+  public void testReadFrom() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    bytes.write(frame("first"));
+    bytes.write(frame("second"));
+    ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray()));
+
+    int bytesRead;
+    do {
+      bytesRead = instance.readFrom(channel, this::onFrame);
+    } while (bytesRead != -1);
+
+    assertThat(frames, contains("first", "second"));
+    assertThat(frames.size(), is(2));
+  }
+}
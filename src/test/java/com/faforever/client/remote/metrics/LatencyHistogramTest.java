@@ -0,0 +1,71 @@
+package com.faforever.client.remote.metrics;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+public class LatencyHistogramTest {
+
+  private LatencyHistogram instance;
+
+  @Before
+  public void setUp() throws Exception {
+    instance = new LatencyHistogram();
+  }
+
+  @Test
+  public void testEmpty() throws Exception {
+    assertThat(instance.getCount(), is(0L));
+    assertThat(instance.getMean(), is(0L));
+    assertThat(instance.getValueAtPercentile(99), is(0L));
+  }
+
+  @Test
+  public void testSmallValuesAreExact() throws Exception {
+    for (int i = 1; i <= 10; i++) {
+      instance.record(i);
+    }
+
+    assertThat(instance.getValueAtPercentile(50), is(5L));
+    assertThat(instance.getValueAtPercentile(100), is(10L));
+    assertThat(instance.getMax(), is(10L));
+    assertThat(instance.getCount(), is(10L));
+  }
+
+  @Test
+  public void testLargeValuesWithinRelativeError() throws Exception {
+    for (int i = 1; i <= 1000; i++) {
+      instance.record(i * 1_000_000L);
+    }
+
+    long median = instance.getValueAtPercentile(50);
+    assertThat(median, allOf(greaterThanOrEqualTo(500_000_000L), lessThanOrEqualTo(500_000_000L + 500_000_000L / 16)));
+    assertThat(instance.getValueAtPercentile(100), is(1_000_000_000L));
+    assertThat(instance.getMean(), is(500_500_000L));
+  }
+
+  @Test
+  public void testBucketBoundaries() throws Exception {
+    for (long value : new long[]{0, 15, 16, 17, 31, 32, 1000, 123_456_789, Long.MAX_VALUE}) {
+      int index = LatencyHistogram.bucketIndex(value);
+      assertThat(LatencyHistogram.highestValueInBucket(index), greaterThanOrEqualTo(value));
+      if (index > 0) {
+        assertThat(LatencyHistogram.highestValueInBucket(index - 1), lessThanOrEqualTo(value - 1));
+      }
+    }
+  }
+
+  @Test
+  public void testReset() throws Exception {
+    instance.record(42);
+    instance.reset();
+
+    assertThat(instance.getCount(), is(0L));
+    assertThat(instance.getMax(), is(0L));
+  }
+}
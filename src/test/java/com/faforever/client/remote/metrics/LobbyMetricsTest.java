@@ -0,0 +1,72 @@
+package com.faforever.client.remote.metrics;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class LobbyMetricsTest {
+
+  private LobbyMetrics instance;
+
+  @Before
+  public void setUp() throws Exception {
+    instance = new LobbyMetrics();
+  }
+
+  @Test
+  public void testDisabledByDefault() throws Exception {
+    assertThat(instance.isEnabled(), is(false));
+  }
+
+  @Test
+  public void testRecord() throws Exception {
+    instance.record("player_info", 100, 2_000, 5_000);
+    instance.record("player_info", 300, 4_000, 7_000);
+    instance.record("game_info", 50, 1_000, 1_000);
+
+    List<MessageTypeStatistics> statistics = instance.getStatistics();
+
+    assertThat(statistics, hasSize(2));
+    assertThat(statistics.get(0).getMessageType(), is("game_info"));
+    MessageTypeStatistics playerInfo = statistics.get(1);
+    assertThat(playerInfo.getMessageType(), is("player_info"));
+    assertThat(playerInfo.getCount(), is(2L));
+    assertThat(playerInfo.getBytes(), is(400L));
+    assertThat(playerInfo.getDecodeMax(), is(4L));
+    assertThat(playerInfo.getDispatchMax(), is(7L));
+  }
+
+  @Test
+  public void testRecordFlush() throws Exception {
+    instance.recordFlush(5_000);
+    instance.recordFlush(2_000);
+
+    assertThat(instance.getLastFlushLatency(), is(2L));
+    assertThat(instance.getMaxFlushLatency(), is(5L));
+  }
+
+  @Test
+  public void testOutboundQueueDepth() throws Exception {
+    assertThat(instance.getOutboundQueueDepth(), is(0));
+
+    instance.setOutboundQueueDepthSource(() -> 3);
+
+    assertThat(instance.getOutboundQueueDepth(), is(3));
+  }
+
+  @Test
+  public void testReset() throws Exception {
+    instance.record("game_info", 50, 1_000, 1_000);
+    instance.recordFlush(5_000);
+    instance.reset();
+
+    assertThat(instance.getStatistics(), empty());
+    assertThat(instance.getMaxFlushLatency(), is(0L));
+  }
+}
@@ -0,0 +1,115 @@
+package com.faforever.client.replay;
+
+import com.google.common.base.Strings;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+public class ReplayFileReaderImplTest {
+
+  private static final String HEADER = "{\"uid\":1234,\"title\":\"Über Game\",\"mapname\":\"forbidden pass.v0001\",\"featured_mod\":\"faf\"}";
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+  @Rule
+  public TemporaryFolder replayDirectory = new TemporaryFolder();
+
+  private ReplayFileReaderImpl instance;
+
+  @Before
+  public void setUp() throws Exception {
+    instance = new ReplayFileReaderImpl();
+  }
+
+  @Test
+  public void testReadReplayInfo() throws Exception {
+    Path replayFile = replayDirectory.newFile("test.fafreplay").toPath();
+    Files.write(replayFile, (HEADER + "\n" + Strings.repeat("QUJD", 1024)).getBytes(UTF_8));
+
+    LocalReplayInfo replayInfo = instance.readReplayInfo(replayFile);
+
+    assertThat(replayInfo.getUid(), is(1234));
+    assertThat(replayInfo.getTitle(), is("Über Game"));
+    assertThat(replayInfo.getMapname(), is("forbidden pass.v0001"));
+    assertThat(replayInfo.getFeaturedMod(), is("faf"));
+  }
+
+  @Test
+  public void testReadReplayInfoWithoutReplayData() throws Exception {
+    Path replayFile = replayDirectory.newFile("test.fafreplay").toPath();
+    Files.write(replayFile, HEADER.getBytes(UTF_8));
+
+    assertThat(instance.readReplayInfo(replayFile).getUid(), is(1234));
+  }
+
+  @Test
+  public void testReadReplayInfoDoesNotReadReplayData() throws Exception {
+    CountingInputStream replayData = new CountingInputStream();
+    InputStream inputStream = new SequenceInputStream(new ByteArrayInputStream((HEADER + "\n").getBytes(UTF_8)), replayData);
+
+    LocalReplayInfo replayInfo = instance.readReplayInfo(inputStream);
+
+    assertThat(replayInfo.getUid(), is(1234));
+    assertThat(replayData.count, lessThan(8192L));
+  }
+
+  @Test
+  public void testReadReplayInfoTooLongHeaderThrowsException() throws Exception {
+    expectedException.expect(IOException.class);
+
+    String title = Strings.repeat("a", ReplayFileReaderImpl.MAX_HEADER_LENGTH);
+    instance.readReplayInfo(new ByteArrayInputStream(("{\"title\":\"" + title + "\"}\n").getBytes(UTF_8)));
+  }
+
+  @Test
+  public void testReadReplayInfoEmptyFileThrowsException() throws Exception {
+    expectedException.expect(IOException.class);
+
+    Path replayFile = replayDirectory.newFile("test.fafreplay").toPath();
+    instance.readReplayInfo(replayFile);
+  }
+
+  @Test
+  public void testReadReplayInfoInvalidHeaderThrowsException() throws Exception {
+    expectedException.expect(IOException.class);
+
+    instance.readReplayInfo(new ByteArrayInputStream("{\"uid\":\n".getBytes(UTF_8)));
+  }
+
+  /**
+   * An endless stream of base64 characters that counts how many bytes have been read from it.
+   */
+  private static class CountingInputStream extends InputStream {
+
+    private long count;
+
+    @Override
+    public int read() throws IOException {
+      count++;
+      return 'A';
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      for (int i = offset; i < offset + length; i++) {
+        buffer[i] = 'A';
+      }
+      count += length;
+      return length;
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package com.faforever.client.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class IntHashSetTest {
+
+  private IntHashSet instance;
+
+  @Before
+  public void setUp() throws Exception {
+    instance = new IntHashSet();
+  }
+
+  @Test
+  public void testAddContainsRemove() throws Exception {
+    assertThat(instance.add(1), is(true));
+    assertThat(instance.add(-5), is(true));
+    assertThat(instance.add(1), is(false));
+
+    assertThat(instance.contains(1), is(true));
+    assertThat(instance.contains(-5), is(true));
+    assertThat(instance.contains(2), is(false));
+    assertThat(instance.size(), is(2));
+
+    assertThat(instance.remove(1), is(true));
+    assertThat(instance.remove(1), is(false));
+    assertThat(instance.contains(1), is(false));
+    assertThat(instance.size(), is(1));
+  }
+
+  @Test
+  public void testZero() throws Exception {
+    assertThat(instance.contains(0), is(false));
+    assertThat(instance.add(0), is(true));
+    assertThat(instance.contains(0), is(true));
+    assertThat(instance.size(), is(1));
+    assertThat(instance.toArray(), is(new int[]{0}));
+
+    assertThat(instance.remove(0), is(true));
+    assertThat(instance.isEmpty(), is(true));
+  }
+
+  @Test
+  public void testAddAllAndClear() throws Exception {
+    instance.addAll(Arrays.asList(3, 1, 2, 3));
+
+    int[] values = instance.toArray();
+    Arrays.sort(values);
+    assertThat(values, is(new int[]{1, 2, 3}));
+
+    instance.clear();
+
+    assertThat(instance.isEmpty(), is(true));
+    assertThat(instance.contains(3), is(false));
+  }
+
+  @Test
+  public void testBehavesLikeHashSet() throws Exception {
+    Set<Integer> expected = new HashSet<>();
+    Random random = new Random(0);
+
+    for (int i = 0; i < 100_000; i++) {
+      // A small value range makes sure that there are many collisions and removals within probe sequences
+      int value = random.nextInt(512) * (random.nextBoolean() ? 1 : 1024);
+      if (random.nextInt(3) == 0) {
+        assertThat(instance.remove(value), is(expected.remove(value)));
+      } else {
+        assertThat(instance.add(value), is(expected.add(value)));
+      }
+    }
+
+    assertThat(instance.size(), is(expected.size()));
+    expected.forEach(value -> assertThat(instance.contains(value), is(true)));
+  }
+}
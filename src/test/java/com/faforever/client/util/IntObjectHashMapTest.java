@@ -0,0 +1,85 @@
+package com.faforever.client.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class IntObjectHashMapTest {
+
+  private IntObjectHashMap<String> instance;
+
+  @Before
+  public void setUp() throws Exception {
+    instance = new IntObjectHashMap<>();
+  }
+
+  @Test
+  public void testPutGetRemove() throws Exception {
+    assertThat(instance.put(1, "one"), nullValue());
+    assertThat(instance.put(-5, "minus five"), nullValue());
+    assertThat(instance.put(1, "uno"), is("one"));
+
+    assertThat(instance.get(1), is("uno"));
+    assertThat(instance.get(-5), is("minus five"));
+    assertThat(instance.get(2), nullValue());
+    assertThat(instance.size(), is(2));
+
+    assertThat(instance.remove(1), is("uno"));
+    assertThat(instance.remove(1), nullValue());
+    assertThat(instance.containsKey(1), is(false));
+    assertThat(instance.size(), is(1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPutNullValue() throws Exception {
+    instance.put(1, null);
+  }
+
+  @Test
+  public void testKeysAndValues() throws Exception {
+    instance.put(3, "three");
+    instance.put(7, "seven");
+
+    assertThat(Arrays.stream(instance.keys()).boxed().collect(Collectors.toList()), containsInAnyOrder(3, 7));
+    assertThat(instance.values(), containsInAnyOrder("three", "seven"));
+  }
+
+  @Test
+  public void testClear() throws Exception {
+    instance.put(3, "three");
+    instance.clear();
+
+    assertThat(instance.isEmpty(), is(true));
+    assertThat(instance.get(3), nullValue());
+  }
+
+  @Test
+  public void testBehavesLikeHashMap() throws Exception {
+    Map<Integer, String> expected = new HashMap<>();
+    Random random = new Random(0);
+
+    for (int i = 0; i < 100_000; i++) {
+      // A small key range makes sure that there are many collisions and removals within probe sequences
+      int key = random.nextInt(512) * (random.nextBoolean() ? 1 : 1024);
+      if (random.nextInt(3) == 0) {
+        assertThat(instance.remove(key), is(expected.remove(key)));
+      } else {
+        String value = String.valueOf(i);
+        assertThat(instance.put(key, value), is(expected.put(key, value)));
+      }
+    }
+
+    assertThat(instance.size(), is(expected.size()));
+    expected.forEach((key, value) -> assertThat(instance.get(key), is(value)));
+  }
+}